@@ -33,12 +33,17 @@ import java.nio.file.Files;
 import java.util.Enumeration;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.shootoff.camera.CameraDiscovery;
 import com.shootoff.camera.CameraFactory;
 import com.shootoff.camera.cameratypes.OptiTrackCamera;
 import com.shootoff.camera.cameratypes.PS3EyeCamera;
@@ -48,7 +53,9 @@ import com.shootoff.gui.controller.ShootOFFController;
 import com.shootoff.headless.HeadlessController;
 import com.shootoff.plugins.TextToSpeech;
 import com.shootoff.util.HardwareData;
+import com.shootoff.util.StartupGraph;
 import com.shootoff.util.SystemInfo;
+import com.shootoff.util.ThreadPools;
 import com.shootoff.util.VersionChecker;
 import com.sun.deploy.uitoolkit.impl.fx.HostServicesFactory;
 import com.sun.javafx.application.HostServicesDelegate;
@@ -98,6 +105,11 @@ public class Main extends Application {
 	private static final String VERSION_METADATA_NAME = "shootoff-version.xml";
 	private static Optional<String> version = Optional.empty();
 
+	private static final String STARTUP_REPORT_NAME = "startup-report.txt";
+	private static final StartupGraph startup = new StartupGraph();
+	private CompletableFuture<Void> cameraDrivers = CompletableFuture.completedFuture(null);
+	private CompletableFuture<Void> cameraDiscovery = CompletableFuture.completedFuture(null);
+
 	protected static class ResourcesInfo {
 		private final String version;
 		private final long fileSize;
@@ -490,6 +502,11 @@ public class Main extends Application {
 		return Optional.of(versionXML.toString());
 	}
 
+	/**
+	 * Fetch the current stable version of ShootOFF and tell the user if this
+	 * version is outdated. The version is fetched on the calling thread, thus
+	 * this method should not be called from the JavaFX application thread.
+	 */
 	public void checkVersion() {
 		final Optional<String> versionXML = getVersionXML(SHOOTOFF_DOMAIN + VERSION_METADATA_NAME);
 
@@ -506,28 +523,7 @@ public class Main extends Application {
 				else
 					link = SHOOTOFF_DOMAIN;
 
-				final Alert shootoffWelcome = new Alert(AlertType.INFORMATION);
-				shootoffWelcome.setTitle("ShootOFF Updated");
-				shootoffWelcome.setHeaderText("This version of ShootOFF is outdated!");
-				shootoffWelcome.setResizable(true);
-
-				final FlowPane fp = new FlowPane();
-				final Label lbl = new Label(
-						"The current stable release of ShootOFF is " + stableVersion.get() + ", but you are running "
-								+ version.get() + ". " + "You can download the current version of ShootOFF here:\n\n");
-
-				final Hyperlink lnk = new Hyperlink(link);
-
-				lnk.setOnAction((event) -> {
-					final HostServicesDelegate hostServices = HostServicesFactory.getInstance(this);
-					hostServices.showDocument(link);
-					lnk.setVisited(true);
-				});
-
-				fp.getChildren().addAll(lbl, lnk);
-
-				shootoffWelcome.getDialogPane().contentProperty().set(fp);
-				shootoffWelcome.showAndWait();
+				Platform.runLater(() -> showOutdatedMessage(stableVersion.get(), link));
 			} else if (stableVersion.isPresent() && stableVersion.get().compareTo(version.get()) < 0) {
 				logger.warn("Future version of ShootOFF? stableVersion = {}, this.version = {}", stableVersion.get(),
 						version.get());
@@ -537,10 +533,45 @@ public class Main extends Application {
 		}
 	}
 
+	private void showOutdatedMessage(String stableVersion, String link) {
+		final Alert shootoffWelcome = new Alert(AlertType.INFORMATION);
+		shootoffWelcome.setTitle("ShootOFF Updated");
+		shootoffWelcome.setHeaderText("This version of ShootOFF is outdated!");
+		shootoffWelcome.setResizable(true);
+
+		final FlowPane fp = new FlowPane();
+		final Label lbl = new Label("The current stable release of ShootOFF is " + stableVersion
+				+ ", but you are running " + version.get() + ". "
+				+ "You can download the current version of ShootOFF here:\n\n");
+
+		final Hyperlink lnk = new Hyperlink(link);
+
+		lnk.setOnAction((event) -> {
+			final HostServicesDelegate hostServices = HostServicesFactory.getInstance(this);
+			hostServices.showDocument(link);
+			lnk.setVisited(true);
+		});
+
+		fp.getChildren().addAll(lbl, lnk);
+
+		shootoffWelcome.getDialogPane().contentProperty().set(fp);
+		shootoffWelcome.showAndWait();
+	}
+
+	// A failed phase is already logged and in the startup report, everything
+	// that depends on it carries on without it
+	private static void awaitPhase(CompletableFuture<Void> phase) {
+		try {
+			phase.join();
+		} catch (final CompletionException | CancellationException e) {
+			logger.warn("Continuing startup after a failed startup phase", e);
+		}
+	}
+
 	public void runShootOFF() {
 		final String[] args = getParameters().getRaw().toArray(new String[getParameters().getRaw().size()]);
 		Configuration config;
-		try {
+		try (StartupGraph.PhaseTimer timer = startup.startPhase("configuration")) {
 			config = new Configuration(System.getProperty("shootoff.home") + File.separator + "shootoff.properties",
 					args);
 		} catch (IOException | ConfigurationException e) {
@@ -548,10 +579,16 @@ public class Main extends Application {
 			return;
 		}
 
-		if (version.isPresent() && !config.inDebugMode() && !isJWS) checkVersion();
+		if (version.isPresent() && !config.inDebugMode() && !isJWS)
+			startup.runAsync("version check", ThreadPools.io(), this::checkVersion);
 
-		// This initializes the TTS engine
-		TextToSpeech.say("");
+		// Start the TTS engine in the background, it takes seconds
+		final Optional<File> ttsCacheDirectory = config.persistTTSCache()
+				? Optional.of(new File(System.getProperty("shootoff.home") + File.separator + "tts"))
+				: Optional.empty();
+		TextToSpeech.configure(config.getTTSCacheSize() * 1024L * 1024L, ttsCacheDirectory,
+				config.getTTSDiskCacheSize() * 1024L * 1024L);
+		startup.track("text-to-speech", TextToSpeech.warmUp());
 
 		if (config.isFirstRun()) {
 			if (config.isHeadless()) {
@@ -576,14 +613,24 @@ public class Main extends Application {
 		}
 
 		if (config.isHeadless()) {
-			new HeadlessController();
+			try (StartupGraph.PhaseTimer timer = startup.startPhase("headless controller")) {
+				// The default camera may be one registered by a driver
+				awaitPhase(cameraDrivers);
+				new HeadlessController();
+			}
 		} else {
 			startGui(config);
 		}
+
+		startup.reportWhenComplete(
+				Optional.of(new File(System.getProperty("shootoff.home") + File.separator + STARTUP_REPORT_NAME)));
 	}
 
+	// Only what is needed to show the main window is done here, everything
+	// else is added to the startup graph by the controller and finishes after
+	// the window is shown
 	private void startGui(Configuration config) {
-		try {
+		try (StartupGraph.PhaseTimer timer = startup.startPhase("main window")) {
 			final FXMLLoader loader = new FXMLLoader(Main.class.getResource("/com/shootoff/gui/ShootOFF.fxml"));
 			loader.load();
 
@@ -595,12 +642,14 @@ public class Main extends Application {
 				primaryStage.setTitle("ShootOFF");
 			primaryStage.setScene(scene);
 			final ShootOFFController controller = (ShootOFFController) loader.getController();
-			controller.init(config);
+			controller.init(config, startup, cameraDiscovery);
 			primaryStage.show();
 		} catch (final IOException e) {
 			logger.error("Error loading ShootOFF FXML file", e);
 			return;
 		}
+
+		startup.mark("main window shown");
 	}
 
 	private void setHardwareMessage(Label hardwareMessageLabel, int cpuScore) {
@@ -694,14 +743,27 @@ public class Main extends Application {
 
 	@Override
 	public void start(Stage primaryStage) {
-		OptiTrackCamera.init();
+		// Loading camera drivers can take a while, do it while the
+		// configuration is read and the main window is built. On Mac
+		// webcam-capture may only be used from the main thread (see
+		// CameraFactory), thus cameras are loaded here before anything else.
+		final Executor cameraExecutor = SystemInfo.isMacOsX() ? Runnable::run : ThreadPools.io();
+
+		cameraDrivers = startup.runAsync("camera drivers", cameraExecutor, () -> {
+			OptiTrackCamera.init();
+			if (SystemInfo.isWindows()) PS3EyeCamera.init();
+		});
+		cameraDiscovery = startup.runAsync("camera discovery", cameraExecutor, CameraDiscovery::start,
+				cameraDrivers);
+		// Configured cameras are resolved against every known camera, which
+		// includes those registered by the camera drivers
+		CameraDiscovery.setStartupDiscovery(cameraDiscovery);
 
 		this.primaryStage = primaryStage;
 
-		if (SystemInfo.isMacOsX() && CameraFactory.getWebcams().isEmpty()) {
-			closeNoCamera();
-		} else if (SystemInfo.isWindows()) {
-			PS3EyeCamera.init();
+		if (SystemInfo.isMacOsX()) {
+			awaitPhase(cameraDiscovery);
+			if (CameraDiscovery.getCameras().isEmpty()) closeNoCamera();
 		}
 
 		if (System.getProperty("javawebstart.version", null) != null) {
@@ -788,7 +850,9 @@ public class Main extends Application {
 			}
 		}
 
-		nu.pattern.OpenCV.loadShared();
+		try (StartupGraph.PhaseTimer timer = startup.startPhase("OpenCV")) {
+			nu.pattern.OpenCV.loadShared();
+		}
 
 		// Read ShootOFF's version number
 		final Properties prop = new Properties();
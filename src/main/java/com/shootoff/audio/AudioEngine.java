@@ -0,0 +1,440 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.shootoff.audio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.shootoff.util.NamedThreadFactory;
+import com.shootoff.util.ThreadPools;
+
+/**
+ * Plays sounds through one long-lived output line. Sound files are decoded
+ * into PCM buffers that are kept in memory until the file changes, and a
+ * single mixer thread adds every playing sound into the line's output in small
+ * periods. Starting a sound is therefore only a matter of handing a buffer to the mixer, and its latency
+ * is bounded by the line's buffer rather than by opening files and lines.
+ * 
+ * The time between a request to play a sound and the sound leaving the output
+ * line is measured and can be read with {@link #getLatencyMetrics()}.
+ */
+public final class AudioEngine {
+	private static final Logger logger = LoggerFactory.getLogger(AudioEngine.class);
+
+	static final float SAMPLE_RATE = 44100f;
+	static final int CHANNELS = 2;
+	private static final int FRAME_SIZE = CHANNELS * Short.BYTES;
+	private static final AudioFormat OUTPUT_FORMAT = new AudioFormat(SAMPLE_RATE, 16, CHANNELS, true, false);
+
+	// A period is how much audio is mixed at once, the line buffers a few
+	// periods so the mixer thread can be late by a period without an underrun
+	private static final int PERIOD_FRAMES = 256;
+	private static final int LINE_BUFFER_PERIODS = 4;
+	private static final int MAX_VOICES = 16;
+
+	// How long sounds are skipped after the output line failed to open before
+	// opening it is tried again. Doubles with every failure in a row.
+	private static final long INITIAL_LINE_RETRY_MS = 1000;
+	private static final long MAXIMUM_LINE_RETRY_MS = 60 * 1000;
+
+	// Clips loaded under a name and clips decoded from files, which are
+	// decoded again if their file changes
+	private static final Map<String, SoundClip> clips = new ConcurrentHashMap<>();
+	private static final Map<String, FileClip> fileClips = new ConcurrentHashMap<>();
+	private static final Queue<Voice> pendingVoices = new ConcurrentLinkedQueue<>();
+	private static final Object mixerLock = new Object();
+
+	private static final AtomicLong playedCount = new AtomicLong(0);
+	private static final AtomicLong totalLatencyNanos = new AtomicLong(0);
+	private static final AtomicLong maxLatencyNanos = new AtomicLong(0);
+
+	private static Thread mixerThread;
+	private static volatile boolean running = false;
+	private static volatile boolean lineUnavailable = false;
+	private static volatile long lineRetryNanos = 0;
+	private static int lineFailures = 0;
+
+	private AudioEngine() {}
+
+	private static class FileClip {
+		private final SoundClip clip;
+		private final long lastModified;
+
+		public FileClip(SoundClip clip, long lastModified) {
+			this.clip = clip;
+			this.lastModified = lastModified;
+		}
+	}
+
+	private static class Voice {
+		private final SoundClip clip;
+		private final Optional<Runnable> onFinished;
+		private final long requestedNanos;
+		private int position = 0;
+
+		public Voice(SoundClip clip, Optional<Runnable> onFinished, long requestedNanos) {
+			this.clip = clip;
+			this.onFinished = onFinished;
+			this.requestedNanos = requestedNanos;
+		}
+	}
+
+	/**
+	 * Decode sound files ahead of time so that the first time they are played
+	 * is as fast as every other time. Files are decoded on the I/O pool.
+	 */
+	public static void preload(List<File> soundFiles) {
+		for (final File soundFile : soundFiles) {
+			ThreadPools.io().execute(() -> getClip(soundFile));
+		}
+	}
+
+	/**
+	 * Play a sound file. Decoded files are cached, thus playing the same file
+	 * again only checks whether the file changed.
+	 * 
+	 * @param onFinished
+	 *            called on a pool thread once the sound finished playing or
+	 *            could not be played
+	 */
+	public static void play(File soundFile, Optional<Runnable> onFinished) {
+		final long requestedNanos = System.nanoTime();
+		final FileClip fileClip = fileClips.get(getKey(soundFile));
+
+		if (fileClip != null && fileClip.lastModified == soundFile.lastModified()) {
+			enqueue(new Voice(fileClip.clip, onFinished, requestedNanos));
+			return;
+		}
+
+		// Don't make the caller wait for the file to be decoded
+		ThreadPools.audio().execute(() -> {
+			final Optional<SoundClip> loadedClip = getClip(soundFile);
+
+			if (loadedClip.isPresent()) {
+				enqueue(new Voice(loadedClip.get(), onFinished, requestedNanos));
+			} else {
+				finished(onFinished);
+			}
+		});
+	}
+
+	/**
+	 * Play a sound from a stream. Streamed sounds are not cached.
+	 */
+	public static void play(InputStream is, Optional<Runnable> onFinished) {
+		final long requestedNanos = System.nanoTime();
+
+		ThreadPools.audio().execute(() -> {
+			try (AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(is)) {
+				enqueue(new Voice(SoundClip.decode(audioInputStream), onFinished, requestedNanos));
+			} catch (UnsupportedAudioFileException | IOException e) {
+				logger.error("Error reading sound stream to play", e);
+				finished(onFinished);
+			}
+		});
+	}
+
+	/**
+	 * Decode a sound and keep it in memory under a name so that it can be
+	 * played later with {@link #play(String, Optional)}. Used for sounds that
+	 * do not come from a file, such as synthesized speech. The stream is not
+	 * closed.
+	 * 
+	 * @return the number of bytes the decoded sound takes in memory
+	 */
+	public static long load(String key, AudioInputStream audio) throws IOException {
+		final SoundClip clip = SoundClip.decode(audio);
+		clips.put(key, clip);
+		return clip.getSizeInBytes();
+	}
+
+	/**
+	 * Play a sound that was previously loaded with
+	 * {@link #load(String, AudioInputStream)}.
+	 * 
+	 * @return <tt>true</tt> if the sound was loaded and is now playing,
+	 *         <tt>false</tt> if there is no sound with the given name
+	 */
+	public static boolean play(String key, Optional<Runnable> onFinished) {
+		final long requestedNanos = System.nanoTime();
+		final SoundClip clip = clips.get(key);
+
+		if (clip == null) return false;
+
+		enqueue(new Voice(clip, onFinished, requestedNanos));
+		return true;
+	}
+
+	public static boolean isLoaded(String key) {
+		return clips.containsKey(key);
+	}
+
+	public static void unload(String key) {
+		clips.remove(key);
+	}
+
+	/**
+	 * The time from requesting a sound to the sound reaching the speakers,
+	 * including the time the sound waits in the output line's buffer.
+	 */
+	public static class LatencyMetrics {
+		private final long playedCount;
+		private final long averageLatencyMs;
+		private final long maxLatencyMs;
+
+		private LatencyMetrics(long playedCount, long averageLatencyMs, long maxLatencyMs) {
+			this.playedCount = playedCount;
+			this.averageLatencyMs = averageLatencyMs;
+			this.maxLatencyMs = maxLatencyMs;
+		}
+
+		public long getPlayedCount() {
+			return playedCount;
+		}
+
+		public long getAverageLatencyMs() {
+			return averageLatencyMs;
+		}
+
+		public long getMaxLatencyMs() {
+			return maxLatencyMs;
+		}
+	}
+
+	public static LatencyMetrics getLatencyMetrics() {
+		final long count = playedCount.get();
+		final long average = count == 0 ? 0 : totalLatencyNanos.get() / count;
+
+		return new LatencyMetrics(count, TimeUnit.NANOSECONDS.toMillis(average),
+				TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get()));
+	}
+
+	public static long getCachedBytes() {
+		long bytes = 0;
+
+		for (final SoundClip clip : clips.values())
+			bytes += clip.getSizeInBytes();
+
+		for (final FileClip fileClip : fileClips.values())
+			bytes += fileClip.clip.getSizeInBytes();
+
+		return bytes;
+	}
+
+	public static void clearCache() {
+		clips.clear();
+		fileClips.clear();
+	}
+
+	public static void close() {
+		synchronized (mixerLock) {
+			running = false;
+			mixerLock.notifyAll();
+		}
+
+		if (logger.isDebugEnabled()) {
+			final LatencyMetrics metrics = getLatencyMetrics();
+			logger.debug("Played {} sounds with {} ms average and {} ms maximum latency", metrics.getPlayedCount(),
+					metrics.getAverageLatencyMs(), metrics.getMaxLatencyMs());
+		}
+	}
+
+	private static String getKey(File soundFile) {
+		return soundFile.getAbsolutePath();
+	}
+
+	private static Optional<SoundClip> getClip(File soundFile) {
+		final String key = getKey(soundFile);
+		final long lastModified = soundFile.lastModified();
+		final FileClip cachedClip = fileClips.get(key);
+
+		if (cachedClip != null && cachedClip.lastModified == lastModified) return Optional.of(cachedClip.clip);
+
+		try (AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(soundFile)) {
+			final SoundClip clip = SoundClip.decode(audioInputStream);
+			fileClips.put(key, new FileClip(clip, lastModified));
+
+			return Optional.of(clip);
+		} catch (UnsupportedAudioFileException | IOException e) {
+			// Don't keep playing the old sound of a file that is gone or broken
+			fileClips.remove(key);
+			logger.error(String.format("Error reading sound file to play: soundFile = %s", soundFile), e);
+			return Optional.empty();
+		}
+	}
+
+	private static void finished(Optional<Runnable> onFinished) {
+		if (onFinished.isPresent()) ThreadPools.audio().execute(onFinished.get());
+	}
+
+	private static void enqueue(Voice voice) {
+		if (lineUnavailable && System.nanoTime() - lineRetryNanos < 0) {
+			finished(voice.onFinished);
+			return;
+		}
+
+		pendingVoices.add(voice);
+
+		synchronized (mixerLock) {
+			if (!running) {
+				running = true;
+				mixerThread = new NamedThreadFactory("AudioMixer", true).newThread(AudioEngine::mix);
+				mixerThread.setPriority(Thread.MAX_PRIORITY);
+				mixerThread.start();
+			}
+
+			mixerLock.notifyAll();
+		}
+	}
+
+	private static void mix() {
+		final SourceDataLine line;
+
+		try {
+			line = AudioSystem.getSourceDataLine(OUTPUT_FORMAT);
+			line.open(OUTPUT_FORMAT, PERIOD_FRAMES * LINE_BUFFER_PERIODS * FRAME_SIZE);
+			line.start();
+
+			synchronized (mixerLock) {
+				lineFailures = 0;
+				lineUnavailable = false;
+			}
+		} catch (LineUnavailableException | IllegalArgumentException e) {
+			synchronized (mixerLock) {
+				lineFailures++;
+				final long retryMs = Math.min(MAXIMUM_LINE_RETRY_MS,
+						INITIAL_LINE_RETRY_MS << Math.min(lineFailures - 1, 16));
+
+				logger.error("Failed to open the audio output line, sounds will not be played for " + retryMs
+						+ " ms", e);
+
+				lineRetryNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryMs);
+				lineUnavailable = true;
+
+				// The next sound after the retry time starts a new mixer
+				running = false;
+			}
+
+			Voice voice;
+			while ((voice = pendingVoices.poll()) != null)
+				finished(voice.onFinished);
+
+			return;
+		}
+
+		final List<Voice> voices = new ArrayList<>();
+		final int[] mixBuffer = new int[PERIOD_FRAMES * CHANNELS];
+		final byte[] outputBuffer = new byte[PERIOD_FRAMES * FRAME_SIZE];
+
+		try {
+			while (running) {
+				Voice voice;
+				while ((voice = pendingVoices.poll()) != null)
+					voices.add(voice);
+
+				if (voices.isEmpty()) {
+					synchronized (mixerLock) {
+						while (running && pendingVoices.isEmpty())
+							mixerLock.wait();
+					}
+
+					continue;
+				}
+
+				// Drop the oldest sounds rather than let a burst of cues
+				// pile up
+				while (voices.size() > MAX_VOICES)
+					finished(voices.remove(0).onFinished);
+
+				final long bufferedNanos = TimeUnit.SECONDS.toNanos(1)
+						* ((line.getBufferSize() - line.available()) / FRAME_SIZE) / (long) SAMPLE_RATE;
+
+				mixPeriod(voices, mixBuffer, bufferedNanos);
+
+				for (int i = 0; i < mixBuffer.length; i++) {
+					final int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mixBuffer[i]));
+					outputBuffer[i * 2] = (byte) sample;
+					outputBuffer[i * 2 + 1] = (byte) (sample >> 8);
+				}
+
+				line.write(outputBuffer, 0, outputBuffer.length);
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			line.stop();
+			line.close();
+		}
+	}
+
+	private static void mixPeriod(List<Voice> voices, int[] mixBuffer, long bufferedNanos) {
+		Arrays.fill(mixBuffer, 0);
+
+		for (final Iterator<Voice> it = voices.iterator(); it.hasNext();) {
+			final Voice voice = it.next();
+			final short[] samples = voice.clip.getSamples();
+
+			if (voice.position == 0) recordLatency(System.nanoTime() - voice.requestedNanos + bufferedNanos);
+
+			final int count = Math.min(mixBuffer.length, samples.length - voice.position);
+			for (int i = 0; i < count; i++)
+				mixBuffer[i] += samples[voice.position + i];
+
+			voice.position += count;
+
+			if (voice.position >= samples.length) {
+				it.remove();
+				finished(voice.onFinished);
+			}
+		}
+	}
+
+	private static void recordLatency(long latencyNanos) {
+		playedCount.incrementAndGet();
+		totalLatencyNanos.addAndGet(latencyNanos);
+
+		long max;
+		do {
+			max = maxLatencyNanos.get();
+		} while (latencyNanos > max && !maxLatencyNanos.compareAndSet(max, latencyNanos));
+	}
+}
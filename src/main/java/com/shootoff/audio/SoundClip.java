@@ -0,0 +1,110 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.shootoff.audio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+/**
+ * A sound decoded into 16-bit stereo PCM at the audio engine's sample rate so
+ * that the mixer can add it to its output without any conversion.
+ */
+class SoundClip {
+	private final short[] samples;
+
+	private SoundClip(short[] samples) {
+		this.samples = samples;
+	}
+
+	/**
+	 * @return interleaved left and right samples
+	 */
+	public short[] getSamples() {
+		return samples;
+	}
+
+	public int getFrameCount() {
+		return samples.length / AudioEngine.CHANNELS;
+	}
+
+	public long getSizeInBytes() {
+		return (long) samples.length * Short.BYTES;
+	}
+
+	/**
+	 * Decode an audio stream and convert it to the engine's output format.
+	 * The stream is not closed.
+	 */
+	public static SoundClip decode(AudioInputStream source) throws IOException {
+		final AudioFormat sourceFormat = source.getFormat();
+		final int sourceChannels = sourceFormat.getChannels();
+		final AudioFormat pcmFormat = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, sourceFormat.getSampleRate(),
+				16, sourceChannels, sourceChannels * 2, sourceFormat.getSampleRate(), false);
+
+		final AudioInputStream pcmStream = pcmFormat.matches(sourceFormat) ? source
+				: AudioSystem.getAudioInputStream(pcmFormat, source);
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[16 * 1024];
+		int read;
+		while ((read = pcmStream.read(buffer)) != -1)
+			bytes.write(buffer, 0, read);
+
+		final ShortBuffer pcm = ByteBuffer.wrap(bytes.toByteArray()).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+		final short[] sourceSamples = new short[pcm.remaining()];
+		pcm.get(sourceSamples);
+
+		return new SoundClip(convert(sourceSamples, sourceChannels, sourceFormat.getSampleRate()));
+	}
+
+	// Mix down or duplicate channels to stereo and linearly resample to the
+	// engine's sample rate
+	static short[] convert(short[] sourceSamples, int sourceChannels, float sourceRate) {
+		final int sourceFrames = sourceSamples.length / sourceChannels;
+		final double step = sourceRate / AudioEngine.SAMPLE_RATE;
+		final int frames = (int) Math.floor(sourceFrames / step);
+		final short[] samples = new short[frames * AudioEngine.CHANNELS];
+
+		for (int frame = 0; frame < frames; frame++) {
+			final double position = frame * step;
+			final int index = (int) position;
+			final double fraction = position - index;
+			final int nextIndex = Math.min(index + 1, sourceFrames - 1);
+
+			for (int channel = 0; channel < AudioEngine.CHANNELS; channel++) {
+				final int sourceChannel = Math.min(channel, sourceChannels - 1);
+				final int current = sourceSamples[index * sourceChannels + sourceChannel];
+				final int next = sourceSamples[nextIndex * sourceChannels + sourceChannel];
+
+				samples[frame * AudioEngine.CHANNELS + channel] = (short) Math
+						.round(current + (next - current) * fraction);
+			}
+		}
+
+		return samples;
+	}
+}
@@ -0,0 +1,235 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.camera;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.sarxos.webcam.Webcam;
+import com.github.sarxos.webcam.WebcamDiscoveryEvent;
+import com.github.sarxos.webcam.WebcamDiscoveryListener;
+import com.shootoff.camera.cameratypes.Camera;
+import com.shootoff.util.ThreadPools;
+
+/**
+ * Keeps a cached list of the cameras attached to this machine so that callers
+ * do not have to enumerate every device through the camera drivers each time
+ * they need the list.
+ * 
+ * The list is refreshed in the background when webcam-capture reports that a
+ * camera was plugged in or removed. A refresh keeps the existing instance of
+ * every camera that is still present, thus cameras can be used as keys across
+ * refreshes. Listeners are told which cameras were added and removed.
+ */
+public final class CameraDiscovery {
+	private static final Logger logger = LoggerFactory.getLogger(CameraDiscovery.class);
+
+	private static final List<CameraDiscoveryListener> listeners = new CopyOnWriteArrayList<>();
+	private static final Object refreshLock = new Object();
+
+	private static volatile List<Camera> cameras = null;
+	private static volatile CompletableFuture<?> startupDiscovery = null;
+	private static CompletableFuture<List<Camera>> pendingRefresh = null;
+	private static boolean isWatching = false;
+
+	private static final WebcamDiscoveryListener hotplugListener = new WebcamDiscoveryListener() {
+		@Override
+		public void webcamFound(WebcamDiscoveryEvent event) {
+			if (logger.isDebugEnabled()) logger.debug("Camera plugged in: {}", event.getWebcam().getName());
+			refreshAsync();
+		}
+
+		@Override
+		public void webcamGone(WebcamDiscoveryEvent event) {
+			if (logger.isDebugEnabled()) logger.debug("Camera removed: {}", event.getWebcam().getName());
+			refreshAsync();
+		}
+	};
+
+	public interface CameraDiscoveryListener {
+		/**
+		 * Called on the refreshing thread, usually a pool thread, when a
+		 * refresh found a different set of cameras than the previous one.
+		 */
+		void camerasChanged(List<Camera> added, List<Camera> removed);
+	}
+
+	private CameraDiscovery() {}
+
+	/**
+	 * Discover cameras and start watching for cameras that are plugged in or
+	 * removed. Cameras that are not discovered by webcam-capture must be
+	 * registered with {@link CameraFactory#registerCamera(Camera)} before
+	 * this is called.
+	 */
+	public static void start() {
+		refresh();
+
+		// webcam-capture can only be used from the main thread on Mac, see
+		// CameraFactory
+		if (CameraFactory.isMac()) return;
+
+		synchronized (refreshLock) {
+			if (isWatching) return;
+
+			Webcam.addDiscoveryListener(hotplugListener);
+			isWatching = true;
+		}
+	}
+
+	public static void stop() {
+		synchronized (refreshLock) {
+			if (!isWatching) return;
+
+			Webcam.removeDiscoveryListener(hotplugListener);
+			isWatching = false;
+		}
+	}
+
+	/**
+	 * Set the future that will call {@link #start()} once the camera drivers
+	 * are loaded. Until it completes, {@link #getCameras()} waits for it
+	 * rather than discovering cameras without the driver cameras.
+	 */
+	public static void setStartupDiscovery(CompletableFuture<?> discovery) {
+		startupDiscovery = discovery;
+	}
+
+	/**
+	 * @return the cameras found by the last refresh. If cameras were never
+	 *         discovered, this waits for the startup discovery if there is one
+	 *         or discovers them on the calling thread.
+	 */
+	public static List<Camera> getCameras() {
+		final List<Camera> cachedCameras = cameras;
+
+		if (cachedCameras != null) return cachedCameras;
+
+		final CompletableFuture<?> discovery = startupDiscovery;
+		if (discovery != null) {
+			try {
+				discovery.join();
+			} catch (final CompletionException | CancellationException e) {
+				logger.error("Startup camera discovery failed", e);
+			}
+
+			final List<Camera> discoveredCameras = cameras;
+			if (discoveredCameras != null) return discoveredCameras;
+		}
+
+		return refresh();
+	}
+
+	/**
+	 * Discover cameras on the I/O pool. If a refresh is already running, the
+	 * running refresh is returned instead of starting another one.
+	 */
+	public static CompletableFuture<List<Camera>> refreshAsync() {
+		synchronized (refreshLock) {
+			if (pendingRefresh != null) return pendingRefresh;
+
+			final CompletableFuture<List<Camera>> refresh = CompletableFuture.supplyAsync(CameraDiscovery::refresh,
+					ThreadPools.io());
+			pendingRefresh = refresh;
+
+			refresh.whenComplete((result, error) -> {
+				synchronized (refreshLock) {
+					if (pendingRefresh == refresh) pendingRefresh = null;
+				}
+
+				if (error != null) logger.error("Error discovering cameras", error);
+			});
+
+			return refresh;
+		}
+	}
+
+	public static void addListener(CameraDiscoveryListener listener) {
+		listeners.add(listener);
+	}
+
+	public static void removeListener(CameraDiscoveryListener listener) {
+		listeners.remove(listener);
+	}
+
+	static final class Merge<T> {
+		final List<T> merged;
+		final List<T> added = new ArrayList<>();
+		final List<T> removed = new ArrayList<>();
+
+		private Merge(int size) {
+			merged = new ArrayList<>(size);
+		}
+	}
+
+	/**
+	 * Merge a newly discovered list into the previous one. The previous
+	 * instance is kept for every item that is in both lists, new items are
+	 * reported as added and missing items as removed.
+	 */
+	static <T> Merge<T> merge(List<T> previous, List<T> found) {
+		final Merge<T> merge = new Merge<>(found.size());
+
+		for (final T item : found) {
+			final int previousIndex = previous.indexOf(item);
+
+			if (previousIndex >= 0) {
+				merge.merged.add(previous.get(previousIndex));
+			} else {
+				merge.merged.add(item);
+				merge.added.add(item);
+			}
+		}
+
+		for (final T item : previous) {
+			if (!found.contains(item)) merge.removed.add(item);
+		}
+
+		return merge;
+	}
+
+	private static synchronized List<Camera> refresh() {
+		final long startTime = System.currentTimeMillis();
+		final List<Camera> foundCameras = CameraFactory.getWebcams();
+		final List<Camera> previousCameras = cameras;
+
+		final Merge<Camera> merge = merge(previousCameras == null ? Collections.emptyList() : previousCameras,
+				foundCameras);
+
+		cameras = Collections.unmodifiableList(merge.merged);
+
+		if (logger.isDebugEnabled()) logger.debug("Discovered {} cameras in {} ms", merge.merged.size(),
+				System.currentTimeMillis() - startTime);
+
+		if (previousCameras != null && (!merge.added.isEmpty() || !merge.removed.isEmpty())) {
+			for (final CameraDiscoveryListener listener : listeners)
+				listener.camerasChanged(merge.added, merge.removed);
+		}
+
+		return cameras;
+	}
+}
@@ -20,8 +20,10 @@ package com.shootoff.camera;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,8 +59,9 @@ public final class CameraFactory {
 	// This list contains cameras that are not discoverable by webcam-capture
 	// because they are non-UVC cameras with no webcam-capture driver (e.g.
 	// Omnitrack). Adding such cameras to this list ensures they are returned
-	// by CameraFactory.getWebcams().
-	private final static List<Camera> registeredCameras = new ArrayList<>();
+	// by CameraFactory.getWebcams(). Drivers register their cameras on a
+	// startup thread while other threads may be listing cameras.
+	private final static List<Camera> registeredCameras = new CopyOnWriteArrayList<>();
 
 	public static void registerCamera(Camera camera) {
 		registeredCameras.add(camera);
@@ -111,8 +114,9 @@ public final class CameraFactory {
 			defaultCam = cam == null ? null : new SarxosCaptureCamera(cam.getName());
 		}
 
-		if (defaultCam == null && !registeredCameras.isEmpty()) {
-			defaultCam = registeredCameras.get(0);
+		if (defaultCam == null) {
+			final Iterator<Camera> it = registeredCameras.iterator();
+			if (it.hasNext()) defaultCam = it.next();
 		}
 
 		return Optional.ofNullable(defaultCam);
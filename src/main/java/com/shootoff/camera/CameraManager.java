@@ -548,7 +548,7 @@ public class CameraManager implements ObservableCloseable, CameraEventListener,
 			consecutiveCameraErrors = 0;
 		}
 
-		BufferedImage currentImage = processFrame(currentFrame, shouldDedistort);
+		Mat currentMat = processFrame(currentFrame, shouldDedistort);
 
 		Bounds b;
 
@@ -561,10 +561,15 @@ public class CameraManager implements ObservableCloseable, CameraEventListener,
 		}
 
 		if (cropFeedToProjection && b != null) {
-			currentImage = currentImage.getSubimage((int) b.getMinX(), (int) b.getMinY(), (int) b.getWidth(),
-					(int) b.getHeight());
+			currentMat = currentMat.submat((int) b.getMinY(), (int) b.getMinY() + (int) b.getHeight(),
+					(int) b.getMinX(), (int) b.getMinX() + (int) b.getWidth());
 		}
 
+		// Only convert the frame when it is recorded, displaying the frame
+		// works directly from the Mat
+		BufferedImage currentImage = null;
+		if (recordingShots || recordingStream) currentImage = Camera.matToBufferedImage(currentMat);
+
 		if (recordingShots) {
 			rollingRecorder.recordFrame(currentImage);
 
@@ -597,19 +602,19 @@ public class CameraManager implements ObservableCloseable, CameraEventListener,
 
 		if (!config.isHeadless()) {
 			if (cropFeedToProjection && projectionBounds.isPresent()) {
-				cameraView.updateBackground(currentImage, projectionBounds);
+				cameraView.updateBackground(currentMat, projectionBounds);
 			} else {
-				cameraView.updateBackground(currentImage, Optional.empty());
+				cameraView.updateBackground(currentMat, Optional.empty());
 			}
 		}
 
 		return true;
 	}
 
-	protected BufferedImage processFrame(Frame currentFrame, boolean shouldDedistort) {
+	protected Mat processFrame(Frame currentFrame, boolean shouldDedistort) {
 		if (isAutoCalibrating.get()) {
 			acm.processFrame(currentFrame);
-			return currentFrame.getOriginalBufferedImage();
+			return currentFrame.getOriginalMat();
 		}
 
 		Mat submatFrameBGR = null;
@@ -668,7 +673,7 @@ public class CameraManager implements ObservableCloseable, CameraEventListener,
 
 		// currentFrame is showing the colored pixels for brightness and motion,
 		// hence why we need to return the converted version
-		return currentFrame.getOriginalBufferedImage();
+		return currentFrame.getOriginalMat();
 	}
 
 	private void checkIfMinimumFPS(double cameraFPS) {
@@ -4,6 +4,8 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.util.Optional;
 
+import org.opencv.core.Mat;
+
 import com.shootoff.Closeable;
 import com.shootoff.targets.Target;
 
@@ -50,4 +52,13 @@ public interface CameraView extends Closeable {
 	public void setCameraManager(CameraManager cameraManager);
 
 	public void updateBackground(BufferedImage frame, Optional<Bounds> projectionBounds);
+
+	/**
+	 * Show a camera frame. The frame is only read before this method returns,
+	 * thus the caller may reuse it as soon as this method returns.
+	 * 
+	 * @param frameBGR
+	 *            the frame in BGR pixel format
+	 */
+	public void updateBackground(Mat frameBGR, Optional<Bounds> projectionBounds);
 }
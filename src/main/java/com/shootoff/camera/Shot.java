@@ -54,7 +54,11 @@ public class Shot {
 
 	private final int frame;
 
-	private Ellipse marker;
+	private final int markerRadius;
+
+	// Only created for views that show shots as nodes, canvases draw shots
+	// straight from their coordinates
+	private Ellipse marker = null;
 	private Optional<Shot> mirroredShot = Optional.empty();
 
 	public Shot(ShotColor color, double x, double y, long timestamp, int frame, int markerRadius) {
@@ -63,8 +67,7 @@ public class Shot {
 		this.y = y;
 		this.timestamp = timestamp;
 		this.frame = frame;
-		marker = new Ellipse(x, y, markerRadius, markerRadius);
-		marker.setFill(colorMap.get(color));
+		this.markerRadius = markerRadius;
 	}
 
 	public Shot(ShotColor color, double x, double y, long timestamp, int markerRadius) {
@@ -72,8 +75,7 @@ public class Shot {
 		this.x = x;
 		this.y = y;
 		this.timestamp = timestamp;
-		marker = new Ellipse(x, y, markerRadius, markerRadius);
-		marker.setFill(colorMap.get(color));
+		this.markerRadius = markerRadius;
 		frame = 0;
 	}
 
@@ -109,7 +111,16 @@ public class Shot {
 		return frame;
 	}
 
+	public int getMarkerRadius() {
+		return markerRadius;
+	}
+
 	public Ellipse getMarker() {
+		if (marker == null) {
+			marker = new Ellipse(x, y, markerRadius, markerRadius);
+			marker.setFill(colorMap.get(color));
+		}
+
 		return marker;
 	}
 
@@ -124,10 +135,10 @@ public class Shot {
 			logger.trace("setTranslation {} {} - {} {} to {} {}", scaleX, scaleY, x, y, scaledX, scaledY);
 		}
 
-		marker = new Ellipse(scaledX, scaledY, marker.radiusXProperty().get(), marker.radiusYProperty().get());
-		marker.setFill(colorMap.get(color));
-
 		x = scaledX;
 		y = scaledY;
+
+		// The marker is recreated at the new position the next time it is used
+		marker = null;
 	}
 }
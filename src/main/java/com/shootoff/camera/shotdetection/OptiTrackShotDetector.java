@@ -19,8 +19,6 @@
 package com.shootoff.camera.shotdetection;
 
 import java.awt.Point;
-import java.util.Timer;
-import java.util.TimerTask;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +28,7 @@ import com.shootoff.camera.CameraView;
 import com.shootoff.camera.Shot.ShotColor;
 import com.shootoff.camera.cameratypes.Camera.CameraState;
 import com.shootoff.camera.cameratypes.OptiTrackCamera;
+import com.shootoff.util.TimerPool;
 
 public class OptiTrackShotDetector extends ShotYieldingShotDetector implements CameraStateListener {
 	private static final Logger logger = LoggerFactory.getLogger(OptiTrackShotDetector.class);
@@ -55,13 +54,8 @@ public class OptiTrackShotDetector extends ShotYieldingShotDetector implements C
 		if (logger.isDebugEnabled()) logger.debug("got state change {}", state);
 		switch (state) {
 		case DETECTING_CALIBRATED:
-			Timer timer = new Timer();
-			timer.schedule(new TimerTask() {
-			  @Override
-			  public void run() {
-			    if (cameraManager.isDetecting())
-			    	enableDetection();
-			  }
+			TimerPool.schedule(() -> {
+				if (cameraManager.isDetecting()) enableDetection();
 			}, 100);
 			break;
 		default:
@@ -29,7 +29,6 @@ import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.UnknownHostException;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -49,7 +48,7 @@ import org.apache.commons.cli.ParseException;
 import org.slf4j.LoggerFactory;
 
 import com.shootoff.Main;
-import com.shootoff.camera.CameraFactory;
+import com.shootoff.camera.CameraDiscovery;
 import com.shootoff.camera.CameraManager;
 import com.shootoff.camera.cameratypes.Camera;
 import com.shootoff.camera.cameratypes.IpCamera;
@@ -57,6 +56,7 @@ import com.shootoff.camera.processors.MalfunctionsProcessor;
 import com.shootoff.camera.processors.ShotProcessor;
 import com.shootoff.camera.processors.VirtualMagazineProcessor;
 import com.shootoff.gui.CalibrationOption;
+import com.shootoff.gui.ShotTimerModel;
 import com.shootoff.gui.controller.VideoPlayerController;
 import com.shootoff.plugins.TrainingExercise;
 import com.shootoff.plugins.engine.Plugin;
@@ -102,6 +102,11 @@ public class Configuration {
 	private static final String CALIBRATED_FEED_BEHAVIOR_PROP = "shootoff.arena.calibrated.behavior";
 	private static final String SHOW_ARENA_SHOT_MARKERS = "shootoff.arena.show.markers";
 	private static final String CALIBRATE_AUTO_ADJUST_EXPOSURE = "shootoff.arena.calibrated.exposure";
+	private static final String ARENA_MIRROR_FPS_PROP = "shootoff.arena.mirror.fps";
+	private static final String SHOT_TIMER_WINDOW_PROP = "shootoff.shottimer.window";
+	private static final String TTS_CACHE_SIZE_PROP = "shootoff.tts.cache.size";
+	private static final String TTS_CACHE_PERSIST_PROP = "shootoff.tts.cache.persist";
+	private static final String TTS_DISK_CACHE_SIZE_PROP = "shootoff.tts.cache.disk.size";
 
 	protected static final String MARKER_RADIUS_MESSAGE = "MARKER_RADIUS has an invalid value: %d. Acceptable values are "
 			+ "between 1 and 20.";
@@ -112,6 +117,14 @@ public class Configuration {
 			+ "between 1 and 45.";
 	protected static final String INJECT_MALFUNCTIONS_MESSAGE = "INJECT_MALFUNCTIONS has an invalid value: %f. Acceptable values are "
 			+ "between 0.1 and 99.9.";
+	protected static final String ARENA_MIRROR_FPS_MESSAGE = "ARENA_MIRROR_FPS has an invalid value: %d. Acceptable values are "
+			+ "between 0 and 60.";
+	protected static final String SHOT_TIMER_WINDOW_MESSAGE = "SHOT_TIMER_WINDOW has an invalid value: %d. Acceptable values are "
+			+ "between 10 and 100000.";
+	protected static final String TTS_CACHE_SIZE_MESSAGE = "TTS_CACHE_SIZE has an invalid value: %d. Acceptable values are "
+			+ "between 1 and 512.";
+	protected static final String TTS_DISK_CACHE_SIZE_MESSAGE = "TTS_DISK_CACHE_SIZE has an invalid value: %d. Acceptable values are "
+			+ "between 1 and 4096.";
 
 	private static final String DEFAULT_CONFIG_FILE = "shootoff.properties";
 
@@ -126,6 +139,11 @@ public class Configuration {
 	private final Map<String, URL> ipcams = new HashMap<>();
 	private final Map<String, String> ipcamCredentials = new HashMap<>();
 	private final Map<String, Camera> webcams = new HashMap<>();
+	// Webcams named in the configuration file are only matched to cameras
+	// once they are first needed because camera discovery is still running
+	// when the configuration is loaded
+	private final Map<String, String> unresolvedWebcams = new HashMap<>();
+	private final Set<String> unresolvedRecordingWebcams = new HashSet<>();
 	private int markerRadius = 4;
 	private boolean ignoreLaserColor = false;
 	private String ignoreLaserColorName = "None";
@@ -162,6 +180,11 @@ public class Configuration {
 	private CalibrationOption calibratedFeedBehavior = CalibrationOption.ONLY_IN_BOUNDS;
 	private boolean showArenaShotMarkers = false;
 	private boolean autoAdjustExposure = true;
+	private int arenaMirrorFPS = 0;
+	private int shotTimerWindow = ShotTimerModel.DEFAULT_WINDOW;
+	private int ttsCacheSize = 16;
+	private boolean persistTTSCache = true;
+	private int ttsDiskCacheSize = 64;
 
 	private static Configuration config = null;
 
@@ -274,36 +297,17 @@ public class Configuration {
 		}
 
 		if (prop.containsKey(WEBCAMS_PROP)) {
-			final List<String> webcamNames = new ArrayList<>();
-			final List<String> webcamInternalNames = new ArrayList<>();
-
 			for (final String nameString : prop.getProperty(WEBCAMS_PROP).split(",")) {
 				final String[] names = nameString.split(":");
-				if (names.length > 1) {
-					webcamNames.add(names[0]);
-					webcamInternalNames.add(names[1]);
-				}
-			}
-
-			for (final Camera webcam : CameraFactory.getWebcams()) {
-				final int cameraIndex = webcamInternalNames.indexOf(webcam.getName());
-				if (cameraIndex >= 0) webcams.put(webcamNames.get(cameraIndex), webcam);
-
+				if (names.length > 1) unresolvedWebcams.put(names[0], names[1]);
 			}
 		}
 
-		final Set<Camera> recordingCameras = new HashSet<>();
 		if (prop.containsKey(RECORDING_WEBCAMS_PROP)) {
 			for (final String nameString : prop.getProperty(RECORDING_WEBCAMS_PROP).split(",")) {
-				for (final Camera webcam : webcams.values()) {
-					if (webcam.getName().equals(nameString)) {
-						recordingCameras.add(webcam);
-						continue;
-					}
-				}
+				unresolvedRecordingWebcams.add(nameString);
 			}
 		}
-		setRecordingCameras(recordingCameras);
 
 		if (prop.containsKey(MARKER_RADIUS_PROP)) {
 			setMarkerRadius(Integer.parseInt(prop.getProperty(MARKER_RADIUS_PROP)));
@@ -382,6 +386,26 @@ public class Configuration {
 			setAutoAdjustExposure(Boolean.parseBoolean(CALIBRATE_AUTO_ADJUST_EXPOSURE));
 		}
 
+		if (prop.containsKey(ARENA_MIRROR_FPS_PROP)) {
+			setArenaMirrorFPS(Integer.parseInt(prop.getProperty(ARENA_MIRROR_FPS_PROP)));
+		}
+
+		if (prop.containsKey(SHOT_TIMER_WINDOW_PROP)) {
+			setShotTimerWindow(Integer.parseInt(prop.getProperty(SHOT_TIMER_WINDOW_PROP)));
+		}
+
+		if (prop.containsKey(TTS_CACHE_SIZE_PROP)) {
+			setTTSCacheSize(Integer.parseInt(prop.getProperty(TTS_CACHE_SIZE_PROP)));
+		}
+
+		if (prop.containsKey(TTS_CACHE_PERSIST_PROP)) {
+			setPersistTTSCache(Boolean.parseBoolean(prop.getProperty(TTS_CACHE_PERSIST_PROP)));
+		}
+
+		if (prop.containsKey(TTS_DISK_CACHE_SIZE_PROP)) {
+			setTTSDiskCacheSize(Integer.parseInt(prop.getProperty(TTS_DISK_CACHE_SIZE_PROP)));
+		}
+
 		validateConfiguration();
 	}
 
@@ -425,12 +449,22 @@ public class Configuration {
 			webcamList.append(":");
 			webcamList.append(entry.getValue().getName());
 		}
+		for (final Entry<String, String> entry : unresolvedWebcams.entrySet()) {
+			if (webcamList.length() > 0) webcamList.append(",");
+			webcamList.append(entry.getKey());
+			webcamList.append(":");
+			webcamList.append(entry.getValue());
+		}
 
 		final StringBuilder recordingWebcamList = new StringBuilder();
 		for (final Camera c : recordingCameras) {
 			if (recordingWebcamList.length() > 0) recordingWebcamList.append(",");
 			recordingWebcamList.append(c.getName());
 		}
+		for (final String name : unresolvedRecordingWebcams) {
+			if (recordingWebcamList.length() > 0) recordingWebcamList.append(",");
+			recordingWebcamList.append(name);
+		}
 
 		final StringBuilder mutedChimeMessages = new StringBuilder();
 		for (final String m : messagesChimeMuted) {
@@ -474,6 +508,11 @@ public class Configuration {
 		prop.setProperty(CALIBRATED_FEED_BEHAVIOR_PROP, calibratedFeedBehavior.name());
 		prop.setProperty(SHOW_ARENA_SHOT_MARKERS, String.valueOf(showArenaShotMarkers));
 		prop.setProperty(CALIBRATE_AUTO_ADJUST_EXPOSURE, String.valueOf(autoAdjustExposure));
+		prop.setProperty(ARENA_MIRROR_FPS_PROP, String.valueOf(arenaMirrorFPS));
+		prop.setProperty(SHOT_TIMER_WINDOW_PROP, String.valueOf(shotTimerWindow));
+		prop.setProperty(TTS_CACHE_SIZE_PROP, String.valueOf(ttsCacheSize));
+		prop.setProperty(TTS_CACHE_PERSIST_PROP, String.valueOf(persistTTSCache));
+		prop.setProperty(TTS_DISK_CACHE_SIZE_PROP, String.valueOf(ttsDiskCacheSize));
 
 		final OutputStream outputStream = new FileOutputStream(configName);
 
@@ -567,6 +606,22 @@ public class Configuration {
 		if (malfunctionsProbability < (float) 0.1 || malfunctionsProbability > (float) 99.9) {
 			throw new ConfigurationException(String.format(INJECT_MALFUNCTIONS_MESSAGE, malfunctionsProbability));
 		}
+
+		if (arenaMirrorFPS < 0 || arenaMirrorFPS > 60) {
+			throw new ConfigurationException(String.format(ARENA_MIRROR_FPS_MESSAGE, arenaMirrorFPS));
+		}
+
+		if (shotTimerWindow < 10 || shotTimerWindow > 100000) {
+			throw new ConfigurationException(String.format(SHOT_TIMER_WINDOW_MESSAGE, shotTimerWindow));
+		}
+
+		if (ttsCacheSize < 1 || ttsCacheSize > 512) {
+			throw new ConfigurationException(String.format(TTS_CACHE_SIZE_MESSAGE, ttsCacheSize));
+		}
+
+		if (ttsDiskCacheSize < 1 || ttsDiskCacheSize > 4096) {
+			throw new ConfigurationException(String.format(TTS_DISK_CACHE_SIZE_MESSAGE, ttsDiskCacheSize));
+		}
 	}
 
 	public int getDisplayWidth() {
@@ -667,6 +722,7 @@ public class Configuration {
 	}
 
 	public void setWebcams(List<String> webcamNames, List<Camera> configuredCameras) {
+		unresolvedWebcams.clear();
 		webcams.clear();
 
 		for (int i = 0; i < webcamNames.size(); i++) {
@@ -798,6 +854,7 @@ public class Configuration {
 	}
 
 	public void setRecordingCameras(Set<Camera> recordingCameras2) {
+		unresolvedRecordingWebcams.clear();
 		recordingCameras = recordingCameras2;
 	}
 
@@ -821,11 +878,52 @@ public class Configuration {
 		showArenaShotMarkers = showMarkers;
 	}
 
+	/**
+	 * Set how many times per second the arena tab copies the projector arena.
+	 * A value of 0 mirrors the arena by keeping a second copy of every target,
+	 * shot, and background in the arena tab instead.
+	 */
+	public void setArenaMirrorFPS(int fps) {
+		arenaMirrorFPS = fps;
+	}
+
+	/**
+	 * Set the maximum number of shots shown in the shot timer table. Older
+	 * shots are dropped from the table as new shots are added.
+	 */
+	public void setShotTimerWindow(int window) {
+		shotTimerWindow = window;
+	}
+
+	/**
+	 * Set the number of megabytes of synthesized speech to keep in memory.
+	 */
+	public void setTTSCacheSize(int megabytes) {
+		ttsCacheSize = megabytes;
+	}
+
+	/**
+	 * Set whether synthesized speech is saved to disk so that phrases do not
+	 * have to be synthesized again the next time ShootOFF starts.
+	 */
+	public void setPersistTTSCache(boolean persist) {
+		persistTTSCache = persist;
+	}
+
+	/**
+	 * Set the number of megabytes of synthesized speech to keep on disk when
+	 * it is persisted.
+	 */
+	public void setTTSDiskCacheSize(int megabytes) {
+		ttsDiskCacheSize = megabytes;
+	}
+
 	public void setAutoAdjustExposure(boolean autoAdjust) {
 		autoAdjustExposure = autoAdjust;
 	}
 
 	public Set<Camera> getRecordingCameras() {
+		resolveWebcams();
 		return recordingCameras;
 	}
 
@@ -867,11 +965,37 @@ public class Configuration {
 		return ipcams;
 	}
 
+	/**
+	 * Match the webcams named in the configuration file to discovered cameras.
+	 * This waits for the startup camera discovery, thus it must not run before
+	 * the camera discovery phase is done. Configured webcams that are not
+	 * attached are dropped.
+	 */
+	private void resolveWebcams() {
+		if (unresolvedWebcams.isEmpty() && unresolvedRecordingWebcams.isEmpty()) return;
+
+		for (final Camera webcam : CameraDiscovery.getCameras()) {
+			for (final Entry<String, String> entry : unresolvedWebcams.entrySet()) {
+				if (entry.getValue().equals(webcam.getName())) webcams.put(entry.getKey(), webcam);
+			}
+		}
+
+		for (final Camera webcam : webcams.values()) {
+			if (unresolvedRecordingWebcams.contains(webcam.getName())) recordingCameras.add(webcam);
+		}
+
+		unresolvedWebcams.clear();
+		unresolvedRecordingWebcams.clear();
+	}
+
 	public Map<String, Camera> getWebcams() {
+		resolveWebcams();
 		return webcams;
 	}
 
 	public Optional<String> getWebcamsUserName(Camera webcam) {
+		resolveWebcams();
+
 		for (final Entry<String, Camera> entry : webcams.entrySet()) {
 			if (entry.getValue().equals(webcam)) return Optional.of(entry.getKey());
 		}
@@ -995,6 +1119,26 @@ public class Configuration {
 		return showArenaShotMarkers;
 	}
 
+	public int getShotTimerWindow() {
+		return shotTimerWindow;
+	}
+
+	public int getTTSCacheSize() {
+		return ttsCacheSize;
+	}
+
+	public boolean persistTTSCache() {
+		return persistTTSCache;
+	}
+
+	public int getTTSDiskCacheSize() {
+		return ttsDiskCacheSize;
+	}
+
+	public int getArenaMirrorFPS() {
+		return arenaMirrorFPS;
+	}
+
 	public boolean autoAdjustExposure() {
 		return autoAdjustExposure;
 	}
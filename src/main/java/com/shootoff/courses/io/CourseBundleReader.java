@@ -0,0 +1,161 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.shootoff.courses.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.shootoff.courses.Course;
+import com.shootoff.gui.LocatedImage;
+import com.shootoff.gui.TargetView;
+import com.shootoff.gui.pane.ProjectorArenaPane;
+import com.shootoff.targets.Target;
+import com.shootoff.targets.io.PackedTargetIO;
+import com.shootoff.targets.io.TargetIO;
+import com.shootoff.targets.io.TargetIO.TargetComponents;
+import com.shootoff.targets.io.TargetTemplate;
+
+import javafx.geometry.Dimension2D;
+
+/**
+ * Reads a course bundle written by {@link CourseBundleWriter}. The bundle is
+ * read into memory in one go and parsed front to back, target images are
+ * copied straight from the buffer into new images. The bundle file is closed
+ * before parsing starts so that it can be replaced while the course is in use.
+ */
+public class CourseBundleReader {
+	private static final Logger logger = LoggerFactory.getLogger(CourseBundleReader.class);
+
+	static final int MAGIC = 0x534F4342; // SOCB
+	static final int VERSION = 2;
+
+	private final ProjectorArenaPane arenaPane;
+	private final File bundleFile;
+
+	public CourseBundleReader(ProjectorArenaPane arenaPane, File bundleFile) {
+		this.arenaPane = arenaPane;
+		this.bundleFile = bundleFile;
+	}
+
+	/**
+	 * @param requireCurrent
+	 *            whether the bundle should be ignored if any of the files it
+	 *            was built from have changed since it was built
+	 * @return the course, or Optional.empty if the bundle could not be read or
+	 *         is out of date
+	 */
+	public Optional<Course> load(boolean requireCurrent) {
+		final ByteBuffer in;
+		try {
+			in = ByteBuffer.wrap(Files.readAllBytes(bundleFile.toPath()));
+		} catch (final IOException e) {
+			logger.error("Failed to open course bundle {}", bundleFile.getPath(), e);
+			return Optional.empty();
+		}
+
+		try {
+			if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+				logger.info("{} is not a course bundle this version of ShootOFF can read", bundleFile.getPath());
+				return Optional.empty();
+			}
+
+			if (!checkSourceFiles(in) && requireCurrent) return Optional.empty();
+
+			Optional<Dimension2D> resolution = Optional.empty();
+			if (in.get() != 0) resolution = Optional.of(new Dimension2D(in.getDouble(), in.getDouble()));
+
+			Optional<LocatedImage> background = Optional.empty();
+			if (in.get() != 0) {
+				final String url = PackedTargetIO.readString(in);
+				final boolean isResource = in.get() != 0;
+				final byte[] backgroundBytes = new byte[PackedTargetIO.readLength(in, 1)];
+				in.get(backgroundBytes);
+
+				background = Optional.of(new LocatedImage(new ByteArrayInputStream(backgroundBytes), url, isResource));
+			}
+
+			// A template is at least its file name, tag count, and region count
+			final int templateCount = PackedTargetIO.readLength(in, 3 * Integer.BYTES);
+			final List<File> templateFiles = new ArrayList<>(templateCount);
+			final List<TargetTemplate> templates = new ArrayList<>(templateCount);
+			for (int t = 0; t < templateCount; t++) {
+				templateFiles.add(new File(PackedTargetIO.readString(in)));
+				templates.add(PackedTargetIO.readTemplate(in));
+			}
+
+			// A target is its template index, position, and dimensions
+			final int targetCount = PackedTargetIO.readLength(in, Integer.BYTES + 4 * Double.BYTES);
+			final List<Target> targets = new ArrayList<>(targetCount);
+			for (int t = 0; t < targetCount; t++) {
+				final int templateIndex = in.getInt();
+				final TargetComponents tc = TargetIO.createTarget(templates.get(templateIndex), true);
+
+				final TargetView target = new TargetView(templateFiles.get(templateIndex), tc.getTargetGroup(),
+						tc.getTargetTags(), arenaPane.getCanvasManager(), true);
+				target.setPosition(in.getDouble(), in.getDouble());
+				target.setDimensions(in.getDouble(), in.getDouble());
+
+				targets.add(target);
+			}
+
+			if (resolution.isPresent()) {
+				return Optional.of(new Course(background, targets, resolution.get()));
+			} else if (background.isPresent()) {
+				return Optional.of(new Course(background.get(), targets));
+			} else {
+				return Optional.of(new Course(targets));
+			}
+		} catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+			logger.error("Course bundle {} is corrupt", bundleFile.getPath(), e);
+			return Optional.empty();
+		}
+	}
+
+	// Stat every file the bundle was built from, this never reads the files
+	private boolean checkSourceFiles(ByteBuffer in) {
+		boolean current = true;
+
+		// A source is at least its name length, modification time, and length
+		final int sourceCount = PackedTargetIO.readLength(in, Integer.BYTES + 2 * Long.BYTES);
+		for (int s = 0; s < sourceCount; s++) {
+			final File sourceFile = new File(PackedTargetIO.readString(in));
+			final long lastModified = in.getLong();
+			final long length = in.getLong();
+
+			if (current && (sourceFile.lastModified() != lastModified || sourceFile.length() != length)) {
+				logger.info("Course bundle {} is out of date because {} changed", bundleFile.getPath(),
+						sourceFile.getPath());
+				current = false;
+			}
+		}
+
+		return current;
+	}
+}
@@ -0,0 +1,181 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.shootoff.courses.io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.shootoff.courses.io.XMLCourseReader.CourseXMLHandler;
+import com.shootoff.courses.io.XMLCourseReader.TargetPlacement;
+import com.shootoff.targets.io.PackedTargetIO;
+import com.shootoff.targets.io.TargetIO;
+import com.shootoff.targets.io.TargetTemplate;
+
+/**
+ * Packs a course file, every target it uses and their images into a single
+ * course bundle that can be read back by {@link CourseBundleReader} with one
+ * sequential read and no XML parsing or image decoding.
+ * 
+ * The bundle records the modification time and size of every file it was
+ * built from, thus a bundle is ignored as soon as any of those files change
+ * and must be rebuilt to be used again.
+ */
+public class CourseBundleWriter {
+	private final File courseFile;
+
+	public CourseBundleWriter(File courseFile) {
+		this.courseFile = courseFile;
+	}
+
+	/**
+	 * Write the bundle for the course next to the course file.
+	 * 
+	 * @return the bundle file that was written
+	 */
+	public File write() throws IOException {
+		final File bundleFile = CourseIO.getBundleFile(courseFile);
+		write(bundleFile);
+		return bundleFile;
+	}
+
+	public void write(File bundleFile) throws IOException {
+		final Optional<CourseXMLHandler> parsed = XMLCourseReader.parse(courseFile);
+
+		if (!parsed.isPresent()) throw new IOException("Failed to parse course " + courseFile.getPath());
+
+		final CourseXMLHandler course = parsed.get();
+
+		// Each target file is only stored once no matter how many times it
+		// is used by the course
+		final Map<File, TargetTemplate> templates = new LinkedHashMap<>();
+		for (final TargetPlacement placement : course.getPlacements()) {
+			if (templates.containsKey(placement.getTargetFile())) continue;
+
+			final Optional<TargetTemplate> template = TargetIO.getTemplate(placement.getTargetFile());
+
+			if (!template.isPresent())
+				throw new IOException("Failed to load target " + placement.getTargetFile().getPath());
+
+			templates.put(placement.getTargetFile(), template.get());
+		}
+
+		final List<File> sourceFiles = new ArrayList<>();
+		sourceFiles.add(courseFile);
+		for (final Map.Entry<File, TargetTemplate> template : templates.entrySet()) {
+			sourceFiles.add(template.getKey());
+			sourceFiles.addAll(PackedTargetIO.getImageFiles(template.getValue()));
+		}
+		if (course.getBackgroundURL().isPresent() && !course.isBackgroundResource()) {
+			final Optional<File> backgroundFile = CourseIO.getBackgroundFile(course.getBackgroundURL().get());
+			if (backgroundFile.isPresent()) sourceFiles.add(backgroundFile.get());
+		}
+
+		final File tempFile = new File(bundleFile.getPath() + ".tmp");
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+			out.writeInt(CourseBundleReader.MAGIC);
+			out.writeInt(CourseBundleReader.VERSION);
+
+			out.writeInt(sourceFiles.size());
+			for (final File sourceFile : sourceFiles) {
+				PackedTargetIO.writeString(sourceFile.getPath(), out);
+				out.writeLong(sourceFile.lastModified());
+				out.writeLong(sourceFile.length());
+			}
+
+			out.writeBoolean(course.getResolution().isPresent());
+			if (course.getResolution().isPresent()) {
+				out.writeDouble(course.getResolution().get().getWidth());
+				out.writeDouble(course.getResolution().get().getHeight());
+			}
+
+			out.writeBoolean(course.getBackgroundURL().isPresent());
+			if (course.getBackgroundURL().isPresent()) {
+				final String url = course.getBackgroundURL().get();
+				PackedTargetIO.writeString(url, out);
+				out.writeBoolean(course.isBackgroundResource());
+
+				// Backgrounds are stored as they are on disk because they are
+				// loaded as a LocatedImage, which can't be created from pixels
+				final byte[] background = readBackground(url, course.isBackgroundResource());
+				out.writeInt(background.length);
+				out.write(background);
+			}
+
+			final List<File> templateFiles = new ArrayList<>(templates.keySet());
+			out.writeInt(templateFiles.size());
+			for (final Map.Entry<File, TargetTemplate> template : templates.entrySet()) {
+				PackedTargetIO.writeString(template.getKey().getPath(), out);
+				PackedTargetIO.writeTemplate(template.getValue(), out);
+			}
+
+			out.writeInt(course.getPlacements().size());
+			for (final TargetPlacement placement : course.getPlacements()) {
+				out.writeInt(templateFiles.indexOf(placement.getTargetFile()));
+				out.writeDouble(placement.getX());
+				out.writeDouble(placement.getY());
+				out.writeDouble(placement.getWidth());
+				out.writeDouble(placement.getHeight());
+			}
+		} catch (final IOException e) {
+			if (!tempFile.delete()) tempFile.deleteOnExit();
+			throw e;
+		}
+
+		Files.move(tempFile.toPath(), bundleFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private byte[] readBackground(String url, boolean isResource) throws IOException {
+		final InputStream backgroundStream;
+
+		if (isResource) {
+			backgroundStream = CourseBundleWriter.class.getResourceAsStream(url);
+			if (backgroundStream == null) throw new IOException("Missing background resource " + url);
+		} else {
+			backgroundStream = new URL(url).openStream();
+		}
+
+		try (InputStream is = backgroundStream) {
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[8192];
+
+			int read;
+			while ((read = is.read(buffer)) != -1)
+				bytes.write(buffer, 0, read);
+
+			return bytes.toByteArray();
+		}
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.shootoff.courses.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javafx.embed.swing.JFXPanel;
+
+/**
+ * Builds a course bundle for every course file it is given so that those
+ * courses load without reading and parsing each of their files. Folders are
+ * searched for course files recursively. Bundles are written next to their
+ * course files and are used automatically by {@link CourseIO} until one of
+ * the files they were built from changes.
+ * 
+ * Run from the ShootOFF folder as
+ * <code>java -cp ShootOFF.jar com.shootoff.courses.io.CourseBundler
+ * [course files or folders]</code>
+ * 
+ * With no arguments every course in the courses folder is bundled.
+ */
+public class CourseBundler {
+	private static final Logger logger = LoggerFactory.getLogger(CourseBundler.class);
+
+	private static void findCourses(File file, List<File> courseFiles) {
+		if (file.isDirectory()) {
+			final File[] children = file.listFiles();
+			if (children == null) return;
+
+			for (final File child : children)
+				findCourses(child, courseFiles);
+		} else if (file.getName().endsWith(CourseIO.COURSE_EXTENSION)) {
+			courseFiles.add(file);
+		}
+	}
+
+	public static void main(String[] args) {
+		if (System.getProperty("shootoff.home") == null)
+			System.setProperty("shootoff.home", System.getProperty("user.dir"));
+
+		final List<File> courseFiles = new ArrayList<>();
+		if (args.length == 0) {
+			findCourses(new File(System.getProperty("shootoff.home"), "courses"), courseFiles);
+		} else {
+			for (final String arg : args)
+				findCourses(new File(arg), courseFiles);
+		}
+
+		// Images can't be decoded until the JavaFX toolkit is running
+		new JFXPanel();
+
+		boolean failed = false;
+		for (final File courseFile : courseFiles) {
+			final long startTime = System.currentTimeMillis();
+
+			try {
+				final File bundleFile = new CourseBundleWriter(courseFile).write();
+				logger.info("Bundled {} into {} ({} bytes) in {} ms", courseFile.getPath(), bundleFile.getPath(),
+						bundleFile.length(), System.currentTimeMillis() - startTime);
+			} catch (final IOException e) {
+				logger.error("Failed to bundle course {}", courseFile.getPath(), e);
+				failed = true;
+			}
+		}
+
+		System.exit(failed ? 1 : 0);
+	}
+}
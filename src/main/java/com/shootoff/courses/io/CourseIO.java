@@ -19,19 +19,36 @@
 package com.shootoff.courses.io;
 
 import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.shootoff.courses.Course;
+import com.shootoff.courses.io.XMLCourseReader.CourseXMLHandler;
+import com.shootoff.courses.io.XMLCourseReader.TargetPlacement;
 import com.shootoff.gui.LocatedImage;
 import com.shootoff.gui.pane.ProjectorArenaPane;
 import com.shootoff.targets.Target;
+import com.shootoff.targets.io.TargetIO;
+import com.shootoff.targets.io.TargetTemplate;
 
 public class CourseIO {
 	private static final Logger logger = LoggerFactory.getLogger(CourseIO.class);
 
+	public static final String COURSE_EXTENSION = ".course";
+	public static final String BUNDLE_EXTENSION = ".coursebundle";
+
 	public static void saveCourse(ProjectorArenaPane arenaPane, final File courseFile) {
 		CourseVisitor visitor;
 
@@ -60,11 +77,152 @@ public class CourseIO {
 	}
 
 	public static Optional<Course> loadCourse(ProjectorArenaPane arenaPane, final File courseFile) {
+		if (courseFile.getName().endsWith(BUNDLE_EXTENSION)) {
+			return new CourseBundleReader(arenaPane, courseFile).load(false);
+		}
+
 		if (!courseFile.getName().endsWith("course")) {
 			logger.error("Unknown course file type.");
 			return Optional.empty();
 		}
 
+		final Optional<Course> bundledCourse = loadBundle(arenaPane, courseFile);
+		if (bundledCourse.isPresent()) return bundledCourse;
+
 		return new XMLCourseReader(arenaPane, courseFile).load();
 	}
+
+	/**
+	 * Load a course without waiting for its targets, which are loaded in
+	 * parallel and reported to <code>listener</code> as they finish.
+	 */
+	public static CompletableFuture<Optional<Course>> loadCourse(ProjectorArenaPane arenaPane, final File courseFile,
+			CourseLoadListener listener) {
+		if (courseFile.getName().endsWith(BUNDLE_EXTENSION)) {
+			return notifyLoaded(new CourseBundleReader(arenaPane, courseFile).load(false), listener);
+		}
+
+		if (!courseFile.getName().endsWith("course")) {
+			logger.error("Unknown course file type.");
+			listener.courseLoaded(Optional.empty());
+			return CompletableFuture.completedFuture(Optional.empty());
+		}
+
+		// Bundles load quickly enough that there is nothing to gain from
+		// loading them in the background
+		final Optional<Course> bundledCourse = loadBundle(arenaPane, courseFile);
+		if (bundledCourse.isPresent()) return notifyLoaded(bundledCourse, listener);
+
+		return new XMLCourseReader(arenaPane, courseFile).load(Optional.of(listener));
+	}
+
+	/**
+	 * @return the file the bundle for a course is written to by
+	 *         {@link CourseBundleWriter}, which is next to the course file
+	 */
+	public static File getBundleFile(final File courseFile) {
+		final String courseName = courseFile.getName();
+		final String baseName = courseName.endsWith(COURSE_EXTENSION)
+				? courseName.substring(0, courseName.length() - COURSE_EXTENSION.length()) : courseName;
+
+		return new File(courseFile.getParentFile(), baseName + BUNDLE_EXTENSION);
+	}
+
+	/**
+	 * Read a course and decode its targets and background without creating
+	 * any nodes, e.g. to render a course off the JavaFX thread.
+	 */
+	public static Optional<CourseTemplate> getTemplate(final File courseFile) {
+		final Optional<CourseXMLHandler> parsed = XMLCourseReader.parse(courseFile);
+
+		if (!parsed.isPresent()) return Optional.empty();
+
+		final CourseXMLHandler course = parsed.get();
+
+		final Map<File, TargetTemplate> targetTemplates = new HashMap<>();
+		for (final TargetPlacement placement : course.getPlacements()) {
+			if (targetTemplates.containsKey(placement.getTargetFile())) continue;
+
+			final Optional<TargetTemplate> template = TargetIO.getTemplate(placement.getTargetFile());
+
+			if (template.isPresent()) {
+				targetTemplates.put(placement.getTargetFile(), template.get());
+			} else {
+				logger.error("Failed to load target {} of course {}", placement.getTargetFile().getPath(),
+						courseFile.getPath());
+			}
+		}
+
+		return Optional.of(new CourseTemplate(XMLCourseReader.loadBackground(course), course.getResolution(),
+				course.getPlacements(), targetTemplates));
+	}
+
+	/**
+	 * @return every file a course is loaded from: the course file, its target
+	 *         files, their images, and its background if it is a local file.
+	 *         Images are not decoded.
+	 */
+	public static List<File> getSourceFiles(final File courseFile) {
+		final List<File> sourceFiles = new ArrayList<>();
+		sourceFiles.add(courseFile);
+
+		final Optional<CourseXMLHandler> parsed = XMLCourseReader.parse(courseFile);
+
+		if (!parsed.isPresent()) return sourceFiles;
+
+		final Set<File> targetFiles = new LinkedHashSet<>();
+		for (final TargetPlacement placement : parsed.get().getPlacements())
+			targetFiles.add(placement.getTargetFile());
+
+		for (final File targetFile : targetFiles) {
+			sourceFiles.add(targetFile);
+			sourceFiles.addAll(TargetIO.getImageFiles(targetFile));
+		}
+
+		if (parsed.get().getBackgroundURL().isPresent() && !parsed.get().isBackgroundResource()) {
+			final Optional<File> backgroundFile = getBackgroundFile(parsed.get().getBackgroundURL().get());
+			if (backgroundFile.isPresent()) sourceFiles.add(backgroundFile.get());
+		}
+
+		return sourceFiles;
+	}
+
+	// Only backgrounds that are local files can be checked for changes
+	static Optional<File> getBackgroundFile(String url) {
+		try {
+			final URL backgroundURL = new URL(url);
+			if ("file".equals(backgroundURL.getProtocol())) return Optional.of(new File(backgroundURL.toURI()));
+		} catch (MalformedURLException | URISyntaxException | IllegalArgumentException e) {
+			return Optional.empty();
+		}
+
+		return Optional.empty();
+	}
+
+	// Use the course's bundle in place of the course file if it has one and
+	// nothing has changed since the bundle was built
+	private static Optional<Course> loadBundle(ProjectorArenaPane arenaPane, final File courseFile) {
+		final File bundleFile = getBundleFile(courseFile);
+
+		if (!bundleFile.isFile()) return Optional.empty();
+
+		return new CourseBundleReader(arenaPane, bundleFile).load(true);
+	}
+
+	private static CompletableFuture<Optional<Course>> notifyLoaded(Optional<Course> course,
+			CourseLoadListener listener) {
+		if (course.isPresent()) {
+			final List<Target> targets = course.get().getTargets();
+
+			listener.courseParsed(course.get().getResolution(), targets.size());
+			listener.backgroundLoaded(course.get().getBackground());
+
+			for (int i = 0; i < targets.size(); i++)
+				listener.targetLoaded(i, Optional.of(targets.get(i)), i + 1, targets.size());
+		}
+
+		listener.courseLoaded(course);
+
+		return CompletableFuture.completedFuture(course);
+	}
 }
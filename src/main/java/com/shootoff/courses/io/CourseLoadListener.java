@@ -0,0 +1,57 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.courses.io;
+
+import java.util.Optional;
+
+import com.shootoff.courses.Course;
+import com.shootoff.gui.LocatedImage;
+import com.shootoff.targets.Target;
+
+import javafx.geometry.Dimension2D;
+
+/**
+ * Receives progress while a course loads. Everything except
+ * {@link #courseParsed(Optional, int)} is called on the threads that load the
+ * course, not on the JavaFX thread.
+ */
+public interface CourseLoadListener {
+	/**
+	 * Called on the thread that started loading the course once its layout
+	 * is known and before any target is loaded.
+	 */
+	public void courseParsed(Optional<Dimension2D> resolution, int targetCount);
+
+	public void backgroundLoaded(Optional<LocatedImage> background);
+
+	/**
+	 * Called once per target in whatever order targets finish loading.
+	 * 
+	 * @param index
+	 *            the position of the target in the course file
+	 * @param target
+	 *            empty if the target could not be loaded
+	 * @param loadedCount
+	 *            the number of targets that have finished loading so far,
+	 *            including this one
+	 */
+	public void targetLoaded(int index, Optional<Target> target, int loadedCount, int targetCount);
+
+	public void courseLoaded(Optional<Course> course);
+}
@@ -0,0 +1,87 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.courses.io;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.shootoff.courses.io.XMLCourseReader.TargetPlacement;
+import com.shootoff.gui.LocatedImage;
+import com.shootoff.gui.TargetView;
+import com.shootoff.gui.pane.ProjectorArenaPane;
+import com.shootoff.targets.Target;
+import com.shootoff.targets.io.TargetIO;
+import com.shootoff.targets.io.TargetIO.TargetComponents;
+import com.shootoff.targets.io.TargetTemplate;
+
+import javafx.geometry.Dimension2D;
+
+/**
+ * A course that has been read and had its background and targets decoded but
+ * has no nodes yet. Templates can be read on any thread, their targets are
+ * created on the thread that shows them.
+ */
+public class CourseTemplate {
+	private final Optional<LocatedImage> background;
+	private final Optional<Dimension2D> resolution;
+	private final List<TargetPlacement> placements;
+	private final Map<File, TargetTemplate> targetTemplates;
+
+	CourseTemplate(Optional<LocatedImage> background, Optional<Dimension2D> resolution,
+			List<TargetPlacement> placements, Map<File, TargetTemplate> targetTemplates) {
+		this.background = background;
+		this.resolution = resolution;
+		this.placements = placements;
+		this.targetTemplates = targetTemplates;
+	}
+
+	public Optional<LocatedImage> getBackground() {
+		return background;
+	}
+
+	public Optional<Dimension2D> getResolution() {
+		return resolution;
+	}
+
+	/**
+	 * Create the course's targets in the order they appear in the course.
+	 * Targets that could not be read are left out.
+	 */
+	public List<Target> createTargets(ProjectorArenaPane arenaPane) {
+		final List<Target> targets = new ArrayList<>(placements.size());
+
+		for (final TargetPlacement placement : placements) {
+			final TargetTemplate template = targetTemplates.get(placement.getTargetFile());
+			if (template == null) continue;
+
+			final TargetComponents tc = TargetIO.createTarget(template, true);
+			final TargetView target = new TargetView(placement.getTargetFile(), tc.getTargetGroup(),
+					tc.getTargetTags(), arenaPane.getCanvasManager(), true);
+			target.setPosition(placement.getX(), placement.getY());
+			target.setDimensions(placement.getWidth(), placement.getHeight());
+
+			targets.add(target);
+		}
+
+		return targets;
+	}
+}
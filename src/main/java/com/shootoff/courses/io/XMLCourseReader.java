@@ -25,6 +25,8 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
@@ -43,24 +45,147 @@ import com.shootoff.gui.pane.ProjectorArenaPane;
 import com.shootoff.targets.Target;
 import com.shootoff.targets.io.TargetIO;
 import com.shootoff.targets.io.TargetIO.TargetComponents;
+import com.shootoff.util.ThreadPools;
 
 import javafx.application.Platform;
 import javafx.geometry.Dimension2D;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 
+/**
+ * Reads a course file. The course file itself is parsed on the calling
+ * thread, then every target and the background are loaded in parallel on the
+ * shared I/O pool so that large courses don't load one file after another.
+ */
 public class XMLCourseReader {
 	private static final Logger logger = LoggerFactory.getLogger(XMLCourseReader.class);
 
 	private final ProjectorArenaPane arenaPane;
 	private final File courseFile;
 
+	// Where a target goes in the course, read before the target is loaded
+	static class TargetPlacement {
+		private final File targetFile;
+		private final double x;
+		private final double y;
+		private final double width;
+		private final double height;
+
+		private TargetPlacement(File targetFile, double x, double y, double width, double height) {
+			this.targetFile = targetFile;
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+		}
+
+		public File getTargetFile() {
+			return targetFile;
+		}
+
+		public double getX() {
+			return x;
+		}
+
+		public double getY() {
+			return y;
+		}
+
+		public double getWidth() {
+			return width;
+		}
+
+		public double getHeight() {
+			return height;
+		}
+	}
+
 	public XMLCourseReader(ProjectorArenaPane arenaPane, File courseFile) {
 		this.arenaPane = arenaPane;
 		this.courseFile = courseFile;
 	}
 
+	/**
+	 * Load the course and wait for every target to be loaded.
+	 */
 	public Optional<Course> load() {
+		return load(Optional.empty()).join();
+	}
+
+	/**
+	 * Start loading the course without waiting for its targets.
+	 * 
+	 * @param listener
+	 *            notified as the background and each target finish loading
+	 * @return completes with the course once every target has been loaded,
+	 *         targets are in the order they appear in the course file
+	 */
+	public CompletableFuture<Optional<Course>> load(Optional<CourseLoadListener> listener) {
+		final Optional<CourseXMLHandler> parsed = parse(courseFile);
+
+		if (!parsed.isPresent()) {
+			if (listener.isPresent()) listener.get().courseLoaded(Optional.empty());
+			return CompletableFuture.completedFuture(Optional.empty());
+		}
+
+		final CourseXMLHandler handler = parsed.get();
+		final List<TargetPlacement> placements = handler.getPlacements();
+
+		if (listener.isPresent()) listener.get().courseParsed(handler.getResolution(), placements.size());
+
+		final CompletableFuture<Optional<LocatedImage>> background = CompletableFuture
+				.supplyAsync(() -> loadBackground(handler), ThreadPools.io());
+		background.thenAccept((bg) -> {
+			if (listener.isPresent()) listener.get().backgroundLoaded(bg);
+		});
+
+		final AtomicInteger loadedCount = new AtomicInteger(0);
+		final List<CompletableFuture<Optional<Target>>> targetFutures = new ArrayList<>(placements.size());
+
+		for (int i = 0; i < placements.size(); i++) {
+			final int index = i;
+			final TargetPlacement placement = placements.get(i);
+
+			final CompletableFuture<Optional<Target>> targetFuture = CompletableFuture
+					.supplyAsync(() -> loadTarget(placement), ThreadPools.io()).thenApply((target) -> {
+						final int loaded = loadedCount.incrementAndGet();
+						if (listener.isPresent())
+							listener.get().targetLoaded(index, target, loaded, placements.size());
+						return target;
+					});
+
+			targetFutures.add(targetFuture);
+		}
+
+		final CompletableFuture<Void> allTargets = CompletableFuture
+				.allOf(targetFutures.toArray(new CompletableFuture<?>[targetFutures.size()]));
+
+		return allTargets.thenCombine(background, (ignored, bg) -> {
+			final List<Target> targets = new ArrayList<>(targetFutures.size());
+
+			for (final CompletableFuture<Optional<Target>> targetFuture : targetFutures) {
+				final Optional<Target> target = targetFuture.join();
+				if (target.isPresent()) targets.add(target.get());
+			}
+
+			final Course c;
+
+			if (handler.getResolution().isPresent()) {
+				c = new Course(bg, targets, handler.getResolution().get());
+			} else if (bg.isPresent()) {
+				c = new Course(bg.get(), targets);
+			} else {
+				c = new Course(targets);
+			}
+
+			final Optional<Course> course = Optional.of(c);
+			if (listener.isPresent()) listener.get().courseLoaded(course);
+
+			return course;
+		});
+	}
+
+	static Optional<CourseXMLHandler> parse(File courseFile) {
 		InputStream xmlInput = null;
 		try {
 			xmlInput = new FileInputStream(courseFile);
@@ -68,17 +193,7 @@ public class XMLCourseReader {
 			final CourseXMLHandler handler = new CourseXMLHandler();
 			saxParser.parse(xmlInput, handler);
 
-			Course c;
-
-			if (handler.getResolution().isPresent()) {
-				c = new Course(handler.getBackground(), handler.getTargets(), handler.getResolution().get());
-			} else if (handler.getBackground().isPresent()) {
-				c = new Course(handler.getBackground().get(), handler.getTargets());
-			} else {
-				c = new Course(handler.getTargets());
-			}
-
-			return Optional.of(c);
+			return Optional.of(handler);
 		} catch (IOException | ParserConfigurationException | SAXException e) {
 			logger.error("Error reading XML course", e);
 		} finally {
@@ -94,17 +209,71 @@ public class XMLCourseReader {
 		return Optional.empty();
 	}
 
-	private class CourseXMLHandler extends DefaultHandler {
-		private Optional<LocatedImage> background = Optional.empty();
-		private final List<Target> targets = new ArrayList<>();
+	static Optional<LocatedImage> loadBackground(CourseXMLHandler handler) {
+		if (!handler.getBackgroundURL().isPresent()) return Optional.empty();
+
+		final String url = handler.getBackgroundURL().get();
+
+		if (handler.isBackgroundResource()) {
+			final InputStream is = XMLCourseReader.class.getResourceAsStream(url);
+			return Optional.of(new LocatedImage(is, url));
+		} else {
+			return Optional.of(new LocatedImage(url));
+		}
+	}
+
+	private Optional<Target> loadTarget(TargetPlacement placement) {
+		final Optional<TargetComponents> targetComponents = TargetIO.loadTarget(placement.targetFile);
+
+		if (!targetComponents.isPresent()) {
+			showTargetError(placement.targetFile.getPath());
+			return Optional.empty();
+		}
+
+		final TargetComponents tc = targetComponents.get();
+
+		final TargetView t = new TargetView(placement.targetFile, tc.getTargetGroup(), tc.getTargetTags(),
+				arenaPane.getCanvasManager(), true);
+
+		t.setPosition(placement.x, placement.y);
+		t.setDimensions(placement.width, placement.height);
+
+		return Optional.of(t);
+	}
+
+	private void showTargetError(String targetPath) {
+		Platform.runLater(() -> {
+			final Alert targetAlert = new Alert(AlertType.ERROR);
+
+			final String message = String.format(
+					"The course %s requires the target %s, but the "
+							+ "target file is missing. This target will not appear in your projector arena.",
+							courseFile.getName(), targetPath);
+
+			targetAlert.setTitle("Missing Target");
+			targetAlert.setHeaderText("Missing Required Target File");
+			targetAlert.setResizable(true);
+			targetAlert.setContentText(message);
+			targetAlert.show();
+		});
+	}
+
+	static class CourseXMLHandler extends DefaultHandler {
+		private Optional<String> backgroundURL = Optional.empty();
+		private boolean isBackgroundResource = false;
+		private final List<TargetPlacement> placements = new ArrayList<>();
 		private Optional<Dimension2D> resolution = Optional.empty();
 
-		public Optional<LocatedImage> getBackground() {
-			return background;
+		public Optional<String> getBackgroundURL() {
+			return backgroundURL;
+		}
+
+		public boolean isBackgroundResource() {
+			return isBackgroundResource;
 		}
 
-		public List<Target> getTargets() {
-			return targets;
+		public List<TargetPlacement> getPlacements() {
+			return placements;
 		}
 
 		public Optional<Dimension2D> getResolution() {
@@ -116,41 +285,16 @@ public class XMLCourseReader {
 				throws SAXException {
 			switch (qName) {
 			case "background": {
-				final boolean isResource = Boolean.parseBoolean(attributes.getValue("isResource"));
-
-				LocatedImage background;
-
-				if (isResource) {
-					final InputStream is = this.getClass().getResourceAsStream(attributes.getValue("url"));
-					background = new LocatedImage(is, attributes.getValue("url"));
-				} else {
-					background = new LocatedImage(attributes.getValue("url"));
-				}
-
-				this.background = Optional.of(background);
+				isBackgroundResource = Boolean.parseBoolean(attributes.getValue("isResource"));
+				backgroundURL = Optional.of(attributes.getValue("url"));
 			}
 			break;
 
 			case "target": {
-				final File targetFile = new File(attributes.getValue("file"));
-				final Optional<TargetComponents> targetComponents = TargetIO.loadTarget(targetFile);
-
-				if (targetComponents.isPresent()) {
-					final TargetComponents tc = targetComponents.get();
-
-					final TargetView t = new TargetView(targetFile, tc.getTargetGroup(), tc.getTargetTags(),
-							arenaPane.getCanvasManager(), true);
-
-					t.setPosition(Double.parseDouble(attributes.getValue("x")),
-							Double.parseDouble(attributes.getValue("y")));
-
-					t.setDimensions(Double.parseDouble(attributes.getValue("width")),
-							Double.parseDouble(attributes.getValue("height")));
-
-					targets.add(t);
-				} else {
-					showTargetError(targetFile.getPath());
-				}
+				placements.add(new TargetPlacement(new File(attributes.getValue("file")),
+						Double.parseDouble(attributes.getValue("x")), Double.parseDouble(attributes.getValue("y")),
+						Double.parseDouble(attributes.getValue("width")),
+						Double.parseDouble(attributes.getValue("height"))));
 			}
 			break;
 
@@ -161,22 +305,5 @@ public class XMLCourseReader {
 			break;
 			}
 		}
-
-		private void showTargetError(String targetPath) {
-			Platform.runLater(() -> {
-				final Alert targetAlert = new Alert(AlertType.ERROR);
-
-				final String message = String.format(
-						"The course %s requires the target %s, but the "
-								+ "target file is missing. This target will not appear in your projector arena.",
-								courseFile.getName(), targetPath);
-
-				targetAlert.setTitle("Missing Target");
-				targetAlert.setHeaderText("Missing Required Target File");
-				targetAlert.setResizable(true);
-				targetAlert.setContentText(message);
-				targetAlert.show();
-			});
-		}
 	}
 }
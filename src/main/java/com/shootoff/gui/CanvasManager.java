@@ -29,15 +29,15 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.opencv.core.Mat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,6 +50,7 @@ import com.shootoff.camera.processors.ShotProcessor;
 import com.shootoff.camera.processors.VirtualMagazineProcessor;
 import com.shootoff.camera.recorders.ShotRecorder;
 import com.shootoff.config.Configuration;
+import com.shootoff.gui.FeedRenderer.FeedFrame;
 import com.shootoff.gui.pane.ProjectorArenaPane;
 import com.shootoff.plugins.TrainingExercise;
 import com.shootoff.plugins.TrainingExerciseBase;
@@ -60,7 +61,10 @@ import com.shootoff.targets.Target;
 import com.shootoff.targets.TargetRegion;
 import com.shootoff.targets.io.TargetIO;
 import com.shootoff.targets.io.TargetIO.TargetComponents;
+import com.shootoff.util.TaskGroup;
+import com.shootoff.util.ThreadPools;
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.collections.ObservableList;
 import com.shootoff.util.SwingFXUtils;
@@ -69,6 +73,7 @@ import javafx.geometry.Bounds;
 import javafx.geometry.Pos;
 import javafx.scene.Group;
 import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.ContentDisplay;
@@ -88,42 +93,46 @@ public class CanvasManager implements CameraView {
 	protected CameraManager cameraManager;
 
 	private final VBox diagnosticsVBox = new VBox();
-	private static final int DIAGNOSTIC_POOL_SIZE = 10;
 	private static final int DIAGNOSTIC_CHIME_DELAY = 5000; // ms
-	private final ScheduledExecutorService diagnosticExecutorService = Executors
-			.newScheduledThreadPool(DIAGNOSTIC_POOL_SIZE);
-	private final Map<Label, ScheduledFuture<Void>> diagnosticFutures = new HashMap<>();
+	private final TaskGroup diagnosticTasks = ThreadPools.newTaskGroup("Diagnostics");
+	private final Map<Label, ScheduledFuture<?>> diagnosticFutures = new HashMap<>();
 	private final Image muteImage = new Image(CanvasManager.class.getResourceAsStream("/images/mute.png"));
 	private final Image soundImage = new Image(CanvasManager.class.getResourceAsStream("/images/sound.png"));
 
 	private final Resetter resetter;
 	private final String cameraName;
-	private final ObservableList<ShotEntry> shotEntries;
+	private final ShotTimerModel shotTimerModel;
 	private final ImageView background = new ImageView();
 	private final List<Shot> shots;
+	private final ShotLayer shotLayer = new ShotLayer();
 	private final List<Target> targets = new ArrayList<>();
+	private final TargetHitIndex hitIndex = new TargetHitIndex();
+	// Targets that aren't TargetViews can't publish their geometry to the hit
+	// index, thus every shot is tested against them
+	private final List<Target> unindexedTargets = new CopyOnWriteArrayList<>();
 
 	private ProgressIndicator progress;
 	private Optional<ContextMenu> contextMenu = Optional.empty();
 	private Optional<TargetView> selectedTarget = Optional.empty();
-	private boolean showShots = true;
 	private boolean hadMalfunction = false;
 	private boolean hadReload = false;
 
 	private static final int MAX_FEED_FPS = 15;
 	private static final int MINIMUM_FRAME_DELTA = 1000 / MAX_FEED_FPS; // ms
 	private long lastFrameTime = 0;
+	private final FeedRenderer feedRenderer = new FeedRenderer();
+	private final AtomicBoolean feedTimerStarted = new AtomicBoolean(false);
 
 	private Optional<ProjectorArenaPane> arenaPane = Optional.empty();
 	private Optional<Bounds> projectionBounds = Optional.empty();
 
 	public CanvasManager(Group canvasGroup, Resetter resetter, String cameraName,
-			ObservableList<ShotEntry> shotEntries) {
+			ShotTimerModel shotTimerModel) {
 		this.canvasGroup = canvasGroup;
 		config = Configuration.getConfig();
 		this.resetter = resetter;
 		this.cameraName = cameraName;
-		this.shotEntries = shotEntries;
+		this.shotTimerModel = shotTimerModel;
 		shots = Collections.synchronizedList(new ArrayList<Shot>());
 
 		background.setOnMouseClicked((event) -> {
@@ -177,7 +186,8 @@ public class CanvasManager implements CameraView {
 
 	@Override
 	public void close() {
-		diagnosticExecutorService.shutdownNow();
+		diagnosticTasks.shutdownNow();
+		if (feedTimerStarted.get()) Platform.runLater(feedTimer::stop);
 	}
 
 	@Override
@@ -232,9 +242,8 @@ public class CanvasManager implements CameraView {
 
 		Platform.runLater(() -> diagnosticsVBox.getChildren().add(diagnosticLabel));
 
-		if (chimeDelay > 0 && !config.isChimeMuted(message) && !diagnosticExecutorService.isShutdown()) {
-			@SuppressWarnings("unchecked")
-			final ScheduledFuture<Void> chimeFuture = (ScheduledFuture<Void>) diagnosticExecutorService.schedule(
+		if (chimeDelay > 0 && !config.isChimeMuted(message) && !diagnosticTasks.isShutdown()) {
+			final ScheduledFuture<?> chimeFuture = diagnosticTasks.schedule(
 					() -> TrainingExerciseBase.playSound("sounds/chime.wav"), chimeDelay, TimeUnit.MILLISECONDS);
 			diagnosticFutures.put(diagnosticLabel, chimeFuture);
 		}
@@ -276,7 +285,7 @@ public class CanvasManager implements CameraView {
 			cameraAlert.show();
 
 			shots.clear();
-			shotEntries.clear();
+			if (shotTimerModel != null) shotTimerModel.clear();
 		});
 	}
 
@@ -331,6 +340,49 @@ public class CanvasManager implements CameraView {
 		Platform.runLater(() -> background.setImage(img));
 	}
 
+	@Override
+	public void updateBackground(Mat frameBGR, Optional<Bounds> projectionBounds) {
+		updateCanvasGroup();
+
+		if (frameBGR == null) {
+			feedRenderer.discardLatestFrame();
+			if (feedTimerStarted.getAndSet(false)) Platform.runLater(feedTimer::stop);
+			updateBackground((BufferedImage) null, Optional.empty());
+			return;
+		}
+
+		if (System.currentTimeMillis() - lastFrameTime < MINIMUM_FRAME_DELTA)
+			return;
+		else
+			lastFrameTime = System.currentTimeMillis();
+
+		if (projectionBounds.isPresent()) {
+			final Bounds translatedBounds = translateCameraToCanvas(projectionBounds.get());
+			feedRenderer.render(frameBGR, translatedBounds.getMinX(), translatedBounds.getMinY(),
+					(int) translatedBounds.getWidth(), (int) translatedBounds.getHeight());
+		} else {
+			feedRenderer.render(frameBGR, 0, 0, config.getDisplayWidth(), config.getDisplayHeight());
+		}
+
+		if (!feedTimerStarted.getAndSet(true)) Platform.runLater(feedTimer::start);
+	}
+
+	// Show the newest camera frame once per pulse, frames rendered while the
+	// JavaFX thread is busy replace each other instead of queuing up
+	private final AnimationTimer feedTimer = new AnimationTimer() {
+		@Override
+		public void handle(long now) {
+			final Optional<FeedFrame> frame = feedRenderer.takeLatestFrame();
+
+			if (frame.isPresent()) {
+				background.setX(frame.get().getX());
+				background.setY(frame.get().getY());
+				background.setImage(frame.get().getImage());
+				feedRenderer.frameShown(frame.get());
+			}
+		}
+	};
+
 	public void updateBackground(Image img) {
 		updateCanvasGroup();
 		background.setX(0);
@@ -412,13 +464,11 @@ public class CanvasManager implements CameraView {
 	@Override
 	public void clearShots() {
 		final Runnable clearShotsAction = () -> {
-			for (final Shot shot : shots) {
-				canvasGroup.getChildren().remove(shot.getMarker());
-			}
+			shotLayer.clear();
 
 			shots.clear();
 			try {
-				if (shotEntries != null) shotEntries.clear();
+				if (shotTimerModel != null) shotTimerModel.clear();
 			} catch (final NullPointerException npe) {
 				logger.error("JDK 8094135 exception", npe);
 				jdk8094135Warning();
@@ -455,12 +505,15 @@ public class CanvasManager implements CameraView {
 	}
 
 	public void setShowShots(boolean showShots) {
-		if (this.showShots != showShots) {
-			for (final Shot shot : shots)
-				shot.getMarker().setVisible(showShots);
-		}
+		shotLayer.getCanvas().setVisible(showShots);
+	}
 
-		this.showShots = showShots;
+	/**
+	 * Highlight a shot on this view or restore it to its normal color. Must be
+	 * called on the JavaFX application thread.
+	 */
+	public void setShotSelected(Shot shot, boolean selected) {
+		shotLayer.setSelected(shot, selected);
 	}
 
 	private void notifyShot(Shot shot) {
@@ -559,10 +612,8 @@ public class CanvasManager implements CameraView {
 		// Create a shot entry to show the shot's data
 		// in the shot timer table if the shot timer
 		// table is in use
-		if (shotEntries != null) {
-			Optional<Shot> lastShot = Optional.empty();
-
-			if (shotEntries.size() > 0) lastShot = Optional.of(shotEntries.get(shotEntries.size() - 1).getShot());
+		if (shotTimerModel != null) {
+			final Optional<Shot> lastShot = shotTimerModel.getLastShot();
 
 			final ShotEntry shotEntry;
 			if (hadMalfunction || hadReload) {
@@ -573,12 +624,7 @@ public class CanvasManager implements CameraView {
 				shotEntry = new ShotEntry(shot, lastShot, config.getShotTimerRowColor(), false, false);
 			}
 
-			try {
-				shotEntries.add(shotEntry);
-			} catch (final NullPointerException npe) {
-				logger.error("JDK 8094135 exception", npe);
-				jdk8094135Warning();
-			}
+			shotTimerModel.add(shotEntry);
 		}
 
 		shots.add(shot);
@@ -650,8 +696,8 @@ public class CanvasManager implements CameraView {
 
 	private void drawShot(Shot shot) {
 		final Runnable drawShotAction = () -> {
-			canvasGroup.getChildren().add(shot.getMarker());
-			shot.getMarker().setVisible(showShots);
+			raiseShotLayer();
+			shotLayer.addShot(shot);
 		};
 
 		if (Platform.isFxApplicationThread()) {
@@ -661,41 +707,32 @@ public class CanvasManager implements CameraView {
 		}
 	}
 
-	protected Optional<Hit> checkHit(Shot shot, Optional<String> videoString, boolean isMirroredShot) {
-		// Targets are in order of when they were added, thus we must search in
-		// reverse to ensure shots register for the top target when targets
-		// overlap
-		for (final ListIterator<Target> li = targets.listIterator(targets.size()); li.hasPrevious();) {
-			final Target target = li.previous();
-
-			final Optional<Hit> hit = target.isHit(shot);
-
-			if (hit.isPresent()) {
-				final TargetRegion region = hit.get().getHitRegion();
+	// Keep shots above targets that were added after the shot layer
+	private void raiseShotLayer() {
+		final ObservableList<Node> children = canvasGroup.getChildren();
+		final Canvas shotCanvas = shotLayer.getCanvas();
 
-				if (config.inDebugMode()) {
-					final Map<String, String> tags = region.getAllTags();
+		if (children.isEmpty() || children.get(children.size() - 1) != shotCanvas) {
+			children.remove(shotCanvas);
+			children.add(shotCanvas);
+		}
+	}
 
-					final StringBuilder tagList = new StringBuilder();
-					for (final Iterator<Entry<String, String>> it = tags.entrySet().iterator(); it.hasNext();) {
-						final Entry<String, String> entry = it.next();
-						tagList.append(entry.getKey());
-						tagList.append(":");
-						tagList.append(entry.getValue());
-						if (it.hasNext()) tagList.append(", ");
-					}
+	protected Optional<Hit> checkHit(Shot shot, Optional<String> videoString, boolean isMirroredShot) {
+		// Only targets with a region under the shot are tested. Candidates are
+		// ordered from the most recently added target down to ensure shots
+		// register for the top target when targets overlap
+		for (final TargetHitIndex.Candidate candidate : hitIndex.query(shot.getX(), shot.getY())) {
+			final Optional<Hit> hit = candidate.getTarget().isHit(shot, candidate.getRegions());
 
-					logger.debug("Processing Shot: Found Hit Region For Shot ({}, {}), Type ({}), Tags ({})",
-							shot.getX(), shot.getY(), region.getType(), tagList.toString());
-				}
+			if (hit.isPresent()) return processHit(shot, candidate.getTarget(), hit.get(), videoString, isMirroredShot);
+		}
 
-				if (!isMirroredShot && config.getSessionRecorder().isPresent()) {
-					config.getSessionRecorder().get().recordShot(cameraName, shot, false, false, Optional.of(target),
-							Optional.of(target.getRegions().indexOf(region)), videoString);
-				}
+		// Most recently added first as well
+		for (final Target target : unindexedTargets) {
+			final Optional<Hit> hit = target.isHit(shot);
 
-				return hit;
-			}
+			if (hit.isPresent()) return processHit(shot, target, hit.get(), videoString, isMirroredShot);
 		}
 
 		logger.debug("Processing Shot: Did Not Find Hit For Shot ({}, {})", shot.getX(), shot.getY());
@@ -708,6 +745,34 @@ public class CanvasManager implements CameraView {
 		return Optional.empty();
 	}
 
+	private Optional<Hit> processHit(Shot shot, Target target, Hit hit, Optional<String> videoString,
+			boolean isMirroredShot) {
+		final TargetRegion region = hit.getHitRegion();
+
+		if (config.inDebugMode()) {
+			final Map<String, String> tags = region.getAllTags();
+
+			final StringBuilder tagList = new StringBuilder();
+			for (final Iterator<Entry<String, String>> it = tags.entrySet().iterator(); it.hasNext();) {
+				final Entry<String, String> entry = it.next();
+				tagList.append(entry.getKey());
+				tagList.append(":");
+				tagList.append(entry.getValue());
+				if (it.hasNext()) tagList.append(", ");
+			}
+
+			logger.debug("Processing Shot: Found Hit Region For Shot ({}, {}), Type ({}), Tags ({})",
+					shot.getX(), shot.getY(), region.getType(), tagList.toString());
+		}
+
+		if (!isMirroredShot && config.getSessionRecorder().isPresent()) {
+			config.getSessionRecorder().get().recordShot(cameraName, shot, false, false, Optional.of(target),
+					Optional.of(target.getRegions().indexOf(region)), videoString);
+		}
+
+		return Optional.of(hit);
+	}
+
 	private void executeRegionCommands(Hit hit) {
 		TargetView.parseCommandTag(hit.getHitRegion(), (commands, commandName, args) -> {
 			switch (commandName) {
@@ -820,7 +885,12 @@ public class CanvasManager implements CameraView {
 
 	@Override
 	public Target addTarget(Target newTarget) {
-		final Runnable addTargetAction = () -> canvasGroup.getChildren().add(((TargetView) newTarget).getTargetGroup());
+		final Runnable addTargetAction = () -> {
+			if (!(newTarget instanceof TargetView)) return;
+
+			canvasGroup.getChildren().add(((TargetView) newTarget).getTargetGroup());
+			if (canvasGroup.getChildren().contains(shotLayer.getCanvas())) raiseShotLayer();
+		};
 
 		if (Platform.isFxApplicationThread()) {
 			addTargetAction.run();
@@ -829,6 +899,11 @@ public class CanvasManager implements CameraView {
 		}
 
 		targets.add(newTarget);
+		if (newTarget instanceof TargetView) {
+			hitIndex.add((TargetView) newTarget);
+		} else {
+			unindexedTargets.add(0, newTarget);
+		}
 
 		// If this is a mirrored canvas, only alert exercises of target updates
 		// from the arena window, not the tab
@@ -842,9 +917,27 @@ public class CanvasManager implements CameraView {
 		return newTarget;
 	}
 
+	/**
+	 * Add several targets at once, e.g. the targets of a course. All of the
+	 * targets are added to the canvas in the same JavaFX pulse.
+	 */
+	public void addTargets(List<Target> newTargets) {
+		final Runnable addTargetsAction = () -> {
+			for (final Target t : newTargets)
+				addTarget(t);
+		};
+
+		if (Platform.isFxApplicationThread()) {
+			addTargetsAction.run();
+		} else {
+			Platform.runLater(addTargetsAction);
+		}
+	}
+
 	public void removeTarget(Target target) {
-		final Runnable removeTargetAction = () -> canvasGroup.getChildren()
-				.remove(((TargetView) target).getTargetGroup());
+		final Runnable removeTargetAction = () -> {
+			if (target instanceof TargetView) canvasGroup.getChildren().remove(((TargetView) target).getTargetGroup());
+		};
 
 		if (Platform.isFxApplicationThread()) {
 			removeTargetAction.run();
@@ -857,6 +950,11 @@ public class CanvasManager implements CameraView {
 		}
 
 		targets.remove(target);
+		if (target instanceof TargetView) {
+			hitIndex.remove((TargetView) target);
+		} else {
+			unindexedTargets.remove(target);
+		}
 
 		// If this is a mirrored canvas, only alert exercises of target updates
 		// from the arena window, not the tab
@@ -20,19 +20,23 @@ package com.shootoff.gui;
 
 import java.awt.Dimension;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.shootoff.camera.CameraManager;
 import com.shootoff.camera.cameratypes.Camera;
+import com.shootoff.util.ThreadPools;
+import com.shootoff.util.TimerPool;
 
+import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import com.shootoff.util.SwingFXUtils;
@@ -48,6 +52,10 @@ import javafx.util.converter.DefaultStringConverter;
 public class CheckableImageListCell extends TextFieldListCell<String> {
 	private static final Logger logger = LoggerFactory.getLogger(CheckableImageListCell.class);
 
+	// Opening a camera for its preview can hang (e.g. an IP camera that is
+	// offline), give up on the preview after this long
+	private static final long PREVIEW_TIMEOUT_MS = 5000;
+
 	private static final Map<Camera, Pane> containerCache = new HashMap<>();
 	private static final Map<Camera, CheckBox> checkCache = new HashMap<>();
 	private final List<Camera> webcams;
@@ -55,10 +63,15 @@ public class CheckableImageListCell extends TextFieldListCell<String> {
 	private final List<Camera> configuredCameras;
 	private final Optional<Set<Camera>> recordingCameras;
 
+	/**
+	 * @param webcams
+	 *            the cameras that can be shown. The list is not copied so that
+	 *            cameras that are discovered later can be added to it.
+	 */
 	public CheckableImageListCell(List<Camera> webcams, List<String> configuredNames, List<Camera> configuredCameras,
 			CameraRenamedListener cameraRenamedListener, final DesignateShotRecorderListener designatedListener,
 			final Optional<Set<Camera>> recordingCameras) {
-		this.webcams = new ArrayList<>(webcams);
+		this.webcams = webcams;
 		this.configuredNames = configuredNames;
 		this.configuredCameras = configuredCameras;
 		this.recordingCameras = recordingCameras;
@@ -120,6 +133,10 @@ public class CheckableImageListCell extends TextFieldListCell<String> {
 		}
 	}
 
+	/**
+	 * Create the controls for every camera that does not have them yet.
+	 * Camera previews are captured in parallel in the background.
+	 */
 	public static void createImageCache(List<Camera> webcams, CameraSelectionListener listener) {
 		for (final Camera c : webcams) {
 			if (containerCache.containsKey(c)) continue;
@@ -161,13 +178,22 @@ public class CheckableImageListCell extends TextFieldListCell<String> {
 		iv.setFitWidth(100);
 		iv.setFitHeight(75);
 
-		new Thread(() -> {
-			final Optional<Image> img = fetchWebcamImage(c);
+		final AtomicBoolean openedForPreview = new AtomicBoolean(false);
+		final Future<?> preview = ThreadPools.cameraPreview().submit(() -> {
+			final Optional<Image> img = fetchWebcamImage(c, openedForPreview);
+			if (img.isPresent()) Platform.runLater(() -> iv.setImage(img.get()));
+		});
 
-			if (img.isPresent()) {
-				iv.setImage(img.get());
-			}
-		}, "FetchImageCellWebcamImages").start();
+		TimerPool.schedule(() -> {
+			if (preview.isDone()) return;
+
+			logger.warn("Timed out capturing a preview of camera {}", c.getName());
+			preview.cancel(true);
+
+			// Closing the camera is what frees a preview thread that is stuck
+			// in the camera's driver
+			if (openedForPreview.getAndSet(false)) c.close();
+		}, PREVIEW_TIMEOUT_MS);
 
 		final CheckBox cb = new CheckBox();
 		cb.setOnAction((event) -> {
@@ -256,14 +282,12 @@ public class CheckableImageListCell extends TextFieldListCell<String> {
 		return false;
 	}
 
-	private static Optional<Image> fetchWebcamImage(Camera webcam) {
-		boolean cameraOpened = false;
-
+	private static Optional<Image> fetchWebcamImage(Camera webcam, AtomicBoolean cameraOpened) {
 		synchronized (webcam) {
 			if (!webcam.isOpen()) {
 				webcam.setViewSize(new Dimension(CameraManager.DEFAULT_FEED_WIDTH, CameraManager.DEFAULT_FEED_HEIGHT));
+				cameraOpened.set(true);
 				webcam.open();
-				cameraOpened = true;
 			}
 
 			Image webcamImg = null;
@@ -275,7 +299,8 @@ public class CheckableImageListCell extends TextFieldListCell<String> {
 				}
 			}
 
-			if (cameraOpened == true) {
+			// Unless the preview timed out and the camera was already closed
+			if (cameraOpened.getAndSet(false)) {
 				webcam.close();
 			}
 
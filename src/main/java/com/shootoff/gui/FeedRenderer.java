@@ -0,0 +1,168 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.shootoff.gui;
+
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Renders camera frames into images that are reused from frame to frame.
+ * Frames are scaled and converted by OpenCV, then their pixels are written
+ * straight into an image that is neither on screen nor waiting to be shown,
+ * thus showing a frame allocates nothing unless the frame size changes.
+ * 
+ * Rendered frames are delivered latest-wins: a frame that is rendered before
+ * the previous frame was taken replaces it, so there is never more than one
+ * frame waiting to be shown and the newest frame is always the one shown. At
+ * most three images are used: the one on screen, the one waiting to be shown
+ * and the one being rendered into.
+ * 
+ * Frames must be rendered by one thread at a time and taken on the JavaFX
+ * application thread. A taken frame's caller reports when the frame is on
+ * screen with {@link #frameShown(FeedFrame)}, only then is the image it
+ * replaced reused.
+ */
+class FeedRenderer {
+	private static final int BYTES_PER_PIXEL = 4;
+
+	private final Mat scaledFrame = new Mat();
+	private final Mat bgraFrame = new Mat();
+	private byte[] pixels = new byte[0];
+
+	private final Queue<WritableImage> freeImages = new ConcurrentLinkedQueue<>();
+	private final AtomicReference<FeedFrame> latestFrame = new AtomicReference<>();
+	private WritableImage shownImage = null;
+
+	public static class FeedFrame {
+		private final WritableImage image;
+		private final double x;
+		private final double y;
+
+		private FeedFrame(WritableImage image, double x, double y) {
+			this.image = image;
+			this.x = x;
+			this.y = y;
+		}
+
+		public WritableImage getImage() {
+			return image;
+		}
+
+		public double getX() {
+			return x;
+		}
+
+		public double getY() {
+			return y;
+		}
+	}
+
+	/**
+	 * Render a frame and make it the next frame to show.
+	 * 
+	 * @param frameBGR
+	 *            the frame to render in BGR pixel format
+	 * @param x
+	 *            where the frame is shown
+	 * @param y
+	 *            where the frame is shown
+	 */
+	public void render(Mat frameBGR, double x, double y, int width, int height) {
+		Mat source = frameBGR;
+
+		if (frameBGR.width() != width || frameBGR.height() != height) {
+			Imgproc.resize(frameBGR, scaledFrame, new Size(width, height), 0, 0, Imgproc.INTER_LINEAR);
+			source = scaledFrame;
+		}
+
+		// Opaque BGRA pixels are the same whether or not they are
+		// premultiplied, thus they are already in the format JavaFX stores
+		// images in and are written into the image without conversion
+		Imgproc.cvtColor(source, bgraFrame, Imgproc.COLOR_BGR2BGRA);
+
+		final int length = width * height * BYTES_PER_PIXEL;
+		if (pixels.length != length) pixels = new byte[length];
+		bgraFrame.get(0, 0, pixels);
+
+		publish(pixels, x, y, width, height);
+	}
+
+	// Write BGRA pixels into a free image and make it the next frame to show
+	void publish(byte[] pixels, double x, double y, int width, int height) {
+		final WritableImage image = getFreeImage(width, height);
+		image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getByteBgraPreInstance(), pixels, 0,
+				width * BYTES_PER_PIXEL);
+
+		final FeedFrame replaced = latestFrame.getAndSet(new FeedFrame(image, x, y));
+
+		// The replaced frame was never shown, its image can be reused
+		if (replaced != null) freeImages.offer(replaced.image);
+	}
+
+	/**
+	 * Take the newest rendered frame so that it can be shown. Call
+	 * {@link #frameShown(FeedFrame)} once it replaced the previous frame on
+	 * screen.
+	 * 
+	 * @return the newest frame if one was rendered since the last time a
+	 *         frame was taken
+	 */
+	public Optional<FeedFrame> takeLatestFrame() {
+		return Optional.ofNullable(latestFrame.getAndSet(null));
+	}
+
+	/**
+	 * Record that a taken frame is now on screen. The image of the frame it
+	 * replaced is no longer attached to the scene graph and is reused for
+	 * later frames.
+	 */
+	public void frameShown(FeedFrame frame) {
+		if (shownImage != null && shownImage != frame.image) freeImages.offer(shownImage);
+		shownImage = frame.image;
+	}
+
+	/**
+	 * Drop the frame that is waiting to be shown, if there is one.
+	 */
+	public void discardLatestFrame() {
+		final FeedFrame discarded = latestFrame.getAndSet(null);
+		if (discarded != null) freeImages.offer(discarded.image);
+	}
+
+	private WritableImage getFreeImage(int width, int height) {
+		WritableImage image;
+
+		// Images left over from before the frame size changed are dropped
+		while ((image = freeImages.poll()) != null) {
+			if ((int) image.getWidth() == width && (int) image.getHeight() == height) return image;
+		}
+
+		return new WritableImage(width, height);
+	}
+}
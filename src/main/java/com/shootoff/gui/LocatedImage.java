@@ -38,6 +38,26 @@ public class LocatedImage extends Image {
 		isResource = true;
 	}
 
+	/**
+	 * Load an image that was read from somewhere other than its original
+	 * location (e.g. a course bundle) while remembering that location.
+	 */
+	public LocatedImage(InputStream is, String url, boolean isResource) {
+		super(is);
+		this.url = url;
+		this.isResource = isResource;
+	}
+
+	/**
+	 * Load an image from a resource, optionally decoding it in the background
+	 * so that images that are only shown once selected don't delay the UI.
+	 */
+	public LocatedImage(String resourceName, boolean backgroundLoading) {
+		super(LocatedImage.class.getResource(resourceName).toExternalForm(), backgroundLoading);
+		url = resourceName;
+		isResource = true;
+	}
+
 	public String getURL() {
 		return url;
 	}
@@ -5,19 +5,28 @@ import java.io.File;
 import java.util.Map;
 import java.util.Optional;
 
+import org.opencv.core.Mat;
+
 import com.shootoff.camera.Shot;
 import com.shootoff.config.Configuration;
 import com.shootoff.gui.pane.ProjectorArenaPane;
 import com.shootoff.targets.Target;
 import com.shootoff.targets.io.TargetIO.TargetComponents;
 
-import javafx.collections.ObservableList;
 import javafx.geometry.Bounds;
 import javafx.geometry.Dimension2D;
 import javafx.geometry.Point2D;
 import javafx.scene.Group;
 import javafx.scene.image.Image;
 
+/**
+ * The canvas manager for the projector arena. When a mirrored manager is set,
+ * every change made to this canvas is also made to the mirrored manager's
+ * canvas (and vice versa) so that the arena tab shows an interactive copy of
+ * the arena. Without a mirrored manager this canvas behaves like the only copy
+ * of the arena, which is the case when the arena tab shows snapshots of the
+ * arena instead (see {@link com.shootoff.gui.pane.ArenaMirrorPane}).
+ */
 public class MirroredCanvasManager extends CanvasManager {
 	private final ProjectorArenaPane arenaPane;
 	private final Configuration config;
@@ -25,8 +34,8 @@ public class MirroredCanvasManager extends CanvasManager {
 	private MirroredCanvasManager mirroredManager;
 
 	public MirroredCanvasManager(Group canvasGroup, Resetter resetter, String cameraName,
-			ObservableList<ShotEntry> shotEntries, ProjectorArenaPane arenaPane) {
-		super(canvasGroup, resetter, cameraName, shotEntries);
+			ShotTimerModel shotTimerModel, ProjectorArenaPane arenaPane) {
+		super(canvasGroup, resetter, cameraName, shotTimerModel);
 
 		config = Configuration.getConfig();
 		this.arenaPane = arenaPane;
@@ -36,8 +45,14 @@ public class MirroredCanvasManager extends CanvasManager {
 		this.mirroredManager = mirroredManager;
 	}
 
+	private boolean isMirrored() {
+		return mirroredManager != null;
+	}
+
 	@Override
 	public Optional<Target> addTarget(File targetFile, boolean playAnimations) {
+		if (!isMirrored()) return super.addTarget(targetFile, playAnimations);
+
 		return mirroredManager.mirrorAddTarget(targetFile, playAnimations);
 	}
 
@@ -47,6 +62,8 @@ public class MirroredCanvasManager extends CanvasManager {
 
 	@Override
 	public Optional<Target> addTarget(File targetFile) {
+		if (!isMirrored()) return super.addTarget(targetFile);
+
 		return mirroredManager.mirrorAddTarget(targetFile);
 	}
 
@@ -56,6 +73,8 @@ public class MirroredCanvasManager extends CanvasManager {
 
 	@Override
 	public Target addTarget(File targetFile, Group targetGroup, Map<String, String> targetTags, boolean userDeletable) {
+		if (!isMirrored()) return super.addTarget(targetFile, targetGroup, targetTags, userDeletable);
+
 		final Optional<TargetComponents> targetComponents = super.loadTarget(targetFile, false);
 
 		if (targetComponents.isPresent()) {
@@ -82,6 +101,11 @@ public class MirroredCanvasManager extends CanvasManager {
 					newTarget.getAllTags(), config, this, ((TargetView) newTarget).isUserDeletable());
 		}
 
+		if (!isMirrored()) {
+			arenaPane.targetAdded(target);
+			return super.addTarget(target);
+		}
+
 		final Optional<TargetComponents> targetComponents = super.loadTarget(newTarget.getTargetFile(), false);
 
 		if (targetComponents.isPresent()) {
@@ -114,7 +138,7 @@ public class MirroredCanvasManager extends CanvasManager {
 					"Expected a target passed to removeTarget on the arena pane to be a MirroredTarget");
 		}
 
-		mirroredManager.mirrorRemoveTarget(((MirroredTarget) target).getMirroredTarget());
+		if (isMirrored()) mirroredManager.mirrorRemoveTarget(((MirroredTarget) target).getMirroredTarget());
 		super.removeTarget(target);
 
 		arenaPane.targetRemoved(target);
@@ -126,7 +150,7 @@ public class MirroredCanvasManager extends CanvasManager {
 
 	@Override
 	public void clearTargets() {
-		mirroredManager.mirrorClearTargets();
+		if (isMirrored()) mirroredManager.mirrorClearTargets();
 		super.clearTargets();
 	}
 
@@ -136,7 +160,7 @@ public class MirroredCanvasManager extends CanvasManager {
 
 	@Override
 	public void setBackgroundFit(double width, double height) {
-		mirroredManager.mirrorSetBackgroundFit(width, height);
+		if (isMirrored()) mirroredManager.mirrorSetBackgroundFit(width, height);
 		super.setBackgroundFit(width, height);
 	}
 
@@ -146,7 +170,7 @@ public class MirroredCanvasManager extends CanvasManager {
 
 	@Override
 	public void updateBackground(BufferedImage frame, Optional<Bounds> projectionBounds) {
-		mirroredManager.mirrorUpdateBackground(frame, projectionBounds);
+		if (isMirrored()) mirroredManager.mirrorUpdateBackground(frame, projectionBounds);
 		super.updateBackground(frame, projectionBounds);
 	}
 
@@ -154,9 +178,19 @@ public class MirroredCanvasManager extends CanvasManager {
 		super.updateBackground(frame, projectionBounds);
 	}
 
+	@Override
+	public void updateBackground(Mat frameBGR, Optional<Bounds> projectionBounds) {
+		if (isMirrored()) mirroredManager.mirrorUpdateBackground(frameBGR, projectionBounds);
+		super.updateBackground(frameBGR, projectionBounds);
+	}
+
+	public void mirrorUpdateBackground(Mat frameBGR, Optional<Bounds> projectionBounds) {
+		super.updateBackground(frameBGR, projectionBounds);
+	}
+
 	@Override
 	public void updateBackground(Image img) {
-		mirroredManager.mirrorUpdateBackground(img);
+		if (isMirrored()) mirroredManager.mirrorUpdateBackground(img);
 		super.updateBackground(img);
 	}
 
@@ -166,8 +200,13 @@ public class MirroredCanvasManager extends CanvasManager {
 
 	@Override
 	public void addShot(Shot shot, boolean isMirroredShot) {
+		if (!isMirrored()) {
+			super.addShot(shot, isMirroredShot);
+			return;
+		}
+
 		final Shot mirroredShot = new Shot(shot.getColor(), shot.getX(), shot.getY(), shot.getTimestamp(),
-				(int) shot.getMarker().getRadiusX());
+				shot.getMarkerRadius());
 		shot.setMirroredShot(mirroredShot);
 		mirroredShot.setMirroredShot(shot);
 		mirroredManager.mirrorAddShot(mirroredShot);
@@ -180,8 +219,8 @@ public class MirroredCanvasManager extends CanvasManager {
 
 	@Override
 	public boolean addArenaShot(Shot shot, Optional<String> videoString, boolean isMirroredShot) {
-		mirroredManager.mirrorAddArenaShot(new Shot(shot.getColor(), shot.getX(), shot.getY(), shot.getTimestamp(),
-				(int) shot.getMarker().getRadiusX()), videoString);
+		if (isMirrored()) mirroredManager.mirrorAddArenaShot(new Shot(shot.getColor(), shot.getX(), shot.getY(),
+				shot.getTimestamp(), shot.getMarkerRadius()), videoString);
 		return super.addArenaShot(shot, videoString, isMirroredShot);
 	}
 
@@ -189,9 +228,20 @@ public class MirroredCanvasManager extends CanvasManager {
 		return super.addArenaShot(shot, videoString, true);
 	}
 
+	@Override
+	public void setShotSelected(Shot shot, boolean selected) {
+		if (isMirrored() && shot.getMirroredShot().isPresent())
+			mirroredManager.mirrorSetShotSelected(shot.getMirroredShot().get(), selected);
+		super.setShotSelected(shot, selected);
+	}
+
+	public void mirrorSetShotSelected(Shot shot, boolean selected) {
+		super.setShotSelected(shot, selected);
+	}
+
 	@Override
 	public void clearShots() {
-		mirroredManager.mirrorClearShots();
+		if (isMirrored()) mirroredManager.mirrorClearShots();
 		super.clearShots();
 	}
 
@@ -201,7 +251,7 @@ public class MirroredCanvasManager extends CanvasManager {
 
 	@Override
 	public void reset() {
-		mirroredManager.mirrorReset();
+		if (isMirrored()) mirroredManager.mirrorReset();
 		super.reset();
 	}
 
@@ -73,7 +73,7 @@ public class MirroredTarget extends TargetView {
 
 	@Override
 	public void setPosition(double x, double y) {
-		mirroredTarget.mirrorSetPosition(x, y);
+		if (mirroredTarget != null) mirroredTarget.mirrorSetPosition(x, y);
 		super.setPosition(x, y);
 	}
 
@@ -83,7 +83,7 @@ public class MirroredTarget extends TargetView {
 
 	@Override
 	public void setDimensions(double newWidth, double newHeight) {
-		mirroredTarget.mirrorSetDimensions(newWidth, newHeight);
+		if (mirroredTarget != null) mirroredTarget.mirrorSetDimensions(newWidth, newHeight);
 		super.setDimensions(newWidth, newHeight);
 	}
 
@@ -93,7 +93,8 @@ public class MirroredTarget extends TargetView {
 	
 	@Override
 	public void setClip(Rectangle clip) {
-		mirroredTarget.mirrorSetClip(new Rectangle(clip.getX(), clip.getY(), clip.getWidth(), clip.getHeight()));
+		if (mirroredTarget != null) mirroredTarget
+				.mirrorSetClip(new Rectangle(clip.getX(), clip.getY(), clip.getWidth(), clip.getHeight()));
 		super.setClip(clip);
 	}
 	
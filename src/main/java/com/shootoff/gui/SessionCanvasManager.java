@@ -21,15 +21,18 @@ package com.shootoff.gui;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import com.shootoff.config.Configuration;
 import com.shootoff.gui.controller.VideoPlayerController;
 import com.shootoff.session.Event;
 import com.shootoff.session.ExerciseFeedMessageEvent;
+import com.shootoff.session.SessionTimeline;
 import com.shootoff.session.ShotEvent;
 import com.shootoff.session.TargetAddedEvent;
 import com.shootoff.session.TargetMovedEvent;
@@ -46,6 +49,7 @@ import javafx.fxml.FXMLLoader;
 import javafx.geometry.Dimension2D;
 import javafx.geometry.Point2D;
 import javafx.scene.Group;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.Label;
 import javafx.scene.paint.Color;
@@ -56,71 +60,119 @@ import javafx.stage.Stage;
  * user. This class is where events from a session are actually processed to
  * display their outcomes to the user.
  * 
+ * The canvas can {@link #seek(int) seek} to any event. Short seeks apply or
+ * undo the events in between one at a time, while long seeks restore the
+ * closest {@link SessionTimeline.Checkpoint} and only apply the events after
+ * it. Target animations triggered by hits before a restored checkpoint are not
+ * replayed.
+ * 
  * @author phrack
  */
 public class SessionCanvasManager {
 	private final Group canvas;
 	private final Label exerciseLabel = new Label();
-	private final Map<Event, TargetView> eventToContainer = new HashMap<>();
-	private final Map<Event, Point2D> eventToPosition = new HashMap<>();
-	private final Map<Event, String> eventToExerciseMessage = new HashMap<>();
-	private final Map<Event, Dimension2D> eventToDimension = new HashMap<>();
+	private final SessionTimeline timeline;
+	private final Map<TargetAddedEvent, TargetView> addedTargets = new IdentityHashMap<>();
+	private final Map<TargetAddedEvent, Point2D> originalPositions = new IdentityHashMap<>();
+	private final Map<TargetAddedEvent, Dimension2D> originalDimensions = new IdentityHashMap<>();
+	private final Set<ShotEvent> preparedShots = Collections.newSetFromMap(new IdentityHashMap<>());
 	private final List<TargetView> targetViews = new ArrayList<>();
 	private final List<Target> targets = new ArrayList<>();
 	private final Configuration config;
 
-	public SessionCanvasManager(final Group canvas, final Configuration config) {
+	private int currentIndex = -1;
+
+	public SessionCanvasManager(final Group canvas, final Configuration config, final List<Event> events) {
 		this.canvas = canvas;
 		this.config = config;
+		this.timeline = new SessionTimeline(events);
 		canvas.getChildren().add(exerciseLabel);
 	}
 
-	public void doEvent(final Event e) {
-		switch (e.getType()) {
-		case SHOT:
-			if (!(e instanceof ShotEvent)) {
-				throw new AssertionError("Expected type ShotEvent but got type " + e.getClass().getName());
-			}
+	public SessionTimeline getTimeline() {
+		return timeline;
+	}
 
-			final ShotEvent se = (ShotEvent) e;
-			canvas.getChildren().add(se.getShot().getMarker());
+	/**
+	 * Update the canvas to show the session as it was right after the event at
+	 * <code>eventIndex</code> happened.
+	 * 
+	 * @param eventIndex
+	 *            the index of the last event to show, -1 to show no events
+	 */
+	public void seek(int eventIndex) {
+		final List<Event> events = timeline.getEvents();
+		eventIndex = Math.max(-1, Math.min(eventIndex, events.size() - 1));
 
-			if (se.isMalfunction()) {
-				se.getShot().getMarker().setFill(Color.ORANGE);
-			} else if (se.isReload()) {
-				se.getShot().getMarker().setFill(Color.LIGHTSKYBLUE);
-			}
+		if (eventIndex == currentIndex) return;
 
-			se.getShot().getMarker().setVisible(true);
+		final SessionTimeline.Checkpoint checkpoint = timeline.getCheckpoint(eventIndex);
 
-			if (se.getVideoString().isPresent()) {
-				se.getShot().getMarker().setOnMouseClicked((event) -> {
-					if (event.getClickCount() < 2) return;
+		final boolean stepForward = eventIndex > currentIndex && currentIndex >= checkpoint.getEventIndex();
+		final boolean stepBackward = eventIndex < currentIndex
+				&& currentIndex - eventIndex <= eventIndex - checkpoint.getEventIndex();
 
-					final FXMLLoader loader = new FXMLLoader(
-							getClass().getClassLoader().getResource("com/shootoff/gui/VideoPlayer.fxml"));
-					try {
-						loader.load();
-					} catch (final IOException ioe) {
-						ioe.printStackTrace();
-					}
+		if (!stepForward && !stepBackward) restoreCheckpoint(checkpoint);
+
+		while (currentIndex < eventIndex)
+			doEvent(events.get(++currentIndex));
 
-					final Stage videoPlayerStage = new Stage();
+		while (currentIndex > eventIndex)
+			undoEvent(events.get(currentIndex--));
+	}
 
-					final VideoPlayerController controller = (VideoPlayerController) loader.getController();
-					controller.init(se.getVideos());
+	private void restoreCheckpoint(SessionTimeline.Checkpoint checkpoint) {
+		targetViews.clear();
+		targets.clear();
 
-					videoPlayerStage.setTitle("Video Player");
-					videoPlayerStage.setScene(new Scene(loader.getRoot()));
-					videoPlayerStage.show();
+		final List<Node> children = new ArrayList<>();
+		children.add(exerciseLabel);
 
-					config.registerVideoPlayer(controller);
-					controller.getStage().setOnCloseRequest((closeEvent) -> {
-						config.unregisterVideoPlayer(controller);
-					});
-				});
+		for (final SessionTimeline.TargetState targetState : checkpoint.getTargets()) {
+			final Optional<TargetView> targetView = getTargetView(targetState.getAddedEvent());
+
+			if (!targetView.isPresent()) continue;
+
+			final TargetView tv = targetView.get();
+			final Point2D position = targetState.getPosition()
+					.orElse(originalPositions.get(targetState.getAddedEvent()));
+			final Dimension2D dimension = targetState.getDimension()
+					.orElse(originalDimensions.get(targetState.getAddedEvent()));
+
+			tv.setPosition(position.getX(), position.getY());
+			tv.setDimensions(dimension.getWidth(), dimension.getHeight());
+
+			for (final Node n : tv.getTargetGroup().getChildren()) {
+				if (((TargetRegion) n).getType() == RegionType.IMAGE) ((ImageRegion) n).reset();
 			}
 
+			targetViews.add(tv);
+			targets.add(tv);
+			children.add(tv.getTargetGroup());
+		}
+
+		for (final ShotEvent se : timeline.getShots().subList(0, checkpoint.getShotCount())) {
+			prepareShotMarker(se);
+			children.add(se.getShot().getMarker());
+		}
+
+		canvas.getChildren().setAll(children);
+		exerciseLabel.setText(checkpoint.getExerciseMessage());
+
+		currentIndex = checkpoint.getEventIndex();
+	}
+
+	private void doEvent(final Event e) {
+		switch (e.getType()) {
+		case SHOT:
+			if (!(e instanceof ShotEvent)) {
+				throw new AssertionError("Expected type ShotEvent but got type " + e.getClass().getName());
+			}
+
+			final ShotEvent se = (ShotEvent) e;
+			prepareShotMarker(se);
+			canvas.getChildren().add(se.getShot().getMarker());
+
 			if (se.getTargetIndex().isPresent() && se.getHitRegionIndex().isPresent()) {
 				animateTarget(se, false);
 			}
@@ -141,7 +193,6 @@ public class SessionCanvasManager {
 			}
 
 			final TargetRemovedEvent tre = (TargetRemovedEvent) e;
-			eventToContainer.put(e, targetViews.get(tre.getTargetIndex()));
 			canvas.getChildren().remove(targetViews.get(tre.getTargetIndex()).getTargetGroup());
 			targetViews.remove(tre.getTargetIndex());
 			targets.remove(tre.getTargetIndex());
@@ -153,7 +204,6 @@ public class SessionCanvasManager {
 			}
 
 			final TargetResizedEvent trre = (TargetResizedEvent) e;
-			eventToDimension.put(e, targetViews.get(trre.getTargetIndex()).getDimension());
 			targetViews.get(trre.getTargetIndex()).setDimensions(trre.getNewWidth(), trre.getNewHeight());
 			break;
 
@@ -163,7 +213,6 @@ public class SessionCanvasManager {
 			}
 
 			final TargetMovedEvent tme = (TargetMovedEvent) e;
-			eventToPosition.put(e, targetViews.get(tme.getTargetIndex()).getPosition());
 			targetViews.get(tme.getTargetIndex()).setPosition(tme.getNewX(), tme.getNewY());
 			break;
 
@@ -174,13 +223,17 @@ public class SessionCanvasManager {
 			}
 
 			final ExerciseFeedMessageEvent pfme = (ExerciseFeedMessageEvent) e;
-			eventToExerciseMessage.put(e, exerciseLabel.getText());
 			exerciseLabel.setText(pfme.getMessage());
 			break;
 		}
 	}
 
-	public void undoEvent(Event e) {
+	// Undo information comes from the timeline rather than from state saved
+	// when the event was applied because events that were skipped over by
+	// restoring a checkpoint must be undoable too
+	private void undoEvent(Event e) {
+		final int eventIndex = timeline.indexOf(e);
+
 		switch (e.getType()) {
 		case SHOT:
 			if (!(e instanceof ShotEvent)) {
@@ -197,9 +250,13 @@ public class SessionCanvasManager {
 			break;
 
 		case TARGET_ADDED:
-			canvas.getChildren().remove(eventToContainer.get(e).getTargetGroup());
-			targetViews.remove(eventToContainer.get(e));
-			targets.remove(eventToContainer.get(e));
+			final TargetView addedTarget = addedTargets.get(e);
+
+			if (addedTarget != null) {
+				canvas.getChildren().remove(addedTarget.getTargetGroup());
+				targetViews.remove(addedTarget);
+				targets.remove(addedTarget);
+			}
 			break;
 
 		case TARGET_REMOVED:
@@ -208,7 +265,10 @@ public class SessionCanvasManager {
 			}
 
 			final TargetRemovedEvent tre = (TargetRemovedEvent) e;
-			final TargetView oldTarget = eventToContainer.get(e);
+			final Optional<TargetAddedEvent> removedTarget = timeline.getTarget(eventIndex);
+			if (!removedTarget.isPresent()) break;
+
+			final TargetView oldTarget = addedTargets.get(removedTarget.get());
 			canvas.getChildren().add(oldTarget.getTargetGroup());
 			targetViews.add(tre.getTargetIndex(), oldTarget);
 			targets.add(tre.getTargetIndex(), oldTarget);
@@ -220,7 +280,11 @@ public class SessionCanvasManager {
 			}
 
 			final TargetResizedEvent trre = (TargetResizedEvent) e;
-			final Dimension2D oldDimension = eventToDimension.get(e);
+			final Optional<TargetAddedEvent> resizedTarget = timeline.getTarget(eventIndex);
+			if (!resizedTarget.isPresent()) break;
+
+			final Dimension2D oldDimension = timeline.getPreviousDimension(eventIndex)
+					.orElse(originalDimensions.get(resizedTarget.get()));
 			targetViews.get(trre.getTargetIndex()).setDimensions(oldDimension.getWidth(), oldDimension.getHeight());
 			break;
 
@@ -230,16 +294,60 @@ public class SessionCanvasManager {
 			}
 
 			final TargetMovedEvent tme = (TargetMovedEvent) e;
-			final Point2D oldPosition = eventToPosition.get(e);
+			final Optional<TargetAddedEvent> movedTarget = timeline.getTarget(eventIndex);
+			if (!movedTarget.isPresent()) break;
+
+			final Point2D oldPosition = timeline.getPreviousPosition(eventIndex)
+					.orElse(originalPositions.get(movedTarget.get()));
 			targetViews.get(tme.getTargetIndex()).setPosition(oldPosition.getX(), oldPosition.getY());
 			break;
 
 		case EXERCISE_FEED_MESSAGE:
-			exerciseLabel.setText(eventToExerciseMessage.get(e));
+			exerciseLabel.setText(timeline.getPreviousExerciseMessage(eventIndex));
 			break;
 		}
 	}
 
+	private void prepareShotMarker(final ShotEvent se) {
+		if (!preparedShots.add(se)) return;
+
+		if (se.isMalfunction()) {
+			se.getShot().getMarker().setFill(Color.ORANGE);
+		} else if (se.isReload()) {
+			se.getShot().getMarker().setFill(Color.LIGHTSKYBLUE);
+		}
+
+		se.getShot().getMarker().setVisible(true);
+
+		if (se.getVideoString().isPresent()) {
+			se.getShot().getMarker().setOnMouseClicked((event) -> {
+				if (event.getClickCount() < 2) return;
+
+				final FXMLLoader loader = new FXMLLoader(
+						getClass().getClassLoader().getResource("com/shootoff/gui/VideoPlayer.fxml"));
+				try {
+					loader.load();
+				} catch (final IOException ioe) {
+					ioe.printStackTrace();
+				}
+
+				final Stage videoPlayerStage = new Stage();
+
+				final VideoPlayerController controller = (VideoPlayerController) loader.getController();
+				controller.init(se.getVideos());
+
+				videoPlayerStage.setTitle("Video Player");
+				videoPlayerStage.setScene(new Scene(loader.getRoot()));
+				videoPlayerStage.show();
+
+				config.registerVideoPlayer(controller);
+				controller.getStage().setOnCloseRequest((closeEvent) -> {
+					config.unregisterVideoPlayer(controller);
+				});
+			});
+		}
+	}
+
 	private void animateTarget(ShotEvent se, boolean undo) {
 		final TargetView target = targetViews.get(se.getTargetIndex().get());
 		final TargetRegion region = (TargetRegion) target.getTargetGroup().getChildren()
@@ -289,17 +397,34 @@ public class SessionCanvasManager {
 	}
 
 	private void addTarget(final TargetAddedEvent e) {
-		final Optional<TargetComponents> targetComponents = TargetIO.loadTarget(
-				new File(System.getProperty("shootoff.home") + File.separator + "targets/" + e.getTargetName()));
+		final Optional<TargetView> targetView = getTargetView(e);
 
-		if (targetComponents.isPresent()) {
-			final TargetComponents tc = targetComponents.get();
-
-			canvas.getChildren().add(tc.getTargetGroup());
-			final TargetView targetContainer = new TargetView(tc.getTargetGroup(), tc.getTargetTags(), targets);
-			eventToContainer.put(e, targetContainer);
+		if (targetView.isPresent()) {
+			final TargetView targetContainer = targetView.get();
+			canvas.getChildren().add(targetContainer.getTargetGroup());
 			targetViews.add(targetContainer);
 			targets.add(targetContainer);
 		}
 	}
-}
\ No newline at end of file
+
+	// Targets are only loaded the first time they are shown and are then
+	// reused whenever the session is replayed
+	private Optional<TargetView> getTargetView(final TargetAddedEvent e) {
+		final TargetView existingTarget = addedTargets.get(e);
+
+		if (existingTarget != null) return Optional.of(existingTarget);
+
+		final Optional<TargetComponents> targetComponents = TargetIO.loadTarget(
+				new File(System.getProperty("shootoff.home") + File.separator + "targets/" + e.getTargetName()));
+
+		if (!targetComponents.isPresent()) return Optional.empty();
+
+		final TargetComponents tc = targetComponents.get();
+		final TargetView targetContainer = new TargetView(tc.getTargetGroup(), tc.getTargetTags(), targets);
+		addedTargets.put(e, targetContainer);
+		originalPositions.put(e, targetContainer.getPosition());
+		originalDimensions.put(e, targetContainer.getDimension());
+
+		return Optional.of(targetContainer);
+	}
+}
@@ -18,6 +18,7 @@
 
 package com.shootoff.gui;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -123,6 +124,14 @@ public class ShotEntry {
 			return "";
 	}
 
+	/**
+	 * @return a read-only view of the values exercises set for this entry by
+	 *         column name
+	 */
+	public Map<String, String> getExerciseData() {
+		return Collections.unmodifiableMap(exerciseData);
+	}
+
 	public void clearExerciseData() {
 		exerciseData.clear();
 	}
@@ -0,0 +1,127 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.shootoff.gui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import com.shootoff.camera.Shot;
+import com.shootoff.targets.TargetRegion;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * Draws shot markers onto a single canvas instead of adding a node to the
+ * scene graph for every shot, thus the number of shots on a view has no effect
+ * on the cost of laying out and rendering the rest of the view. New shots are
+ * drawn on top of what is already on the canvas, the canvas is only redrawn
+ * from scratch when it grows or a shot is deselected.
+ * 
+ * The canvas ignores the mouse so that targets under shots can still be
+ * clicked and dragged. All methods must be called on the JavaFX application
+ * thread.
+ */
+class ShotLayer {
+	// Grow the canvas in steps so that it isn't resized for every shot that
+	// lands a little further out than the previous one
+	private static final int GROWTH_STEP = 256;
+
+	private final Canvas canvas = new Canvas();
+	private final List<Shot> shots = new ArrayList<>();
+	private final Set<Shot> selectedShots = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	public ShotLayer() {
+		canvas.setMouseTransparent(true);
+	}
+
+	public Canvas getCanvas() {
+		return canvas;
+	}
+
+	public void addShot(Shot shot) {
+		shots.add(shot);
+
+		if (fitShot(shot)) {
+			redraw();
+		} else {
+			drawShot(canvas.getGraphicsContext2D(), shot);
+		}
+	}
+
+	public void clear() {
+		shots.clear();
+		selectedShots.clear();
+		canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+	}
+
+	/**
+	 * Highlight a shot, drawing it above every other shot, or restore it to
+	 * its normal color. Shots that are not on this layer are ignored.
+	 */
+	public void setSelected(Shot shot, boolean selected) {
+		if (!shots.contains(shot)) return;
+
+		if (selected) {
+			if (selectedShots.add(shot)) drawShot(canvas.getGraphicsContext2D(), shot);
+		} else if (selectedShots.remove(shot)) {
+			redraw();
+		}
+	}
+
+	// Grow the canvas to cover a shot if necessary, returns true if the
+	// canvas was resized
+	private boolean fitShot(Shot shot) {
+		final double radius = shot.getMarkerRadius();
+		final double requiredWidth = shot.getX() + radius;
+		final double requiredHeight = shot.getY() + radius;
+
+		if (requiredWidth <= canvas.getWidth() && requiredHeight <= canvas.getHeight()) return false;
+
+		canvas.setWidth(Math.max(canvas.getWidth(), Math.ceil(requiredWidth / GROWTH_STEP) * GROWTH_STEP));
+		canvas.setHeight(Math.max(canvas.getHeight(), Math.ceil(requiredHeight / GROWTH_STEP) * GROWTH_STEP));
+
+		return true;
+	}
+
+	private void redraw() {
+		final GraphicsContext gc = canvas.getGraphicsContext2D();
+		gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+		for (final Shot shot : shots) {
+			if (!selectedShots.contains(shot)) drawShot(gc, shot);
+		}
+
+		// Selected shots go on top to ensure they are visible
+		for (final Shot shot : shots) {
+			if (selectedShots.contains(shot)) drawShot(gc, shot);
+		}
+	}
+
+	private void drawShot(GraphicsContext gc, Shot shot) {
+		final double radius = shot.getMarkerRadius();
+
+		gc.setFill(selectedShots.contains(shot) ? TargetRegion.SELECTED_STROKE_COLOR : shot.getPaintColor());
+		gc.fillOval(shot.getX() - radius, shot.getY() - radius, radius * 2, radius * 2);
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.shootoff.gui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.shootoff.camera.Shot;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+
+/**
+ * The model behind the shot timer table. Only the newest shots (up to the
+ * configured window) are kept in the table's list so that the cost of updating
+ * the table stays the same no matter how long a session runs. Older entries
+ * are dropped from the table and handed to the model's {@link ShotTimerSpill}
+ * if it has one. The list may grow a little past the window before it is
+ * trimmed so that the oldest rows are removed in batches rather than one row
+ * per shot.
+ * 
+ * Shot entries can be added from any thread. They are queued and moved into
+ * the table's list in one batch on the JavaFX thread, thus a burst of shots
+ * causes a single list change instead of one change per shot.
+ */
+public class ShotTimerModel {
+	private static final Logger logger = LoggerFactory.getLogger(ShotTimerModel.class);
+
+	public static final int DEFAULT_WINDOW = 1000;
+
+	private final ObservableList<ShotEntry> entries;
+	private final Queue<ShotEntry> pendingEntries = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+	private final AtomicReference<ShotEntry> lastEntry = new AtomicReference<>();
+	private final AtomicLong droppedCount = new AtomicLong(0);
+
+	private volatile int window = DEFAULT_WINDOW;
+	private volatile Optional<ShotTimerSpill> spill = Optional.empty();
+
+	public ShotTimerModel(ObservableList<ShotEntry> entries) {
+		this.entries = entries;
+	}
+
+	/**
+	 * @return the list of entries that are shown in the shot timer table. This
+	 *         list must only be used on the JavaFX thread.
+	 */
+	public ObservableList<ShotEntry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * Set the maximum number of entries that are shown in the shot timer
+	 * table. Takes effect the next time entries are added.
+	 */
+	public void setWindow(int window) {
+		this.window = window;
+	}
+
+	public int getWindow() {
+		return window;
+	}
+
+	/**
+	 * @return how many entries past the window the table may show before the
+	 *         oldest entries are dropped
+	 */
+	static int getSlack(int window) {
+		return Math.max(1, window / 4);
+	}
+
+	/**
+	 * Set where entries that are dropped from the table are written.
+	 */
+	public void setSpill(Optional<ShotTimerSpill> spill) {
+		this.spill = spill;
+	}
+
+	public Optional<ShotTimerSpill> getSpill() {
+		return spill;
+	}
+
+	/**
+	 * @return the most recently added entry, even if it has not been moved
+	 *         into the table yet
+	 */
+	public Optional<ShotEntry> getLastEntry() {
+		return Optional.ofNullable(lastEntry.get());
+	}
+
+	public Optional<Shot> getLastShot() {
+		final ShotEntry entry = lastEntry.get();
+
+		if (entry == null) return Optional.empty();
+
+		return Optional.of(entry.getShot());
+	}
+
+	/**
+	 * @return the number of entries that were dropped from the table because
+	 *         they fell out of the window since the model was last cleared
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	public void add(ShotEntry entry) {
+		lastEntry.set(entry);
+		pendingEntries.add(entry);
+
+		// Only one flush needs to be queued at a time, it picks up every
+		// entry added before it runs
+		if (flushScheduled.compareAndSet(false, true)) Platform.runLater(this::flush);
+	}
+
+	/**
+	 * Remove every entry from the model. Must be called on the JavaFX thread.
+	 */
+	public void clear() {
+		pendingEntries.clear();
+		lastEntry.set(null);
+		droppedCount.set(0);
+		entries.clear();
+	}
+
+	void flush() {
+		flushScheduled.set(false);
+
+		final List<ShotEntry> batch = new ArrayList<>();
+		ShotEntry entry;
+		while ((entry = pendingEntries.poll()) != null)
+			batch.add(entry);
+
+		if (batch.isEmpty()) return;
+
+		final int currentWindow = window;
+
+		// Entries that would be dropped right away are never added to the
+		// table
+		final List<ShotEntry> dropped = new ArrayList<>();
+		final List<ShotEntry> added;
+		if (batch.size() > currentWindow) {
+			dropped.addAll(batch.subList(0, batch.size() - currentWindow));
+			added = batch.subList(batch.size() - currentWindow, batch.size());
+		} else {
+			added = batch;
+		}
+
+		// Trim back down to the window only once the slack is used up so
+		// that most flushes just append
+		if (entries.size() + added.size() > currentWindow + getSlack(currentWindow)) {
+			final int overflow = Math.min(entries.size() + added.size() - currentWindow, entries.size());
+			dropped.addAll(0, entries.subList(0, overflow));
+			entries.remove(0, overflow);
+		}
+
+		if (!dropped.isEmpty()) {
+			droppedCount.addAndGet(dropped.size());
+
+			if (spill.isPresent()) spill.get().spill(dropped);
+
+			if (logger.isTraceEnabled()) {
+				logger.trace("Dropped {} entries from the shot timer table, {} dropped in total", dropped.size(),
+						droppedCount.get());
+			}
+		}
+
+		entries.addAll(added);
+	}
+}
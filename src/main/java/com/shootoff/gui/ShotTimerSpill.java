@@ -0,0 +1,121 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.shootoff.util.ThreadPools;
+
+/**
+ * Appends the shot timer entries that fall out of the table's window to a CSV
+ * file so that they are kept even if no session is being recorded. Entries are
+ * turned into rows on the thread that spills them, which is the JavaFX thread
+ * for the shot timer model, and written on the shared I/O pool. The file is
+ * only created once the first entry is spilled.
+ */
+public class ShotTimerSpill {
+	private static final Logger logger = LoggerFactory.getLogger(ShotTimerSpill.class);
+
+	static final String HEADER = "timestamp,color,split,malfunction,reload,exercise data";
+
+	private final File spillFile;
+	private final Executor executor;
+	private final Queue<String> pendingRows = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean writeScheduled = new AtomicBoolean(false);
+
+	public ShotTimerSpill(File spillFile) {
+		this(spillFile, ThreadPools.io());
+	}
+
+	ShotTimerSpill(File spillFile, Executor executor) {
+		this.spillFile = spillFile;
+		this.executor = executor;
+	}
+
+	public File getFile() {
+		return spillFile;
+	}
+
+	public void spill(List<ShotEntry> entries) {
+		// Exercises change an entry's data on the JavaFX thread, thus the
+		// rows are built here rather than on the I/O pool
+		for (final ShotEntry entry : entries)
+			pendingRows.add(toRow(entry));
+
+		if (writeScheduled.compareAndSet(false, true)) executor.execute(this::write);
+	}
+
+	// Synchronized and draining the queue while holding the lock so that rows
+	// are written in the order they were spilled even if two writes overlap
+	synchronized void write() {
+		writeScheduled.set(false);
+
+		if (pendingRows.isEmpty()) return;
+
+		final File folder = spillFile.getAbsoluteFile().getParentFile();
+		if (!folder.exists() && !folder.mkdirs()) {
+			logger.error("Failed to make directory to spill shot timer entries to: {}", folder.getPath());
+		}
+
+		final boolean newFile = !spillFile.exists();
+
+		try (Writer writer = Files.newBufferedWriter(spillFile.toPath(), StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+			if (newFile) writer.write(HEADER + System.lineSeparator());
+
+			String row;
+			while ((row = pendingRows.poll()) != null)
+				writer.write(row + System.lineSeparator());
+		} catch (final IOException e) {
+			logger.error("Failed to spill shot timer entries to {}", spillFile.getPath(), e);
+		}
+	}
+
+	static String toRow(ShotEntry entry) {
+		final StringBuilder exerciseData = new StringBuilder();
+		for (final Map.Entry<String, String> value : entry.getExerciseData().entrySet()) {
+			if (exerciseData.length() > 0) exerciseData.append(';');
+			exerciseData.append(value.getKey()).append('=').append(value.getValue());
+		}
+
+		return String.join(",", entry.getTimestamp(), entry.getColor(), entry.getSplit().getSplit(),
+				String.valueOf(entry.getSplit().hadMalfunction()), String.valueOf(entry.getSplit().hadReload()),
+				escape(exerciseData.toString()));
+	}
+
+	private static String escape(String field) {
+		if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0) return field;
+
+		return '"' + field.replace("\"", "\"\"") + '"';
+	}
+}
@@ -0,0 +1,212 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.gui;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.shootoff.targets.TargetGeometry.RegionGeometry;
+
+/**
+ * A uniform grid over the canvas that maps every cell to the target regions
+ * whose bounds overlap it, thus finding the regions under a shot only touches
+ * the regions in one cell instead of every region of every target.
+ * 
+ * Targets are marked dirty whenever they publish new geometry (they are moved,
+ * resized, or their regions change) and are only re-bucketed from their latest
+ * geometry snapshot the next time the index is queried, so targets that move
+ * every frame cost almost nothing until a shot actually arrives. The index
+ * never reads scene graph nodes, thus it can be queried from any thread.
+ */
+class TargetHitIndex {
+	private static final int CELL_SIZE = 64; // px
+
+	private final Map<Long, List<RegionEntry>> cells = new HashMap<>();
+	private final Map<TargetView, IndexedTarget> indexedTargets = new IdentityHashMap<>();
+	private final Set<IndexedTarget> dirtyTargets = Collections.newSetFromMap(new IdentityHashMap<>());
+	private long nextOrder = 0;
+
+	private class IndexedTarget {
+		private final TargetView target;
+		private final long order;
+		private final Runnable geometryListener = () -> markDirty(this);
+		private final Set<Long> cellKeys = new HashSet<>();
+
+		private IndexedTarget(TargetView target, long order) {
+			this.target = target;
+			this.order = order;
+		}
+	}
+
+	private static class RegionEntry {
+		private final IndexedTarget target;
+		private final RegionGeometry region;
+
+		private RegionEntry(IndexedTarget target, RegionGeometry region) {
+			this.target = target;
+			this.region = region;
+		}
+	}
+
+	/**
+	 * A target that has regions under a point and the indexes of those
+	 * regions in the target's group.
+	 */
+	static class Candidate {
+		private final TargetView target;
+		private final BitSet regions = new BitSet();
+
+		private Candidate(TargetView target) {
+			this.target = target;
+		}
+
+		public TargetView getTarget() {
+			return target;
+		}
+
+		public BitSet getRegions() {
+			return regions;
+		}
+	}
+
+	/**
+	 * Add a target on top of all targets that are already indexed.
+	 */
+	public synchronized void add(TargetView target) {
+		if (indexedTargets.containsKey(target)) return;
+
+		final IndexedTarget indexed = new IndexedTarget(target, nextOrder++);
+		indexedTargets.put(target, indexed);
+		target.addGeometryListener(indexed.geometryListener);
+		dirtyTargets.add(indexed);
+	}
+
+	public synchronized void remove(TargetView target) {
+		final IndexedTarget indexed = indexedTargets.remove(target);
+
+		if (indexed == null) return;
+
+		target.removeGeometryListener(indexed.geometryListener);
+		dirtyTargets.remove(indexed);
+		removeEntries(indexed);
+	}
+
+	private synchronized void markDirty(IndexedTarget indexed) {
+		if (indexedTargets.get(indexed.target) == indexed) dirtyTargets.add(indexed);
+	}
+
+	/**
+	 * @return the targets with regions whose bounds contain (x, y), topmost
+	 *         (most recently added) target first
+	 */
+	public synchronized List<Candidate> query(double x, double y) {
+		if (!dirtyTargets.isEmpty()) reindexDirtyTargets();
+
+		final List<RegionEntry> cell = cells.get(cellKey(cellIndex(x), cellIndex(y)));
+
+		if (cell == null) return Collections.emptyList();
+
+		final Map<IndexedTarget, Candidate> candidates = new LinkedHashMap<>();
+
+		for (final RegionEntry entry : cell) {
+			if (!entry.region.boundsContain(x, y)) continue;
+
+			Candidate candidate = candidates.get(entry.target);
+			if (candidate == null) {
+				candidate = new Candidate(entry.target.target);
+				candidates.put(entry.target, candidate);
+			}
+
+			candidate.regions.set(entry.region.getChildIndex());
+		}
+
+		final List<IndexedTarget> hitTargets = new ArrayList<>(candidates.keySet());
+		hitTargets.sort((a, b) -> Long.compare(b.order, a.order));
+
+		final List<Candidate> sortedCandidates = new ArrayList<>(hitTargets.size());
+		for (final IndexedTarget t : hitTargets)
+			sortedCandidates.add(candidates.get(t));
+
+		return sortedCandidates;
+	}
+
+	private void reindexDirtyTargets() {
+		for (final Iterator<IndexedTarget> it = dirtyTargets.iterator(); it.hasNext();) {
+			final IndexedTarget indexed = it.next();
+			it.remove();
+
+			removeEntries(indexed);
+
+			// Same snapshot TargetView.isHit tests against
+			for (final RegionGeometry region : indexed.target.getGeometry().getRegions()) {
+				final double width = region.getMaxX() - region.getMinX();
+				final double height = region.getMaxY() - region.getMinY();
+
+				if (width < 0 || height < 0 || Double.isInfinite(width) || Double.isInfinite(height)) continue;
+
+				final RegionEntry entry = new RegionEntry(indexed, region);
+
+				for (int cx = cellIndex(region.getMinX()); cx <= cellIndex(region.getMaxX()); cx++) {
+					for (int cy = cellIndex(region.getMinY()); cy <= cellIndex(region.getMaxY()); cy++) {
+						final long key = cellKey(cx, cy);
+
+						List<RegionEntry> cell = cells.get(key);
+						if (cell == null) {
+							cell = new ArrayList<>();
+							cells.put(key, cell);
+						}
+
+						cell.add(entry);
+						indexed.cellKeys.add(key);
+					}
+				}
+			}
+		}
+	}
+
+	private void removeEntries(IndexedTarget indexed) {
+		for (final Long key : indexed.cellKeys) {
+			final List<RegionEntry> cell = cells.get(key);
+
+			if (cell == null) continue;
+
+			cell.removeIf((entry) -> entry.target == indexed);
+			if (cell.isEmpty()) cells.remove(key);
+		}
+
+		indexed.cellKeys.clear();
+	}
+
+	private static int cellIndex(double coordinate) {
+		return (int) Math.floor(coordinate / CELL_SIZE);
+	}
+
+	private static long cellKey(int cellX, int cellY) {
+		return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+	}
+}
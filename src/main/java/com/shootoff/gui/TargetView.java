@@ -18,16 +18,17 @@
 
 package com.shootoff.gui;
 
-import java.awt.Graphics2D;
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntPredicate;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,11 +40,15 @@ import com.shootoff.targets.ImageRegion;
 import com.shootoff.targets.RectangleRegion;
 import com.shootoff.targets.RegionType;
 import com.shootoff.targets.Target;
+import com.shootoff.targets.TargetGeometry;
+import com.shootoff.targets.TargetGeometry.RegionGeometry;
 import com.shootoff.targets.TargetRegion;
 import com.shootoff.targets.animation.SpriteAnimation;
+import com.shootoff.util.ThreadPools;
 
 import javafx.animation.Animation.Status;
-import com.shootoff.util.SwingFXUtils;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ListChangeListener;
 import javafx.geometry.Bounds;
 import javafx.geometry.Dimension2D;
 import javafx.geometry.Point2D;
@@ -98,6 +103,9 @@ public class TargetView implements Target {
 
 	private TargetSelectionListener selectionListener;
 
+	private volatile TargetGeometry geometry;
+	private final List<Runnable> geometryListeners = new CopyOnWriteArrayList<>();
+
 	public TargetView(File targetFile, Group target, Map<String, String> targetTags, CanvasManager parent, 
 			boolean userDeletable) {
 		this.targetFile = targetFile;
@@ -123,6 +131,9 @@ public class TargetView implements Target {
 		mouseMoved();
 		mouseReleased();
 		keyPressed();
+		invalidateHitMasksOnResize();
+		precomputeHitMasks();
+		publishGeometryOnChange();
 	}
 
 	// Used by the session viewer, target pane, and for testing
@@ -141,6 +152,77 @@ public class TargetView implements Target {
 		mouseMoved();
 		mouseReleased();
 		keyPressed();
+		invalidateHitMasksOnResize();
+		precomputeHitMasks();
+		publishGeometryOnChange();
+	}
+
+	// Building an image region's hit mask reads every pixel of its image, so
+	// it is done in the background now rather than on the shot detection
+	// thread when the region is first hit
+	private void precomputeHitMasks() {
+		final List<ImageRegion> imageRegions = new ArrayList<>();
+		final List<Image> images = new ArrayList<>();
+
+		for (final Node n : targetGroup.getChildren()) {
+			if (n instanceof ImageRegion) {
+				imageRegions.add((ImageRegion) n);
+				images.add(((ImageRegion) n).getImage());
+			}
+		}
+
+		if (imageRegions.isEmpty()) return;
+
+		ThreadPools.compute().execute(() -> {
+			for (int i = 0; i < imageRegions.size(); i++)
+				imageRegions.get(i).precomputeHitMask(images.get(i));
+		});
+	}
+
+	// Every resize (setDimensions, scale, and dragging) ends up changing the
+	// group's scale, which changes the size image regions are rendered at
+	private void invalidateHitMasksOnResize() {
+		final ChangeListener<Number> scaleListener = (observable, oldValue, newValue) -> {
+			for (final Node n : targetGroup.getChildren()) {
+				if (n instanceof ImageRegion) ((ImageRegion) n).invalidateHitMask();
+			}
+		};
+
+		targetGroup.scaleXProperty().addListener(scaleListener);
+		targetGroup.scaleYProperty().addListener(scaleListener);
+	}
+
+	// Moving, resizing, or changing the regions of the target all change the
+	// group's bounds or children, so a new snapshot is captured on the thread
+	// making the change and published before any geometry listener runs
+	private void publishGeometryOnChange() {
+		geometry = TargetGeometry.capture(targetGroup);
+
+		targetGroup.boundsInParentProperty().addListener((observable, oldValue, newValue) -> publishGeometry());
+		targetGroup.getChildren().addListener((ListChangeListener<Node>) change -> publishGeometry());
+	}
+
+	private void publishGeometry() {
+		geometry = TargetGeometry.capture(targetGroup);
+
+		for (final Runnable listener : geometryListeners)
+			listener.run();
+	}
+
+	/**
+	 * @return the most recently published snapshot of this target's geometry.
+	 *         Snapshots are immutable, thus they may be used on any thread.
+	 */
+	public TargetGeometry getGeometry() {
+		return geometry;
+	}
+
+	void addGeometryListener(Runnable listener) {
+		geometryListeners.add(listener);
+	}
+
+	void removeGeometryListener(Runnable listener) {
+		geometryListeners.remove(listener);
 	}
 
 	public boolean isUserDeletable() {
@@ -509,92 +591,64 @@ public class TargetView implements Target {
 
 	@Override
 	public Optional<Hit> isHit(Shot shot) {
-		if (targetGroup.getBoundsInParent().contains(shot.getX(), shot.getY())) {
-			// Target was hit, see if a specific region was hit
-			for (int i = targetGroup.getChildren().size() - 1; i >= 0; i--) {
-				final Node node = targetGroup.getChildren().get(i);
-
-				if (!(node instanceof TargetRegion)) continue;
-
-				final Bounds nodeBounds = targetGroup.getLocalToParentTransform().transform(node.getBoundsInParent());
-
-				final int adjustedX = (int) (shot.getX() - nodeBounds.getMinX());
-				final int adjustedY = (int) (shot.getY() - nodeBounds.getMinY());
-
-				if (nodeBounds.contains(shot.getX(), shot.getY())) {
-					// If we hit an image region on a transparent pixel,
-					// ignore it
-					final TargetRegion region = (TargetRegion) node;
-
-					// Ignore regions where ignoreHit tag is true
-					if (region.tagExists(TargetView.TAG_IGNORE_HIT)
-							&& Boolean.parseBoolean(region.getTag(TargetView.TAG_IGNORE_HIT)))
-						continue;
-
-					if (region.getType() == RegionType.IMAGE) {
-						// The image you get from the image view is its
-						// original size. We need to resize it if it has
-						// changed size to accurately determine if a pixel
-						// is transparent
-						final Image currentImage = ((ImageRegion) region).getImage();
-
-						if (adjustedX < 0 || adjustedY < 0) {
-							logger.debug(
-									"An adjusted pixel is negative: Adjusted ({}, {}), Original ({}, {}), "
-											+ " nodeBounds.getMin ({}, {})",
-									adjustedX, adjustedY, shot.getX(), shot.getY(), nodeBounds.getMaxX(),
-									nodeBounds.getMinY());
-							return Optional.empty();
-						}
+		return isHit(shot, (childIndex) -> true);
+	}
 
-						if (Math.abs(currentImage.getWidth() - nodeBounds.getWidth()) > .0000001
-								|| Math.abs(currentImage.getHeight() - nodeBounds.getHeight()) > .0000001) {
-
-							final BufferedImage bufferedOriginal = SwingFXUtils.fromFXImage(currentImage, null);
-
-							final java.awt.Image tmp = bufferedOriginal.getScaledInstance((int) nodeBounds.getWidth(),
-									(int) nodeBounds.getHeight(), java.awt.Image.SCALE_SMOOTH);
-							final BufferedImage bufferedResized = new BufferedImage((int) nodeBounds.getWidth(),
-									(int) nodeBounds.getHeight(), BufferedImage.TYPE_INT_ARGB);
-
-							final Graphics2D g2d = bufferedResized.createGraphics();
-							g2d.drawImage(tmp, 0, 0, null);
-							g2d.dispose();
-
-							try {
-								if (adjustedX >= bufferedResized.getWidth() || adjustedY >= bufferedResized.getHeight()
-										|| bufferedResized.getRGB(adjustedX, adjustedY) >> 24 == 0) {
-									continue;
-								}
-							} catch (final ArrayIndexOutOfBoundsException e) {
-								final String message = String.format(
-										"Index out of bounds while trying to find adjusted coordinate (%d, %d) "
-												+ "from original (%.2f, %.2f) in adjusted BufferedImage for target %s "
-												+ "with width = %d, height = %d",
-										adjustedX, adjustedY, shot.getX(), shot.getY(), getTargetFile().getPath(),
-										bufferedResized.getWidth(), bufferedResized.getHeight());
-								logger.error(message, e);
-								return Optional.empty();
-							}
-						} else {
-							if (adjustedX >= currentImage.getWidth() || adjustedY >= currentImage.getHeight()
-									|| currentImage.getPixelReader().getArgb(adjustedX, adjustedY) >> 24 == 0) {
-								continue;
-							}
-						}
-					} else {
-						// The shot is in the bounding box but make sure it
-						// is in the shape's
-						// fill otherwise we can get a shot detected where
-						// there isn't actually
-						// a region showing
-						final Point2D localCoords = targetGroup.parentToLocal(shot.getX(), shot.getY());
-						if (!node.contains(localCoords)) continue;
-					}
+	/**
+	 * Check for a hit on a subset of this target's regions, e.g. the regions
+	 * a {@link TargetHitIndex} found under the shot. Regions are still tested
+	 * from the top down, thus the result is the same as {@link #isHit(Shot)}
+	 * as long as every region that could contain the shot is a candidate.
+	 * 
+	 * @param candidateRegions
+	 *            the indexes of the target group's children to test
+	 */
+	Optional<Hit> isHit(Shot shot, BitSet candidateRegions) {
+		return isHit(shot, candidateRegions::get);
+	}
 
-					return Optional.of(new Hit(this, (TargetRegion) node, adjustedX, adjustedY));
-				}
+	// Shots are checked against the published geometry snapshot rather than
+	// the live nodes, thus this is safe to call from shot detection threads
+	private Optional<Hit> isHit(Shot shot, IntPredicate isCandidate) {
+		final TargetGeometry snapshot = geometry;
+
+		if (!snapshot.contains(shot.getX(), shot.getY())) return Optional.empty();
+
+		// Target was hit, see if a specific region was hit
+		final List<RegionGeometry> regions = snapshot.getRegions();
+		for (int i = regions.size() - 1; i >= 0; i--) {
+			final RegionGeometry regionGeometry = regions.get(i);
+
+			if (!isCandidate.test(regionGeometry.getChildIndex())) continue;
+
+			if (!regionGeometry.boundsContain(shot.getX(), shot.getY())) continue;
+
+			final TargetRegion region = regionGeometry.getRegion();
+
+			// Ignore regions where ignoreHit tag is true
+			if (region.tagExists(TargetView.TAG_IGNORE_HIT)
+					&& Boolean.parseBoolean(region.getTag(TargetView.TAG_IGNORE_HIT)))
+				continue;
+
+			final int adjustedX = (int) (shot.getX() - regionGeometry.getMinX());
+			final int adjustedY = (int) (shot.getY() - regionGeometry.getMinY());
+
+			if (region.getType() == RegionType.IMAGE && (adjustedX < 0 || adjustedY < 0)) {
+				logger.debug(
+						"An adjusted pixel is negative: Adjusted ({}, {}), Original ({}, {}), "
+								+ " nodeBounds.getMin ({}, {})",
+						adjustedX, adjustedY, shot.getX(), shot.getY(), regionGeometry.getMinX(),
+						regionGeometry.getMinY());
+				return Optional.empty();
 			}
+
+			// The shot is in the bounding box but make sure it is in the
+			// shape's fill (or on an opaque pixel of an image) otherwise we
+			// can get a shot detected where there isn't actually a region
+			// showing
+			if (!regionGeometry.contains(shot.getX(), shot.getY())) continue;
+
+			return Optional.of(new Hit(this, region, adjustedX, adjustedY));
 		}
 
 		return Optional.empty();
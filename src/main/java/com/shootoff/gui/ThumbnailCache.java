@@ -0,0 +1,278 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+import javax.imageio.ImageIO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.shootoff.util.SwingFXUtils;
+import com.shootoff.util.TaskGroup;
+import com.shootoff.util.ThreadPools;
+
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Transform;
+
+/**
+ * Thumbnails for the target, course, and background pickers. Thumbnails are
+ * stored on disk under the hash of the file they represent and the
+ * modification times of the files it references (e.g. a target's images), thus
+ * a thumbnail is only rendered again when one of those files changes. Files
+ * are read and decoded on the shared I/O pool. Only building the thumbnail's
+ * nodes and their snapshot runs on the JavaFX thread, and views show a
+ * placeholder until their thumbnail is ready.
+ */
+public class ThumbnailCache {
+	private static final Logger logger = LoggerFactory.getLogger(ThumbnailCache.class);
+
+	public static final int THUMBNAIL_SIZE = 60;
+
+	// Thumbnails are stored at twice the size they are shown at so that they
+	// still look sharp on high density displays
+	public static final int RENDER_SIZE = THUMBNAIL_SIZE * 2;
+	private static final String THUMBNAIL_EXTENSION = ".png";
+	private static final String PLACEHOLDER_RESOURCE = "/images/gnome_image_x_generic.png";
+
+	private static ThumbnailCache cache;
+
+	private final File cacheFolder;
+	private final TaskGroup worker = ThreadPools.newIOTaskGroup("ThumbnailCache");
+	private Image placeholder;
+
+	/**
+	 * Renders the contents of a thumbnail. Everything but the node factory
+	 * returned by {@link #load()} is called on a shared I/O thread.
+	 */
+	public interface ThumbnailRenderer {
+		/**
+		 * @return the files the thumbnail is rendered from besides its source
+		 *         (e.g. a target's images), which must be found without
+		 *         decoding them
+		 */
+		default List<File> getDependencies() {
+			return Collections.emptyList();
+		}
+
+		/**
+		 * Read and decode what the thumbnail shows without creating any nodes.
+		 * 
+		 * @return creates the thumbnail's nodes on the JavaFX thread
+		 */
+		Optional<Supplier<Node>> load();
+	}
+
+	public ThumbnailCache(File cacheFolder) {
+		this.cacheFolder = cacheFolder;
+	}
+
+	public static synchronized ThumbnailCache getCache() {
+		if (cache == null) {
+			cache = new ThumbnailCache(new File(System.getProperty("shootoff.home") + File.separator + "thumbnails"));
+		}
+
+		return cache;
+	}
+
+	public static synchronized void close() {
+		if (cache != null) cache.worker.shutdownNow();
+	}
+
+	/**
+	 * @return a view that shows a placeholder until a thumbnail is loaded into
+	 *         it
+	 */
+	public ImageView createThumbnailView() {
+		final ImageView thumbnailView = new ImageView(getPlaceholder());
+		thumbnailView.setFitWidth(THUMBNAIL_SIZE);
+		thumbnailView.setFitHeight(THUMBNAIL_SIZE);
+		thumbnailView.setPreserveRatio(true);
+		thumbnailView.setSmooth(true);
+
+		return thumbnailView;
+	}
+
+	private synchronized Image getPlaceholder() {
+		if (placeholder == null) {
+			placeholder = new Image(ThumbnailCache.class.getResourceAsStream(PLACEHOLDER_RESOURCE), THUMBNAIL_SIZE,
+					THUMBNAIL_SIZE, true, true);
+		}
+
+		return placeholder;
+	}
+
+	/**
+	 * Show the thumbnail for <code>source</code> in <code>thumbnailView</code>
+	 * once it has been loaded from disk or rendered. If a thumbnail can't be
+	 * rendered the view keeps showing its placeholder.
+	 * 
+	 * @param source
+	 *            the file or resource the thumbnail represents, it is only
+	 *            read to hash its contents
+	 * @param renderer
+	 *            renders the thumbnail if it isn't cached
+	 */
+	public void loadThumbnail(URL source, ThumbnailRenderer renderer, ImageView thumbnailView) {
+		if (worker.isShutdown()) return;
+
+		worker.submit(() -> {
+			final Optional<Image> thumbnail = getThumbnail(source, renderer);
+
+			if (thumbnail.isPresent()) Platform.runLater(() -> thumbnailView.setImage(thumbnail.get()));
+		});
+	}
+
+	private Optional<Image> getThumbnail(URL source, ThumbnailRenderer renderer) {
+		final List<File> dependencies;
+		try {
+			dependencies = renderer.getDependencies();
+		} catch (final Exception e) {
+			logger.error("Failed to find the files of thumbnail for " + source, e);
+			return Optional.empty();
+		}
+
+		final Optional<String> hash = hash(source, dependencies);
+
+		if (!hash.isPresent()) return Optional.empty();
+
+		final File thumbnailFile = new File(cacheFolder, hash.get() + THUMBNAIL_EXTENSION);
+
+		if (thumbnailFile.isFile()) {
+			final Image thumbnail = new Image(thumbnailFile.toURI().toString());
+
+			if (!thumbnail.isError()) return Optional.of(thumbnail);
+
+			logger.warn("Cached thumbnail {} is corrupt, rendering it again", thumbnailFile.getPath());
+		}
+
+		final Optional<Supplier<Node>> contents;
+		try {
+			contents = renderer.load();
+		} catch (final Exception e) {
+			logger.error("Failed to load thumbnail for " + source, e);
+			return Optional.empty();
+		}
+
+		if (!contents.isPresent()) return Optional.empty();
+
+		final Optional<Image> thumbnail = snapshot(contents.get());
+
+		if (thumbnail.isPresent()) save(thumbnail.get(), thumbnailFile);
+
+		return thumbnail;
+	}
+
+	private Optional<Image> snapshot(Supplier<Node> contentsFactory) {
+		final FutureTask<Image> snapshotTask = new FutureTask<>(() -> {
+			final Node contents = contentsFactory.get();
+			final double width = contents.getBoundsInParent().getWidth();
+			final double height = contents.getBoundsInParent().getHeight();
+			final double scale = Math.min(1.0, RENDER_SIZE / Math.max(width, height));
+
+			final SnapshotParameters parameters = new SnapshotParameters();
+			parameters.setFill(Color.TRANSPARENT);
+			parameters.setTransform(Transform.scale(scale, scale));
+
+			return contents.snapshot(parameters, null);
+		});
+
+		Platform.runLater(snapshotTask);
+
+		try {
+			return Optional.of(snapshotTask.get());
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (final ExecutionException e) {
+			logger.error("Failed to snapshot thumbnail", e.getCause());
+		}
+
+		return Optional.empty();
+	}
+
+	private void save(Image thumbnail, File thumbnailFile) {
+		if (!cacheFolder.isDirectory() && !cacheFolder.mkdirs()) {
+			logger.error("Thumbnail cache folder does not exist and cannot be created: {}", cacheFolder.getPath());
+			return;
+		}
+
+		// Write to a temporary file first so that a crash can't leave a
+		// partial thumbnail behind. Views that show the same file render
+		// their thumbnails in parallel, thus each needs its own file.
+		File tempFile = null;
+
+		try {
+			tempFile = File.createTempFile(thumbnailFile.getName(), ".tmp", cacheFolder);
+			ImageIO.write(SwingFXUtils.fromFXImage(thumbnail, null), "png", tempFile);
+			Files.move(tempFile.toPath(), thumbnailFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (final IOException e) {
+			logger.error("Failed to save thumbnail " + thumbnailFile.getPath(), e);
+			if (tempFile != null && tempFile.exists() && !tempFile.delete()) tempFile.deleteOnExit();
+		}
+	}
+
+	// The render size is part of the hash so that changing it invalidates
+	// every existing thumbnail
+	private static Optional<String> hash(URL source, List<File> dependencies) {
+		try (InputStream is = source.openStream()) {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+
+			final byte[] buffer = new byte[8192];
+			int read;
+			while ((read = is.read(buffer)) != -1)
+				digest.update(buffer, 0, read);
+
+			for (final File dependency : dependencies) {
+				digest.update(String.format("%s:%d:%d", dependency.getAbsolutePath(), dependency.lastModified(),
+						dependency.length()).getBytes("UTF-8"));
+			}
+
+			digest.update(Integer.toString(RENDER_SIZE).getBytes("UTF-8"));
+
+			final StringBuilder hex = new StringBuilder();
+			for (final byte b : digest.digest())
+				hex.append(String.format("%02x", b));
+
+			return Optional.of(hex.toString());
+		} catch (IOException | NoSuchAlgorithmException e) {
+			logger.error("Failed to hash " + source + " for its thumbnail", e);
+			return Optional.empty();
+		}
+	}
+}
@@ -48,6 +48,7 @@ import com.shootoff.Main;
 import com.shootoff.plugins.ExerciseMetadata;
 import com.shootoff.plugins.engine.Plugin;
 import com.shootoff.plugins.engine.PluginEngine;
+import com.shootoff.util.ThreadPools;
 import com.shootoff.util.VersionChecker;
 
 import javafx.collections.FXCollections;
@@ -300,7 +301,7 @@ public class PluginManagerController {
 			}
 		});
 
-		new Thread(downloadTask).start();
+		ThreadPools.io().execute(downloadTask);
 
 		return Optional.of(downloadTask);
 	}
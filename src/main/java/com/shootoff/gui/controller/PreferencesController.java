@@ -27,7 +27,8 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
-import com.shootoff.camera.CameraFactory;
+import com.shootoff.camera.CameraDiscovery;
+import com.shootoff.camera.CameraDiscovery.CameraDiscoveryListener;
 import com.shootoff.camera.cameratypes.Camera;
 import com.shootoff.config.Configuration;
 import com.shootoff.config.ConfigurationException;
@@ -71,7 +72,7 @@ import javafx.stage.Stage;
 import javafx.util.Callback;
 
 public class PreferencesController implements DesignateShotRecorderListener, CameraSelectionListener,
-CameraRenamedListener {
+CameraRenamedListener, CameraDiscoveryListener {
 	@FXML private ScrollPane preferencesPane;
 	@FXML private ListView<String> webcamListView;
 	@FXML private Slider markerRadiusSlider;
@@ -103,11 +104,15 @@ CameraRenamedListener {
 	private final List<Camera> configuredCameras = new ArrayList<>();
 	private final List<String> configuredNames = new ArrayList<>();
 	private final Set<Camera> camerasOnShown = new HashSet<>();
+	private final List<Camera> discoveredCameras = new ArrayList<>();
 	private final ObservableList<String> cameras = FXCollections.observableArrayList();
 
 	public void setConfig(Stage parent, Configuration config, CalibrationConfigurator calibrationConfigurator,
 			CameraConfigListener cameraConfigListener) {
-		CheckableImageListCell.createImageCache(CameraFactory.getWebcams(), this);
+		// Use the cameras discovered so far so that the dialog does not wait
+		// on the camera drivers, cameras found later are added as they appear
+		discoveredCameras.addAll(CameraDiscovery.getCameras());
+		CheckableImageListCell.createImageCache(discoveredCameras, this);
 
 		this.parent = parent;
 		this.config = config;
@@ -121,7 +126,7 @@ CameraRenamedListener {
 		webcamListView.setCellFactory(new Callback<ListView<String>, ListCell<String>>() {
 			@Override
 			public ListCell<String> call(ListView<String> list) {
-				return new CheckableImageListCell(CameraFactory.getWebcams(), configuredNames, configuredCameras, 
+				return new CheckableImageListCell(discoveredCameras, configuredNames, configuredCameras, 
 						PreferencesController.this, PreferencesController.this, 
 						Optional.of(config.getRecordingCameras()));
 			}
@@ -149,12 +154,14 @@ CameraRenamedListener {
 			CheckableImageListCell.getCameraCheckBoxes().get(c).setSelected(true);
 		}
 
-		for (final Camera c : CameraFactory.getWebcams()) {
+		for (final Camera c : discoveredCameras) {
 			if (!configuredCameras.contains(c)) cameras.add(c.getName());
 		}
 
 		webcamListView.setItems(cameras);
 
+		CameraDiscovery.addListener(this);
+
 		markerRadiusSlider.setValue(config.getMarkerRadius());
 		ignoreLaserColorChoiceBox.setValue(config.getIgnoreLaserColorName());
 		redLaserSoundCheckBox.setSelected(config.useRedLaserSound());
@@ -206,6 +213,30 @@ CameraRenamedListener {
 		cameraConfigChanged = true;
 	}
 
+	@Override
+	public void camerasChanged(List<Camera> added, List<Camera> removed) {
+		Platform.runLater(() -> {
+			webcamListView.setItems(null);
+
+			for (final Camera c : added) {
+				if (discoveredCameras.contains(c)) continue;
+
+				discoveredCameras.add(c);
+				CheckableImageListCell.cacheCamera(c, this);
+				if (!configuredCameras.contains(c)) cameras.add(c.getName());
+			}
+
+			// Configured cameras stay listed so that they can still be
+			// unchecked
+			for (final Camera c : removed) {
+				discoveredCameras.remove(c);
+				if (!configuredCameras.contains(c)) cameras.remove(c.getName());
+			}
+
+			webcamListView.setItems(cameras);
+		});
+	}
+
 	@Override
 	public void cameraRenamed(String oldName, String newName) {
 		final int oldIndex = configuredNames.indexOf(oldName);
@@ -221,6 +252,10 @@ CameraRenamedListener {
 		cameraRenamed = false;
 		camerasOnShown.clear();
 		camerasOnShown.addAll(configuredCameras);
+
+		// Pick up cameras that changed while the preferences were hidden in
+		// case hot plugging was missed
+		CameraDiscovery.refreshAsync();
 	}
 
 	public Node getPane() {
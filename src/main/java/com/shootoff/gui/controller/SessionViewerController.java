@@ -22,16 +22,12 @@ import java.io.File;
 import java.io.IOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Callable;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -42,8 +38,12 @@ import com.shootoff.gui.SessionCanvasManager;
 import com.shootoff.session.Event;
 import com.shootoff.session.SessionRecorder;
 import com.shootoff.session.ShotEvent;
+import com.shootoff.session.io.SessionCatalog;
+import com.shootoff.session.io.SessionCatalogListener;
 import com.shootoff.session.io.SessionIO;
-import com.shootoff.util.NamedThreadFactory;
+import com.shootoff.session.io.SessionSummary;
+import com.shootoff.util.TaskGroup;
+import com.shootoff.util.ThreadPools;
 
 import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
@@ -58,21 +58,22 @@ import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.ScrollPane.ScrollBarPolicy;
 import javafx.scene.control.Slider;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
+import javafx.scene.control.Tooltip;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
 import javafx.stage.Stage;
-import marytts.util.io.FileFilter;
 
 public class SessionViewerController {
 	@FXML private HBox sessionViewerPane;
-	@FXML private ListView<File> sessionListView;
+	@FXML private ListView<SessionSummary> sessionListView;
 	@FXML private TabPane cameraTabPane;
 	@FXML private Button togglePlaybackButton;
 	@FXML private Slider timeSlider;
@@ -80,11 +81,10 @@ public class SessionViewerController {
 	@FXML private ListView<Event> eventsListView;
 
 	private static final int STEP_INTERVAL = 100; // ms
-	private static final int CORE_POOL_SIZE = 2;
 
 	private final Logger logger = LoggerFactory.getLogger(SessionViewerController.class);
-	private ScheduledExecutorService executorService;
-	private final ObservableList<File> sessionEntries = FXCollections.observableArrayList();
+	private TaskGroup playbackTasks;
+	private final ObservableList<SessionSummary> sessionEntries = FXCollections.observableArrayList();
 	private final ObservableList<Event> eventEntries = FXCollections.observableArrayList();
 	private final Map<String, SessionCanvasManager> cameraGroups = new HashMap<>();
 	private final Map<Tab, Integer> eventSelectionsPerTab = new HashMap<>();
@@ -93,24 +93,61 @@ public class SessionViewerController {
 	private boolean refreshFromSlider = true;
 	private boolean refreshFromSelection = true;
 	private SessionRecorder currentSession;
+	private SessionCatalog sessionCatalog;
 
 	private Configuration config;
 
+	private final SessionCatalogListener catalogListener = new SessionCatalogListener() {
+		@Override
+		public void sessionCatalogued(SessionSummary summary) {
+			Platform.runLater(() -> {
+				removeSessionEntry(summary.getFileName());
+
+				// Keep the list ordered newest first like the catalog
+				int index = 0;
+				while (index < sessionEntries.size() && sessionEntries.get(index).getDate() > summary.getDate())
+					index++;
+
+				sessionEntries.add(index, summary);
+			});
+		}
+
+		@Override
+		public void sessionRemoved(String fileName) {
+			Platform.runLater(() -> removeSessionEntry(fileName));
+		}
+	};
+
 	public void init(Configuration config) {
 		this.config = config;
-		sessionEntries.addAll(findSessions());
+
+		final File sessionsFolder = new File(System.getProperty("shootoff.sessions"));
+		if (!sessionsFolder.exists()) logger.debug("No sessions folder available");
+
+		// Sessions are listed from the catalog and only parsed once selected
+		sessionCatalog = SessionCatalog.getCatalog(sessionsFolder);
+		sessionCatalog.addCatalogListener(catalogListener);
+		sessionEntries.addAll(sessionCatalog.getSummaries());
 		sessionListView.setItems(sessionEntries);
+		sessionListView.setCellFactory((list) -> new SessionSummaryCell());
+
+		sessionViewerPane.sceneProperty().addListener((observable, oldScene, newScene) -> {
+			if (newScene == null) sessionCatalog.removeCatalogListener(catalogListener);
+		});
 
 		togglePlaybackButton.setGraphic(new ImageView(
 				new Image(VideoPlayerController.class.getResourceAsStream("/images/gnome_media_playback_start.png"))));
 
-		sessionListView.getSelectionModel().selectedItemProperty().addListener(new ChangeListener<File>() {
+		sessionListView.getSelectionModel().selectedItemProperty().addListener(new ChangeListener<SessionSummary>() {
 			@Override
-			public void changed(ObservableValue<? extends File> ov, File oldFile, File newFile) {
+			public void changed(ObservableValue<? extends SessionSummary> ov, SessionSummary oldSummary,
+					SessionSummary newSummary) {
+				if (newSummary == null) return;
+
 				if (isPlaying) togglePlaybackButton.fire();
 
-				final Optional<SessionRecorder> session = SessionIO.loadSession(new File(System.getProperty("shootoff.home")
-						+ File.separator + "sessions" + File.separator + newFile.getName()));
+				final Optional<SessionRecorder> session = SessionIO
+						.loadSession(new File(sessionCatalog.getSessionsFolder(), newSummary.getFileName()));
 
 				if (session.isPresent()) {
 					refreshFromSlider = false;
@@ -168,14 +205,9 @@ public class SessionViewerController {
 
 				if (!refreshFromSelection) return;
 
-				final int oldIndex = eventEntries.indexOf(oldEvent);
-				final int newIndex = eventEntries.indexOf(newEvent);
-
-				if (oldIndex <= newIndex) {
-					updateEvents(oldIndex, newIndex, EventsUpdate.DO);
-				} else {
-					updateEvents(oldIndex, newIndex, EventsUpdate.UNDO);
-				}
+				final Optional<SessionCanvasManager> canvasManager = getSelectedCanvasManager();
+				if (canvasManager.isPresent())
+					canvasManager.get().seek(eventsListView.getSelectionModel().getSelectedIndex());
 			}
 		});
 
@@ -230,15 +262,11 @@ public class SessionViewerController {
 
 				if (!refreshFromSlider) return;
 
-				final List<Event> reversedEntries = new ArrayList<>(eventEntries);
-				Collections.reverse(reversedEntries);
+				final Optional<SessionCanvasManager> canvasManager = getSelectedCanvasManager();
+				if (!canvasManager.isPresent()) return;
 
-				for (final Event e : reversedEntries) {
-					if (e.getTimestamp() <= newValue.longValue()) {
-						eventsListView.getSelectionModel().select(e);
-						break;
-					}
-				}
+				final int eventIndex = canvasManager.get().getTimeline().getEventIndexAt(newValue.longValue());
+				if (eventIndex >= 0) eventsListView.getSelectionModel().select(eventIndex);
 			}
 		});
 	}
@@ -249,27 +277,34 @@ public class SessionViewerController {
 		timeLabel.setText(formatter.format(date));
 	}
 
-	private List<File> findSessions() {
-		final File sessionsFolder = new File(System.getProperty("shootoff.sessions"));
-		final List<File> sessions = new ArrayList<>();
-
-		if (!sessionsFolder.exists()) {
-			logger.debug("No sessions folder available");
-			return sessions;
+	private void removeSessionEntry(String fileName) {
+		for (int i = 0; i < sessionEntries.size(); i++) {
+			if (sessionEntries.get(i).getFileName().equals(fileName)) {
+				sessionEntries.remove(i);
+				return;
+			}
 		}
+	}
 
-		final File[] sessionFiles = sessionsFolder.listFiles(new FileFilter("xml"));
+	private static class SessionSummaryCell extends ListCell<SessionSummary> {
+		@Override
+		protected void updateItem(SessionSummary summary, boolean empty) {
+			super.updateItem(summary, empty);
 
-		if (sessionFiles != null) {
-			for (final File file : sessionFiles) {
-				sessions.add(new File(file.getName()));
+			if (empty || summary == null) {
+				setText(null);
+				setTooltip(null);
+				return;
 			}
-		} else {
-			logger.error("Failed to find session files because a list of files could not be retrieved: "
-					+ "sessionsFolder = {}", sessionsFolder.getPath());
-		}
 
-		return sessions;
+			setText(summary.getFileName());
+
+			final long duration = summary.getDuration();
+			setTooltip(new Tooltip(String.format(
+					"Cameras: %s%nShots: %d (%.0f%% hits)%nDuration: %02d:%02d%nVideos: %d",
+					String.join(", ", summary.getCameras()), summary.getShotCount(), summary.getHitRatio() * 100,
+					duration / 60000, (duration / 1000) % 60, summary.getVideos().size())));
+		}
 	}
 
 	private void updateCameraTabs() {
@@ -283,7 +318,8 @@ public class SessionViewerController {
 			scrollPane.setPrefSize(cameraTabPane.getPrefWidth(), cameraTabPane.getPrefHeight());
 			scrollPane.setHbarPolicy(ScrollBarPolicy.AS_NEEDED);
 			scrollPane.setVbarPolicy(ScrollBarPolicy.AS_NEEDED);
-			cameraGroups.put(cameraName, new SessionCanvasManager(canvas, config));
+			cameraGroups.put(cameraName,
+					new SessionCanvasManager(canvas, config, currentSession.getCameraEvents(cameraName)));
 
 			final Tab cameraTab = new Tab(cameraName);
 			cameraTab.setContent(scrollPane);
@@ -296,30 +332,12 @@ public class SessionViewerController {
 		eventEntries.addAll(currentSession.getCameraEvents(cameraName));
 	}
 
-	private enum EventsUpdate {
-		DO, UNDO
-	}
-
-	private void updateEvents(int oldIndex, int newIndex, EventsUpdate updateType) {
-		List<Event> events;
-
-		if (updateType == EventsUpdate.DO) {
-			events = new ArrayList<>(eventEntries.subList(oldIndex + 1, newIndex + 1));
-		} else {
-			events = new ArrayList<>(eventEntries.subList(newIndex + 1, oldIndex + 1));
-			Collections.reverse(events);
-		}
+	private Optional<SessionCanvasManager> getSelectedCanvasManager() {
+		final Tab selectedTab = cameraTabPane.getSelectionModel().getSelectedItem();
 
-		final SessionCanvasManager currentCanvasManager = cameraGroups
-				.get(cameraTabPane.getSelectionModel().getSelectedItem().getText());
+		if (selectedTab == null) return Optional.empty();
 
-		for (final Event e : events) {
-			if (updateType == EventsUpdate.DO) {
-				currentCanvasManager.doEvent(e);
-			} else {
-				currentCanvasManager.undoEvent(e);
-			}
-		}
+		return Optional.ofNullable(cameraGroups.get(selectedTab.getText()));
 	}
 
 	@FXML
@@ -368,7 +386,7 @@ public class SessionViewerController {
 					timeSlider.setValue(currentTime + STEP_INTERVAL);
 				});
 
-				executorService.schedule(new AdvanceSlider(), STEP_INTERVAL, TimeUnit.MILLISECONDS);
+				playbackTasks.schedule(new AdvanceSlider(), STEP_INTERVAL, TimeUnit.MILLISECONDS);
 			}
 
 			return null;
@@ -383,14 +401,13 @@ public class SessionViewerController {
 			togglePlaybackButton.setGraphic(new ImageView(new Image(
 					SessionViewerController.class.getResourceAsStream("/images/gnome_media_playback_pause.png"))));
 
-			executorService = Executors.newScheduledThreadPool(CORE_POOL_SIZE,
-					new NamedThreadFactory("SessionPlayback"));
-			executorService.schedule(new AdvanceSlider(), STEP_INTERVAL, TimeUnit.MILLISECONDS);
+			playbackTasks = ThreadPools.newTaskGroup("SessionPlayback");
+			playbackTasks.schedule(new AdvanceSlider(), STEP_INTERVAL, TimeUnit.MILLISECONDS);
 		} else {
 			togglePlaybackButton.setGraphic(new ImageView(new Image(
 					SessionViewerController.class.getResourceAsStream("/images/gnome_media_playback_start.png"))));
 
-			executorService.shutdownNow();
+			playbackTasks.shutdownNow();
 		}
 	}
 
@@ -22,7 +22,9 @@ import java.awt.Toolkit;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -31,6 +33,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.openimaj.util.parallel.GlobalExecutorPool;
 import org.slf4j.Logger;
@@ -38,6 +41,8 @@ import org.slf4j.LoggerFactory;
 
 import com.shootoff.Closeable;
 import com.shootoff.Main;
+import com.shootoff.audio.AudioEngine;
+import com.shootoff.camera.CameraDiscovery;
 import com.shootoff.camera.CameraErrorView;
 import com.shootoff.camera.CameraFactory;
 import com.shootoff.camera.CameraManager;
@@ -51,8 +56,12 @@ import com.shootoff.gui.CanvasManager;
 import com.shootoff.gui.ExerciseListener;
 import com.shootoff.gui.Resetter;
 import com.shootoff.gui.ShotEntry;
+import com.shootoff.gui.ShotTimerModel;
+import com.shootoff.gui.ShotTimerSpill;
+import com.shootoff.gui.ThumbnailCache;
 import com.shootoff.gui.pane.ExerciseSlide;
 import com.shootoff.gui.pane.FileSlide;
+import com.shootoff.gui.pane.ProjectorArenaPane;
 import com.shootoff.gui.pane.ProjectorSlide;
 import com.shootoff.gui.pane.ShotSectorPane;
 import com.shootoff.gui.pane.TargetSlide;
@@ -62,10 +71,14 @@ import com.shootoff.plugins.TrainingExercise;
 import com.shootoff.plugins.TrainingExerciseBase;
 import com.shootoff.plugins.engine.Plugin;
 import com.shootoff.plugins.engine.PluginEngine;
+import com.shootoff.session.SessionRecorder;
+import com.shootoff.session.io.SessionCatalog;
+import com.shootoff.session.io.SessionJournal;
 import com.shootoff.targets.CameraViews;
 import com.shootoff.targets.Target;
-import com.shootoff.targets.TargetRegion;
+import com.shootoff.util.StartupGraph;
 import com.shootoff.util.SystemInfo;
+import com.shootoff.util.ThreadPools;
 import com.shootoff.util.TimerPool;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -99,7 +112,6 @@ import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
-import javafx.scene.shape.Shape;
 import javafx.stage.Screen;
 import javafx.stage.Stage;
 
@@ -121,9 +133,10 @@ public class ShootOFFController implements CameraConfigListener, CameraErrorView
 	private String defaultWindowTitle;
 	private CamerasSupervisor camerasSupervisor;
 	private Configuration config;
-	private PluginEngine pluginEngine;
+	private PluginEngine pluginEngine = null;
+	private boolean isClosed = false;
 	private static final Logger logger = LoggerFactory.getLogger(ShootOFFController.class);
-	private final ObservableList<ShotEntry> shotEntries = FXCollections.observableArrayList();
+	private final ShotTimerModel shotTimerModel = new ShotTimerModel(FXCollections.observableArrayList());
 	private final List<Stage> streamDebuggerStages = new ArrayList<>();
 
 	static public double getDpiScaleFactorForScreen() {
@@ -139,10 +152,25 @@ public class ShootOFFController implements CameraConfigListener, CameraErrorView
 	}
 
 
+	/**
+	 * Build the main window. Only the work needed to show the window is done
+	 * on the calling thread. Plugin discovery, the target scan, opening
+	 * cameras, and recovering sessions are added to <code>startup</code> and
+	 * finish after the window is shown.
+	 * 
+	 * @param cameraDiscovery
+	 *            done once camera drivers are loaded and cameras are
+	 *            discovered, cameras are opened after that
+	 */
 	@SuppressFBWarnings("SIC_INNER_SHOULD_BE_STATIC_ANON")
-	public void init(Configuration config) throws IOException {
+	public void init(Configuration config, StartupGraph startup, CompletableFuture<Void> cameraDiscovery)
+			throws IOException {
 		this.config = config;
 		camerasSupervisor = new CamerasSupervisor(config);
+		shotTimerModel.setWindow(config.getShotTimerWindow());
+		shotTimerModel.setSpill(Optional.of(new ShotTimerSpill(new File(System.getProperty("shootoff.sessions"),
+				new SimpleDateFormat(SessionRecorder.SESSION_NAME_FORMAT).format(new Date()) + " shot timer.csv"))));
+		preloadFeedbackSounds();
 
 		shootOFFStage = (Stage) controlsContainer.getScene().getWindow();
 
@@ -176,8 +204,38 @@ public class ShootOFFController implements CameraConfigListener, CameraErrorView
 		projectorSlide = new ProjectorSlide(controlsContainer, bodyContainer, this, shootOFFStage, 
 				trainingExerciseContainer, this, exerciseSlide);
 
-		pluginEngine = new PluginEngine(exerciseSlide);
-		pluginEngine.startWatching();
+		// Exercise buttons are added on the JavaFX thread as plugins are
+		// registered
+		startup.runAsync("plugin discovery", ThreadPools.io(), () -> {
+			try {
+				final PluginEngine engine = new PluginEngine(exerciseSlide);
+
+				synchronized (this) {
+					if (isClosed) return;
+
+					pluginEngine = engine;
+					pluginEngine.startWatching();
+				}
+			} catch (final IOException e) {
+				logger.error("Error starting the plugin engine", e);
+			}
+		});
+
+		final CompletableFuture<List<File>> targetFiles = startup.supplyAsync("target scan", ThreadPools.io(),
+				TargetSlide::findTargetFiles);
+		startup.runAsync("target buttons", Platform::runLater, () -> targetPane.addTargets(targetFiles.join()),
+				targetFiles);
+
+		// Turn journals left behind by a crash into normal sessions before the
+		// session catalog is brought up to date so that they are catalogued too
+		startup.runAsync("session recovery", ThreadPools.io(), () -> {
+			final File sessionsFolder = new File(System.getProperty("shootoff.sessions"));
+			SessionJournal.recoverJournals(sessionsFolder);
+
+			final SessionCatalog sessionCatalog = SessionCatalog.getCatalog(sessionsFolder);
+			sessionCatalog.refresh();
+			sessionCatalog.startWatching();
+		});
 
 		defaultWindowTitle = shootOFFStage.getTitle();
 		shootOFFStage.getIcons().addAll(
@@ -218,38 +276,8 @@ public class ShootOFFController implements CameraConfigListener, CameraErrorView
 			});
 		}, 2000);
 
-		if (config.getWebcams().isEmpty()) {
-			final Optional<Camera> defaultCamera = CameraFactory.getDefault();
-			if (defaultCamera.isPresent()) {
-				if (!addCameraTab("Default", defaultCamera.get())) {
-					// Failed to open the default camera. This sometimes happens
-					// on Windows when video devices get registered and set as
-					// the default camera even though the physical device is not
-					// actually present. This seems to happen sometimes with TV
-					// tuners and buggy camera drivers. As a workaround, try to
-					// fall back to using a different camera as the default.
-					final List<Camera> allCameras = CameraFactory.getWebcams();
-
-					if (allCameras.size() <= 1) {
-						showCameraLockError(defaultCamera.get(), true);
-					} else {
-						for (final Camera c : allCameras) {
-							if (!c.equals(defaultCamera.get())) {
-								if (!addCameraTab("Default", c)) {
-									showCameraLockError(c, true);
-								}
-
-								break;
-							}
-						}
-					}
-				}
-			} else {
-				Main.closeNoCamera();
-			}
-		} else {
-			addConfiguredCameras();
-		}
+		// Opening cameras is slow, do it once the window is shown
+		startup.runAsync("cameras", Platform::runLater, this::openStartupCameras, cameraDiscovery);
 
 		final TableColumn<ShotEntry, String> timeCol = new TableColumn<>("Time");
 		timeCol.setMinWidth(85);
@@ -263,7 +291,7 @@ public class ShootOFFController implements CameraConfigListener, CameraErrorView
 		laserCol.setMinWidth(85);
 		laserCol.setCellValueFactory(new PropertyValueFactory<ShotEntry, String>("color"));
 
-		shotEntries.addListener(new ListChangeListener<ShotEntry>() {
+		shotTimerModel.getEntries().addListener(new ListChangeListener<ShotEntry>() {
 			@Override
 			public void onChanged(Change<? extends ShotEntry> change) {
 				change.next();
@@ -280,35 +308,15 @@ public class ShootOFFController implements CameraConfigListener, CameraErrorView
 			public void onChanged(Change<? extends ShotEntry> change) {
 				while (change.next()) {
 					for (final ShotEntry unselected : change.getRemoved()) {
-						unselected.getShot().getMarker().setFill(unselected.getShot().getPaintColor());
-
-						if (unselected.getShot().getMirroredShot().isPresent()) {
-							unselected.getShot().getMirroredShot().get().getMarker().setFill(unselected.getShot().getPaintColor());
-						}
+						for (final CameraView cv : camerasSupervisor.getCameraViews())
+							((CanvasManager) cv).setShotSelected(unselected.getShot(), false);
 					}
 
 					for (final ShotEntry selected : change.getAddedSubList()) {
 						if (selected == null) continue;
 
-						selected.getShot().getMarker().setFill(TargetRegion.SELECTED_STROKE_COLOR);
-
-						if (selected.getShot().getMirroredShot().isPresent()) {
-							selected.getShot().getMirroredShot().get().getMarker().setFill(TargetRegion.SELECTED_STROKE_COLOR);
-						}
-
-						// Move all selected shots to top the of their z-stack
-						// to ensure visibility
-						for (final CameraView cv : camerasSupervisor.getCameraViews()) {
-							final CanvasManager cm = (CanvasManager) cv;
-
-							final Shape marker = selected.getShot().getMarker();
-							final int shotIndex = cm.getCanvasGroup().getChildren().indexOf(marker);
-
-							if (shotIndex >= 0 && shotIndex < cm.getCanvasGroup().getChildren().size() - 1) {
-								cm.getCanvasGroup().getChildren().remove(marker);
-								cm.getCanvasGroup().getChildren().add(cm.getCanvasGroup().getChildren().size(), marker);
-							}
-						}
+						for (final CameraView cv : camerasSupervisor.getCameraViews())
+							((CanvasManager) cv).setShotSelected(selected.getShot(), true);
 					}
 				}
 			}
@@ -362,7 +370,7 @@ public class ShootOFFController implements CameraConfigListener, CameraErrorView
 		shotTimerTable.getColumns().add(timeCol);
 		shotTimerTable.getColumns().add(splitCol);
 		shotTimerTable.getColumns().add(laserCol);
-		shotTimerTable.setItems(shotEntries);
+		shotTimerTable.setItems(shotTimerModel.getEntries());
 		shotTimerTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
 	}
 
@@ -370,7 +378,11 @@ public class ShootOFFController implements CameraConfigListener, CameraErrorView
 	public void close() {
 		shootOFFStage.close();
 		camerasSupervisor.closeAll();
-		pluginEngine.stopWatching();
+		synchronized (this) {
+			isClosed = true;
+			if (pluginEngine != null) pluginEngine.stopWatching();
+		}
+		SessionCatalog.getCatalog(new File(System.getProperty("shootoff.sessions"))).stopWatching();
 
 		if (config.getExercise().isPresent()) config.getExercise().get().destroy();
 
@@ -384,7 +396,10 @@ public class ShootOFFController implements CameraConfigListener, CameraErrorView
 			exerciseSlide.stopRecordingSession();
 		}
 
+		AudioEngine.close();
+		CameraDiscovery.stop();
 		TimerPool.close();
+		ThumbnailCache.close();
 		GlobalExecutorPool.getPool().shutdownNow();
 
 		if (!config.getVideoPlayers().isEmpty()) {
@@ -404,7 +419,13 @@ public class ShootOFFController implements CameraConfigListener, CameraErrorView
 	@Override
 	public Optional<CameraView> getArenaView() {
 		if (projectorSlide != null && projectorSlide.getArenaPane() != null) {
-			return Optional.of(projectorSlide.getArenaPane().getArenaPaneMirror().getCanvasManager());
+			final ProjectorArenaPane arenaPane = projectorSlide.getArenaPane();
+
+			// Without a mirrored pane the arena tab shows snapshots of the
+			// arena's own canvas
+			if (arenaPane.getArenaPaneMirror() == null) return Optional.of(arenaPane.getCanvasManager());
+
+			return Optional.of(arenaPane.getArenaPaneMirror().getCanvasManager());
 		}
 
 		return Optional.empty();
@@ -438,8 +459,8 @@ public class ShootOFFController implements CameraConfigListener, CameraErrorView
 	}
 
 	@Override
-	public ObservableList<ShotEntry> getShotTimerModel() {
-		return shotEntries;
+	public ShotTimerModel getShotTimerModel() {
+		return shotTimerModel;
 	}
 
 	@Override
@@ -466,6 +487,41 @@ public class ShootOFFController implements CameraConfigListener, CameraErrorView
 		return config;
 	}
 
+	private void openStartupCameras() {
+		if (config.getWebcams().isEmpty()) {
+			final Optional<Camera> defaultCamera = CameraFactory.getDefault();
+			if (defaultCamera.isPresent()) {
+				if (!addCameraTab("Default", defaultCamera.get())) {
+					// Failed to open the default camera. This sometimes happens
+					// on Windows when video devices get registered and set as
+					// the default camera even though the physical device is not
+					// actually present. This seems to happen sometimes with TV
+					// tuners and buggy camera drivers. As a workaround, try to
+					// fall back to using a different camera as the default.
+					final List<Camera> allCameras = CameraDiscovery.getCameras();
+
+					if (allCameras.size() <= 1) {
+						showCameraLockError(defaultCamera.get(), true);
+					} else {
+						for (final Camera c : allCameras) {
+							if (!c.equals(defaultCamera.get())) {
+								if (!addCameraTab("Default", c)) {
+									showCameraLockError(c, true);
+								}
+
+								break;
+							}
+						}
+					}
+				}
+			} else {
+				Main.closeNoCamera();
+			}
+		} else {
+			addConfiguredCameras();
+		}
+	}
+
 	private void addConfiguredCameras() {
 		Optional<Camera> defaultCam = Optional.empty();
 		if (config.getWebcams().isEmpty())
@@ -537,7 +593,7 @@ public class ShootOFFController implements CameraConfigListener, CameraErrorView
 		// 640 x 480
 		cameraTab.setContent(new AnchorPane(cameraCanvasGroup));
 
-		final CanvasManager canvasManager = new CanvasManager(cameraCanvasGroup, this, webcamName, shotEntries);
+		final CanvasManager canvasManager = new CanvasManager(cameraCanvasGroup, this, webcamName, shotTimerModel);
 		final CameraManager cameraManager = camerasSupervisor.addCameraManager(cameraInterface, this, canvasManager);
 
 		cameraManagerTabs.put(cameraTab, cameraManager);
@@ -604,6 +660,21 @@ public class ShootOFFController implements CameraConfigListener, CameraErrorView
 		if (viewTab != null) cameraTabPane.getTabs().remove(viewTab);
 	}
 
+	// Sounds that give feedback on shots must play as soon as the shot is
+	// detected, so decode them before the first shot
+	private void preloadFeedbackSounds() {
+		final List<File> sounds = new ArrayList<>();
+
+		if (config.useRedLaserSound()) sounds.add(config.getRedLaserSound());
+		if (config.useGreenLaserSound()) sounds.add(config.getGreenLaserSound());
+		if (config.useVirtualMagazine()) sounds.add(new File("sounds/voice/shootoff-reload.wav"));
+		if (config.useMalfunctions()) sounds.add(new File("sounds/voice/shootoff-malfunction.wav"));
+		sounds.add(new File("sounds/beep.wav"));
+		sounds.add(new File("sounds/chime.wav"));
+
+		TrainingExerciseBase.preloadSounds(sounds);
+	}
+
 	private void installDebugCoordDisplay(CanvasManager canvasManager) {
 		// Show coords of mouse when in canvas during debug mode
 		if (config.inDebugMode()) {
@@ -933,7 +1004,7 @@ public class ShootOFFController implements CameraConfigListener, CameraErrorView
 
 			final TrainingExercise newExercise = (TrainingExercise) ctor.newInstance(knownTargets);
 
-			final Optional<Plugin> plugin = pluginEngine.getPlugin(newExercise);
+			final Optional<Plugin> plugin = getPlugin(newExercise);
 			if (plugin.isPresent()) {
 				config.setPlugin(plugin.get());
 			} else {
@@ -968,7 +1039,7 @@ public class ShootOFFController implements CameraConfigListener, CameraErrorView
 			final TrainingExercise newExercise = (TrainingExercise) ctor
 					.newInstance(projectorSlide.getArenaPane().getCanvasManager().getTargets());
 
-			final Optional<Plugin> plugin = pluginEngine.getPlugin(newExercise);
+			final Optional<Plugin> plugin = getPlugin(newExercise);
 			if (plugin.isPresent()) {
 				config.setPlugin(plugin.get());
 			} else {
@@ -994,8 +1065,20 @@ public class ShootOFFController implements CameraConfigListener, CameraErrorView
 		}
 	}
 
+	/**
+	 * @return the plugin engine, or <tt>null</tt> if plugins are still being
+	 *         discovered
+	 */
 	@Override
-	public PluginEngine getPluginEngine() {
+	public synchronized PluginEngine getPluginEngine() {
 		return pluginEngine;
 	}
+
+	private Optional<Plugin> getPlugin(TrainingExercise exercise) {
+		final PluginEngine engine = getPluginEngine();
+
+		if (engine == null) return Optional.empty();
+
+		return engine.getPlugin(exercise);
+	}
 }
@@ -19,11 +19,19 @@
 package com.shootoff.gui.pane;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
 import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.shootoff.gui.LocatedImage;
+import com.shootoff.gui.ThumbnailCache;
 
+import javafx.scene.Node;
 import javafx.scene.control.ButtonBase;
 import javafx.scene.control.ToggleButton;
 import javafx.scene.image.Image;
@@ -33,6 +41,8 @@ import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 public class ArenaBackgroundsSlide extends Slide implements ItemSelectionListener<LocatedImage> {
+	private static final Logger logger = LoggerFactory.getLogger(ArenaBackgroundsSlide.class);
+
 	private final ItemSelectionPane<LocatedImage> itemPane = new ItemSelectionPane<>(true, this);
 	private final ProjectorArenaPane arenaPane;
 	private final Stage shootOffStage;
@@ -67,26 +77,37 @@ public class ArenaBackgroundsSlide extends Slide implements ItemSelectionListene
 	}
 
 	private void initDefaultBackgrounds() {
-		new Thread(() -> {
-			addDefaultBackground("Select Local Image...", "/images/normal_folder.png");
-			addDefaultBackground("Hickok45 Autumn", "/arena/backgrounds/hickok45_autumn.gif");
-			addDefaultBackground("Hickok45 Summer", "/arena/backgrounds/hickok45_summer.gif");
-			addDefaultBackground("Indoor Range", "/arena/backgrounds/indoor_range.gif");
-			addDefaultBackground("Kiang West Savanna", "/arena/backgrounds/kiang_west_savanna.gif");
-			addDefaultBackground("Oradour-sur-Glane", "/arena/backgrounds/oradour-sur-glane.gif");
-			addDefaultBackground("Outdoor Range", "/arena/backgrounds/outdoor_range.gif");
-			addDefaultBackground("Steel Range Bay", "/arena/backgrounds/steel_range_bay.gif");
-			addDefaultBackground("Subterranean Parking Lot", "/arena/backgrounds/subterranean_parking_lot.gif");
-		}).start();
+		addDefaultBackground("Select Local Image...", "/images/normal_folder.png");
+		addDefaultBackground("Hickok45 Autumn", "/arena/backgrounds/hickok45_autumn.gif");
+		addDefaultBackground("Hickok45 Summer", "/arena/backgrounds/hickok45_summer.gif");
+		addDefaultBackground("Indoor Range", "/arena/backgrounds/indoor_range.gif");
+		addDefaultBackground("Kiang West Savanna", "/arena/backgrounds/kiang_west_savanna.gif");
+		addDefaultBackground("Oradour-sur-Glane", "/arena/backgrounds/oradour-sur-glane.gif");
+		addDefaultBackground("Outdoor Range", "/arena/backgrounds/outdoor_range.gif");
+		addDefaultBackground("Steel Range Bay", "/arena/backgrounds/steel_range_bay.gif");
+		addDefaultBackground("Subterranean Parking Lot", "/arena/backgrounds/subterranean_parking_lot.gif");
 	}
 
 	private void addDefaultBackground(String buttonName, String resourceName) {
-		final InputStream is = ArenaBackgroundsSlide.class.getResourceAsStream(resourceName);
-		final LocatedImage img = new LocatedImage(is, resourceName);
-		final InputStream isThumbnail = ArenaBackgroundsSlide.class.getResourceAsStream(resourceName);
-		final ImageView thumbnailView = new ImageView(new Image(isThumbnail, 60, 60, true, true));
-
-		itemPane.addButton(img, buttonName, Optional.of(thumbnailView), Optional.empty());
+		// Backgrounds are only decoded in full once they are needed, the
+		// buttons only need their thumbnails
+		final LocatedImage img = new LocatedImage(resourceName, true);
+
+		final ThumbnailCache thumbnailCache = ThumbnailCache.getCache();
+		final ImageView thumbnailView = thumbnailCache.createThumbnailView();
+		final URL resource = ArenaBackgroundsSlide.class.getResource(resourceName);
+
+		itemPane.addButton(img, buttonName, thumbnailView, () -> thumbnailCache.loadThumbnail(resource, () -> {
+			try (InputStream is = resource.openStream()) {
+				final Image thumbnail = new Image(is, ThumbnailCache.RENDER_SIZE, ThumbnailCache.RENDER_SIZE, true,
+						true);
+				final Supplier<Node> contents = () -> new ImageView(thumbnail);
+				return Optional.of(contents);
+			} catch (final IOException e) {
+				logger.error("Failed to read background " + resourceName, e);
+				return Optional.empty();
+			}
+		}, thumbnailView));
 	}
 
 	public void selectedLocalImage() {
@@ -21,23 +21,28 @@ package com.shootoff.gui.pane;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.FilenameFilter;
+import java.net.MalformedURLException;
+import java.net.URL;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.shootoff.courses.Course;
 import com.shootoff.courses.io.CourseIO;
+import com.shootoff.courses.io.CourseTemplate;
 import com.shootoff.gui.TargetView;
+import com.shootoff.gui.ThumbnailCache;
+import com.shootoff.gui.ThumbnailCache.ThumbnailRenderer;
 import com.shootoff.targets.Target;
 
 import javafx.geometry.Dimension2D;
 import javafx.scene.Group;
-import javafx.scene.SnapshotParameters;
+import javafx.scene.Node;
 import javafx.scene.control.TitledPane;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
@@ -164,65 +169,68 @@ public class ArenaCoursesSlide extends Slide implements ItemSelectionListener<Fi
 	}
 
 	private void addCourseButton(ItemSelectionPane<File> itemPane, File courseFile) {
-		final ImageView courseThumbnail = getCourseThumbnail(courseFile);
-
-		if (courseThumbnail == null) {
-			itemPane.addButton(courseFile, courseFile.getName().replace(".course", "").replaceAll("_", " "));
-		} else {
-			itemPane.addButton(courseFile, courseFile.getName().replace(".course", "").replaceAll("_", " "),
-					Optional.of(courseThumbnail), Optional.empty());
-		}
+		final ThumbnailCache thumbnailCache = ThumbnailCache.getCache();
+		final ImageView courseThumbnail = thumbnailCache.createThumbnailView();
+
+		itemPane.addButton(courseFile, courseFile.getName().replace(".course", "").replaceAll("_", " "),
+				courseThumbnail, () -> {
+					final URL courseURL;
+					try {
+						courseURL = courseFile.toURI().toURL();
+					} catch (final MalformedURLException e) {
+						logger.error("Cannot create a thumbnail for course " + courseFile.getAbsolutePath(), e);
+						return;
+					}
+
+					thumbnailCache.loadThumbnail(courseURL, new ThumbnailRenderer() {
+						@Override
+						public List<File> getDependencies() {
+							return CourseIO.getSourceFiles(courseFile);
+						}
+
+						@Override
+						public Optional<Supplier<Node>> load() {
+							final Optional<CourseTemplate> course = CourseIO.getTemplate(courseFile);
+
+							if (!course.isPresent()) return Optional.empty();
+
+							return Optional.of(() -> renderCourse(course.get()));
+						}
+					}, courseThumbnail);
+				});
 	}
 
-	private ImageView getCourseThumbnail(File courseFile) {
-		final Optional<Course> course = CourseIO.loadCourse(arenaPane, courseFile);
-
-		if (course.isPresent()) {
-			final Group courseGroup = new Group();
-
-			final Course c = course.get();
-
-			if (c.getBackground().isPresent()) {
-				final Dimension2D courseDimensions;
+	// Called on the JavaFX thread
+	private Node renderCourse(CourseTemplate c) {
+		final Group courseGroup = new Group();
 
-				if (c.getResolution().isPresent()) {
-					courseDimensions = c.getResolution().get();
-				} else {
-					courseDimensions = new Dimension2D(arenaPane.getWidth(), arenaPane.getWidth());
-				}
+		if (c.getBackground().isPresent()) {
+			final Dimension2D courseDimensions;
 
-				final ImageView backgroundImageView = new ImageView(c.getBackground().get());
-				backgroundImageView.setFitWidth(courseDimensions.getWidth());
-				backgroundImageView.setFitHeight(courseDimensions.getHeight());
-				backgroundImageView.setSmooth(true);
-
-				courseGroup.getChildren().add(backgroundImageView);
+			if (c.getResolution().isPresent()) {
+				courseDimensions = c.getResolution().get();
+			} else {
+				courseDimensions = new Dimension2D(arenaPane.getWidth(), arenaPane.getWidth());
 			}
 
-			for (final Target t : c.getTargets()) {
-				courseGroup.getChildren().add(((TargetView) t).getTargetGroup());
-			}
+			final ImageView backgroundImageView = new ImageView(c.getBackground().get());
+			backgroundImageView.setFitWidth(courseDimensions.getWidth());
+			backgroundImageView.setFitHeight(courseDimensions.getHeight());
+			backgroundImageView.setSmooth(true);
 
-			final Image courseThumbnail = courseGroup.snapshot(new SnapshotParameters(), null);
-			final ImageView courseImageView = new ImageView(courseThumbnail);
-			courseImageView.setFitWidth(60);
-			courseImageView.setFitHeight(60);
-			courseImageView.setPreserveRatio(true);
-			courseImageView.setSmooth(true);
+			courseGroup.getChildren().add(backgroundImageView);
+		}
 
-			return courseImageView;
+		for (final Target t : c.createTargets(arenaPane)) {
+			courseGroup.getChildren().add(((TargetView) t).getTargetGroup());
 		}
 
-		return null;
+		return courseGroup;
 	}
 
 	@Override
 	public void onItemClicked(File courseFile) {
-		final Optional<Course> course = CourseIO.loadCourse(arenaPane, courseFile);
-
-		if (course.isPresent()) {
-			arenaPane.setCourse(course.get());
-		}
+		arenaPane.loadCourse(courseFile, Optional.empty());
 
 		choseCourse = true;
 
@@ -0,0 +1,139 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.shootoff.gui.pane;
+
+import java.util.concurrent.TimeUnit;
+
+import javafx.animation.AnimationTimer;
+import javafx.event.Event;
+import javafx.geometry.Point2D;
+import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Pane;
+
+/**
+ * Shows the projector arena in the arena tab by periodically snapshotting the
+ * arena pane into a reused image. Unlike a mirrored {@link ProjectorArenaPane},
+ * this pane does not hold its own copies of the arena's targets, shots, and
+ * background, thus every change to the arena is made, animated, and hit
+ * tested once.
+ * 
+ * The mirror is a picture of the arena, so targets cannot be dragged from it.
+ * Primary button clicks are passed on to the arena's canvas as if they were
+ * made on the arena itself (e.g. for click-to-shoot).
+ */
+public class ArenaMirrorPane extends Pane {
+	private final ProjectorArenaPane arenaPane;
+	private final Node arenaCanvas;
+	private final ImageView mirrorView = new ImageView();
+	private final SnapshotParameters snapshotParameters = new SnapshotParameters();
+	private final long snapshotIntervalNanos;
+	private final AnimationTimer snapshotTimer;
+
+	private WritableImage snapshot;
+
+	public ArenaMirrorPane(ProjectorArenaPane arenaPane, Node arenaCanvas, int fps) {
+		this.arenaPane = arenaPane;
+		this.arenaCanvas = arenaCanvas;
+		snapshotIntervalNanos = TimeUnit.SECONDS.toNanos(1) / fps;
+
+		mirrorView.setSmooth(false);
+		getChildren().add(mirrorView);
+
+		prefWidthProperty().bind(arenaPane.prefWidthProperty());
+		prefHeightProperty().bind(arenaPane.prefHeightProperty());
+
+		setStyle("-fx-background-color: #333333;");
+
+		addEventHandler(MouseEvent.MOUSE_CLICKED, (event) -> forwardClick(event));
+
+		snapshotTimer = new AnimationTimer() {
+			private long lastSnapshot = 0;
+
+			@Override
+			public void handle(long now) {
+				if (now - lastSnapshot < snapshotIntervalNanos || !isShowing()) return;
+
+				lastSnapshot = now;
+				takeSnapshot();
+			}
+		};
+	}
+
+	public void start() {
+		snapshotTimer.start();
+	}
+
+	public void stop() {
+		snapshotTimer.stop();
+	}
+
+	private void takeSnapshot() {
+		final int width = (int) Math.ceil(arenaPane.getWidth());
+		final int height = (int) Math.ceil(arenaPane.getHeight());
+
+		if (width <= 0 || height <= 0) return;
+
+		// Only reuse the previous image if the arena didn't change size,
+		// otherwise let JavaFX allocate one that fits
+		if (snapshot != null && ((int) snapshot.getWidth() != width || (int) snapshot.getHeight() != height)) {
+			snapshot = null;
+		}
+
+		snapshot = arenaPane.snapshot(snapshotParameters, snapshot);
+
+		if (mirrorView.getImage() != snapshot) mirrorView.setImage(snapshot);
+	}
+
+	// Don't spend time on snapshots while the arena tab isn't selected
+	private boolean isShowing() {
+		if (getScene() == null) return false;
+
+		for (Node n = this; n != null; n = n.getParent()) {
+			if (!n.isVisible()) return false;
+		}
+
+		return true;
+	}
+
+	private void forwardClick(MouseEvent event) {
+		if (event.getButton() != MouseButton.PRIMARY) return;
+
+		// The mirror image is drawn at the arena's size, so coordinates local
+		// to this pane are also local to the arena pane
+		final Point2D scenePoint = arenaPane.localToScene(event.getX(), event.getY());
+		final Point2D screenPoint = arenaPane.localToScreen(event.getX(), event.getY());
+
+		if (scenePoint == null || screenPoint == null) return;
+
+		final MouseEvent arenaEvent = new MouseEvent(MouseEvent.MOUSE_CLICKED, scenePoint.getX(), scenePoint.getY(),
+				screenPoint.getX(), screenPoint.getY(), event.getButton(), event.getClickCount(), event.isShiftDown(),
+				event.isControlDown(), event.isAltDown(), event.isMetaDown(), event.isPrimaryButtonDown(),
+				event.isMiddleButtonDown(), event.isSecondaryButtonDown(), event.isSynthesized(),
+				event.isPopupTrigger(), event.isStillSincePress(), null);
+
+		Event.fireEvent(arenaCanvas, arenaEvent);
+		event.consume();
+	}
+}
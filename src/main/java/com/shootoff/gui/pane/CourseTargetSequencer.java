@@ -0,0 +1,73 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.shootoff.gui.pane;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Hands the targets of a course, which finish loading in any order, to the
+ * arena in course order so that they stack the same way as in the course file.
+ * Every target whose predecessors have all loaded is passed on in one batch.
+ * Batches are added on the arena's thread and dropped there if the course
+ * became stale (another course was set) since the batch was made.
+ */
+class CourseTargetSequencer<T> {
+	private final List<Optional<T>> loadedTargets;
+	private final BooleanSupplier isStale;
+	private final Executor arenaExecutor;
+	private final Consumer<List<T>> addTargets;
+	private int nextTarget = 0;
+
+	CourseTargetSequencer(int targetCount, BooleanSupplier isStale, Executor arenaExecutor,
+			Consumer<List<T>> addTargets) {
+		this.loadedTargets = new ArrayList<>(Collections.nCopies(targetCount, null));
+		this.isStale = isStale;
+		this.arenaExecutor = arenaExecutor;
+		this.addTargets = addTargets;
+	}
+
+	/**
+	 * @param target
+	 *            empty if the target at <code>index</code> failed to load
+	 */
+	synchronized void targetLoaded(int index, Optional<T> target) {
+		loadedTargets.set(index, target);
+
+		final List<T> batch = new ArrayList<>();
+		while (nextTarget < loadedTargets.size() && loadedTargets.get(nextTarget) != null) {
+			final Optional<T> next = loadedTargets.get(nextTarget++);
+			if (next.isPresent()) batch.add(next.get());
+		}
+
+		if (batch.isEmpty() || isStale.getAsBoolean()) return;
+
+		// Executed while holding the lock so that batches reach the arena in
+		// order
+		arenaExecutor.execute(() -> {
+			if (!isStale.getAsBoolean()) addTargets.accept(batch);
+		});
+	}
+}
@@ -37,10 +37,13 @@ import com.shootoff.plugins.ProjectorTrainingExerciseBase;
 import com.shootoff.plugins.TrainingExercise;
 import com.shootoff.plugins.engine.PluginListener;
 import com.shootoff.session.SessionRecorder;
+import com.shootoff.session.io.SessionCatalog;
 import com.shootoff.session.io.SessionIO;
+import com.shootoff.session.io.SessionJournal;
 import com.shootoff.targets.Hit;
 import com.shootoff.targets.Target;
 
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.Button;
 import javafx.scene.control.TitledPane;
@@ -59,6 +62,8 @@ public class ExerciseSlide extends Slide implements PluginListener, ItemSelectio
 	private final TitledPane projectorPane;
 	private final ToggleButton noneButton;
 
+	private Optional<SessionJournal> sessionJournal = Optional.empty();
+
 	private final ItemSelectionPane<TrainingExercise> exerciseItemPane = new ItemSelectionPane<>(true, this);
 	private final ItemSelectionPane<TrainingExercise> projectorExerciseItemPane = new ItemSelectionPane<>(
 			exerciseItemPane.getToggleGroup(), this);
@@ -92,6 +97,9 @@ public class ExerciseSlide extends Slide implements PluginListener, ItemSelectio
 		config = Configuration.getConfig();
 
 		addSlideControlButton("Get Exercises", (event) -> {
+			// Plugins are still being discovered
+			if (exerciseListener.getPluginEngine() == null) return;
+
 			final Optional<FXMLLoader> loader = createPluginManagerStage();
 
 			if (loader.isPresent()) {
@@ -188,6 +196,12 @@ public class ExerciseSlide extends Slide implements PluginListener, ItemSelectio
 
 	@Override
 	public void registerExercise(TrainingExercise exercise) {
+		// Plugins are discovered and watched for on background threads
+		if (!Platform.isFxApplicationThread()) {
+			Platform.runLater(() -> registerExercise(exercise));
+			return;
+		}
+
 		final Tooltip t = new Tooltip(exercise.getInfo().getDescription());
 		t.setPrefWidth(500);
 		t.setWrapText(true);
@@ -196,6 +210,11 @@ public class ExerciseSlide extends Slide implements PluginListener, ItemSelectio
 
 	@Override
 	public void registerProjectorExercise(TrainingExercise exercise) {
+		if (!Platform.isFxApplicationThread()) {
+			Platform.runLater(() -> registerProjectorExercise(exercise));
+			return;
+		}
+
 		final Tooltip t = new Tooltip(exercise.getInfo().getDescription());
 		t.setPrefWidth(500);
 		t.setWrapText(true);
@@ -221,7 +240,18 @@ public class ExerciseSlide extends Slide implements PluginListener, ItemSelectio
 	}
 
 	private void startRecordingSession() {
-		config.setSessionRecorder(new SessionRecorder());
+		final SessionRecorder sessionRecorder = new SessionRecorder();
+
+		try {
+			final SessionJournal journal = new SessionJournal(new File(System.getProperty("shootoff.sessions"),
+					sessionRecorder.getSessionName() + "." + SessionJournal.JOURNAL_EXTENSION));
+			sessionRecorder.addSessionListener(journal);
+			sessionJournal = Optional.of(journal);
+		} catch (final IOException e) {
+			logger.error("Failed to open session journal, session will only be saved when recording stops", e);
+		}
+
+		config.setSessionRecorder(sessionRecorder);
 
 		for (final CameraManager cm : config.getRecordingManagers()) {
 			cm.startRecordingShots();
@@ -233,10 +263,27 @@ public class ExerciseSlide extends Slide implements PluginListener, ItemSelectio
 			cm.stopRecordingShots();
 		}
 
-		SessionIO.saveSession(config.getSessionRecorder().get(), new File(System.getProperty("shootoff.home")
-				+ File.separator + "sessions/" + config.getSessionRecorder().get().getSessionName() + ".xml"));
-
+		final SessionRecorder sessionRecorder = config.getSessionRecorder().get();
 		config.setSessionRecorder(null);
+
+		final File sessionFile = new File(System.getProperty("shootoff.home") + File.separator + "sessions/"
+				+ sessionRecorder.getSessionName() + ".xml");
+		SessionIO.saveSession(sessionRecorder, sessionFile);
+		SessionCatalog.getCatalog(sessionFile.getParentFile()).update(sessionFile, sessionRecorder);
+
+		// The complete session is on disk now, so the journal is no longer
+		// needed for recovery
+		if (sessionJournal.isPresent()) {
+			final SessionJournal journal = sessionJournal.get();
+			sessionRecorder.removeSessionListener(journal);
+			journal.close();
+
+			if (!journal.getJournalFile().delete()) {
+				logger.error("Failed to delete session journal {}", journal.getJournalFile().getPath());
+			}
+
+			sessionJournal = Optional.empty();
+		}
 	}
 
 	@Override
@@ -18,7 +18,9 @@
 
 package com.shootoff.gui.pane;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -26,6 +28,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
 import javafx.geometry.Insets;
 import javafx.scene.Node;
 import javafx.scene.control.Button;
@@ -48,6 +53,11 @@ public class ItemSelectionPane<T> extends ScrollPane {
 	private static final int ITEM_DIMS = 150;
 
 	private final Map<Object, ButtonBase> items = new HashMap<>();
+	// Buttons whose graphic is loaded the first time they are scrolled into
+	// view and the actions that load them
+	private final Map<ButtonBase, Runnable> pendingGraphics = new IdentityHashMap<>();
+	private final ChangeListener<Object> visibilityListener = (observable, oldValue,
+			newValue) -> loadVisibleGraphics();
 	private final TilePane subContainer = new TilePane(30, 30);
 	private boolean toggleable;
 
@@ -86,6 +96,10 @@ public class ItemSelectionPane<T> extends ScrollPane {
 		setFitToHeight(true);
 		setMaxSize(Double.MAX_VALUE, Double.MAX_VALUE);
 		setContent(subContainer);
+
+		vvalueProperty().addListener(visibilityListener);
+		viewportBoundsProperty().addListener(visibilityListener);
+		sceneProperty().addListener(visibilityListener);
 	}
 
 	public ItemSelectionPane(ToggleGroup toggleGroup, ItemSelectionListener<T> itemListener) {
@@ -127,6 +141,52 @@ public class ItemSelectionPane<T> extends ScrollPane {
 		return button;
 	}
 
+	/**
+	 * Add a button whose graphic is only loaded once the button is scrolled
+	 * into view, so that panes with many items don't load every graphic up
+	 * front.
+	 * 
+	 * @param placeholder
+	 *            the graphic to show until <code>loadGraphic</code> replaces
+	 *            it
+	 * @param loadGraphic
+	 *            called once on the JavaFX thread when the button is first
+	 *            visible
+	 */
+	public ButtonBase addButton(T ref, String text, Node placeholder, Runnable loadGraphic) {
+		final ButtonBase button = addButton(ref, text, Optional.of(placeholder), Optional.empty());
+
+		pendingGraphics.put(button, loadGraphic);
+		button.boundsInParentProperty().addListener(visibilityListener);
+
+		return button;
+	}
+
+	private void loadVisibleGraphics() {
+		if (pendingGraphics.isEmpty() || getScene() == null) return;
+
+		final Bounds sceneBounds = new BoundingBox(0, 0, getScene().getWidth(), getScene().getHeight());
+		final Bounds paneBounds = localToScene(getLayoutBounds());
+
+		if (!paneBounds.intersects(sceneBounds)) return;
+
+		for (final ButtonBase button : new ArrayList<>(pendingGraphics.keySet())) {
+			if (!isTreeVisible(button) || !paneBounds.intersects(button.localToScene(button.getLayoutBounds())))
+				continue;
+
+			button.boundsInParentProperty().removeListener(visibilityListener);
+			pendingGraphics.remove(button).run();
+		}
+	}
+
+	private static boolean isTreeVisible(Node node) {
+		for (Node n = node; n != null; n = n.getParent()) {
+			if (!n.isVisible()) return false;
+		}
+
+		return true;
+	}
+
 	public ButtonBase addButton(T ref, String text) {
 		return this.addButton(ref, text, Optional.empty(), Optional.empty());
 	}
@@ -154,6 +214,7 @@ public class ItemSelectionPane<T> extends ScrollPane {
 		}
 
 		final Node item = items.remove(ref);
+		pendingGraphics.remove(item);
 
 		if (Platform.isFxApplicationThread()) {
 			subContainer.getChildren().remove(item);
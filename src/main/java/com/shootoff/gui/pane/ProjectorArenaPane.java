@@ -22,7 +22,9 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,13 +34,15 @@ import com.shootoff.camera.perspective.PerspectiveManager;
 import com.shootoff.config.Configuration;
 import com.shootoff.config.ConfigurationException;
 import com.shootoff.courses.Course;
+import com.shootoff.courses.io.CourseIO;
+import com.shootoff.courses.io.CourseLoadListener;
 import com.shootoff.gui.CalibrationListener;
 import com.shootoff.gui.CalibrationManager;
 import com.shootoff.gui.CanvasManager;
 import com.shootoff.gui.LocatedImage;
 import com.shootoff.gui.MirroredCanvasManager;
 import com.shootoff.gui.Resetter;
-import com.shootoff.gui.ShotEntry;
+import com.shootoff.gui.ShotTimerModel;
 import com.shootoff.gui.controller.ShootOFFController;
 import com.shootoff.targets.Target;
 import com.shootoff.util.TimerPool;
@@ -90,6 +94,10 @@ public class ProjectorArenaPane extends AnchorPane implements CalibrationListene
 
 	private ProjectorArenaPane mirroredArenaPane;
 
+	// Incremented whenever a course is set so that courses that are still
+	// loading stop adding targets
+	private final AtomicInteger courseGeneration = new AtomicInteger(0);
+
 	// Used for testing
 	public ProjectorArenaPane(Configuration config, CanvasManager canvasManager) {
 		this.config = config;
@@ -101,7 +109,7 @@ public class ProjectorArenaPane extends AnchorPane implements CalibrationListene
 	}
 
 	public ProjectorArenaPane(Stage arenaStage, Stage shootOffStage, Pane trainingExerciseContainer, Resetter resetter,
-			ObservableList<ShotEntry> shotTimerModel) {
+			ShotTimerModel shotTimerModel) {
 		config = Configuration.getConfig();
 
 		arenaCanvasGroup = new Group();
@@ -406,6 +414,8 @@ public class ProjectorArenaPane extends AnchorPane implements CalibrationListene
 	}
 
 	public void setCourse(final Course course) {
+		courseGeneration.incrementAndGet();
+
 		if (course.getBackground().isPresent()) {
 			setArenaBackground(course.getBackground().get());
 		} else {
@@ -414,24 +424,95 @@ public class ProjectorArenaPane extends AnchorPane implements CalibrationListene
 
 		canvasManager.clearTargets();
 
-		final boolean scaleCourse = course.getResolution().isPresent()
-				&& (Math.abs(course.getResolution().get().getWidth() - getWidth()) > .0001
-						|| Math.abs(course.getResolution().get().getHeight() - getHeight()) > .0001);
+		final Optional<Dimension2D> scaleFactors = getCourseScaleFactors(course.getResolution());
 
-		double widthScaleFactor = 1;
-		double heightScaleFactor = 1;
+		for (final Target t : course.getTargets()) {
+			if (scaleFactors.isPresent()) {
+				t.scale(scaleFactors.get().getWidth(), scaleFactors.get().getHeight());
+			}
 
-		if (scaleCourse) {
-			widthScaleFactor = getWidth() / course.getResolution().get().getWidth();
-			heightScaleFactor = getHeight() / course.getResolution().get().getHeight();
+			canvasManager.addTarget(t);
 		}
+	}
 
-		for (final Target t : course.getTargets()) {
-			if (scaleCourse) {
-				t.scale(widthScaleFactor, heightScaleFactor);
+	/**
+	 * Load a course and show it in the arena as it loads. Targets are loaded
+	 * in parallel and added to the arena in course order as soon as every
+	 * target before them has loaded, thus the arena can be used before the
+	 * whole course is ready. Must be called on the JavaFX thread.
+	 * 
+	 * @param progress
+	 *            notified as the course loads, on the loading threads
+	 */
+	public CompletableFuture<Optional<Course>> loadCourse(File courseFile, Optional<CourseLoadListener> progress) {
+		final int generation = courseGeneration.incrementAndGet();
+
+		canvasManager.clearTargets();
+
+		return CourseIO.loadCourse(this, courseFile, new ArenaCourseLoader(generation, progress));
+	}
+
+	// Courses saved on an arena of a different size are scaled to fit
+	private Optional<Dimension2D> getCourseScaleFactors(Optional<Dimension2D> courseResolution) {
+		final boolean scaleCourse = courseResolution.isPresent()
+				&& (Math.abs(courseResolution.get().getWidth() - getWidth()) > .0001
+						|| Math.abs(courseResolution.get().getHeight() - getHeight()) > .0001);
+
+		if (!scaleCourse) return Optional.empty();
+
+		return Optional.of(new Dimension2D(getWidth() / courseResolution.get().getWidth(),
+				getHeight() / courseResolution.get().getHeight()));
+	}
+
+	private class ArenaCourseLoader implements CourseLoadListener {
+		private final int generation;
+		private final Optional<CourseLoadListener> progress;
+		private volatile Optional<Dimension2D> scaleFactors = Optional.empty();
+		private volatile CourseTargetSequencer<Target> sequencer;
+
+		private ArenaCourseLoader(int generation, Optional<CourseLoadListener> progress) {
+			this.generation = generation;
+			this.progress = progress;
+		}
+
+		// Another course was set while this one was loading. Only conclusive
+		// on the JavaFX thread, which is where new courses are set.
+		private boolean isStale() {
+			return courseGeneration.get() != generation;
+		}
+
+		@Override
+		public void courseParsed(Optional<Dimension2D> resolution, int targetCount) {
+			scaleFactors = getCourseScaleFactors(resolution);
+			sequencer = new CourseTargetSequencer<>(targetCount, this::isStale, Platform::runLater,
+					canvasManager::addTargets);
+
+			if (progress.isPresent()) progress.get().courseParsed(resolution, targetCount);
+		}
+
+		@Override
+		public void backgroundLoaded(Optional<LocatedImage> background) {
+			Platform.runLater(() -> {
+				if (!isStale()) setArenaBackground(background.orElse(null));
+			});
+
+			if (progress.isPresent()) progress.get().backgroundLoaded(background);
+		}
+
+		@Override
+		public void targetLoaded(int index, Optional<Target> target, int loadedCount, int targetCount) {
+			if (target.isPresent() && scaleFactors.isPresent()) {
+				target.get().scale(scaleFactors.get().getWidth(), scaleFactors.get().getHeight());
 			}
 
-			canvasManager.addTarget(t);
+			sequencer.targetLoaded(index, target);
+
+			if (progress.isPresent()) progress.get().targetLoaded(index, target, loadedCount, targetCount);
+		}
+
+		@Override
+		public void courseLoaded(Optional<Course> course) {
+			if (progress.isPresent()) progress.get().courseLoaded(course);
 		}
 	}
 
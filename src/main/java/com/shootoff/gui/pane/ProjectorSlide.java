@@ -53,6 +53,7 @@ public class ProjectorSlide extends Slide implements CalibrationConfigurator {
 	private ArenaBackgroundsSlide backgroundsSlide;
 
 	private ProjectorArenaPane arenaPane;
+	private Optional<ArenaMirrorPane> arenaMirrorPane = Optional.empty();
 	private Optional<CalibrationManager> calibrationManager = Optional.empty();
 
 	public ProjectorSlide(Pane parentControls, Pane parentBody, CameraViews cameraViews, Stage shootOffStage,
@@ -136,50 +137,24 @@ public class ProjectorSlide extends Slide implements CalibrationConfigurator {
 	public void startArena() {
 		if (arenaPane == null) {
 			final Stage arenaStage = new Stage();
+			final boolean snapshotMirror = config.getArenaMirrorFPS() > 0;
 
+			// When the arena tab shows snapshots of the arena, the arena
+			// itself is the only canvas, thus it also owns the shot timer
 			arenaPane = new ProjectorArenaPane(arenaStage, shootOffStage, trainingExerciseContainer, resetter,
-					null);
+					snapshotMirror ? cameraViews.getShotTimerModel() : null);
 
 			// Prepare calibrating manager up front so that we can switch
 			// to the arena tab when it's ready (otherwise
 			// getSelectedCameraManager() will fail)
 			final CameraManager calibratingCameraManager = cameraViews.getSelectedCameraManager();
 
-			// Mirror panes so that anything that happens to one also
-			// happens to the other
-			final ProjectorArenaPane arenaTabPane = new ProjectorArenaPane(arenaStage, shootOffStage,
-					trainingExerciseContainer, resetter, cameraViews.getShotTimerModel());
-
-			arenaTabPane.prefWidthProperty().bind(arenaPane.prefWidthProperty());
-			arenaTabPane.prefHeightProperty().bind(arenaPane.prefHeightProperty());
-
-			cameraViews.addNonCameraView("Arena", arenaTabPane, arenaTabPane.getCanvasManager(), true, true);
-
-			arenaPane.setArenaPaneMirror(arenaTabPane);
-
-			final CanvasManager arenaCanvasManager = arenaPane.getCanvasManager();
-
-			if (!(arenaCanvasManager instanceof MirroredCanvasManager)) {
-				throw new AssertionError("Arena canvas manager is not of type MirroredCanvasManager");
-			}
-
-			final MirroredCanvasManager projectorCanvasManager = (MirroredCanvasManager) arenaCanvasManager;
-
-			final CanvasManager tabArenaCanvasManager = arenaTabPane.getCanvasManager();
-
-			if (!(tabArenaCanvasManager instanceof MirroredCanvasManager)) {
-				throw new AssertionError("Tab arena canvas manager is not of type MirroredCanvasManager");
+			if (snapshotMirror) {
+				startSnapshotMirror();
+			} else {
+				startDuplicatedMirror(arenaStage, calibratingCameraManager);
 			}
 
-			final MirroredCanvasManager tabCanvasManager = (MirroredCanvasManager) tabArenaCanvasManager;
-
-			projectorCanvasManager.setMirroredManager(tabCanvasManager);
-			tabCanvasManager.setMirroredManager(projectorCanvasManager);
-			projectorCanvasManager.updateBackground(null, Optional.empty());
-			// This camera manager must be set to enable click-to-shoot for
-			// the arena tab
-			tabCanvasManager.setCameraManager(calibratingCameraManager);
-
 			// Final preparation to display
 			arenaStage.setTitle("Projector Arena");
 			arenaStage.setScene(new Scene(arenaPane));
@@ -223,6 +198,8 @@ public class ProjectorSlide extends Slide implements CalibrationConfigurator {
 			arenaStage.setOnCloseRequest((e) -> {
 				arenaStage.setOnCloseRequest(null);
 
+				stopSnapshotMirror();
+
 				arenaPane.close();
 				arenaPane.setFeedCanvasManager(null);
 				arenaPane = null;
@@ -247,7 +224,65 @@ public class ProjectorSlide extends Slide implements CalibrationConfigurator {
 		}
 	}
 
+	private void startSnapshotMirror() {
+		final ArenaMirrorPane mirrorPane = new ArenaMirrorPane(arenaPane,
+				arenaPane.getCanvasManager().getCanvasGroup(), config.getArenaMirrorFPS());
+
+		cameraViews.addNonCameraView("Arena", mirrorPane, arenaPane.getCanvasManager(), true, true);
+
+		arenaPane.getCanvasManager().updateBackground(null, Optional.empty());
+
+		mirrorPane.start();
+		arenaMirrorPane = Optional.of(mirrorPane);
+	}
+
+	private void stopSnapshotMirror() {
+		if (arenaMirrorPane.isPresent()) {
+			arenaMirrorPane.get().stop();
+			arenaMirrorPane = Optional.empty();
+		}
+	}
+
+	private void startDuplicatedMirror(Stage arenaStage, CameraManager calibratingCameraManager) {
+		// Mirror panes so that anything that happens to one also
+		// happens to the other
+		final ProjectorArenaPane arenaTabPane = new ProjectorArenaPane(arenaStage, shootOffStage,
+				trainingExerciseContainer, resetter, cameraViews.getShotTimerModel());
+
+		arenaTabPane.prefWidthProperty().bind(arenaPane.prefWidthProperty());
+		arenaTabPane.prefHeightProperty().bind(arenaPane.prefHeightProperty());
+
+		cameraViews.addNonCameraView("Arena", arenaTabPane, arenaTabPane.getCanvasManager(), true, true);
+
+		arenaPane.setArenaPaneMirror(arenaTabPane);
+
+		final CanvasManager arenaCanvasManager = arenaPane.getCanvasManager();
+
+		if (!(arenaCanvasManager instanceof MirroredCanvasManager)) {
+			throw new AssertionError("Arena canvas manager is not of type MirroredCanvasManager");
+		}
+
+		final MirroredCanvasManager projectorCanvasManager = (MirroredCanvasManager) arenaCanvasManager;
+
+		final CanvasManager tabArenaCanvasManager = arenaTabPane.getCanvasManager();
+
+		if (!(tabArenaCanvasManager instanceof MirroredCanvasManager)) {
+			throw new AssertionError("Tab arena canvas manager is not of type MirroredCanvasManager");
+		}
+
+		final MirroredCanvasManager tabCanvasManager = (MirroredCanvasManager) tabArenaCanvasManager;
+
+		projectorCanvasManager.setMirroredManager(tabCanvasManager);
+		tabCanvasManager.setMirroredManager(projectorCanvasManager);
+		projectorCanvasManager.updateBackground(null, Optional.empty());
+		// This camera manager must be set to enable click-to-shoot for
+		// the arena tab
+		tabCanvasManager.setCameraManager(calibratingCameraManager);
+	}
+
 	public void closeArena() {
+		stopSnapshotMirror();
+
 		if (arenaPane != null) {
 			arenaPane.getCanvasManager().close();
 			arenaPane.close();
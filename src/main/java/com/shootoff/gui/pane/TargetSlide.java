@@ -20,20 +20,28 @@ package com.shootoff.gui.pane;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.shootoff.camera.CameraManager;
 import com.shootoff.gui.TargetListener;
+import com.shootoff.gui.ThumbnailCache;
+import com.shootoff.gui.ThumbnailCache.ThumbnailRenderer;
 import com.shootoff.gui.controller.TargetEditorController;
 import com.shootoff.targets.CameraViews;
 import com.shootoff.targets.io.TargetIO;
-import com.shootoff.targets.io.TargetIO.TargetComponents;
+import com.shootoff.targets.io.TargetTemplate;
 
 import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
 import javafx.scene.SnapshotParameters;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -101,46 +109,73 @@ public class TargetSlide extends Slide implements TargetListener, ItemSelectionL
 		this.cameraViews = cameraViews;
 
 		addBodyNode(itemPane);
-
-		findTargets();
 	}
 
-	private void findTargets() {
+	/**
+	 * Find the targets in the targets folder. The folder is read on the
+	 * calling thread, thus this can be called from a background thread and the
+	 * result passed to {@link #addTargets(List)}.
+	 * 
+	 * @return the target files sorted by name
+	 */
+	public static List<File> findTargetFiles() {
 		final File targetsFolder = new File(System.getProperty("shootoff.home") + File.separator + "targets");
 
 		final File[] targetFiles = targetsFolder.listFiles(new FileFilter("target"));
 
-		if (targetFiles != null) {
-			Arrays.sort(targetFiles);
-			for (final File file : targetFiles) {
-				newTarget(file);
-			}
-		} else {
+		if (targetFiles == null) {
 			logger.error("Failed to find target files because a list of files could not be retrieved");
+			return Collections.emptyList();
 		}
-	}
 
-	@Override
-	public void newTarget(File targetFile) {
-		final Optional<TargetComponents> targetComponents = TargetIO.loadTarget(targetFile);
+		Arrays.sort(targetFiles);
+		return Arrays.asList(targetFiles);
+	}
 
-		if (!targetComponents.isPresent()) {
-			logger.error("Notified of a new target that cannot be loaded: {}", targetFile.getAbsolutePath());
-			return;
+	public void addTargets(List<File> targetFiles) {
+		for (final File file : targetFiles) {
+			newTarget(file);
 		}
+	}
 
-		final Image targetImage = targetComponents.get().getTargetGroup().snapshot(new SnapshotParameters(), null);
-		final ImageView targetImageView = new ImageView(targetImage);
-		targetImageView.setFitWidth(60);
-		targetImageView.setFitHeight(60);
-		targetImageView.setPreserveRatio(true);
-		targetImageView.setSmooth(true);
+	@Override
+	public void newTarget(File targetFile) {
+		final ThumbnailCache thumbnailCache = ThumbnailCache.getCache();
+		final ImageView targetImageView = thumbnailCache.createThumbnailView();
 
 		final String targetPath = targetFile.getPath();
 		final String targetName = targetPath
 				.substring(targetPath.lastIndexOf(File.separator) + 1, targetPath.lastIndexOf('.')).replace("_", " ");
 
-		itemPane.addButton(targetFile, targetName, Optional.of(targetImageView), Optional.empty());
+		itemPane.addButton(targetFile, targetName, targetImageView, () -> {
+			final URL targetURL;
+			try {
+				targetURL = targetFile.toURI().toURL();
+			} catch (final MalformedURLException e) {
+				logger.error("Cannot create a thumbnail for target " + targetFile.getAbsolutePath(), e);
+				return;
+			}
+
+			thumbnailCache.loadThumbnail(targetURL, new ThumbnailRenderer() {
+				@Override
+				public List<File> getDependencies() {
+					return TargetIO.getImageFiles(targetFile);
+				}
+
+				@Override
+				public Optional<Supplier<Node>> load() {
+					final Optional<TargetTemplate> template = TargetIO.getTemplate(targetFile);
+
+					if (!template.isPresent()) {
+						logger.error("Notified of a new target that cannot be loaded: {}",
+								targetFile.getAbsolutePath());
+						return Optional.empty();
+					}
+
+					return Optional.of(() -> TargetIO.createTarget(template.get(), false).getTargetGroup());
+				}
+			}, targetImageView);
+		});
 	}
 
 	private Optional<FXMLLoader> createTargetEditorStage() {
@@ -23,24 +23,21 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import com.shootoff.camera.Shot;
 import com.shootoff.targets.Hit;
 import com.shootoff.targets.Target;
 import com.shootoff.targets.TargetRegion;
-import com.shootoff.util.NamedThreadFactory;
+import com.shootoff.util.TaskGroup;
+import com.shootoff.util.ThreadPools;
 
 public class DuelingTree extends ProjectorTrainingExerciseBase implements TrainingExercise {
 	private final static String HIT_COL_NAME = "Hit By";
 	private final static int HIT_COL_WIDTH = 60;
 
 	private static final int NEW_ROUND_DELAY = 5; // s
-	private static final int CORE_POOL_SIZE = 2;
-	private final ScheduledExecutorService executorService = Executors.newScheduledThreadPool(CORE_POOL_SIZE,
-			new NamedThreadFactory("DuelingTreeExercise"));
+	private final TaskGroup exerciseTasks = ThreadPools.newTaskGroup("DuelingTreeExercise");
 	private TrainingExerciseBase thisSuper;
 
 	private boolean continueExercise = true;
@@ -68,7 +65,7 @@ public class DuelingTree extends ProjectorTrainingExerciseBase implements Traini
 		super.showTextOnFeed("left score: 0\nright score: 0");
 
 		super.pauseShotDetection(true);
-		executorService.schedule(() -> {
+		exerciseTasks.schedule(() -> {
 			super.pauseShotDetection(false);
 			TrainingExerciseBase.playSound("sounds/beep.wav");
 		}, NEW_ROUND_DELAY, TimeUnit.SECONDS);
@@ -177,7 +174,7 @@ public class DuelingTree extends ProjectorTrainingExerciseBase implements Traini
 			isResetting = true;
 			thisSuper.reset();
 			isResetting = false;
-			executorService.schedule(new NewRound(), NEW_ROUND_DELAY, TimeUnit.SECONDS);
+			exerciseTasks.schedule(new NewRound(), NEW_ROUND_DELAY, TimeUnit.SECONDS);
 		}
 	}
 
@@ -206,7 +203,7 @@ public class DuelingTree extends ProjectorTrainingExerciseBase implements Traini
 	@Override
 	public void destroy() {
 		continueExercise = false;
-		executorService.shutdownNow();
+		exerciseTasks.shutdownNow();
 		super.destroy();
 	}
 }
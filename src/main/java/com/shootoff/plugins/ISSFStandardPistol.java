@@ -24,8 +24,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -37,7 +35,8 @@ import com.shootoff.gui.DelayedStartListener;
 import com.shootoff.targets.Hit;
 import com.shootoff.targets.Target;
 import com.shootoff.targets.TargetRegion;
-import com.shootoff.util.NamedThreadFactory;
+import com.shootoff.util.TaskGroup;
+import com.shootoff.util.ThreadPools;
 
 import javafx.scene.paint.Color;
 
@@ -49,9 +48,7 @@ public class ISSFStandardPistol extends TrainingExerciseBase implements Training
 	private final static String ROUND_COL_NAME = "Round";
 	private final static int ROUND_COL_WIDTH = 80;
 	private final static int START_DELAY = 10; // s
-	private static final int CORE_POOL_SIZE = 4;
-	private ScheduledExecutorService executorService = Executors.newScheduledThreadPool(CORE_POOL_SIZE,
-			new NamedThreadFactory("ISSFStandardPistolExercise"));
+	private TaskGroup exerciseTasks = ThreadPools.newTaskGroup("ISSFStandardPistolExercise");
 	private ScheduledFuture<?> endRound;
 	private TrainingExerciseBase thisSuper;
 	private static int[] ROUND_TIMES = { 150, 20, 10 };
@@ -111,7 +108,7 @@ public class ISSFStandardPistol extends TrainingExerciseBase implements Training
 		super.addShotTimerColumn(ROUND_COL_NAME, ROUND_COL_WIDTH);
 
 		if (!testing) {
-			executorService.schedule(new SetupWait(), START_DELAY, TimeUnit.SECONDS);
+			exerciseTasks.schedule(new SetupWait(), START_DELAY, TimeUnit.SECONDS);
 		} else {
 			new SetupWait().run();
 		}
@@ -131,7 +128,7 @@ public class ISSFStandardPistol extends TrainingExerciseBase implements Training
 			TrainingExerciseBase.playSound(new File("sounds/voice/shootoff-makeready.wav"));
 			final int randomDelay = new Random().nextInt((delayMax - delayMin) + 1) + delayMin;
 			if (!testing) {
-				executorService.schedule(new StartRound(), randomDelay, TimeUnit.SECONDS);
+				exerciseTasks.schedule(new StartRound(), randomDelay, TimeUnit.SECONDS);
 			} else {
 				new StartRound().run();
 			}
@@ -156,7 +153,7 @@ public class ISSFStandardPistol extends TrainingExerciseBase implements Training
 
 			TrainingExerciseBase.playSound("sounds/beep.wav");
 			thisSuper.pauseShotDetection(false);
-			endRound = executorService.schedule(new EndRound(), ROUND_TIMES[roundTimeIndex], TimeUnit.SECONDS);
+			endRound = exerciseTasks.schedule(new EndRound(), ROUND_TIMES[roundTimeIndex], TimeUnit.SECONDS);
 		}
 
 	}
@@ -175,7 +172,7 @@ public class ISSFStandardPistol extends TrainingExerciseBase implements Training
 				// Go to next round
 				round++;
 				if (!testing) {
-					executorService.schedule(new StartRound(), randomDelay, TimeUnit.SECONDS);
+					exerciseTasks.schedule(new StartRound(), randomDelay, TimeUnit.SECONDS);
 				} else {
 					new StartRound().run();
 				}
@@ -184,7 +181,7 @@ public class ISSFStandardPistol extends TrainingExerciseBase implements Training
 				round = 1;
 				roundTimeIndex++;
 				if (!testing) {
-					executorService.schedule(new StartRound(), randomDelay, TimeUnit.SECONDS);
+					exerciseTasks.schedule(new StartRound(), randomDelay, TimeUnit.SECONDS);
 				} else {
 					new StartRound().run();
 				}
@@ -253,7 +250,7 @@ public class ISSFStandardPistol extends TrainingExerciseBase implements Training
 		super.pauseShotDetection(true);
 
 		repeatExercise = false;
-		executorService.shutdownNow();
+		exerciseTasks.shutdownNow();
 
 		setInitialValues();
 
@@ -261,15 +258,14 @@ public class ISSFStandardPistol extends TrainingExerciseBase implements Training
 		super.showTextOnFeed("");
 
 		repeatExercise = true;
-		executorService = Executors.newScheduledThreadPool(CORE_POOL_SIZE,
-				new NamedThreadFactory("ISSFStandardPistolExercise"));
-		executorService.schedule(new SetupWait(), START_DELAY, TimeUnit.SECONDS);
+		exerciseTasks = ThreadPools.newTaskGroup("ISSFStandardPistolExercise");
+		exerciseTasks.schedule(new SetupWait(), START_DELAY, TimeUnit.SECONDS);
 	}
 
 	@Override
 	public void destroy() {
 		repeatExercise = false;
-		executorService.shutdownNow();
+		exerciseTasks.shutdownNow();
 		super.destroy();
 	}
 }
\ No newline at end of file
@@ -149,6 +149,7 @@ public class RandomShoot extends TrainingExerciseBase implements TrainingExercis
 		}
 
 		if (foundTarget && subtargets.size() > 0) {
+			preloadSubtargetPhrases();
 			return true;
 		} else {
 			TrainingExerciseBase.playSound(new File("sounds/voice/shootoff-subtargets-warning.wav"));
@@ -156,6 +157,20 @@ public class RandomShoot extends TrainingExerciseBase implements TrainingExercis
 		}
 	}
 
+	// Subtargets without a voice actor sound file are announced with TTS,
+	// synthesize the announcements for single subtargets now so they are not
+	// synthesized mid-round
+	private void preloadSubtargetPhrases() {
+		final List<String> phrases = new ArrayList<>();
+
+		for (final String subtarget : subtargets) {
+			if (!new File(String.format("sounds/voice/shootoff-%s.wav", subtarget)).exists())
+				phrases.add("shoot " + subtarget);
+		}
+
+		TrainingExerciseBase.preloadPhrases(phrases);
+	}
+
 	private void pickSubtargets() {
 		currentSubtargets.clear();
 
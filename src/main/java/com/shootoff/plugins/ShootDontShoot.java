@@ -24,8 +24,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -33,7 +31,8 @@ import com.shootoff.camera.Shot;
 import com.shootoff.targets.Hit;
 import com.shootoff.targets.Target;
 import com.shootoff.targets.TargetRegion;
-import com.shootoff.util.NamedThreadFactory;
+import com.shootoff.util.TaskGroup;
+import com.shootoff.util.ThreadPools;
 
 public class ShootDontShoot extends ProjectorTrainingExerciseBase implements TrainingExercise {
 	private final static String TARGET_COL_NAME = "TARGET";
@@ -43,9 +42,7 @@ public class ShootDontShoot extends ProjectorTrainingExerciseBase implements Tra
 	private final static int MAX_TARGETS_PER_ROUND = 6;
 	private final static int ROUND_DURATION = 10; // s
 
-	private static final int CORE_POOL_SIZE = 2;
-	private ScheduledExecutorService executorService = Executors.newScheduledThreadPool(CORE_POOL_SIZE,
-			new NamedThreadFactory("ShootDontShootExercise"));
+	private TaskGroup exerciseTasks = ThreadPools.newTaskGroup("ShootDontShootExercise");
 
 	private final AtomicBoolean continueExercise = new AtomicBoolean(true);
 	private boolean testRun = false;
@@ -90,8 +87,15 @@ public class ShootDontShoot extends ProjectorTrainingExerciseBase implements Tra
 		addTargets(dontShootTargets, "targets/shoot_dont_shoot/dont_shoot.target");
 		super.showTextOnFeed("missed targets: 0\nbad hits: 0");
 
+		final List<String> phrases = new ArrayList<>();
+		phrases.add("Bad shoot!");
+		phrases.add("You missed 1 target.");
+		for (int missed = 2; missed <= MAX_TARGETS_PER_ROUND; missed++)
+			phrases.add(String.format("You missed %d targets.", missed));
+		TrainingExerciseBase.preloadPhrases(phrases);
+
 		currentRound = new NewRound();
-		executorService.schedule(currentRound, ROUND_DURATION, TimeUnit.SECONDS);
+		exerciseTasks.schedule(currentRound, ROUND_DURATION, TimeUnit.SECONDS);
 	}
 
 	// Used to call NewRound from a test
@@ -137,7 +141,7 @@ public class ShootDontShoot extends ProjectorTrainingExerciseBase implements Tra
 
 			if (continueExercise.get() && !testRun) {
 				currentRound = new NewRound();
-				executorService.schedule(currentRound, ROUND_DURATION, TimeUnit.SECONDS);
+				exerciseTasks.schedule(currentRound, ROUND_DURATION, TimeUnit.SECONDS);
 			}
 		}
 
@@ -218,7 +222,7 @@ public class ShootDontShoot extends ProjectorTrainingExerciseBase implements Tra
 	@Override
 	public void reset(List<Target> targets) {
 		continueExercise.set(false);
-		executorService.shutdownNow();
+		exerciseTasks.shutdownNow();
 
 		missedTargets = 0;
 		badHits = 0;
@@ -237,15 +241,14 @@ public class ShootDontShoot extends ProjectorTrainingExerciseBase implements Tra
 
 		continueExercise.set(true);
 
-		executorService = Executors.newScheduledThreadPool(CORE_POOL_SIZE,
-				new NamedThreadFactory("ShootDontShootExercise"));
-		executorService.schedule(new NewRound(), ROUND_DURATION, TimeUnit.SECONDS);
+		exerciseTasks = ThreadPools.newTaskGroup("ShootDontShootExercise");
+		exerciseTasks.schedule(new NewRound(), ROUND_DURATION, TimeUnit.SECONDS);
 	}
 
 	@Override
 	public void destroy() {
 		continueExercise.set(false);
-		executorService.shutdownNow();
+		exerciseTasks.shutdownNow();
 		super.destroy();
 	}
 }
@@ -25,8 +25,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import com.shootoff.camera.Shot;
@@ -34,7 +32,8 @@ import com.shootoff.courses.Course;
 import com.shootoff.targets.Hit;
 import com.shootoff.targets.Target;
 import com.shootoff.targets.TargetRegion;
-import com.shootoff.util.NamedThreadFactory;
+import com.shootoff.util.TaskGroup;
+import com.shootoff.util.ThreadPools;
 
 public class SteelChallenge extends ProjectorTrainingExerciseBase implements TrainingExercise {
 	private final static String LENGTH_COL_NAME = "Length";
@@ -43,9 +42,7 @@ public class SteelChallenge extends ProjectorTrainingExerciseBase implements Tra
 	private final static int HIT_COL_WIDTH = 60;
 	private final static int START_DELAY = 4; // s
 	private final static int PAUSE_DELAY = 1; // s
-	private static final int CORE_POOL_SIZE = 2;
-	private ScheduledExecutorService executorService = Executors.newScheduledThreadPool(CORE_POOL_SIZE,
-			new NamedThreadFactory("SteelChallengeExercise"));
+	private TaskGroup exerciseTasks = ThreadPools.newTaskGroup("SteelChallengeExercise");
 	private TrainingExerciseBase thisSuper;
 	private List<Target> targets;
 	private Set<Target> roundTargets;
@@ -150,7 +147,7 @@ public class SteelChallenge extends ProjectorTrainingExerciseBase implements Tra
 		if (testing) {
 			new AreYouReady().run();
 		} else {
-			executorService.schedule(new AreYouReady(), START_DELAY, TimeUnit.SECONDS);
+			exerciseTasks.schedule(new AreYouReady(), START_DELAY, TimeUnit.SECONDS);
 		}
 	}
 
@@ -162,7 +159,7 @@ public class SteelChallenge extends ProjectorTrainingExerciseBase implements Tra
 			TrainingExerciseBase.playSound("sounds/voice/shootoff-are-you-ready.wav");
 
 			if (!testing) {
-				executorService.schedule(new Standby(), PAUSE_DELAY, TimeUnit.SECONDS);
+				exerciseTasks.schedule(new Standby(), PAUSE_DELAY, TimeUnit.SECONDS);
 			} else {
 				new Standby().run();
 			}
@@ -179,7 +176,7 @@ public class SteelChallenge extends ProjectorTrainingExerciseBase implements Tra
 			if (testing) {
 				new BeginTimer().run();
 			} else {
-				executorService.schedule(new BeginTimer(), START_DELAY, TimeUnit.SECONDS);
+				exerciseTasks.schedule(new BeginTimer(), START_DELAY, TimeUnit.SECONDS);
 			}
 
 		}
@@ -261,7 +258,7 @@ public class SteelChallenge extends ProjectorTrainingExerciseBase implements Tra
 				if (testing) {
 					startRound();
 				} else {
-					executorService.schedule(() -> startRound(), START_DELAY, TimeUnit.SECONDS);
+					exerciseTasks.schedule(() -> startRound(), START_DELAY, TimeUnit.SECONDS);
 				}
 			}
 		} else {
@@ -274,11 +271,10 @@ public class SteelChallenge extends ProjectorTrainingExerciseBase implements Tra
 		super.pauseShotDetection(true);
 
 		repeatExercise = false;
-		executorService.shutdownNow();
+		exerciseTasks.shutdownNow();
 
 		repeatExercise = true;
-		executorService = Executors.newScheduledThreadPool(CORE_POOL_SIZE,
-				new NamedThreadFactory("SteelChallengeExercise"));
+		exerciseTasks = ThreadPools.newTaskGroup("SteelChallengeExercise");
 
 		this.targets = targets;
 
@@ -289,7 +285,7 @@ public class SteelChallenge extends ProjectorTrainingExerciseBase implements Tra
 	@Override
 	public void destroy() {
 		repeatExercise = false;
-		executorService.shutdownNow();
+		exerciseTasks.shutdownNow();
 		super.destroy();
 	}
 }
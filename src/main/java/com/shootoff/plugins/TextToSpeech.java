@@ -18,40 +18,144 @@
 
 package com.shootoff.plugins;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.shootoff.audio.AudioEngine;
+import com.shootoff.util.ThreadPools;
+
 import marytts.LocalMaryInterface;
 import marytts.MaryInterface;
 import marytts.exceptions.MaryConfigurationException;
 import marytts.exceptions.SynthesisException;
-import marytts.util.data.audio.AudioPlayer;
 
 /**
  * This facade class implements text-to-speech operations for dynamic audio
  * output. This class should be re-written if the text-to-speech library is
  * swapped for an alternative.
  * 
+ * Synthesized phrases are kept in memory, up to a configurable number of bytes
+ * with the least recently said phrases dropped first, and are played through
+ * the {@link AudioEngine}. Phrases can also be saved to disk by voice so that
+ * they survive restarts, the disk cache is bounded in the same way. Starting the speech engine takes seconds, thus it
+ * should be warmed up with {@link #warmUp()} when ShootOFF starts, and
+ * exercises should {@link #preload(List)} the phrases they know they will say.
+ * 
  * @author phrack
  */
 public final class TextToSpeech {
 	private static final Logger logger = LoggerFactory.getLogger(TextToSpeech.class);
 
-	private static boolean inited = false;
-	private static boolean isSilenced = false;
+	private static final String KEY_PREFIX = "tts:";
+	private static final long DEFAULT_CACHE_BYTES = 16L * 1024 * 1024;
+	private static final long DEFAULT_DISK_CACHE_BYTES = 64L * 1024 * 1024;
+	private static final String CACHE_FILE_EXTENSION = ".wav";
+
+	private static volatile boolean isSilenced = false;
+	private static volatile long maxCacheBytes = DEFAULT_CACHE_BYTES;
+	private static volatile Optional<File> diskCacheDirectory = Optional.empty();
+	private static volatile long maxDiskCacheBytes = DEFAULT_DISK_CACHE_BYTES;
+
+	// Only touched from the synthesis thread
 	private static MaryInterface marytts = null;
+	private static String voice = null;
+
+	// Cached phrases in least recently said order, guarded by itself
+	private static final Map<String, Long> cachedPhrases = new LinkedHashMap<>(16, 0.75f, true);
+	private static long cachedBytes = 0;
+
+	// MaryTTS is not thread safe, thus every phrase is synthesized in order on
+	// the single speech thread
+	private static final Executor synthesizer = ThreadPools.speech();
+	// Tasks submitted to the synthesizer that have not finished
+	private static final AtomicInteger pendingTasks = new AtomicInteger(0);
 
 	protected TextToSpeech() {}
 
-	private static void init() throws MaryConfigurationException {
-		marytts = new LocalMaryInterface();
-		final Set<String> voices = marytts.getAvailableVoices();
-		marytts.setVoice(voices.iterator().next());
-		inited = true;
+	/**
+	 * Set how synthesized phrases are cached.
+	 * 
+	 * @param maxCacheBytes
+	 *            the number of bytes of synthesized audio to keep in memory
+	 * @param diskCacheDirectory
+	 *            where to save synthesized phrases, empty to only keep them in
+	 *            memory
+	 * @param maxDiskCacheBytes
+	 *            the number of bytes of synthesized audio to keep on disk
+	 */
+	public static void configure(long maxCacheBytes, Optional<File> diskCacheDirectory, long maxDiskCacheBytes) {
+		TextToSpeech.maxCacheBytes = maxCacheBytes;
+		TextToSpeech.diskCacheDirectory = diskCacheDirectory;
+		TextToSpeech.maxDiskCacheBytes = maxDiskCacheBytes;
+
+		synchronized (cachedPhrases) {
+			trimCache();
+		}
+
+		if (diskCacheDirectory.isPresent()) submit(TextToSpeech::trimDiskCache);
+	}
+
+	/**
+	 * Start the speech engine in the background so that the first phrase does
+	 * not have to wait for it.
+	 * 
+	 * @return a future that is done once the engine has started or failed to
+	 *         start
+	 */
+	public static CompletableFuture<Void> warmUp() {
+		if (isSilenced) return CompletableFuture.completedFuture(null);
+
+		return CompletableFuture.runAsync(() -> {
+			try {
+				final long startTime = System.currentTimeMillis();
+				init();
+				logger.debug("Text-to-speech engine started in {} ms", System.currentTimeMillis() - startTime);
+			} catch (final MaryConfigurationException e) {
+				logger.error("Error starting text-to-speech engine", e);
+			}
+		}, TextToSpeech::submit);
+	}
+
+	/**
+	 * Synthesize phrases in the background so that they play without delay
+	 * when they are said.
+	 */
+	public static void preload(List<String> phrases) {
+		if (isSilenced) return;
+
+		for (final String phrase : phrases) {
+			if (phrase.isEmpty() || AudioEngine.isLoaded(KEY_PREFIX + phrase)) continue;
+
+			submit(() -> synthesize(phrase));
+		}
 	}
 
 	public static void say(String comment) {
@@ -60,19 +164,19 @@ public final class TextToSpeech {
 			return;
 		}
 
-		try {
-			if (!inited) {
-				init();
-			}
+		if (comment.isEmpty()) {
+			warmUp();
+			return;
+		}
 
-			if (comment.isEmpty()) return;
+		// Cached phrases can start immediately unless an earlier phrase is
+		// still waiting to be synthesized, otherwise they would be said out of
+		// order
+		if (pendingTasks.get() == 0 && play(comment)) return;
 
-			final AudioInputStream audio = marytts.generateAudio(comment);
-			final AudioPlayer player = new AudioPlayer(audio);
-			player.start();
-		} catch (MaryConfigurationException | SynthesisException e) {
-			logger.error("Error sythesizing text to voice", e);
-		}
+		submit(() -> {
+			if (!play(comment) && synthesize(comment)) play(comment);
+		});
 	}
 
 	/**
@@ -87,4 +191,214 @@ public final class TextToSpeech {
 	public static void silence(final boolean isSilenced) {
 		TextToSpeech.isSilenced = isSilenced;
 	}
-}
\ No newline at end of file
+
+	private static void submit(Runnable task) {
+		pendingTasks.incrementAndGet();
+
+		try {
+			synthesizer.execute(() -> {
+				try {
+					task.run();
+				} finally {
+					pendingTasks.decrementAndGet();
+				}
+			});
+		} catch (final RejectedExecutionException e) {
+			pendingTasks.decrementAndGet();
+			throw e;
+		}
+	}
+
+	private static void init() throws MaryConfigurationException {
+		if (marytts != null) return;
+
+		marytts = new LocalMaryInterface();
+		final Set<String> voices = marytts.getAvailableVoices();
+		voice = voices.iterator().next();
+		marytts.setVoice(voice);
+	}
+
+	private static boolean play(String phrase) {
+		final String key = KEY_PREFIX + phrase;
+
+		synchronized (cachedPhrases) {
+			// Refresh the phrase's place in the least recently said order
+			cachedPhrases.get(key);
+		}
+
+		return AudioEngine.play(key, Optional.empty());
+	}
+
+	// Load a phrase from the disk cache or synthesize it, must be called from
+	// the synthesis thread
+	private static boolean synthesize(String phrase) {
+		final String key = KEY_PREFIX + phrase;
+
+		if (AudioEngine.isLoaded(key)) return true;
+
+		try {
+			init();
+
+			final Optional<File> cacheFile = getCacheFile(phrase);
+
+			if (cacheFile.isPresent() && cacheFile.get().exists()) {
+				try (AudioInputStream audio = AudioSystem.getAudioInputStream(cacheFile.get())) {
+					cache(key, AudioEngine.load(key, audio));
+
+					// The disk cache drops the least recently used phrases first
+					if (!cacheFile.get().setLastModified(System.currentTimeMillis()))
+						logger.trace("Failed to touch cached phrase {}", cacheFile.get().getPath());
+
+					return true;
+				} catch (UnsupportedAudioFileException | IOException e) {
+					logger.warn("Failed to read cached phrase " + cacheFile.get().getPath() + ", synthesizing it", e);
+				}
+			}
+
+			final long startTime = System.currentTimeMillis();
+			final byte[] pcm;
+			final AudioFormat format;
+			try (AudioInputStream generated = marytts.generateAudio(phrase)) {
+				pcm = readFully(generated);
+				format = generated.getFormat();
+			}
+			logger.trace("Synthesized \"{}\" in {} ms", phrase, System.currentTimeMillis() - startTime);
+
+			try (AudioInputStream audio = toStream(pcm, format)) {
+				cache(key, AudioEngine.load(key, audio));
+			}
+
+			if (cacheFile.isPresent()) {
+				save(cacheFile.get(), pcm, format);
+				trimDiskCache();
+			}
+
+			return true;
+		} catch (MaryConfigurationException | SynthesisException | IOException e) {
+			logger.error("Error sythesizing text to voice", e);
+			return false;
+		}
+	}
+
+	private static byte[] readFully(AudioInputStream audio) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[16 * 1024];
+		int read;
+		while ((read = audio.read(buffer)) != -1)
+			bytes.write(buffer, 0, read);
+
+		return bytes.toByteArray();
+	}
+
+	private static AudioInputStream toStream(byte[] pcm, AudioFormat format) {
+		return new AudioInputStream(new ByteArrayInputStream(pcm), format, pcm.length / format.getFrameSize());
+	}
+
+	private static void cache(String key, long bytes) {
+		synchronized (cachedPhrases) {
+			final Long previousBytes = cachedPhrases.put(key, bytes);
+			if (previousBytes != null) cachedBytes -= previousBytes;
+			cachedBytes += bytes;
+
+			trimCache();
+		}
+	}
+
+	// Must hold the lock on cachedPhrases. Always keeps the most recent phrase
+	// even if it alone is larger than the cache.
+	private static void trimCache() {
+		final Iterator<Map.Entry<String, Long>> it = cachedPhrases.entrySet().iterator();
+
+		while (cachedBytes > maxCacheBytes && cachedPhrases.size() > 1) {
+			final Map.Entry<String, Long> eldest = it.next();
+			cachedBytes -= eldest.getValue();
+			AudioEngine.unload(eldest.getKey());
+			it.remove();
+		}
+	}
+
+	private static Optional<File> getCacheFile(String phrase) {
+		if (!diskCacheDirectory.isPresent()) return Optional.empty();
+
+		final Optional<String> hash = hash(phrase);
+
+		if (!hash.isPresent()) return Optional.empty();
+
+		final File voiceDirectory = new File(diskCacheDirectory.get(), voice.replaceAll("[^A-Za-z0-9._-]", "_"));
+		return Optional.of(new File(voiceDirectory, hash.get() + CACHE_FILE_EXTENSION));
+	}
+
+	// Delete the least recently used phrases of every voice until the disk
+	// cache fits, must be called from the synthesis thread
+	private static void trimDiskCache() {
+		if (!diskCacheDirectory.isPresent()) return;
+
+		final File[] voiceDirectories = diskCacheDirectory.get().listFiles(File::isDirectory);
+		if (voiceDirectories == null) return;
+
+		final List<File> cacheFiles = new ArrayList<>();
+		long diskBytes = 0;
+
+		for (final File voiceDirectory : voiceDirectories) {
+			final File[] phraseFiles = voiceDirectory.listFiles((dir, name) -> name.endsWith(CACHE_FILE_EXTENSION));
+			if (phraseFiles == null) continue;
+
+			for (final File phraseFile : phraseFiles) {
+				cacheFiles.add(phraseFile);
+				diskBytes += phraseFile.length();
+			}
+		}
+
+		if (diskBytes <= maxDiskCacheBytes) return;
+
+		cacheFiles.sort(Comparator.comparingLong(File::lastModified));
+
+		for (final Iterator<File> it = cacheFiles.iterator(); it.hasNext() && diskBytes > maxDiskCacheBytes;) {
+			final File eldest = it.next();
+			final long length = eldest.length();
+
+			if (eldest.delete()) {
+				diskBytes -= length;
+			} else {
+				logger.warn("Failed to delete cached phrase {}", eldest.getPath());
+			}
+		}
+	}
+
+	// Write to a temporary file first so that a partially written phrase is
+	// never read back
+	private static void save(File cacheFile, byte[] pcm, AudioFormat format) {
+		final File directory = cacheFile.getParentFile();
+
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			logger.error("Failed to create text-to-speech cache directory {}", directory.getPath());
+			return;
+		}
+
+		final File tempFile = new File(directory, cacheFile.getName() + ".tmp");
+
+		try (AudioInputStream audio = toStream(pcm, format)) {
+			AudioSystem.write(audio, AudioFileFormat.Type.WAVE, tempFile);
+			Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (final IOException e) {
+			logger.error("Failed to save synthesized phrase " + cacheFile.getPath(), e);
+			if (tempFile.exists() && !tempFile.delete()) tempFile.deleteOnExit();
+		}
+	}
+
+	private static Optional<String> hash(String phrase) {
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+
+			final StringBuilder hex = new StringBuilder();
+			for (final byte b : digest.digest(phrase.getBytes("UTF-8")))
+				hex.append(String.format("%02x", b));
+
+			return Optional.of(hex.toString());
+		} catch (UnsupportedEncodingException | NoSuchAlgorithmException e) {
+			logger.error("Failed to hash phrase \"" + phrase + "\" for the text-to-speech cache", e);
+			return Optional.empty();
+		}
+	}
+}
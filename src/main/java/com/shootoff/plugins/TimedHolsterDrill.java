@@ -22,15 +22,14 @@ import java.io.File;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import com.shootoff.camera.Shot;
 import com.shootoff.gui.DelayedStartListener;
 import com.shootoff.targets.Hit;
 import com.shootoff.targets.Target;
-import com.shootoff.util.NamedThreadFactory;
+import com.shootoff.util.TaskGroup;
+import com.shootoff.util.ThreadPools;
 
 import javafx.scene.control.Button;
 import javafx.scene.paint.Color;
@@ -40,10 +39,8 @@ public class TimedHolsterDrill extends TrainingExerciseBase implements TrainingE
 	private final static int LENGTH_COL_WIDTH = 60;
 	private final static int START_DELAY = 10; // s
 	private final static int RESUME_DELAY = 5; // s
-	private static final int CORE_POOL_SIZE = 2;
 	private static final String PAUSE = "Pause";
-	private ScheduledExecutorService executorService = Executors.newScheduledThreadPool(CORE_POOL_SIZE,
-			new NamedThreadFactory("TimedHolsterDrillExercise"));
+	private TaskGroup exerciseTasks = ThreadPools.newTaskGroup("TimedHolsterDrillExercise");
 	private int delayMin = 4;
 	private int delayMax = 8;
 	private boolean repeatExercise = true;
@@ -97,19 +94,18 @@ public class TimedHolsterDrill extends TrainingExerciseBase implements TrainingE
 	public void reset(List<Target> targets) {
 		repeatExercise = false;
 		pauseShotDetection(true);
-		executorService.shutdownNow();
+		exerciseTasks.shutdownNow();
 		pauseResumeButton.setText(PAUSE);
 		resetValues();
 		repeatExercise = true;
-		executorService = Executors.newScheduledThreadPool(CORE_POOL_SIZE,
-				new NamedThreadFactory("TimedHolsterDrillExercise"));
-		executorService.schedule(new SetupWait(), START_DELAY, TimeUnit.SECONDS);
+		exerciseTasks = ThreadPools.newTaskGroup("TimedHolsterDrillExercise");
+		exerciseTasks.schedule(new SetupWait(), START_DELAY, TimeUnit.SECONDS);
 	}
 
 	@Override
 	public void destroy() {
 		repeatExercise = false;
-		executorService.shutdownNow();
+		exerciseTasks.shutdownNow();
 		super.destroy();
 	}
 
@@ -122,7 +118,7 @@ public class TimedHolsterDrill extends TrainingExerciseBase implements TrainingE
 			playSound(new File("sounds/voice/shootoff-makeready.wav"));
 			final int randomDelay = new Random().nextInt((delayMax - delayMin) + 1) + delayMin;
 
-			if (repeatExercise) executorService.schedule(new Round(), randomDelay, TimeUnit.SECONDS);
+			if (repeatExercise) exerciseTasks.schedule(new Round(), randomDelay, TimeUnit.SECONDS);
 
 			return;
 		}
@@ -133,7 +129,7 @@ public class TimedHolsterDrill extends TrainingExerciseBase implements TrainingE
 		public void run() {
 			if (repeatExercise) {
 				doRound();
-				executorService.schedule(new Round(), setupRound(), TimeUnit.SECONDS);
+				exerciseTasks.schedule(new Round(), setupRound(), TimeUnit.SECONDS);
 			}
 
 			return;
@@ -150,7 +146,7 @@ public class TimedHolsterDrill extends TrainingExerciseBase implements TrainingE
 			} else {
 				pauseResumeButton.setText(PAUSE);
 				repeatExercise = true;
-				executorService.schedule(new SetupWait(), RESUME_DELAY, TimeUnit.SECONDS);
+				exerciseTasks.schedule(new SetupWait(), RESUME_DELAY, TimeUnit.SECONDS);
 			}
 		});
 
@@ -163,7 +159,7 @@ public class TimedHolsterDrill extends TrainingExerciseBase implements TrainingE
 		pauseShotDetection(true);
 		resetValues();
 
-		executorService.schedule(new SetupWait(), START_DELAY, TimeUnit.SECONDS);
+		exerciseTasks.schedule(new SetupWait(), START_DELAY, TimeUnit.SECONDS);
 	}
 
 	protected int setupRound() {
@@ -33,7 +33,6 @@ import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.DataLine;
-import javax.sound.sampled.LineEvent;
 import javax.sound.sampled.LineListener;
 import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.SourceDataLine;
@@ -42,15 +41,18 @@ import javax.sound.sampled.UnsupportedAudioFileException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.shootoff.audio.AudioEngine;
 import com.shootoff.camera.CameraView;
 import com.shootoff.camera.CamerasSupervisor;
 import com.shootoff.config.Configuration;
 import com.shootoff.gui.DelayedStartListener;
 import com.shootoff.gui.ParListener;
 import com.shootoff.gui.ShotEntry;
+import com.shootoff.gui.ShotTimerModel;
 import com.shootoff.gui.controller.ShootOFFController;
 import com.shootoff.targets.CameraViews;
 import com.shootoff.targets.Target;
+import com.shootoff.util.ThreadPools;
 
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
@@ -91,6 +93,7 @@ public class TrainingExerciseBase {
 	private VBox buttonsContainer;
 	private Pane trainingExerciseContainer;
 	private TableView<ShotEntry> shotTimerTable;
+	private Optional<ShotTimerModel> shotTimerModel = Optional.empty();
 	private boolean changedRowColor = false;
 	private boolean haveDelayControls = false;
 	private boolean haveParControls = false;
@@ -111,6 +114,7 @@ public class TrainingExerciseBase {
 	public void init(Configuration config, CamerasSupervisor camerasSupervisor, ShootOFFController controller) {
 		init(config, camerasSupervisor, controller.getButtonsPane(), controller.getShotEntryTable());
 		cameraViews = controller;
+		shotTimerModel = Optional.of(controller.getShotTimerModel());
 		trainingExerciseContainer = controller.getTrainingExerciseContainer();
 
 		if (cameraViews.getArenaView().isPresent()) {
@@ -349,7 +353,17 @@ public class TrainingExerciseBase {
 	 */
 	public void setShotTimerColumnText(final String name, final String value) {
 		if (shotTimerTable != null && shotTimerTable.getItems() != null) {
+			// Entries reach the table in batches, so get the last entry from
+			// the model now in case it hasn't been added to the table yet
+			final Optional<ShotEntry> lastEntry = shotTimerModel.isPresent() ? shotTimerModel.get().getLastEntry()
+					: Optional.empty();
+
 			final Runnable shotTimerColumnTextSetter = () -> {
+				if (lastEntry.isPresent()) {
+					lastEntry.get().setExerciseValue(name, value);
+					return;
+				}
+
 				if (shotTimerTable.getItems().size() == 0) {
 					logger.error("Trying to set shot timer column text on an empty shot timer list", 
 							new AssertionError("Shot timer table is empty"));
@@ -462,10 +476,25 @@ public class TrainingExerciseBase {
 	}
 
 	public static void playSound(final InputStream is) {
-		playSound(is, Optional.empty());
+		if (isSilenced) {
+			System.out.println("Playing audio for modular exercise.");
+			return;
+		}
+
+		AudioEngine.play(is, Optional.empty());
 	}
 
+	/**
+	 * Plays audio from a stream asynchronously. Unlike the other
+	 * <tt>playSound</tt> methods, a sound played with a listener gets its own
+	 * output line so that the listener receives that line's events.
+	 */
 	public static void playSound(final InputStream is, Optional<LineListener> listener) {
+		if (!listener.isPresent()) {
+			playSound(is);
+			return;
+		}
+
 		if (isSilenced) {
 			System.out.println("Playing audio for modular exercise.");
 			return;
@@ -473,31 +502,54 @@ public class TrainingExerciseBase {
 
 		try {
 			final AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(is);
-			playSound(audioInputStream, listener);
+			playSound(audioInputStream, listener.get());
 		} catch (UnsupportedAudioFileException | IOException e) {
 			logger.error("Error reading sound stream to play", e);
 		}
 	}
 
-	private static void playSound(File soundFile, Optional<LineListener> listener) {
+	/**
+	 * Decodes sound files ahead of time so that they play without delay the
+	 * first time they are used.
+	 * 
+	 * @param soundFiles
+	 *            the audio files to load (e.g. "sounds/beep.wav")
+	 */
+	public static void preloadSounds(final List<File> soundFiles) {
+		if (isSilenced) return;
+
+		final List<File> resolvedFiles = new ArrayList<>();
+		for (final File soundFile : soundFiles)
+			resolvedFiles.add(resolveSoundFile(soundFile));
+
+		AudioEngine.preload(resolvedFiles);
+	}
+
+	/**
+	 * Synthesize phrases that this exercise will say with
+	 * {@link TextToSpeech#say(String)} in the background so that they play
+	 * immediately when they are said.
+	 */
+	public static void preloadPhrases(final List<String> phrases) {
+		TextToSpeech.preload(phrases);
+	}
+
+	private static File resolveSoundFile(File soundFile) {
+		if (soundFile.isAbsolute()) return soundFile;
+
+		return new File(System.getProperty("shootoff.home") + File.separator + soundFile.getPath());
+	}
+
+	private static void playSound(File soundFile, Optional<Runnable> onFinished) {
 		if (isSilenced) {
 			System.out.println(soundFile.getPath());
 			return;
 		}
 
-		if (!soundFile.isAbsolute()) {
-			soundFile = new File(System.getProperty("shootoff.home") + File.separator + soundFile.getPath());
-		}
-
-		try {
-			final AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(soundFile);
-			playSound(audioInputStream, listener);
-		} catch (UnsupportedAudioFileException | IOException e) {
-			logger.error(String.format("Error reading sound file to play: soundFile = %s", soundFile), e);
-		}
+		AudioEngine.play(resolveSoundFile(soundFile), onFinished);
 	}
 
-	private static void playSound(AudioInputStream audioInputStream, Optional<LineListener> listener) {
+	private static void playSound(AudioInputStream audioInputStream, LineListener listener) {
 		final AudioFormat format = audioInputStream.getFormat();
 		final DataLine.Info info = new DataLine.Info(SourceDataLine.class, format);
 
@@ -508,24 +560,10 @@ public class TrainingExerciseBase {
 
 			line.open(format);
 			line.start();
-
-			if (listener.isPresent()) {
-				line.addLineListener(listener.get());
-			} else {
-				line.addLineListener((e) -> {
-					if (LineEvent.Type.STOP.equals(e.getType())) {
-						e.getLine().close();
-						try {
-							audioInputStream.close();
-						} catch (final Exception e1) {
-							logger.error("Error closing audio input stream", e1);
-						}
-					}
-				});
-			}
+			line.addLineListener(listener);
 
 			final SourceDataLine sourceLine = line;
-			new Thread(() -> {
+			ThreadPools.audio().execute(() -> {
 				int nBytesRead = 0;
 				final byte[] abData = new byte[1024];
 				while (nBytesRead != -1) {
@@ -541,7 +579,7 @@ public class TrainingExerciseBase {
 
 				sourceLine.drain();
 				sourceLine.close();
-			}).start();
+			});
 		} catch (final LineUnavailableException e) {
 			if (line != null) line.close();
 			logger.error("Error playing sound clip", e);
@@ -557,7 +595,7 @@ public class TrainingExerciseBase {
 		}
 	}
 
-	private static class SoundQueue implements LineListener {
+	private static class SoundQueue {
 		private final List<File> soundFiles;
 		private int queueIndex = 0;
 
@@ -566,19 +604,14 @@ public class TrainingExerciseBase {
 		}
 
 		public void play() {
-			playSound(soundFiles.get(queueIndex), Optional.of(this));
+			playSound(soundFiles.get(queueIndex), Optional.of(this::playNext));
 		}
 
-		@Override
-		public void update(final LineEvent event) {
-			if (LineEvent.Type.STOP.equals(event.getType())) {
-				event.getLine().close();
+		private void playNext() {
+			queueIndex++;
 
-				queueIndex++;
-
-				if (queueIndex < soundFiles.size()) {
-					playSound(soundFiles.get(queueIndex), Optional.of(this));
-				}
+			if (queueIndex < soundFiles.size()) {
+				playSound(soundFiles.get(queueIndex), Optional.of(this::playNext));
 			}
 		}
 	}
@@ -0,0 +1,229 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+/**
+ * An append-only log of the events recorded for one camera. Writers claim a
+ * slot with a single atomic increment and publish their event into it, thus
+ * appending never takes a lock except when a new chunk of slots is allocated
+ * (once every {@value #CHUNK_SIZE} events). Each event receives a sequence
+ * number equal to its slot, so sequence numbers are monotonic and gap-free per
+ * camera.
+ * 
+ * Events are never removed. Instead, events that are made redundant by a later
+ * event (e.g. a string of target moves while a target is dragged) are marked as
+ * superseded and left out of snapshots.
+ * 
+ * Readers never block writers: a snapshot walks the published slots and stops
+ * at the first slot that has been claimed but not yet written, so every
+ * snapshot is a consistent prefix of the log.
+ */
+public class SessionEventLog {
+	private static final int CHUNK_BITS = 10;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+	private static final int INITIAL_CHUNKS = 8;
+
+	private final String cameraName;
+	private final AtomicInteger reserved = new AtomicInteger(0);
+	private final AtomicReference<AtomicReferenceArray<AtomicReferenceArray<Entry>>> directory = new AtomicReference<>(
+			new AtomicReferenceArray<>(INITIAL_CHUNKS));
+
+	public static class Entry {
+		private final long sequence;
+		private final Event event;
+		private volatile boolean superseded = false;
+
+		private Entry(long sequence, Event event) {
+			this.sequence = sequence;
+			this.event = event;
+		}
+
+		public long getSequence() {
+			return sequence;
+		}
+
+		public Event getEvent() {
+			return event;
+		}
+
+		public boolean isSuperseded() {
+			return superseded;
+		}
+	}
+
+	public SessionEventLog(String cameraName) {
+		this.cameraName = cameraName;
+	}
+
+	public String getCameraName() {
+		return cameraName;
+	}
+
+	/**
+	 * Append an event to the end of this log.
+	 * 
+	 * @param event
+	 *            the event to append
+	 * @return the sequence number assigned to the event
+	 */
+	public long append(Event event) {
+		final int slot = reserved.getAndIncrement();
+
+		if (slot < 0) throw new IllegalStateException("Session event log for " + cameraName + " is full");
+
+		final Entry entry = new Entry(slot, event);
+		chunkFor(slot).set(slot & CHUNK_MASK, entry);
+
+		return slot;
+	}
+
+	/**
+	 * Walk backwards from the event with sequence number <code>before</code>
+	 * (exclusive), marking every non-superseded event that matches
+	 * <code>supersede</code> as superseded. The walk stops at the first
+	 * non-superseded event that does not match <code>continueWhile</code>.
+	 * 
+	 * @return the sequence numbers of the events that were superseded
+	 */
+	public List<Long> supersedePreceding(long before, Predicate<Event> continueWhile, Predicate<Event> supersede) {
+		List<Long> superseded = Collections.emptyList();
+
+		for (int slot = (int) before - 1; slot >= 0; slot--) {
+			final Entry entry = getEntry(slot);
+
+			if (entry == null || entry.superseded) continue;
+
+			if (!continueWhile.test(entry.event)) break;
+
+			if (supersede.test(entry.event)) {
+				entry.superseded = true;
+
+				if (superseded.isEmpty()) superseded = new ArrayList<>();
+				superseded.add(entry.sequence);
+			}
+		}
+
+		return superseded;
+	}
+
+	/**
+	 * @return the number of slots that have been claimed by writers, including
+	 *         superseded events and events that are still being published
+	 */
+	public int getReservedCount() {
+		return reserved.get();
+	}
+
+	/**
+	 * @return a consistent, immutable view of the live (non-superseded) events
+	 *         in this log in the order they were appended
+	 */
+	public List<Event> snapshot() {
+		final List<Event> events = new ArrayList<>();
+
+		for (final Entry entry : entries()) {
+			if (!entry.superseded) events.add(entry.event);
+		}
+
+		return Collections.unmodifiableList(events);
+	}
+
+	/**
+	 * @return every published entry, including superseded ones, as a
+	 *         consistent prefix of this log
+	 */
+	public List<Entry> entries() {
+		final int limit = reserved.get();
+		final List<Entry> entries = new ArrayList<>(limit);
+
+		for (int slot = 0; slot < limit; slot++) {
+			final Entry entry = getEntry(slot);
+
+			// A slot that has been claimed but not written yet, stop here
+			// so that readers only ever see a prefix of the log
+			if (entry == null) break;
+
+			entries.add(entry);
+		}
+
+		return entries;
+	}
+
+	private Entry getEntry(int slot) {
+		final AtomicReferenceArray<AtomicReferenceArray<Entry>> dir = directory.get();
+		final int chunkIndex = slot >>> CHUNK_BITS;
+
+		if (chunkIndex >= dir.length()) return null;
+
+		final AtomicReferenceArray<Entry> chunk = dir.get(chunkIndex);
+
+		if (chunk == null) return null;
+
+		return chunk.get(slot & CHUNK_MASK);
+	}
+
+	private AtomicReferenceArray<Entry> chunkFor(int slot) {
+		final int chunkIndex = slot >>> CHUNK_BITS;
+		final AtomicReferenceArray<AtomicReferenceArray<Entry>> dir = directory.get();
+
+		if (chunkIndex < dir.length()) {
+			final AtomicReferenceArray<Entry> chunk = dir.get(chunkIndex);
+			if (chunk != null) return chunk;
+		}
+
+		return allocateChunk(chunkIndex);
+	}
+
+	// Chunk allocation and directory growth share a lock so that a chunk can
+	// never be installed into a directory that is concurrently being replaced
+	private synchronized AtomicReferenceArray<Entry> allocateChunk(int chunkIndex) {
+		AtomicReferenceArray<AtomicReferenceArray<Entry>> dir = directory.get();
+
+		if (chunkIndex >= dir.length()) {
+			int newLength = dir.length();
+			while (newLength <= chunkIndex)
+				newLength *= 2;
+
+			final AtomicReferenceArray<AtomicReferenceArray<Entry>> grown = new AtomicReferenceArray<>(newLength);
+			for (int i = 0; i < dir.length(); i++)
+				grown.set(i, dir.get(i));
+
+			directory.set(grown);
+			dir = grown;
+		}
+
+		AtomicReferenceArray<Entry> chunk = dir.get(chunkIndex);
+
+		if (chunk == null) {
+			chunk = new AtomicReferenceArray<>(CHUNK_SIZE);
+			dir.set(chunkIndex, chunk);
+		}
+
+		return chunk;
+	}
+}
@@ -0,0 +1,31 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session;
+
+/**
+ * Receives every change made to a session while it is being recorded. Methods
+ * are called on whichever thread recorded the event (camera threads, the FX
+ * thread, exercise threads), thus implementations must be thread-safe and
+ * should return quickly.
+ */
+public interface SessionListener {
+	void eventRecorded(String cameraName, long sequence, Event event);
+
+	void eventSuperseded(String cameraName, long sequence);
+}
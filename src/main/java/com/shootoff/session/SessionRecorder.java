@@ -21,16 +21,16 @@ package com.shootoff.session;
 import java.io.File;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import com.shootoff.camera.Shot;
 import com.shootoff.targets.Target;
@@ -38,40 +38,105 @@ import com.shootoff.targets.Target;
 import javafx.geometry.Dimension2D;
 import javafx.geometry.Point2D;
 
+/**
+ * Records the events that happen during a session. Shots arrive from camera
+ * threads while target and exercise events arrive from the FX thread and
+ * exercises, thus every camera gets its own lock-free {@link SessionEventLog}
+ * and recording an event is a cheap append that never contends with readers.
+ * Readers such as the session viewer and session writers get consistent
+ * snapshots through {@link #getEvents()} and {@link #getCameraEvents(String)}.
+ */
 public class SessionRecorder {
+	public static final String SESSION_NAME_FORMAT = "yyyy-MM-dd HH.mm.ss";
+
 	private final long startTime;
 	private final String sessionName;
-	private final Map<String, List<Event>> events = new HashMap<>();
-	private final Map<String, Set<Target>> seenTargets = new HashMap<>();
-
-	private final AtomicBoolean ignoreTargetCheck = new AtomicBoolean(false);
+	private final ConcurrentMap<String, SessionEventLog> events = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Set<Target>> seenTargets = new ConcurrentHashMap<>();
+	private final List<SessionListener> sessionListeners = new CopyOnWriteArrayList<>();
 
 	public SessionRecorder() {
-		final DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH.mm.ss");
+		final DateFormat dateFormat = new SimpleDateFormat(SESSION_NAME_FORMAT);
 		sessionName = dateFormat.format(new Date());
 		startTime = System.currentTimeMillis();
 	}
 
+	/**
+	 * Add loaded events. Every camera in <code>events</code> is added, even if
+	 * its list of events is empty.
+	 */
 	public void addEvents(Map<String, List<Event>> events) {
-		this.events.putAll(events);
+		for (final Map.Entry<String, List<Event>> cameraEvents : events.entrySet()) {
+			getCameraLog(cameraEvents.getKey());
+
+			for (final Event e : cameraEvents.getValue())
+				append(cameraEvents.getKey(), e);
+		}
+	}
+
+	public void addSessionListener(SessionListener listener) {
+		sessionListeners.add(listener);
+	}
+
+	public void removeSessionListener(SessionListener listener) {
+		sessionListeners.remove(listener);
 	}
 
+	/**
+	 * @return a snapshot of the live events recorded for every camera, keyed
+	 *         by camera name. Later events are not reflected in the returned
+	 *         map.
+	 */
 	public Map<String, List<Event>> getEvents() {
-		return events;
+		final Map<String, List<Event>> snapshot = new LinkedHashMap<>();
+
+		for (final SessionEventLog log : events.values()) {
+			snapshot.put(log.getCameraName(), log.snapshot());
+		}
+
+		return Collections.unmodifiableMap(snapshot);
 	}
 
 	public String getSessionName() {
 		return sessionName;
 	}
 
+	public long getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * @return a snapshot of the live events recorded for
+	 *         <code>cameraName</code>, or an empty list if nothing has been
+	 *         recorded for that camera
+	 */
 	public List<Event> getCameraEvents(String cameraName) {
-		if (events.containsKey(cameraName)) {
-			return events.get(cameraName);
-		} else {
-			final List<Event> eventList = new ArrayList<>();
-			events.put(cameraName, eventList);
-			return eventList;
-		}
+		final SessionEventLog log = events.get(cameraName);
+
+		if (log == null) return Collections.emptyList();
+
+		return log.snapshot();
+	}
+
+	public SessionEventLog getCameraLog(String cameraName) {
+		return events.computeIfAbsent(cameraName, SessionEventLog::new);
+	}
+
+	private Set<Target> getSeenTargets(String cameraName) {
+		return seenTargets.computeIfAbsent(cameraName, (name) -> ConcurrentHashMap.newKeySet());
+	}
+
+	private long append(String cameraName, Event event) {
+		final long sequence = getCameraLog(cameraName).append(event);
+
+		for (final SessionListener l : sessionListeners)
+			l.eventRecorded(cameraName, sequence, event);
+
+		return sequence;
+	}
+
+	private long elapsed() {
+		return System.currentTimeMillis() - startTime;
 	}
 
 	// This method ensures we have an add event for a target that is being used,
@@ -80,20 +145,12 @@ public class SessionRecorder {
 	// resized
 	// to wherever it already is and to however big it already is.
 	private void checkTarget(String cameraName, Target target) {
-		if (!seenTargets.containsKey(cameraName)) {
-			seenTargets.put(cameraName, new HashSet<Target>());
-		}
-
-		if (!seenTargets.get(cameraName).contains(target)) {
-			ignoreTargetCheck.set(true);
-
-			recordTargetAdded(cameraName, target);
+		if (getSeenTargets(cameraName).add(target)) {
+			appendTargetAdded(cameraName, target);
 			final Point2D p = target.getPosition();
-			recordTargetMoved(cameraName, target, (int) p.getX(), (int) p.getY());
+			appendTargetMoved(cameraName, target, (int) p.getX(), (int) p.getY());
 			final Dimension2D d = target.getDimension();
-			recordTargetResized(cameraName, target, d.getWidth(), d.getHeight());
-
-			ignoreTargetCheck.set(false);
+			appendTargetResized(cameraName, target, d.getWidth(), d.getHeight());
 		}
 	}
 
@@ -103,22 +160,20 @@ public class SessionRecorder {
 
 		if (target.isPresent()) {
 			targetIndex = Optional.of(target.get().getTargetIndex());
-			if (!ignoreTargetCheck.get()) checkTarget(cameraName, target.get());
+			checkTarget(cameraName, target.get());
 		}
 
-		final long timestamp = System.currentTimeMillis() - startTime;
-
-		getCameraEvents(cameraName).add(new ShotEvent(cameraName, timestamp, shot, isMalfunction, isReload, targetIndex,
-				hitRegionIndex, videoString));
+		append(cameraName, new ShotEvent(cameraName, elapsed(), shot, isMalfunction, isReload,
+				targetIndex, hitRegionIndex, videoString));
 	}
 
 	public void recordTargetAdded(String cameraName, Target target) {
-		if (!seenTargets.containsKey(cameraName)) {
-			seenTargets.put(cameraName, new HashSet<Target>());
-		}
+		getSeenTargets(cameraName).add(target);
 
-		seenTargets.get(cameraName).add(target);
+		appendTargetAdded(cameraName, target);
+	}
 
+	private void appendTargetAdded(String cameraName, Target target) {
 		String targetName;
 
 		if (target.getTargetFile().isAbsolute()) {
@@ -128,64 +183,67 @@ public class SessionRecorder {
 			targetName = target.getTargetFile().getPath().replace("targets" + File.separator, "");
 		}
 
-		getCameraEvents(cameraName)
-		.add(new TargetAddedEvent(cameraName, System.currentTimeMillis() - startTime, targetName));
+		append(cameraName, new TargetAddedEvent(cameraName, elapsed(), targetName));
 	}
 
 	public void recordTargetRemoved(String cameraName, Target target) {
-		if (!ignoreTargetCheck.get()) checkTarget(cameraName, target);
+		checkTarget(cameraName, target);
 
-		getCameraEvents(cameraName).add(
-				new TargetRemovedEvent(cameraName, System.currentTimeMillis() - startTime, target.getTargetIndex()));
+		append(cameraName, new TargetRemovedEvent(cameraName, elapsed(), target.getTargetIndex()));
 	}
 
-	private void collapseTargetEvents(String cameraName, EventType type, Target target) {
-		final ListIterator<Event> it = getCameraEvents(cameraName).listIterator(getCameraEvents(cameraName).size());
-
-		while (it.hasPrevious()) {
-			final Event e = it.previous();
-
-			if (e.getType() != EventType.TARGET_RESIZED && e.getType() != EventType.TARGET_MOVED) {
-				break;
-			}
-
-			if (e.getType() == type) {
-				if (type == EventType.TARGET_RESIZED
-						&& ((TargetResizedEvent) e).getTargetIndex() == target.getTargetIndex()) {
-					it.remove();
-				} else if (type == EventType.TARGET_MOVED
-						&& ((TargetMovedEvent) e).getTargetIndex() == target.getTargetIndex()) {
-					it.remove();
-				}
-			}
+	// Supersede all events of the given type for target that immediately
+	// precede the event with sequence number latest
+	private void collapseTargetEvents(String cameraName, long latest, EventType type, Target target) {
+		final List<Long> superseded = getCameraLog(cameraName).supersedePreceding(latest,
+				(e) -> e.getType() == EventType.TARGET_RESIZED || e.getType() == EventType.TARGET_MOVED, (e) -> {
+					if (e.getType() != type) return false;
+
+					if (type == EventType.TARGET_RESIZED) {
+						return ((TargetResizedEvent) e).getTargetIndex() == target.getTargetIndex();
+					} else {
+						return ((TargetMovedEvent) e).getTargetIndex() == target.getTargetIndex();
+					}
+				});
+
+		for (final long sequence : superseded) {
+			for (final SessionListener l : sessionListeners)
+				l.eventSuperseded(cameraName, sequence);
 		}
 	}
 
 	public void recordTargetResized(String cameraName, Target target, double newWidth, double newHeight) {
-		if (!ignoreTargetCheck.get()) checkTarget(cameraName, target);
+		checkTarget(cameraName, target);
 
-		// Remove all resize events immediately before this one
-		collapseTargetEvents(cameraName, EventType.TARGET_RESIZED, target);
+		appendTargetResized(cameraName, target, newWidth, newHeight);
+	}
+
+	private void appendTargetResized(String cameraName, Target target, double newWidth, double newHeight) {
+		final long sequence = append(cameraName,
+				new TargetResizedEvent(cameraName, elapsed(), target.getTargetIndex(), newWidth, newHeight));
 
-		getCameraEvents(cameraName).add(new TargetResizedEvent(cameraName, System.currentTimeMillis() - startTime,
-				target.getTargetIndex(), newWidth, newHeight));
+		// Remove all resize events immediately before this one
+		collapseTargetEvents(cameraName, sequence, EventType.TARGET_RESIZED, target);
 	}
 
 	public void recordTargetMoved(String cameraName, Target target, int newX, int newY) {
-		if (!ignoreTargetCheck.get()) checkTarget(cameraName, target);
+		checkTarget(cameraName, target);
 
-		// Remove all move events immediately before this one
-		collapseTargetEvents(cameraName, EventType.TARGET_MOVED, target);
+		appendTargetMoved(cameraName, target, newX, newY);
+	}
 
-		getCameraEvents(cameraName).add(new TargetMovedEvent(cameraName, System.currentTimeMillis() - startTime,
-				target.getTargetIndex(), newX, newY));
+	private void appendTargetMoved(String cameraName, Target target, int newX, int newY) {
+		final long sequence = append(cameraName,
+				new TargetMovedEvent(cameraName, elapsed(), target.getTargetIndex(), newX, newY));
+
+		// Remove all move events immediately before this one
+		collapseTargetEvents(cameraName, sequence, EventType.TARGET_MOVED, target);
 	}
 
 	public void recordExerciseFeedMessage(String message) {
 		// Add an event for this message to each camera
 		for (final String cameraName : seenTargets.keySet()) {
-			getCameraEvents(cameraName)
-			.add(new ExerciseFeedMessageEvent(cameraName, System.currentTimeMillis() - startTime, message));
+			append(cameraName, new ExerciseFeedMessageEvent(cameraName, elapsed(), message));
 		}
 	}
 }
@@ -0,0 +1,305 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javafx.geometry.Dimension2D;
+import javafx.geometry.Point2D;
+
+/**
+ * An index over the events recorded for one camera that allows a session to
+ * be replayed from any point without walking every event before it. The
+ * timeline is built once, in a single pass, when a session is opened:
+ * 
+ * <ul>
+ * <li>Every {@value #CHECKPOINT_INTERVAL} events a {@link Checkpoint} captures
+ * the targets on the canvas (with their positions and sizes), how many shots
+ * are visible, and the current exercise message.</li>
+ * <li>Every event that refers to a target by index is resolved to the
+ * {@link TargetAddedEvent} that created that target, and events that
+ * overwrite state remember the state they overwrote, so any event can be
+ * undone without having been applied first.</li>
+ * </ul>
+ * 
+ * Seeking to an event therefore means restoring the closest checkpoint at or
+ * before it and applying fewer than {@value #CHECKPOINT_INTERVAL} events.
+ */
+public class SessionTimeline {
+	public static final int CHECKPOINT_INTERVAL = 64;
+
+	private final List<Event> events;
+	private final Map<Event, Integer> eventIndexes = new IdentityHashMap<>();
+	private final List<ShotEvent> shots = new ArrayList<>();
+	private final List<Checkpoint> checkpoints = new ArrayList<>();
+	private final Map<Integer, TargetAddedEvent> eventTargets = new HashMap<>();
+	private final Map<Integer, Optional<Point2D>> previousPositions = new HashMap<>();
+	private final Map<Integer, Optional<Dimension2D>> previousDimensions = new HashMap<>();
+	private final Map<Integer, String> previousMessages = new HashMap<>();
+
+	public static class TargetState {
+		private final TargetAddedEvent addedEvent;
+		private final Optional<Point2D> position;
+		private final Optional<Dimension2D> dimension;
+
+		private TargetState(TargetAddedEvent addedEvent, Optional<Point2D> position,
+				Optional<Dimension2D> dimension) {
+			this.addedEvent = addedEvent;
+			this.position = position;
+			this.dimension = dimension;
+		}
+
+		/**
+		 * @return the event that added this target, which identifies the
+		 *         target for the lifetime of the session
+		 */
+		public TargetAddedEvent getAddedEvent() {
+			return addedEvent;
+		}
+
+		/**
+		 * @return the target's position or <code>Optional.empty()</code> if it
+		 *         has not been moved since it was added
+		 */
+		public Optional<Point2D> getPosition() {
+			return position;
+		}
+
+		/**
+		 * @return the target's size or <code>Optional.empty()</code> if it has
+		 *         not been resized since it was added
+		 */
+		public Optional<Dimension2D> getDimension() {
+			return dimension;
+		}
+	}
+
+	public static class Checkpoint {
+		private final int eventIndex;
+		private final List<TargetState> targets;
+		private final int shotCount;
+		private final String exerciseMessage;
+
+		private Checkpoint(int eventIndex, List<TargetState> targets, int shotCount, String exerciseMessage) {
+			this.eventIndex = eventIndex;
+			this.targets = Collections.unmodifiableList(targets);
+			this.shotCount = shotCount;
+			this.exerciseMessage = exerciseMessage;
+		}
+
+		/**
+		 * @return the index of the last event applied in this checkpoint, -1
+		 *         if no events are applied
+		 */
+		public int getEventIndex() {
+			return eventIndex;
+		}
+
+		/**
+		 * @return the targets on the canvas in the order they are indexed by
+		 *         events
+		 */
+		public List<TargetState> getTargets() {
+			return targets;
+		}
+
+		/**
+		 * @return the number of shots that are visible, these are always the
+		 *         first shots of {@link SessionTimeline#getShots()}
+		 */
+		public int getShotCount() {
+			return shotCount;
+		}
+
+		public String getExerciseMessage() {
+			return exerciseMessage;
+		}
+	}
+
+	public SessionTimeline(List<Event> events) {
+		this.events = events;
+
+		final List<TargetAddedEvent> liveTargets = new ArrayList<>();
+		final Map<TargetAddedEvent, Point2D> positions = new IdentityHashMap<>();
+		final Map<TargetAddedEvent, Dimension2D> dimensions = new IdentityHashMap<>();
+		String exerciseMessage = "";
+
+		for (int i = 0; i < events.size(); i++) {
+			if (i % CHECKPOINT_INTERVAL == 0) {
+				final List<TargetState> targets = new ArrayList<>(liveTargets.size());
+
+				for (final TargetAddedEvent t : liveTargets) {
+					targets.add(new TargetState(t, Optional.ofNullable(positions.get(t)),
+							Optional.ofNullable(dimensions.get(t))));
+				}
+
+				checkpoints.add(new Checkpoint(i - 1, targets, shots.size(), exerciseMessage));
+			}
+
+			final Event e = events.get(i);
+			eventIndexes.put(e, i);
+
+			switch (e.getType()) {
+			case SHOT:
+				final ShotEvent se = (ShotEvent) e;
+				shots.add(se);
+
+				if (se.getTargetIndex().isPresent() && se.getTargetIndex().get() < liveTargets.size()) {
+					eventTargets.put(i, liveTargets.get(se.getTargetIndex().get()));
+				}
+
+				break;
+
+			case TARGET_ADDED:
+				liveTargets.add((TargetAddedEvent) e);
+				break;
+
+			case TARGET_REMOVED:
+				final TargetRemovedEvent tre = (TargetRemovedEvent) e;
+				if (tre.getTargetIndex() < liveTargets.size())
+					eventTargets.put(i, liveTargets.remove(tre.getTargetIndex()));
+				break;
+
+			case TARGET_RESIZED:
+				final TargetResizedEvent trre = (TargetResizedEvent) e;
+				if (trre.getTargetIndex() < liveTargets.size()) {
+					final TargetAddedEvent t = liveTargets.get(trre.getTargetIndex());
+					eventTargets.put(i, t);
+					previousDimensions.put(i, Optional.ofNullable(dimensions.get(t)));
+					dimensions.put(t, new Dimension2D(trre.getNewWidth(), trre.getNewHeight()));
+				}
+				break;
+
+			case TARGET_MOVED:
+				final TargetMovedEvent tme = (TargetMovedEvent) e;
+				if (tme.getTargetIndex() < liveTargets.size()) {
+					final TargetAddedEvent t = liveTargets.get(tme.getTargetIndex());
+					eventTargets.put(i, t);
+					previousPositions.put(i, Optional.ofNullable(positions.get(t)));
+					positions.put(t, new Point2D(tme.getNewX(), tme.getNewY()));
+				}
+				break;
+
+			case EXERCISE_FEED_MESSAGE:
+				previousMessages.put(i, exerciseMessage);
+				exerciseMessage = ((ExerciseFeedMessageEvent) e).getMessage();
+				break;
+			}
+		}
+
+		if (checkpoints.isEmpty()) checkpoints.add(new Checkpoint(-1, new ArrayList<>(), 0, exerciseMessage));
+	}
+
+	public List<Event> getEvents() {
+		return events;
+	}
+
+	/**
+	 * @return the index of <code>event</code> in this timeline or -1 if it is
+	 *         not part of it
+	 */
+	public int indexOf(Event event) {
+		final Integer index = eventIndexes.get(event);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @return every shot in the order the shots were recorded
+	 */
+	public List<ShotEvent> getShots() {
+		return Collections.unmodifiableList(shots);
+	}
+
+	/**
+	 * @return the latest checkpoint that does not apply any events after
+	 *         <code>eventIndex</code>
+	 */
+	public Checkpoint getCheckpoint(int eventIndex) {
+		// Checkpoints are taken at regular intervals, thus there is no need to
+		// search for the right one
+		final int checkpoint = Math.max(0, (eventIndex + 1) / CHECKPOINT_INTERVAL);
+		return checkpoints.get(Math.min(checkpoint, checkpoints.size() - 1));
+	}
+
+	/**
+	 * @return the index of the last event that happened at or before
+	 *         <code>timestamp</code>, -1 if there is no such event
+	 */
+	public int getEventIndexAt(long timestamp) {
+		int low = 0;
+		int high = events.size() - 1;
+		int found = -1;
+
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+
+			if (events.get(mid).getTimestamp() <= timestamp) {
+				found = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+
+		return found;
+	}
+
+	/**
+	 * @return the target that the event at <code>eventIndex</code> shot,
+	 *         removed, resized, or moved
+	 */
+	public Optional<TargetAddedEvent> getTarget(int eventIndex) {
+		return Optional.ofNullable(eventTargets.get(eventIndex));
+	}
+
+	/**
+	 * @return the position of the target before the move at
+	 *         <code>eventIndex</code>, <code>Optional.empty()</code> if the
+	 *         target was where it was added
+	 */
+	public Optional<Point2D> getPreviousPosition(int eventIndex) {
+		final Optional<Point2D> position = previousPositions.get(eventIndex);
+		return position == null ? Optional.empty() : position;
+	}
+
+	/**
+	 * @return the size of the target before the resize at
+	 *         <code>eventIndex</code>, <code>Optional.empty()</code> if the
+	 *         target had the size it was added with
+	 */
+	public Optional<Dimension2D> getPreviousDimension(int eventIndex) {
+		final Optional<Dimension2D> dimension = previousDimensions.get(eventIndex);
+		return dimension == null ? Optional.empty() : dimension;
+	}
+
+	/**
+	 * @return the exercise message that was displayed before the message at
+	 *         <code>eventIndex</code>
+	 */
+	public String getPreviousExerciseMessage(int eventIndex) {
+		final String message = previousMessages.get(eventIndex);
+		return message == null ? "" : message;
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session.analytics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A titled table of results produced by a {@link ShotAggregator} that can be
+ * printed as aligned text or written as CSV.
+ */
+public class AnalyticsTable {
+	private final String title;
+	private final List<String> columns;
+	private final List<List<String>> rows = new ArrayList<>();
+
+	public AnalyticsTable(String title, String... columns) {
+		this.title = title;
+		this.columns = Arrays.asList(columns);
+	}
+
+	public void addRow(Object... values) {
+		if (values.length != columns.size()) {
+			throw new IllegalArgumentException(
+					"Expected " + columns.size() + " values for table " + title + " but got " + values.length);
+		}
+
+		final List<String> row = new ArrayList<>(values.length);
+
+		for (final Object value : values) {
+			if (value instanceof Double || value instanceof Float) {
+				row.add(String.format(Locale.ROOT, "%.2f", ((Number) value).doubleValue()));
+			} else {
+				row.add(String.valueOf(value));
+			}
+		}
+
+		rows.add(row);
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public List<String> getColumns() {
+		return Collections.unmodifiableList(columns);
+	}
+
+	public List<List<String>> getRows() {
+		return Collections.unmodifiableList(rows);
+	}
+
+	public void writeCSV(Writer writer) throws IOException {
+		writeCSVRow(writer, columns);
+
+		for (final List<String> row : rows)
+			writeCSVRow(writer, row);
+	}
+
+	private static void writeCSVRow(Writer writer, List<String> values) throws IOException {
+		for (int i = 0; i < values.size(); i++) {
+			if (i > 0) writer.write(',');
+
+			final String value = values.get(i);
+
+			if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+				writer.write('"' + value.replace("\"", "\"\"") + '"');
+			} else {
+				writer.write(value);
+			}
+		}
+
+		writer.write(System.lineSeparator());
+	}
+
+	@Override
+	public String toString() {
+		final int[] widths = new int[columns.size()];
+
+		for (int i = 0; i < columns.size(); i++)
+			widths[i] = columns.get(i).length();
+
+		for (final List<String> row : rows) {
+			for (int i = 0; i < row.size(); i++)
+				widths[i] = Math.max(widths[i], row.get(i).length());
+		}
+
+		final StringBuilder table = new StringBuilder(title).append(System.lineSeparator());
+		appendRow(table, columns, widths);
+
+		for (int i = 0; i < widths.length; i++) {
+			if (i > 0) table.append("  ");
+			for (int j = 0; j < widths[i]; j++)
+				table.append('-');
+		}
+		table.append(System.lineSeparator());
+
+		for (final List<String> row : rows)
+			appendRow(table, row, widths);
+
+		return table.toString();
+	}
+
+	private static void appendRow(StringBuilder table, List<String> values, int[] widths) {
+		for (int i = 0; i < values.size(); i++) {
+			if (i > 0) table.append("  ");
+			table.append(String.format("%-" + widths[i] + "s", values.get(i)));
+		}
+
+		table.append(System.lineSeparator());
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Feeds every shot to several aggregators, thus sessions only have to be
+ * parsed once no matter how many statistics are collected.
+ */
+public class CompositeAggregator implements ShotAggregator {
+	private final List<ShotAggregator> aggregators;
+
+	public CompositeAggregator(ShotAggregator... aggregators) {
+		this(Arrays.asList(aggregators));
+	}
+
+	public CompositeAggregator(List<ShotAggregator> aggregators) {
+		this.aggregators = new ArrayList<>(aggregators);
+	}
+
+	@Override
+	public void beginSession(String sessionName, long sessionDate, String cameraName) {
+		for (final ShotAggregator a : aggregators)
+			a.beginSession(sessionName, sessionDate, cameraName);
+	}
+
+	@Override
+	public void shot(ShotSample shot) {
+		for (final ShotAggregator a : aggregators)
+			a.shot(shot);
+	}
+
+	@Override
+	public void endSession() {
+		for (final ShotAggregator a : aggregators)
+			a.endSession();
+	}
+
+	@Override
+	public ShotAggregator createEmpty() {
+		final List<ShotAggregator> empty = new ArrayList<>(aggregators.size());
+
+		for (final ShotAggregator a : aggregators)
+			empty.add(a.createEmpty());
+
+		return new CompositeAggregator(empty);
+	}
+
+	@Override
+	public void merge(ShotAggregator other) {
+		final CompositeAggregator o = (CompositeAggregator) other;
+
+		for (int i = 0; i < aggregators.size(); i++)
+			aggregators.get(i).merge(o.aggregators.get(i));
+	}
+
+	@Override
+	public List<AnalyticsTable> getTables() {
+		final List<AnalyticsTable> tables = new ArrayList<>();
+
+		for (final ShotAggregator a : aggregators)
+			tables.addAll(a.getTables());
+
+		return tables;
+	}
+}
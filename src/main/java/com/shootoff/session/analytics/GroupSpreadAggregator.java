@@ -0,0 +1,72 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session.analytics;
+
+/**
+ * Spread of the shots fired on one camera in one session, measured as the
+ * radial standard deviation of the shots around their center in pixels.
+ * Only sessions with at least {@value #MIN_GROUP_SIZE} shots count as a group.
+ */
+public class GroupSpreadAggregator extends PeriodStatisticsAggregator {
+	private static final int MIN_GROUP_SIZE = 3;
+
+	private String period;
+	private int shotCount;
+	private double sumX;
+	private double sumY;
+	private double sumOfSquares;
+
+	public GroupSpreadAggregator() {
+		super("Group Spread", "px");
+	}
+
+	@Override
+	public void beginSession(String sessionName, long sessionDate, String cameraName) {
+		period = null;
+		shotCount = 0;
+		sumX = 0;
+		sumY = 0;
+		sumOfSquares = 0;
+	}
+
+	@Override
+	public void shot(ShotSample shot) {
+		period = shot.getPeriod();
+		shotCount++;
+		sumX += shot.getX();
+		sumY += shot.getY();
+		sumOfSquares += shot.getX() * shot.getX() + shot.getY() * shot.getY();
+	}
+
+	@Override
+	public void endSession() {
+		if (shotCount < MIN_GROUP_SIZE) return;
+
+		final double centerX = sumX / shotCount;
+		final double centerY = sumY / shotCount;
+		final double variance = sumOfSquares / shotCount - (centerX * centerX + centerY * centerY);
+
+		addValue(period, Math.sqrt(Math.max(0, variance)));
+	}
+
+	@Override
+	public ShotAggregator createEmpty() {
+		return new GroupSpreadAggregator();
+	}
+}
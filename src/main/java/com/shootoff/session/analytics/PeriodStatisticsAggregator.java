@@ -0,0 +1,99 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session.analytics;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Base class for aggregators that track one measurement overall and per month
+ * so that trends become visible.
+ */
+public abstract class PeriodStatisticsAggregator implements ShotAggregator {
+	private final String title;
+	private final String unit;
+	private final Map<String, RunningStatistics> periodStatistics = new TreeMap<>();
+	private final RunningStatistics totalStatistics = new RunningStatistics();
+
+	protected PeriodStatisticsAggregator(String title, String unit) {
+		this.title = title;
+		this.unit = unit;
+	}
+
+	protected void addValue(String period, double value) {
+		RunningStatistics statistics = periodStatistics.get(period);
+
+		if (statistics == null) {
+			statistics = new RunningStatistics();
+			periodStatistics.put(period, statistics);
+		}
+
+		statistics.add(value);
+		totalStatistics.add(value);
+	}
+
+	@Override
+	public void beginSession(String sessionName, long sessionDate, String cameraName) {}
+
+	@Override
+	public void endSession() {}
+
+	@Override
+	public void merge(ShotAggregator other) {
+		final PeriodStatisticsAggregator o = (PeriodStatisticsAggregator) other;
+
+		for (final Map.Entry<String, RunningStatistics> entry : o.periodStatistics.entrySet()) {
+			final RunningStatistics statistics = periodStatistics.get(entry.getKey());
+
+			if (statistics == null) {
+				final RunningStatistics copy = new RunningStatistics();
+				copy.merge(entry.getValue());
+				periodStatistics.put(entry.getKey(), copy);
+			} else {
+				statistics.merge(entry.getValue());
+			}
+		}
+
+		totalStatistics.merge(o.totalStatistics);
+	}
+
+	public RunningStatistics getTotalStatistics() {
+		return totalStatistics;
+	}
+
+	@Override
+	public List<AnalyticsTable> getTables() {
+		final AnalyticsTable table = new AnalyticsTable(title, "Period", "Count", "Mean (" + unit + ")",
+				"Std Dev (" + unit + ")", "Min (" + unit + ")", "Max (" + unit + ")");
+
+		for (final Map.Entry<String, RunningStatistics> entry : periodStatistics.entrySet())
+			addRow(table, entry.getKey(), entry.getValue());
+
+		addRow(table, "All", totalStatistics);
+
+		return Collections.singletonList(table);
+	}
+
+	private static void addRow(AnalyticsTable table, String period, RunningStatistics statistics) {
+		table.addRow(period, statistics.getCount(), statistics.getMean(), statistics.getStandardDeviation(),
+				statistics.getMin(), statistics.getMax());
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session.analytics;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Share of all shots that hit each region of each target.
+ */
+public class RegionHitAggregator implements ShotAggregator {
+	private final Map<String, Long> regionHits = new TreeMap<>();
+	private long shotCount = 0;
+	private long missCount = 0;
+
+	@Override
+	public void beginSession(String sessionName, long sessionDate, String cameraName) {}
+
+	@Override
+	public void shot(ShotSample shot) {
+		shotCount++;
+
+		if (!shot.getTargetName().isPresent() || !shot.getHitRegionIndex().isPresent()) {
+			missCount++;
+			return;
+		}
+
+		final String region = shot.getTargetName().get() + "\t" + shot.getHitRegionIndex().get();
+		final Long hits = regionHits.get(region);
+		regionHits.put(region, hits == null ? 1 : hits + 1);
+	}
+
+	@Override
+	public void endSession() {}
+
+	@Override
+	public ShotAggregator createEmpty() {
+		return new RegionHitAggregator();
+	}
+
+	@Override
+	public void merge(ShotAggregator other) {
+		final RegionHitAggregator o = (RegionHitAggregator) other;
+
+		for (final Map.Entry<String, Long> entry : o.regionHits.entrySet()) {
+			final Long hits = regionHits.get(entry.getKey());
+			regionHits.put(entry.getKey(), hits == null ? entry.getValue() : hits + entry.getValue());
+		}
+
+		shotCount += o.shotCount;
+		missCount += o.missCount;
+	}
+
+	public long getShotCount() {
+		return shotCount;
+	}
+
+	public long getMissCount() {
+		return missCount;
+	}
+
+	@Override
+	public List<AnalyticsTable> getTables() {
+		final AnalyticsTable table = new AnalyticsTable("Hits per Region", "Target", "Region", "Hits",
+				"Shots (%)");
+
+		for (final Map.Entry<String, Long> entry : regionHits.entrySet()) {
+			final String[] region = entry.getKey().split("\t");
+			table.addRow(region[0], region[1], entry.getValue(), getPercentage(entry.getValue()));
+		}
+
+		table.addRow("None", "-", missCount, getPercentage(missCount));
+
+		return Collections.singletonList(table);
+	}
+
+	private double getPercentage(long count) {
+		return shotCount == 0 ? 0.0 : 100.0 * count / shotCount;
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session.analytics;
+
+/**
+ * Count, mean, standard deviation, minimum, and maximum of a series of values
+ * in constant space.
+ */
+public class RunningStatistics {
+	private long count = 0;
+	private double sum = 0;
+	private double sumOfSquares = 0;
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+
+	public void add(double value) {
+		count++;
+		sum += value;
+		sumOfSquares += value * value;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	public void merge(RunningStatistics other) {
+		count += other.count;
+		sum += other.sum;
+		sumOfSquares += other.sumOfSquares;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public double getMean() {
+		return count == 0 ? 0 : sum / count;
+	}
+
+	public double getStandardDeviation() {
+		if (count == 0) return 0;
+
+		final double mean = getMean();
+		return Math.sqrt(Math.max(0, sumOfSquares / count - mean * mean));
+	}
+
+	public double getMin() {
+		return count == 0 ? 0 : min;
+	}
+
+	public double getMax() {
+		return count == 0 ? 0 : max;
+	}
+}
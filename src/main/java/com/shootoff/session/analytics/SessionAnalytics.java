@@ -0,0 +1,172 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session.analytics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.shootoff.session.io.SessionCatalog;
+import com.shootoff.session.io.SessionIO;
+
+/**
+ * Analyzes every session in a sessions folder without a GUI. Sessions are
+ * split between the workers of a fork-join pool, each worker streams its
+ * sessions' shots through its own copy of the aggregators, and the copies are
+ * merged as the work is joined. No session is ever fully loaded into memory.
+ * 
+ * Run as
+ * <code>java -cp ShootOFF.jar com.shootoff.session.analytics.SessionAnalytics
+ * [sessions folder] [CSV output folder]</code>
+ */
+public class SessionAnalytics {
+	private static final Logger logger = LoggerFactory.getLogger(SessionAnalytics.class);
+
+	// Sessions per fork-join leaf task, small because a single session can
+	// take a while to parse
+	private static final int SESSIONS_PER_TASK = 4;
+
+	public static List<ShotAggregator> getDefaultAggregators() {
+		return Arrays.asList(new SplitTimeAggregator(), new FirstShotTimeAggregator(), new RegionHitAggregator(),
+				new GroupSpreadAggregator());
+	}
+
+	/**
+	 * Analyze every session in <code>sessionsFolder</code> using the common
+	 * fork-join pool.
+	 * 
+	 * @param aggregator
+	 *            a template for the aggregators to run, it is not modified
+	 * @return a new aggregator of the same type holding the results for all
+	 *         sessions
+	 */
+	public static ShotAggregator analyze(File sessionsFolder, ShotAggregator aggregator) {
+		return analyze(sessionsFolder, aggregator, ForkJoinPool.commonPool());
+	}
+
+	public static ShotAggregator analyze(File sessionsFolder, ShotAggregator aggregator, ForkJoinPool pool) {
+		final File[] sessionFiles = sessionsFolder.listFiles((file) -> SessionIO.isSessionFile(file));
+
+		if (sessionFiles == null) {
+			logger.error("Failed to list sessions in {}", sessionsFolder.getPath());
+			return aggregator.createEmpty();
+		}
+
+		return pool.invoke(new AnalyzeTask(sessionFiles, 0, sessionFiles.length, aggregator));
+	}
+
+	private static class AnalyzeTask extends RecursiveTask<ShotAggregator> {
+		private static final long serialVersionUID = 1L;
+
+		private final File[] sessionFiles;
+		private final int start;
+		private final int end;
+		private final ShotAggregator template;
+
+		public AnalyzeTask(File[] sessionFiles, int start, int end, ShotAggregator template) {
+			this.sessionFiles = sessionFiles;
+			this.start = start;
+			this.end = end;
+			this.template = template;
+		}
+
+		@Override
+		protected ShotAggregator compute() {
+			if (end - start <= SESSIONS_PER_TASK) {
+				final ShotAggregator aggregator = template.createEmpty();
+				final SimpleDateFormat periodFormat = new SimpleDateFormat("yyyy-MM");
+
+				for (int i = start; i < end; i++) {
+					final File sessionFile = sessionFiles[i];
+					final long sessionDate = SessionCatalog.getSessionDate(sessionFile);
+
+					SessionIO.visitSession(sessionFile, new ShotStreamVisitor(sessionFile.getName(), sessionDate,
+							periodFormat.format(new Date(sessionDate)), aggregator));
+				}
+
+				return aggregator;
+			}
+
+			final int middle = (start + end) >>> 1;
+			final AnalyzeTask left = new AnalyzeTask(sessionFiles, start, middle, template);
+			final AnalyzeTask right = new AnalyzeTask(sessionFiles, middle, end, template);
+
+			left.fork();
+			final ShotAggregator rightResult = right.compute();
+			final ShotAggregator leftResult = left.join();
+
+			leftResult.merge(rightResult);
+
+			return leftResult;
+		}
+	}
+
+	/**
+	 * Write each of the aggregator's tables to its own CSV file in
+	 * <code>outputFolder</code>.
+	 */
+	public static void writeCSV(ShotAggregator aggregator, File outputFolder) throws IOException {
+		if (!outputFolder.exists() && !outputFolder.mkdirs()) {
+			throw new IOException("Failed to create analytics output folder " + outputFolder.getPath());
+		}
+
+		for (final AnalyticsTable table : aggregator.getTables()) {
+			final File csvFile = new File(outputFolder,
+					table.getTitle().toLowerCase().replaceAll("[^a-z0-9]+", "-") + ".csv");
+
+			try (Writer writer = new OutputStreamWriter(new FileOutputStream(csvFile), StandardCharsets.UTF_8)) {
+				table.writeCSV(writer);
+			}
+		}
+	}
+
+	public static void main(String[] args) {
+		final File sessionsFolder = new File(args.length > 0 ? args[0] : System.getProperty("shootoff.sessions",
+				System.getProperty("user.dir") + File.separator + "sessions"));
+
+		final long startTime = System.currentTimeMillis();
+		final ShotAggregator results = analyze(sessionsFolder, new CompositeAggregator(getDefaultAggregators()));
+		logger.info("Analyzed sessions in {} in {} ms", sessionsFolder.getPath(),
+				System.currentTimeMillis() - startTime);
+
+		for (final AnalyticsTable table : results.getTables())
+			System.out.println(table);
+
+		if (args.length > 1) {
+			try {
+				writeCSV(results, new File(args[1]));
+			} catch (final IOException e) {
+				logger.error("Failed to write analytics CSV files", e);
+				System.exit(1);
+			}
+		}
+	}
+}
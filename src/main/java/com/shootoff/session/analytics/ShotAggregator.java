@@ -0,0 +1,59 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session.analytics;
+
+import java.util.List;
+
+/**
+ * Accumulates statistics over the shots of many sessions. Aggregators only
+ * ever see one shot at a time and must keep a bounded amount of state, thus
+ * any number of sessions can be analyzed in constant memory.
+ * 
+ * Sessions are analyzed in parallel: every worker fills its own aggregator
+ * created with {@link #createEmpty()}, and the workers' aggregators are then
+ * combined with {@link #merge(ShotAggregator)}.
+ */
+public interface ShotAggregator {
+	/**
+	 * Called before the shots recorded by one camera in one session.
+	 */
+	void beginSession(String sessionName, long sessionDate, String cameraName);
+
+	void shot(ShotSample shot);
+
+	/**
+	 * Called after the last shot recorded by one camera in one session.
+	 */
+	void endSession();
+
+	/**
+	 * @return a new aggregator of the same type and configuration with no
+	 *         shots aggregated
+	 */
+	ShotAggregator createEmpty();
+
+	/**
+	 * Add everything aggregated by <code>other</code>, which was created by
+	 * {@link #createEmpty()} on an aggregator of the same type, to this
+	 * aggregator.
+	 */
+	void merge(ShotAggregator other);
+
+	List<AnalyticsTable> getTables();
+}
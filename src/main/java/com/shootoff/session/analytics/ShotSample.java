@@ -0,0 +1,126 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session.analytics;
+
+import java.util.Optional;
+
+import com.shootoff.camera.Shot.ShotColor;
+
+/**
+ * One shot from a saved session along with the context that aggregators need
+ * to analyze it without keeping any other shots around.
+ */
+public class ShotSample {
+	private final String period;
+	private final String cameraName;
+	private final long timestamp;
+	private final double x;
+	private final double y;
+	private final ShotColor color;
+	private final boolean isMalfunction;
+	private final boolean isReload;
+	private final Optional<String> targetName;
+	private final Optional<Integer> hitRegionIndex;
+	private final Optional<Long> splitTime;
+	private final Optional<Long> firstShotTime;
+
+	public ShotSample(String period, String cameraName, long timestamp, double x, double y, ShotColor color,
+			boolean isMalfunction, boolean isReload, Optional<String> targetName, Optional<Integer> hitRegionIndex,
+			Optional<Long> splitTime, Optional<Long> firstShotTime) {
+		this.period = period;
+		this.cameraName = cameraName;
+		this.timestamp = timestamp;
+		this.x = x;
+		this.y = y;
+		this.color = color;
+		this.isMalfunction = isMalfunction;
+		this.isReload = isReload;
+		this.targetName = targetName;
+		this.hitRegionIndex = hitRegionIndex;
+		this.splitTime = splitTime;
+		this.firstShotTime = firstShotTime;
+	}
+
+	/**
+	 * @return the month the shot's session was recorded in as yyyy-MM, used to
+	 *         group shots into trends
+	 */
+	public String getPeriod() {
+		return period;
+	}
+
+	public String getCameraName() {
+		return cameraName;
+	}
+
+	/**
+	 * @return when the shot happened in milliseconds since the session started
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public double getX() {
+		return x;
+	}
+
+	public double getY() {
+		return y;
+	}
+
+	public ShotColor getColor() {
+		return color;
+	}
+
+	public boolean isMalfunction() {
+		return isMalfunction;
+	}
+
+	public boolean isReload() {
+		return isReload;
+	}
+
+	/**
+	 * @return the name of the target that was hit, <code>Optional.empty()</code>
+	 *         for a miss
+	 */
+	public Optional<String> getTargetName() {
+		return targetName;
+	}
+
+	public Optional<Integer> getHitRegionIndex() {
+		return hitRegionIndex;
+	}
+
+	/**
+	 * @return the time since the previous shot on the same camera,
+	 *         <code>Optional.empty()</code> for the first shot
+	 */
+	public Optional<Long> getSplitTime() {
+		return splitTime;
+	}
+
+	/**
+	 * @return for the first shot after an exercise message (e.g. a timed
+	 *         drill's start signal), the time since that message
+	 */
+	public Optional<Long> getFirstShotTime() {
+		return firstShotTime;
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session.analytics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import com.shootoff.camera.Shot;
+import com.shootoff.session.io.EventVisitor;
+
+/**
+ * Turns the events of a session that is streamed through
+ * {@link com.shootoff.session.io.SessionIO#visitSession} into
+ * {@link ShotSample}s. Only the state needed to resolve the next shot is kept:
+ * the names of the targets that are currently up, the previous shot's time,
+ * and the time of the latest exercise message.
+ */
+class ShotStreamVisitor implements EventVisitor {
+	private final String sessionName;
+	private final long sessionDate;
+	private final String period;
+	private final ShotAggregator aggregator;
+
+	private final List<String> targetNames = new ArrayList<>();
+	private String cameraName;
+	private Optional<Long> lastShotTime;
+	private Optional<Long> lastMessageTime;
+
+	public ShotStreamVisitor(String sessionName, long sessionDate, String period, ShotAggregator aggregator) {
+		this.sessionName = sessionName;
+		this.sessionDate = sessionDate;
+		this.period = period;
+		this.aggregator = aggregator;
+	}
+
+	@Override
+	public void visitCamera(String cameraName) {
+		this.cameraName = cameraName;
+		targetNames.clear();
+		lastShotTime = Optional.empty();
+		lastMessageTime = Optional.empty();
+
+		aggregator.beginSession(sessionName, sessionDate, cameraName);
+	}
+
+	@Override
+	public void visitCameraEnd() {
+		aggregator.endSession();
+	}
+
+	@Override
+	public void visitShot(long timestamp, Shot shot, boolean isMalfunction, boolean isReload,
+			Optional<Integer> targetIndex, Optional<Integer> hitRegionIndex, Optional<String> videoString) {
+		Optional<String> targetName = Optional.empty();
+		if (targetIndex.isPresent() && targetIndex.get() < targetNames.size()) {
+			targetName = Optional.of(targetNames.get(targetIndex.get()));
+		}
+
+		Optional<Long> splitTime = Optional.empty();
+		if (lastShotTime.isPresent()) splitTime = Optional.of(timestamp - lastShotTime.get());
+
+		Optional<Long> firstShotTime = Optional.empty();
+		if (lastMessageTime.isPresent()) {
+			firstShotTime = Optional.of(timestamp - lastMessageTime.get());
+			lastMessageTime = Optional.empty();
+		}
+
+		lastShotTime = Optional.of(timestamp);
+
+		aggregator.shot(new ShotSample(period, cameraName, timestamp, shot.getX(), shot.getY(), shot.getColor(),
+				isMalfunction, isReload, targetName, hitRegionIndex, splitTime, firstShotTime));
+	}
+
+	@Override
+	public void visitTargetAdd(long timestamp, String targetName) {
+		targetNames.add(targetName);
+	}
+
+	@Override
+	public void visitTargetRemove(long timestamp, int targetIndex) {
+		if (targetIndex < targetNames.size()) targetNames.remove(targetIndex);
+	}
+
+	@Override
+	public void visitTargetResize(long timestamp, int targetIndex, double newWidth, double newHeight) {}
+
+	@Override
+	public void visitTargetMove(long timestamp, int targetIndex, int newX, int newY) {}
+
+	@Override
+	public void visitExerciseFeedMessage(long timestamp, String message) {
+		lastMessageTime = Optional.of(timestamp);
+	}
+
+	@Override
+	public void visitEnd() {}
+}
@@ -0,0 +1,38 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session.analytics;
+
+/**
+ * Time between consecutive shots on the same camera.
+ */
+public class SplitTimeAggregator extends PeriodStatisticsAggregator {
+	public SplitTimeAggregator() {
+		super("Split Times", "ms");
+	}
+
+	@Override
+	public void shot(ShotSample shot) {
+		if (shot.getSplitTime().isPresent()) addValue(shot.getPeriod(), shot.getSplitTime().get());
+	}
+
+	@Override
+	public ShotAggregator createEmpty() {
+		return new SplitTimeAggregator();
+	}
+}
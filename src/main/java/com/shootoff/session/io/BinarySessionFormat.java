@@ -0,0 +1,132 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session.io;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.shootoff.camera.Shot.ShotColor;
+
+/**
+ * Constants and primitive encodings shared by {@link BinarySessionWriter} and
+ * {@link BinarySessionReader}.
+ * 
+ * A binary session is laid out as follows (all fixed-width numbers are big
+ * endian):
+ * 
+ * <pre>
+ * header:  magic "SOSB", u8 version
+ * blocks:  one or more blocks of at most BLOCK_EVENTS events from one camera
+ * footer:  string table  varint count, (varint length, UTF-8 bytes)*
+ *          cameras       varint count, (varint camera name string id)*
+ *          block index   varint count, (varint camera, i64 offset, i32 length,
+ *                        i32 event count, i64 first timestamp)*
+ * trailer: i64 footer offset, magic "SOSB"
+ * </pre>
+ * 
+ * Each event starts with a u8 type and the zigzag varint difference between
+ * its timestamp and the timestamp of the previous event in the block (or the
+ * block's first timestamp). Target names, exercise messages and video strings
+ * are stored once in the string table and referenced by varint id. Shots are
+ * fixed-width: u8 flags, f64 x, f64 y, i64 shot timestamp, u16 marker radius,
+ * i16 target index, i16 hit region index, i32 video string id (-1 if none).
+ */
+final class BinarySessionFormat {
+	static final String EXTENSION = "sosb";
+
+	static final byte[] MAGIC = { 'S', 'O', 'S', 'B' };
+	static final int VERSION = 1;
+	static final int TRAILER_LENGTH = 8 + MAGIC.length;
+	static final int BLOCK_EVENTS = 512;
+
+	static final int TYPE_SHOT = 0;
+	static final int TYPE_TARGET_ADDED = 1;
+	static final int TYPE_TARGET_REMOVED = 2;
+	static final int TYPE_TARGET_RESIZED = 3;
+	static final int TYPE_TARGET_MOVED = 4;
+	static final int TYPE_EXERCISE_FEED_MESSAGE = 5;
+
+	static final int SHOT_COLOR_MASK = 0x03;
+	static final int SHOT_MALFUNCTION = 0x04;
+	static final int SHOT_RELOAD = 0x08;
+	static final int SHOT_LENGTH = 1 + 8 + 8 + 8 + 2 + 2 + 2 + 4;
+
+	private BinarySessionFormat() {}
+
+	static int encodeColor(ShotColor color) {
+		switch (color) {
+		case GREEN:
+			return 1;
+		case INFRARED:
+			return 2;
+		default:
+			return 0;
+		}
+	}
+
+	static ShotColor decodeColor(int color) {
+		switch (color) {
+		case 1:
+			return ShotColor.GREEN;
+		case 2:
+			return ShotColor.INFRARED;
+		default:
+			return ShotColor.RED;
+		}
+	}
+
+	static void writeVarLong(DataOutput out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+
+		out.writeByte((int) value);
+	}
+
+	static void writeSignedVarLong(DataOutput out, long value) throws IOException {
+		writeVarLong(out, (value << 1) ^ (value >> 63));
+	}
+
+	static long readVarLong(ByteBuffer in) {
+		long value = 0;
+		int shift = 0;
+
+		while (true) {
+			final byte b = in.get();
+			value |= (long) (b & 0x7F) << shift;
+
+			if ((b & 0x80) == 0) return value;
+
+			shift += 7;
+
+			if (shift > 63) throw new IllegalStateException("Malformed varint in binary session");
+		}
+	}
+
+	static long readSignedVarLong(ByteBuffer in) {
+		final long value = readVarLong(in);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	static int readVarInt(ByteBuffer in) {
+		return (int) readVarLong(in);
+	}
+}
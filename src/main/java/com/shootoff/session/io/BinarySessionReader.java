@@ -0,0 +1,260 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.shootoff.camera.Shot;
+import com.shootoff.session.Event;
+import com.shootoff.session.ExerciseFeedMessageEvent;
+import com.shootoff.session.ShotEvent;
+import com.shootoff.session.TargetAddedEvent;
+import com.shootoff.session.TargetMovedEvent;
+import com.shootoff.session.TargetRemovedEvent;
+import com.shootoff.session.TargetResizedEvent;
+
+/**
+ * Reads sessions written by {@link BinarySessionWriter}. The file is read into
+ * memory and closed right away, then the footer is read first, thus the string table is decoded once
+ * and each block can be decoded independently without scanning the rest of
+ * the file.
+ */
+public class BinarySessionReader {
+	private final Logger logger = LoggerFactory.getLogger(BinarySessionReader.class);
+
+	private final File sessionFile;
+
+	private static class BlockIndexEntry {
+		private final int camera;
+		private final long offset;
+		private final int length;
+		private final int eventCount;
+		private final long firstTimestamp;
+
+		private BlockIndexEntry(int camera, long offset, int length, int eventCount, long firstTimestamp) {
+			this.camera = camera;
+			this.offset = offset;
+			this.length = length;
+			this.eventCount = eventCount;
+			this.firstTimestamp = firstTimestamp;
+		}
+	}
+
+	public BinarySessionReader(File sessionFile) {
+		this.sessionFile = sessionFile;
+	}
+
+	public Map<String, List<Event>> load() {
+		try (SessionEventIterator it = iterator()) {
+			return SessionIO.collectEvents(it);
+		}
+	}
+
+	/**
+	 * @return an iterator that decodes one block at a time, thus at most
+	 *         {@link BinarySessionFormat#BLOCK_EVENTS} events are held in
+	 *         memory by the iterator
+	 */
+	public SessionEventIterator iterator() {
+		try {
+			// Read in one go so that the file isn't held open (or mapped) for
+			// as long as the iterator is alive
+			final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(sessionFile.toPath()));
+
+			final byte[] magic = new byte[BinarySessionFormat.MAGIC.length];
+			buffer.get(magic);
+			final int version = buffer.get();
+
+			if (!Arrays.equals(magic, BinarySessionFormat.MAGIC) || version != BinarySessionFormat.VERSION) {
+				logger.error("{} is not a supported binary session (version {})", sessionFile.getPath(), version);
+				return new BinaryEventIterator(buffer, new String[0], new String[0], new ArrayList<>());
+			}
+
+			buffer.position(buffer.capacity() - BinarySessionFormat.TRAILER_LENGTH);
+			final long footerOffset = buffer.getLong();
+			buffer.get(magic);
+
+			if (!Arrays.equals(magic, BinarySessionFormat.MAGIC)) {
+				logger.error("Binary session {} is truncated", sessionFile.getPath());
+				return new BinaryEventIterator(buffer, new String[0], new String[0], new ArrayList<>());
+			}
+
+			buffer.position((int) footerOffset);
+
+			final String[] strings = new String[BinarySessionFormat.readVarInt(buffer)];
+			for (int i = 0; i < strings.length; i++) {
+				final byte[] bytes = new byte[BinarySessionFormat.readVarInt(buffer)];
+				buffer.get(bytes);
+				strings[i] = new String(bytes, StandardCharsets.UTF_8);
+			}
+
+			final String[] cameras = new String[BinarySessionFormat.readVarInt(buffer)];
+			for (int i = 0; i < cameras.length; i++) {
+				cameras[i] = strings[BinarySessionFormat.readVarInt(buffer)];
+			}
+
+			final int blockCount = BinarySessionFormat.readVarInt(buffer);
+			final List<BlockIndexEntry> blockIndex = new ArrayList<>(blockCount);
+			for (int i = 0; i < blockCount; i++) {
+				blockIndex.add(new BlockIndexEntry(BinarySessionFormat.readVarInt(buffer), buffer.getLong(),
+						buffer.getInt(), buffer.getInt(), buffer.getLong()));
+			}
+
+			return new BinaryEventIterator(buffer, strings, cameras, blockIndex);
+		} catch (IOException | BufferUnderflowException | IllegalArgumentException | IllegalStateException
+				| IndexOutOfBoundsException e) {
+			logger.error("Error reading binary session", e);
+		}
+
+		return new BinaryEventIterator(ByteBuffer.allocate(0), new String[0], new String[0], new ArrayList<>());
+	}
+
+	private class BinaryEventIterator implements SessionEventIterator {
+		private final ByteBuffer buffer;
+		private final String[] strings;
+		private final String[] cameras;
+		private final Iterator<BlockIndexEntry> blocks;
+		private Iterator<Event> blockEvents = Collections.emptyIterator();
+
+		private BinaryEventIterator(ByteBuffer buffer, String[] strings, String[] cameras,
+				List<BlockIndexEntry> blockIndex) {
+			this.buffer = buffer;
+			this.strings = strings;
+			this.cameras = cameras;
+			blocks = blockIndex.iterator();
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!blockEvents.hasNext() && blocks.hasNext()) {
+				final BlockIndexEntry block = blocks.next();
+				final List<Event> events = new ArrayList<>(block.eventCount);
+
+				try {
+					buffer.position((int) block.offset);
+					final ByteBuffer blockBuffer = buffer.slice();
+					blockBuffer.limit(block.length);
+
+					readBlock(blockBuffer, block, cameras[block.camera], strings, events);
+				} catch (BufferUnderflowException | IllegalArgumentException | IllegalStateException
+						| IndexOutOfBoundsException e) {
+					logger.error("Error reading binary session", e);
+				}
+
+				blockEvents = events.iterator();
+			}
+
+			return blockEvents.hasNext();
+		}
+
+		// Every camera is in the footer, which is read when the session is
+		// opened
+		@Override
+		public List<String> getCameraNames() {
+			return Collections.unmodifiableList(Arrays.asList(cameras));
+		}
+
+		@Override
+		public Event next() {
+			if (!hasNext()) throw new NoSuchElementException();
+
+			return blockEvents.next();
+		}
+
+		@Override
+		public void close() {}
+	}
+
+	private void readBlock(ByteBuffer in, BlockIndexEntry block, String cameraName, String[] strings,
+			List<Event> cameraEvents) {
+		long timestamp = block.firstTimestamp;
+
+		for (int i = 0; i < block.eventCount; i++) {
+			final int type = in.get();
+			timestamp += BinarySessionFormat.readSignedVarLong(in);
+
+			switch (type) {
+			case BinarySessionFormat.TYPE_SHOT:
+				final int flags = in.get();
+				final double x = in.getDouble();
+				final double y = in.getDouble();
+				final long shotTimestamp = in.getLong();
+				final int markerRadius = in.getShort();
+				final int targetIndex = in.getShort();
+				final int hitRegionIndex = in.getShort();
+				final int videoId = in.getInt();
+
+				final Shot shot = new Shot(
+						BinarySessionFormat.decodeColor(flags & BinarySessionFormat.SHOT_COLOR_MASK), x, y,
+						shotTimestamp, markerRadius);
+
+				cameraEvents.add(new ShotEvent(cameraName, timestamp, shot,
+						(flags & BinarySessionFormat.SHOT_MALFUNCTION) != 0,
+						(flags & BinarySessionFormat.SHOT_RELOAD) != 0,
+						targetIndex == -1 ? Optional.empty() : Optional.of(targetIndex),
+						hitRegionIndex == -1 ? Optional.empty() : Optional.of(hitRegionIndex),
+						videoId == -1 ? Optional.empty() : Optional.of(strings[videoId])));
+				break;
+
+			case BinarySessionFormat.TYPE_TARGET_ADDED:
+				cameraEvents.add(new TargetAddedEvent(cameraName, timestamp,
+						strings[BinarySessionFormat.readVarInt(in)]));
+				break;
+
+			case BinarySessionFormat.TYPE_TARGET_REMOVED:
+				cameraEvents.add(new TargetRemovedEvent(cameraName, timestamp, BinarySessionFormat.readVarInt(in)));
+				break;
+
+			case BinarySessionFormat.TYPE_TARGET_RESIZED:
+				cameraEvents.add(new TargetResizedEvent(cameraName, timestamp, BinarySessionFormat.readVarInt(in),
+						in.getDouble(), in.getDouble()));
+				break;
+
+			case BinarySessionFormat.TYPE_TARGET_MOVED:
+				cameraEvents.add(new TargetMovedEvent(cameraName, timestamp, BinarySessionFormat.readVarInt(in),
+						(int) BinarySessionFormat.readSignedVarLong(in), (int) BinarySessionFormat.readSignedVarLong(in)));
+				break;
+
+			case BinarySessionFormat.TYPE_EXERCISE_FEED_MESSAGE:
+				cameraEvents.add(new ExerciseFeedMessageEvent(cameraName, timestamp,
+						strings[BinarySessionFormat.readVarInt(in)]));
+				break;
+
+			default:
+				throw new IllegalStateException("Unknown event type " + type + " in binary session");
+			}
+		}
+	}
+}
@@ -0,0 +1,279 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session.io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.shootoff.camera.Shot;
+
+/**
+ * Writes sessions in the compact binary format described in
+ * {@link BinarySessionFormat}. Events are streamed to disk one block at a time,
+ * so only the current block and the string table are held in memory.
+ */
+public class BinarySessionWriter implements EventVisitor {
+	private final Logger logger = LoggerFactory.getLogger(BinarySessionWriter.class);
+
+	private final File sessionFile;
+	private final Map<String, Integer> stringIds = new HashMap<>();
+	private final List<String> strings = new ArrayList<>();
+	private final List<Integer> cameraIds = new ArrayList<>();
+	private final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream();
+	private final DataOutputStream block = new DataOutputStream(blockBytes);
+	private final ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+	private final DataOutputStream index = new DataOutputStream(indexBytes);
+
+	private DataOutputStream out;
+	private long position;
+	private int blockCount = 0;
+	private int currentCamera;
+	private int blockEvents = 0;
+	private long blockFirstTimestamp;
+	private long lastTimestamp;
+	private boolean failed = false;
+
+	public BinarySessionWriter(File sessionFile) {
+		this.sessionFile = sessionFile;
+
+		try {
+			out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(sessionFile)));
+			out.write(BinarySessionFormat.MAGIC);
+			out.writeByte(BinarySessionFormat.VERSION);
+			position = BinarySessionFormat.MAGIC.length + 1;
+		} catch (final IOException e) {
+			fail(e);
+		}
+	}
+
+	private void fail(IOException e) {
+		logger.error("Error writing binary session", e);
+		failed = true;
+	}
+
+	private int intern(String value) {
+		Integer id = stringIds.get(value);
+
+		if (id == null) {
+			id = strings.size();
+			strings.add(value);
+			stringIds.put(value, id);
+		}
+
+		return id;
+	}
+
+	@Override
+	public void visitCamera(String cameraName) {
+		currentCamera = cameraIds.size();
+		cameraIds.add(intern(cameraName));
+		blockEvents = 0;
+	}
+
+	@Override
+	public void visitCameraEnd() {
+		flushBlock();
+	}
+
+	private void startEvent(int type, long timestamp) throws IOException {
+		if (blockEvents == 0) {
+			blockFirstTimestamp = timestamp;
+			lastTimestamp = timestamp;
+		}
+
+		block.writeByte(type);
+		BinarySessionFormat.writeSignedVarLong(block, timestamp - lastTimestamp);
+		lastTimestamp = timestamp;
+	}
+
+	private void endEvent() {
+		if (++blockEvents == BinarySessionFormat.BLOCK_EVENTS) flushBlock();
+	}
+
+	private void flushBlock() {
+		if (blockEvents == 0 || failed) return;
+
+		try {
+			BinarySessionFormat.writeVarLong(index, currentCamera);
+			index.writeLong(position);
+			index.writeInt(blockBytes.size());
+			index.writeInt(blockEvents);
+			index.writeLong(blockFirstTimestamp);
+			blockCount++;
+
+			blockBytes.writeTo(out);
+			position += blockBytes.size();
+		} catch (final IOException e) {
+			fail(e);
+		}
+
+		blockBytes.reset();
+		blockEvents = 0;
+	}
+
+	@Override
+	public void visitShot(long timestamp, Shot shot, boolean isMalfunction, boolean isReload,
+			Optional<Integer> targetIndex, Optional<Integer> hitRegionIndex, Optional<String> videoString) {
+		if (failed) return;
+
+		try {
+			startEvent(BinarySessionFormat.TYPE_SHOT, timestamp);
+
+			int flags = BinarySessionFormat.encodeColor(shot.getColor());
+			if (isMalfunction) flags |= BinarySessionFormat.SHOT_MALFUNCTION;
+			if (isReload) flags |= BinarySessionFormat.SHOT_RELOAD;
+
+			block.writeByte(flags);
+			block.writeDouble(shot.getX());
+			block.writeDouble(shot.getY());
+			block.writeLong(shot.getTimestamp());
+			writeShort(block, "marker radius", shot.getMarkerRadius());
+			writeShort(block, "target index", targetIndex.orElse(-1));
+			writeShort(block, "hit region index", hitRegionIndex.orElse(-1));
+			block.writeInt(videoString.isPresent() ? intern(videoString.get()) : -1);
+
+			endEvent();
+		} catch (final IOException e) {
+			fail(e);
+		}
+	}
+
+	// Shot fields are stored in 16 bits, a value that doesn't fit would be read
+	// back as a different value
+	private static void writeShort(DataOutputStream out, String field, int value) throws IOException {
+		if (value < Short.MIN_VALUE || value > Short.MAX_VALUE)
+			throw new IOException(String.format("Shot %s %d is too large for a binary session", field, value));
+
+		out.writeShort(value);
+	}
+
+	@Override
+	public void visitTargetAdd(long timestamp, String targetName) {
+		if (failed) return;
+
+		try {
+			startEvent(BinarySessionFormat.TYPE_TARGET_ADDED, timestamp);
+			BinarySessionFormat.writeVarLong(block, intern(targetName));
+			endEvent();
+		} catch (final IOException e) {
+			fail(e);
+		}
+	}
+
+	@Override
+	public void visitTargetRemove(long timestamp, int targetIndex) {
+		if (failed) return;
+
+		try {
+			startEvent(BinarySessionFormat.TYPE_TARGET_REMOVED, timestamp);
+			BinarySessionFormat.writeVarLong(block, targetIndex);
+			endEvent();
+		} catch (final IOException e) {
+			fail(e);
+		}
+	}
+
+	@Override
+	public void visitTargetResize(long timestamp, int targetIndex, double newWidth, double newHeight) {
+		if (failed) return;
+
+		try {
+			startEvent(BinarySessionFormat.TYPE_TARGET_RESIZED, timestamp);
+			BinarySessionFormat.writeVarLong(block, targetIndex);
+			block.writeDouble(newWidth);
+			block.writeDouble(newHeight);
+			endEvent();
+		} catch (final IOException e) {
+			fail(e);
+		}
+	}
+
+	@Override
+	public void visitTargetMove(long timestamp, int targetIndex, int newX, int newY) {
+		if (failed) return;
+
+		try {
+			startEvent(BinarySessionFormat.TYPE_TARGET_MOVED, timestamp);
+			BinarySessionFormat.writeVarLong(block, targetIndex);
+			BinarySessionFormat.writeSignedVarLong(block, newX);
+			BinarySessionFormat.writeSignedVarLong(block, newY);
+			endEvent();
+		} catch (final IOException e) {
+			fail(e);
+		}
+	}
+
+	@Override
+	public void visitExerciseFeedMessage(long timestamp, String message) {
+		if (failed) return;
+
+		try {
+			startEvent(BinarySessionFormat.TYPE_EXERCISE_FEED_MESSAGE, timestamp);
+			BinarySessionFormat.writeVarLong(block, intern(message));
+			endEvent();
+		} catch (final IOException e) {
+			fail(e);
+		}
+	}
+
+	@Override
+	public void visitEnd() {
+		if (out == null) return;
+
+		try {
+			if (!failed) {
+				final long footerOffset = position;
+
+				BinarySessionFormat.writeVarLong(out, strings.size());
+				for (final String s : strings) {
+					final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+					BinarySessionFormat.writeVarLong(out, bytes.length);
+					out.write(bytes);
+				}
+
+				BinarySessionFormat.writeVarLong(out, cameraIds.size());
+				for (final int cameraId : cameraIds)
+					BinarySessionFormat.writeVarLong(out, cameraId);
+
+				BinarySessionFormat.writeVarLong(out, blockCount);
+				indexBytes.writeTo(out);
+
+				out.writeLong(footerOffset);
+				out.write(BinarySessionFormat.MAGIC);
+			}
+
+			out.close();
+		} catch (final IOException e) {
+			fail(e);
+		}
+	}
+}
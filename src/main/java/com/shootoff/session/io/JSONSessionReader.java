@@ -15,39 +15,34 @@
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
-
 package com.shootoff.session.io;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.shootoff.camera.Shot;
-import com.shootoff.camera.Shot.ShotColor;
+import com.google.gson.stream.JsonReader;
 import com.shootoff.session.Event;
-import com.shootoff.session.ExerciseFeedMessageEvent;
-import com.shootoff.session.ShotEvent;
-import com.shootoff.session.TargetAddedEvent;
-import com.shootoff.session.TargetMovedEvent;
-import com.shootoff.session.TargetRemovedEvent;
-import com.shootoff.session.TargetResizedEvent;
 
+/**
+ * Reads sessions written by {@link JSONSessionWriter} with a streaming parser,
+ * so events are built as they are read instead of after the whole document has
+ * been parsed into an object tree.
+ */
 public class JSONSessionReader {
-	private final Logger logger = LoggerFactory.getLogger(JSONSessionReader.class);
+	private static final Logger logger = LoggerFactory.getLogger(JSONSessionReader.class);
 
 	private final File sessionFile;
 
@@ -56,112 +51,193 @@ public class JSONSessionReader {
 	}
 
 	public Map<String, List<Event>> load() {
-		final Map<String, List<Event>> events = new HashMap<>();
+		try (SessionEventIterator it = iterator()) {
+			return SessionIO.collectEvents(it);
+		}
+	}
+
+	public SessionEventIterator iterator() {
+		return new JSONEventIterator();
+	}
 
-		try {
-			final JSONObject session = (JSONObject) new JSONParser()
-					.parse(new InputStreamReader(new FileInputStream(sessionFile), "UTF-8"));
+	/**
+	 * Read the scalar fields of the JSON object that <code>reader</code> is
+	 * positioned at as strings. Nested objects and arrays are skipped.
+	 */
+	static Map<String, String> readFields(JsonReader reader) throws IOException {
+		final Map<String, String> fields = new HashMap<>();
 
-			final JSONArray cameras = (JSONArray) session.get("cameras");
-			@SuppressWarnings("unchecked")
-			final
-			Iterator<JSONObject> itCameras = cameras.iterator();
+		reader.beginObject();
 
-			while (itCameras.hasNext()) {
-				final JSONObject camera = itCameras.next();
+		while (reader.hasNext()) {
+			final String name = reader.nextName();
 
-				final String cameraName = (String) camera.get("name");
-				events.put(cameraName, new ArrayList<Event>());
+			switch (reader.peek()) {
+			case STRING:
+			case NUMBER:
+				fields.put(name, reader.nextString());
+				break;
 
-				final JSONArray cameraEvents = (JSONArray) camera.get("events");
-				@SuppressWarnings("unchecked")
-				final
-				Iterator<JSONObject> itEvents = cameraEvents.iterator();
+			case BOOLEAN:
+				fields.put(name, String.valueOf(reader.nextBoolean()));
+				break;
 
-				while (itEvents.hasNext()) {
-					final JSONObject event = itEvents.next();
+			default:
+				reader.skipValue();
+				break;
+			}
+		}
 
-					final String eventType = (String) event.get("type");
+		reader.endObject();
 
-					switch (eventType) {
-					case "shot":
-						ShotColor c;
+		return fields;
+	}
 
-						if (event.get("color").equals("0xff0000ff") || event.get("color").equals("RED")) {
-							c = ShotColor.RED;
-						}
-						else if (event.get("color").equals("0xffa500ff") || event.get("color").equals("INFRARED"))
-						{
-							c = ShotColor.INFRARED;
-						} else {
-							c = ShotColor.GREEN;
-						}
+	private class JSONEventIterator implements SessionEventIterator {
+		private JsonReader reader;
+		private Optional<Event> next = Optional.empty();
+		private boolean done = false;
 
-						final Shot shot = new Shot(c, (double) event.get("x"), (double) event.get("y"),
-								(Long) event.get("shotTimestamp"), ((Long) event.get("markerRadius")).intValue());
+		private boolean inCamera = false;
+		private boolean inEvents = false;
+		private String cameraName;
+		private final List<String> cameraNames = new ArrayList<>();
 
-						final boolean isMalfunction = (boolean) event.get("isMalfunction");
+		// Events that were read before the camera's name, JSON objects are
+		// unordered so this is possible but unlikely
+		private final List<Map<String, String>> pending = new ArrayList<>();
 
-						final boolean isReload = (boolean) event.get("isReload");
+		private JSONEventIterator() {
+			try {
+				reader = new JsonReader(new InputStreamReader(new FileInputStream(sessionFile), StandardCharsets.UTF_8));
 
-						Optional<Integer> targetIndex;
-						int index = ((Long) event.get("targetIndex")).intValue();
-						if (index == -1) {
-							targetIndex = Optional.empty();
+				reader.beginObject();
+
+				while (reader.hasNext()) {
+					if ("cameras".equals(reader.nextName())) {
+						reader.beginArray();
+						return;
+					}
+
+					reader.skipValue();
+				}
+
+				logger.error("JSON session {} does not contain any cameras", sessionFile.getPath());
+				close();
+			} catch (IOException | IllegalStateException e) {
+				logger.error("Error reading JSON session", e);
+				close();
+			}
+		}
+
+		private Optional<Event> advance() throws IOException {
+			while (true) {
+				if (cameraName != null && !pending.isEmpty()) {
+					final Map<String, String> fields = pending.remove(0);
+					final Optional<Event> e = SessionEventParser.parse(cameraName, fields.get("type"), fields);
+					if (e.isPresent()) return e;
+					continue;
+				}
+
+				if (inEvents) {
+					if (reader.hasNext()) {
+						final Map<String, String> fields = readFields(reader);
+
+						if (cameraName == null) {
+							pending.add(fields);
 						} else {
-							targetIndex = Optional.of(index);
+							final Optional<Event> e = SessionEventParser.parse(cameraName, fields.get("type"), fields);
+							if (e.isPresent()) return e;
 						}
+					} else {
+						reader.endArray();
+						inEvents = false;
+					}
 
-						Optional<Integer> hitRegionIndex;
-						index = ((Long) event.get("hitRegionIndex")).intValue();
-						if (index == -1) {
-							hitRegionIndex = Optional.empty();
+					continue;
+				}
+
+				if (inCamera) {
+					if (reader.hasNext()) {
+						final String name = reader.nextName();
+
+						if ("name".equals(name)) {
+							cameraName = reader.nextString();
+							if (!cameraNames.contains(cameraName)) cameraNames.add(cameraName);
+						} else if ("events".equals(name)) {
+							reader.beginArray();
+							inEvents = true;
 						} else {
-							hitRegionIndex = Optional.of(index);
+							reader.skipValue();
+						}
+					} else {
+						reader.endObject();
+						inCamera = false;
+
+						if (!pending.isEmpty()) {
+							logger.error("Ignoring {} events for a camera without a name in JSON session {}",
+									pending.size(), sessionFile.getPath());
+							pending.clear();
 						}
-
-						final Optional<String> videoString = Optional.ofNullable((String) event.get("videos"));
-
-						events.get(cameraName).add(new ShotEvent(cameraName, (Long) event.get("timestamp"), shot,
-								isMalfunction, isReload, targetIndex, hitRegionIndex, videoString));
-						break;
-
-					case "targetAdded":
-						events.get(cameraName).add(new TargetAddedEvent(cameraName, (Long) event.get("timestamp"),
-								(String) event.get("name")));
-						break;
-
-					case "targetRemoved":
-						events.get(cameraName).add(new TargetRemovedEvent(cameraName, (Long) event.get("timestamp"),
-								((Long) event.get("index")).intValue()));
-						break;
-
-					case "targetResized":
-						events.get(cameraName)
-						.add(new TargetResizedEvent(cameraName, (Long) event.get("timestamp"),
-								((Long) event.get("index")).intValue(), (Double) event.get("newWidth"),
-								(Double) event.get("newHeight")));
-						break;
-
-					case "targetMoved":
-						events.get(cameraName)
-						.add(new TargetMovedEvent(cameraName, (Long) event.get("timestamp"),
-								((Long) event.get("index")).intValue(), ((Long) event.get("newX")).intValue(),
-								((Long) event.get("newY")).intValue()));
-						break;
-
-					case "exerciseFeedMessage":
-						events.get(cameraName).add(new ExerciseFeedMessageEvent(cameraName,
-								(Long) event.get("timestamp"), (String) event.get("message")));
-						break;
 					}
+
+					continue;
 				}
+
+				if (reader.hasNext()) {
+					reader.beginObject();
+					inCamera = true;
+					cameraName = null;
+				} else {
+					return Optional.empty();
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (done) return false;
+			if (next.isPresent()) return true;
+
+			try {
+				next = advance();
+			} catch (IOException | IllegalStateException | NumberFormatException | NullPointerException e) {
+				logger.error("Error reading JSON session", e);
+				next = Optional.empty();
 			}
 
-		} catch (IOException | ParseException e) {
-			logger.error("Error reading JSON session", e);
+			if (!next.isPresent()) close();
+
+			return next.isPresent();
+		}
+
+		@Override
+		public List<String> getCameraNames() {
+			return Collections.unmodifiableList(cameraNames);
+		}
+
+		@Override
+		public Event next() {
+			if (!hasNext()) throw new NoSuchElementException();
+
+			final Event e = next.get();
+			next = Optional.empty();
+			return e;
 		}
 
-		return events;
+		@Override
+		public void close() {
+			done = true;
+
+			if (reader == null) return;
+
+			try {
+				reader.close();
+			} catch (final IOException e) {
+				logger.error("Error closing JSON session", e);
+			}
+
+			reader = null;
+		}
 	}
 }
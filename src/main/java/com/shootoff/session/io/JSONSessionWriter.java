@@ -64,6 +64,43 @@ public class JSONSessionWriter implements EventVisitor {
 	@Override
 	public void visitShot(long timestamp, Shot shot, boolean isMalfunction, boolean isReload,
 			Optional<Integer> targetIndex, Optional<Integer> hitRegionIndex, Optional<String> videoString) {
+		currentCameraEvents
+				.add(encodeShot(timestamp, shot, isMalfunction, isReload, targetIndex, hitRegionIndex, videoString));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void visitTargetAdd(long timestamp, String targetName) {
+		currentCameraEvents.add(encodeTargetAdd(timestamp, targetName));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void visitTargetRemove(long timestamp, int targetIndex) {
+		currentCameraEvents.add(encodeTargetRemove(timestamp, targetIndex));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void visitTargetResize(long timestamp, int targetIndex, double newWidth, double newHeight) {
+		currentCameraEvents.add(encodeTargetResize(timestamp, targetIndex, newWidth, newHeight));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void visitTargetMove(long timestamp, int targetIndex, int newX, int newY) {
+		currentCameraEvents.add(encodeTargetMove(timestamp, targetIndex, newX, newY));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void visitExerciseFeedMessage(long timestamp, String message) {
+		currentCameraEvents.add(encodeExerciseFeedMessage(timestamp, message));
+	}
+
+	@SuppressWarnings("unchecked")
+	static JSONObject encodeShot(long timestamp, Shot shot, boolean isMalfunction, boolean isReload,
+			Optional<Integer> targetIndex, Optional<Integer> hitRegionIndex, Optional<String> videoString) {
 
 		final JSONObject event = new JSONObject();
 		event.put("type", "shot");
@@ -72,7 +109,7 @@ public class JSONSessionWriter implements EventVisitor {
 		event.put("x", shot.getX());
 		event.put("y", shot.getY());
 		event.put("shotTimestamp", shot.getTimestamp());
-		event.put("markerRadius", (int) shot.getMarker().getRadiusX());
+		event.put("markerRadius", shot.getMarkerRadius());
 		event.put("isMalfunction", isMalfunction);
 		event.put("isReload", isReload);
 
@@ -92,34 +129,31 @@ public class JSONSessionWriter implements EventVisitor {
 			event.put("videos", videoString.get());
 		}
 
-		currentCameraEvents.add(event);
+		return event;
 	}
 
 	@SuppressWarnings("unchecked")
-	@Override
-	public void visitTargetAdd(long timestamp, String targetName) {
+	static JSONObject encodeTargetAdd(long timestamp, String targetName) {
 		final JSONObject event = new JSONObject();
 		event.put("type", "targetAdded");
 		event.put("timestamp", timestamp);
 		event.put("name", targetName);
 
-		currentCameraEvents.add(event);
+		return event;
 	}
 
 	@SuppressWarnings("unchecked")
-	@Override
-	public void visitTargetRemove(long timestamp, int targetIndex) {
+	static JSONObject encodeTargetRemove(long timestamp, int targetIndex) {
 		final JSONObject event = new JSONObject();
 		event.put("type", "targetRemoved");
 		event.put("timestamp", timestamp);
 		event.put("index", targetIndex);
 
-		currentCameraEvents.add(event);
+		return event;
 	}
 
 	@SuppressWarnings("unchecked")
-	@Override
-	public void visitTargetResize(long timestamp, int targetIndex, double newWidth, double newHeight) {
+	static JSONObject encodeTargetResize(long timestamp, int targetIndex, double newWidth, double newHeight) {
 		final JSONObject event = new JSONObject();
 		event.put("type", "targetResized");
 		event.put("timestamp", timestamp);
@@ -127,12 +161,11 @@ public class JSONSessionWriter implements EventVisitor {
 		event.put("newWidth", newWidth);
 		event.put("newHeight", newHeight);
 
-		currentCameraEvents.add(event);
+		return event;
 	}
 
 	@SuppressWarnings("unchecked")
-	@Override
-	public void visitTargetMove(long timestamp, int targetIndex, int newX, int newY) {
+	static JSONObject encodeTargetMove(long timestamp, int targetIndex, int newX, int newY) {
 		final JSONObject event = new JSONObject();
 		event.put("type", "targetMoved");
 		event.put("timestamp", timestamp);
@@ -140,18 +173,17 @@ public class JSONSessionWriter implements EventVisitor {
 		event.put("newX", newX);
 		event.put("newY", newY);
 
-		currentCameraEvents.add(event);
+		return event;
 	}
 
 	@SuppressWarnings("unchecked")
-	@Override
-	public void visitExerciseFeedMessage(long timestamp, String message) {
+	static JSONObject encodeExerciseFeedMessage(long timestamp, String message) {
 		final JSONObject event = new JSONObject();
 		event.put("type", "exerciseFeedMessage");
 		event.put("timestamp", timestamp);
 		event.put("message", message);
 
-		currentCameraEvents.add(event);
+		return event;
 	}
 
 	@SuppressWarnings("unchecked")
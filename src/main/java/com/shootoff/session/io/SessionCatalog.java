@@ -0,0 +1,595 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.shootoff.camera.Shot;
+import com.shootoff.session.Event;
+import com.shootoff.session.SessionRecorder;
+import com.shootoff.util.NamedThreadFactory;
+
+/**
+ * Keeps an on-disk index of {@link SessionSummary summaries} for every session
+ * in a sessions folder so that sessions can be listed and filtered without
+ * parsing them. Sessions are only parsed (streamed, see
+ * {@link SessionIO#visitSession(File, EventVisitor)}) when they are new or
+ * their file changed since they were last summarized. Saved sessions are added
+ * to the index through {@link #update(File, SessionRecorder)} and a watcher
+ * picks up sessions that are added, changed, or deleted by anything else.
+ * 
+ * There is one catalog per sessions folder, use
+ * {@link #getCatalog(File)} to get it.
+ */
+public class SessionCatalog implements Runnable {
+	public static final String INDEX_FILE_NAME = "sessions.index";
+
+	private static final Logger logger = LoggerFactory.getLogger(SessionCatalog.class);
+	private static final int INDEX_VERSION = 1;
+	private static final Map<File, SessionCatalog> catalogs = new HashMap<>();
+
+	private final File sessionsFolder;
+	private final File indexFile;
+	private final ConcurrentMap<String, SessionSummary> summaries = new ConcurrentHashMap<>();
+	private final List<SessionCatalogListener> catalogListeners = new CopyOnWriteArrayList<>();
+	private final AtomicBoolean watching = new AtomicBoolean(false);
+	// Serializes summaries from saved sessions with those from parsed files
+	private final Object summariesLock = new Object();
+
+	private SessionCatalog(File sessionsFolder) {
+		this.sessionsFolder = sessionsFolder;
+		indexFile = new File(sessionsFolder, INDEX_FILE_NAME);
+
+		if (indexFile.exists()) readIndex();
+	}
+
+	public static synchronized SessionCatalog getCatalog(File sessionsFolder) {
+		final File key = sessionsFolder.getAbsoluteFile();
+
+		SessionCatalog catalog = catalogs.get(key);
+
+		if (catalog == null) {
+			catalog = new SessionCatalog(key);
+			catalogs.put(key, catalog);
+		}
+
+		return catalog;
+	}
+
+	public File getSessionsFolder() {
+		return sessionsFolder;
+	}
+
+	public void addCatalogListener(SessionCatalogListener listener) {
+		catalogListeners.add(listener);
+	}
+
+	public void removeCatalogListener(SessionCatalogListener listener) {
+		catalogListeners.remove(listener);
+	}
+
+	/**
+	 * @return the summaries of every catalogued session, newest first
+	 */
+	public List<SessionSummary> getSummaries() {
+		return getSummaries((summary) -> true);
+	}
+
+	/**
+	 * @return the summaries of the catalogued sessions that match
+	 *         <code>filter</code>, newest first
+	 */
+	public List<SessionSummary> getSummaries(Predicate<SessionSummary> filter) {
+		final List<SessionSummary> matches = new ArrayList<>();
+
+		for (final SessionSummary summary : summaries.values()) {
+			if (filter.test(summary)) matches.add(summary);
+		}
+
+		Collections.sort(matches, Comparator.comparingLong(SessionSummary::getDate).reversed());
+
+		return matches;
+	}
+
+	public Optional<SessionSummary> getSummary(String fileName) {
+		return Optional.ofNullable(summaries.get(fileName));
+	}
+
+	/**
+	 * Bring the catalog in sync with the sessions folder. Only sessions that
+	 * are new or whose file changed since they were summarized are parsed.
+	 */
+	public void refresh() {
+		final File[] sessionFiles = sessionsFolder.listFiles((file) -> SessionIO.isSessionFile(file));
+
+		if (sessionFiles == null) {
+			logger.debug("Not refreshing session catalog because {} can't be listed", sessionsFolder.getPath());
+			return;
+		}
+
+		boolean changed = false;
+		final Set<String> present = new LinkedHashSet<>();
+
+		for (final File sessionFile : sessionFiles) {
+			present.add(sessionFile.getName());
+			if (catalogFile(sessionFile)) changed = true;
+		}
+
+		for (final String fileName : new ArrayList<>(summaries.keySet())) {
+			if (!present.contains(fileName) && removeFile(fileName)) changed = true;
+		}
+
+		if (changed) writeIndex();
+	}
+
+	/**
+	 * Catalog a session that was just saved from memory, thus the session
+	 * file does not have to be parsed again.
+	 */
+	public void update(File sessionFile, SessionRecorder sessionRecorder) {
+		final SummaryVisitor summaryVisitor = new SummaryVisitor(sessionFile, sessionFile.lastModified(),
+				sessionFile.length());
+
+		for (final Map.Entry<String, List<Event>> cameraEvents : sessionRecorder.getEvents().entrySet()) {
+			summaryVisitor.visitCamera(cameraEvents.getKey());
+
+			for (final Event e : cameraEvents.getValue())
+				SessionIO.visitEvent(summaryVisitor, e);
+
+			summaryVisitor.visitCameraEnd();
+		}
+
+		summaryVisitor.visitEnd();
+
+		putSummary(summaryVisitor.getSummary());
+		writeIndex();
+	}
+
+	// Returns true if the file was (re)summarized
+	private boolean catalogFile(File sessionFile) {
+		// Read before parsing so that a summary of a file that is still
+		// being written is never stored as the summary of the finished file
+		final long lastModified = sessionFile.lastModified();
+		final long length = sessionFile.length();
+		final SessionSummary existing = summaries.get(sessionFile.getName());
+
+		if (existing != null && existing.getLastModified() == lastModified && existing.getLength() == length) {
+			return false;
+		}
+
+		final SummaryVisitor summaryVisitor = new SummaryVisitor(sessionFile, lastModified, length);
+
+		if (!SessionIO.visitSession(sessionFile, summaryVisitor)) return false;
+
+		synchronized (summariesLock) {
+			// The file changed while it was parsed, the watch event or refresh
+			// that sees the change will catalog it again
+			if (sessionFile.lastModified() != lastModified || sessionFile.length() != length) {
+				logger.debug("Not cataloging {} because it changed while it was read", sessionFile.getPath());
+				return false;
+			}
+
+			putSummary(summaryVisitor.getSummary());
+		}
+
+		return true;
+	}
+
+	private void putSummary(SessionSummary summary) {
+		synchronized (summariesLock) {
+			summaries.put(summary.getFileName(), summary);
+		}
+
+		for (final SessionCatalogListener l : catalogListeners)
+			l.sessionCatalogued(summary);
+	}
+
+	private boolean removeFile(String fileName) {
+		synchronized (summariesLock) {
+			if (summaries.remove(fileName) == null) return false;
+		}
+
+		for (final SessionCatalogListener l : catalogListeners)
+			l.sessionRemoved(fileName);
+
+		return true;
+	}
+
+	/**
+	 * Start watching the sessions folder for sessions that are created,
+	 * changed, or deleted outside of {@link #update(File, SessionRecorder)}.
+	 */
+	public void startWatching() {
+		if (watching.getAndSet(true)) return;
+
+		// Polls until it is stopped, thus it must not keep ShootOFF alive
+		new NamedThreadFactory("SessionCatalogWatcher", true).newThread(this).start();
+	}
+
+	public void stopWatching() {
+		watching.set(false);
+	}
+
+	@Override
+	public void run() {
+		final WatchService watcher;
+
+		try {
+			watcher = FileSystems.getDefault().newWatchService();
+			sessionsFolder.toPath().register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+					StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+		} catch (final IOException e) {
+			logger.error("Failed to watch the sessions folder, the session catalog will only be updated on refresh",
+					e);
+			watching.set(false);
+			return;
+		}
+
+		logger.debug("Starting to watch sessions directory");
+
+		while (watching.get()) {
+			WatchKey key;
+			try {
+				key = watcher.poll(1, TimeUnit.SECONDS);
+
+				if (key == null) continue;
+			} catch (final InterruptedException e) {
+				logger.error("Session catalog watcher was interrupted", e);
+				break;
+			}
+
+			boolean changed = false;
+
+			for (final WatchEvent<?> event : key.pollEvents()) {
+				if (StandardWatchEventKinds.OVERFLOW.equals(event.kind())) {
+					// Events were lost, so fall back to comparing the whole
+					// folder against the catalog
+					refresh();
+					continue;
+				}
+
+				@SuppressWarnings("unchecked")
+				final WatchEvent<Path> ev = (WatchEvent<Path>) event;
+				final File updatedFile = sessionsFolder.toPath().resolve(ev.context()).toFile();
+
+				if (!SessionIO.isSessionFile(updatedFile)) continue;
+
+				if (StandardWatchEventKinds.ENTRY_DELETE.equals(event.kind())) {
+					if (removeFile(updatedFile.getName())) changed = true;
+				} else if (updatedFile.isFile()) {
+					if (catalogFile(updatedFile)) changed = true;
+				}
+			}
+
+			if (changed) writeIndex();
+
+			if (!key.reset()) {
+				logger.error("Could not reset watch key, cannot receive further session watch events");
+				watching.set(false);
+			}
+		}
+
+		try {
+			watcher.close();
+		} catch (final IOException e) {
+			logger.error("Error when stopping sessions directory watcher", e);
+		}
+
+		logger.debug("Stopped watching sessions directory");
+	}
+
+	private void readIndex() {
+		try (JsonReader reader = new JsonReader(
+				new InputStreamReader(new FileInputStream(indexFile), StandardCharsets.UTF_8))) {
+			reader.beginObject();
+
+			while (reader.hasNext()) {
+				final String name = reader.nextName();
+
+				if ("version".equals(name)) {
+					final int version = reader.nextInt();
+
+					if (version != INDEX_VERSION) {
+						logger.info("Ignoring session index {} with unsupported version {}", indexFile.getPath(),
+								version);
+						return;
+					}
+				} else if ("sessions".equals(name)) {
+					reader.beginArray();
+
+					while (reader.hasNext()) {
+						final SessionSummary summary = readSummary(reader);
+						summaries.put(summary.getFileName(), summary);
+					}
+
+					reader.endArray();
+				} else {
+					reader.skipValue();
+				}
+			}
+
+			reader.endObject();
+		} catch (IOException | IllegalStateException | NumberFormatException e) {
+			// The index is only a cache, the next refresh rebuilds whatever
+			// could not be read
+			logger.warn("Failed to read session index " + indexFile.getPath(), e);
+			summaries.clear();
+		}
+	}
+
+	private static SessionSummary readSummary(JsonReader reader) throws IOException {
+		String fileName = null;
+		long lastModified = 0;
+		long length = 0;
+		long date = 0;
+		final List<String> cameras = new ArrayList<>();
+		int shotCount = 0;
+		int hitCount = 0;
+		long duration = 0;
+		final List<String> videos = new ArrayList<>();
+
+		reader.beginObject();
+
+		while (reader.hasNext()) {
+			switch (reader.nextName()) {
+			case "file":
+				fileName = reader.nextString();
+				break;
+
+			case "lastModified":
+				lastModified = reader.nextLong();
+				break;
+
+			case "length":
+				length = reader.nextLong();
+				break;
+
+			case "date":
+				date = reader.nextLong();
+				break;
+
+			case "cameras":
+				readStrings(reader, cameras);
+				break;
+
+			case "shots":
+				shotCount = reader.nextInt();
+				break;
+
+			case "hits":
+				hitCount = reader.nextInt();
+				break;
+
+			case "duration":
+				duration = reader.nextLong();
+				break;
+
+			case "videos":
+				readStrings(reader, videos);
+				break;
+
+			default:
+				reader.skipValue();
+				break;
+			}
+		}
+
+		reader.endObject();
+
+		if (fileName == null) throw new IllegalStateException("Session index entry without a file name");
+
+		return new SessionSummary(fileName, lastModified, length, date, cameras, shotCount, hitCount, duration,
+				videos);
+	}
+
+	private static void readStrings(JsonReader reader, List<String> strings) throws IOException {
+		reader.beginArray();
+
+		while (reader.peek() != JsonToken.END_ARRAY)
+			strings.add(reader.nextString());
+
+		reader.endArray();
+	}
+
+	// The index is written to a temporary file that replaces the old index so
+	// that a crash mid-write can never leave a truncated index behind
+	private synchronized void writeIndex() {
+		if (!sessionsFolder.exists()) return;
+
+		final File tempIndexFile = new File(sessionsFolder, INDEX_FILE_NAME + ".tmp");
+
+		try (JsonWriter writer = new JsonWriter(
+				new OutputStreamWriter(new FileOutputStream(tempIndexFile), StandardCharsets.UTF_8))) {
+			writer.beginObject();
+			writer.name("version").value(INDEX_VERSION);
+			writer.name("sessions").beginArray();
+
+			for (final SessionSummary summary : summaries.values()) {
+				writer.beginObject();
+				writer.name("file").value(summary.getFileName());
+				writer.name("lastModified").value(summary.getLastModified());
+				writer.name("length").value(summary.getLength());
+				writer.name("date").value(summary.getDate());
+				writer.name("cameras").beginArray();
+				for (final String camera : summary.getCameras())
+					writer.value(camera);
+				writer.endArray();
+				writer.name("shots").value(summary.getShotCount());
+				writer.name("hits").value(summary.getHitCount());
+				writer.name("duration").value(summary.getDuration());
+				writer.name("videos").beginArray();
+				for (final String video : summary.getVideos())
+					writer.value(video);
+				writer.endArray();
+				writer.endObject();
+			}
+
+			writer.endArray();
+			writer.endObject();
+		} catch (final IOException e) {
+			logger.error("Failed to write session index " + tempIndexFile.getPath(), e);
+			return;
+		}
+
+		try {
+			Files.move(tempIndexFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (final IOException e) {
+			logger.error("Failed to replace session index " + indexFile.getPath(), e);
+		}
+	}
+
+	/**
+	 * Session files are named after the time they were recorded (see
+	 * {@link SessionRecorder#getSessionName()}). Fall back to the file's
+	 * modification time for files that were renamed.
+	 * 
+	 * @return when the session in <code>sessionFile</code> was recorded in
+	 *         milliseconds since the epoch
+	 */
+	public static long getSessionDate(File sessionFile) {
+		final String name = sessionFile.getName();
+		final int extensionStart = name.lastIndexOf('.');
+		final String sessionName = extensionStart > 0 ? name.substring(0, extensionStart) : name;
+
+		try {
+			return new SimpleDateFormat(SessionRecorder.SESSION_NAME_FORMAT).parse(sessionName).getTime();
+		} catch (final ParseException e) {
+			return sessionFile.lastModified();
+		}
+	}
+
+	private static class SummaryVisitor implements EventVisitor {
+		private final File sessionFile;
+		private final long lastModified;
+		private final long length;
+		private final List<String> cameras = new ArrayList<>();
+		private final Set<String> videos = new LinkedHashSet<>();
+		private int shotCount = 0;
+		private int hitCount = 0;
+		private long duration = 0;
+		private SessionSummary summary;
+
+		public SummaryVisitor(File sessionFile, long lastModified, long length) {
+			this.sessionFile = sessionFile;
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+
+		public SessionSummary getSummary() {
+			return summary;
+		}
+
+		@Override
+		public void visitCamera(String cameraName) {
+			if (!cameras.contains(cameraName)) cameras.add(cameraName);
+		}
+
+		@Override
+		public void visitCameraEnd() {}
+
+		@Override
+		public void visitShot(long timestamp, Shot shot, boolean isMalfunction, boolean isReload,
+				Optional<Integer> targetIndex, Optional<Integer> hitRegionIndex, Optional<String> videoString) {
+			visitTimestamp(timestamp);
+
+			shotCount++;
+			if (targetIndex.isPresent()) hitCount++;
+
+			if (videoString.isPresent()) {
+				for (final String video : videoString.get().split(",")) {
+					final String[] v = video.split(":");
+					if (v.length > 1) videos.add(v[1]);
+				}
+			}
+		}
+
+		@Override
+		public void visitTargetAdd(long timestamp, String targetName) {
+			visitTimestamp(timestamp);
+		}
+
+		@Override
+		public void visitTargetRemove(long timestamp, int targetIndex) {
+			visitTimestamp(timestamp);
+		}
+
+		@Override
+		public void visitTargetResize(long timestamp, int targetIndex, double newWidth, double newHeight) {
+			visitTimestamp(timestamp);
+		}
+
+		@Override
+		public void visitTargetMove(long timestamp, int targetIndex, int newX, int newY) {
+			visitTimestamp(timestamp);
+		}
+
+		@Override
+		public void visitExerciseFeedMessage(long timestamp, String message) {
+			visitTimestamp(timestamp);
+		}
+
+		private void visitTimestamp(long timestamp) {
+			duration = Math.max(duration, timestamp);
+		}
+
+		@Override
+		public void visitEnd() {
+			summary = new SessionSummary(sessionFile.getName(), lastModified, length, getSessionDate(sessionFile),
+					cameras, shotCount, hitCount, duration, new ArrayList<>(videos));
+		}
+	}
+}
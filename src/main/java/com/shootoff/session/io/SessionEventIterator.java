@@ -0,0 +1,41 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.shootoff.session.io;
+
+import java.util.Iterator;
+import java.util.List;
+
+import com.shootoff.session.Event;
+
+/**
+ * Streams the events of a saved session one at a time in the order they are
+ * stored (camera by camera), thus sessions of any size can be processed
+ * without holding every event in memory. Iterators must be closed to release
+ * the underlying file.
+ */
+public interface SessionEventIterator extends Iterator<Event>, AutoCloseable {
+	/**
+	 * @return the names of the cameras read so far in the order they are
+	 *         stored. Unlike the cameras of the events, this includes cameras
+	 *         that have no events.
+	 */
+	List<String> getCameraNames();
+
+	@Override
+	void close();
+}
@@ -0,0 +1,106 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.shootoff.session.io;
+
+import java.util.Map;
+import java.util.Optional;
+
+import com.shootoff.camera.Shot;
+import com.shootoff.camera.Shot.ShotColor;
+import com.shootoff.session.Event;
+import com.shootoff.session.ExerciseFeedMessageEvent;
+import com.shootoff.session.ShotEvent;
+import com.shootoff.session.TargetAddedEvent;
+import com.shootoff.session.TargetMovedEvent;
+import com.shootoff.session.TargetRemovedEvent;
+import com.shootoff.session.TargetResizedEvent;
+
+/**
+ * Builds events from the string-valued fields used by both the XML and JSON
+ * session formats, which share event type and field names.
+ */
+final class SessionEventParser {
+	private SessionEventParser() {}
+
+	/**
+	 * @return the event or <code>Optional.empty()</code> if the event type is
+	 *         unknown
+	 * @throws NumberFormatException
+	 *             if a numeric field is malformed
+	 * @throws NullPointerException
+	 *             if a required field is missing
+	 */
+	static Optional<Event> parse(String cameraName, String eventType, Map<String, String> fields) {
+		if (eventType == null) return Optional.empty();
+
+		final long timestamp = Long.parseLong(fields.get("timestamp"));
+
+		switch (eventType) {
+		case "shot":
+			ShotColor c;
+
+			final String color = fields.get("color");
+			if (color.equals("0xff0000ff") || color.equals("RED")) {
+				c = ShotColor.RED;
+			} else if (color.equals("0xffa500ff") || color.equals("INFRARED")) {
+				c = ShotColor.INFRARED;
+			} else {
+				c = ShotColor.GREEN;
+			}
+
+			final Shot shot = new Shot(c, Double.parseDouble(fields.get("x")), Double.parseDouble(fields.get("y")),
+					Long.parseLong(fields.get("shotTimestamp")), Integer.parseInt(fields.get("markerRadius")));
+
+			final boolean isMalfunction = Boolean.parseBoolean(fields.get("isMalfunction"));
+			final boolean isReload = Boolean.parseBoolean(fields.get("isReload"));
+
+			return Optional.of(new ShotEvent(cameraName, timestamp, shot, isMalfunction, isReload,
+					parseIndex(fields.get("targetIndex")), parseIndex(fields.get("hitRegionIndex")),
+					Optional.ofNullable(fields.get("videos"))));
+
+		case "targetAdded":
+			return Optional.of(new TargetAddedEvent(cameraName, timestamp, fields.get("name")));
+
+		case "targetRemoved":
+			return Optional.of(new TargetRemovedEvent(cameraName, timestamp, Integer.parseInt(fields.get("index"))));
+
+		case "targetResized":
+			return Optional.of(new TargetResizedEvent(cameraName, timestamp, Integer.parseInt(fields.get("index")),
+					Double.parseDouble(fields.get("newWidth")), Double.parseDouble(fields.get("newHeight"))));
+
+		case "targetMoved":
+			return Optional.of(new TargetMovedEvent(cameraName, timestamp, Integer.parseInt(fields.get("index")),
+					Integer.parseInt(fields.get("newX")), Integer.parseInt(fields.get("newY"))));
+
+		case "exerciseFeedMessage":
+			return Optional.of(new ExerciseFeedMessageEvent(cameraName, timestamp, fields.get("message")));
+
+		default:
+			return Optional.empty();
+		}
+	}
+
+	// Indexes are stored as -1 when they are not present
+	private static Optional<Integer> parseIndex(String value) {
+		final int index = Integer.parseInt(value);
+
+		if (index == -1) return Optional.empty();
+
+		return Optional.of(index);
+	}
+}
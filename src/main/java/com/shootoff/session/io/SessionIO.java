@@ -19,9 +19,13 @@
 package com.shootoff.session.io;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import com.shootoff.session.Event;
 import com.shootoff.session.ExerciseFeedMessageEvent;
@@ -33,6 +37,19 @@ import com.shootoff.session.TargetRemovedEvent;
 import com.shootoff.session.TargetResizedEvent;
 
 public class SessionIO {
+	public static final String BINARY_SESSION_EXTENSION = BinarySessionFormat.EXTENSION;
+
+	/**
+	 * @return <code>true</code> if <code>sessionFile</code> has the extension
+	 *         of a session format that can be loaded by
+	 *         {@link #loadSession(File)}
+	 */
+	public static boolean isSessionFile(File sessionFile) {
+		final String name = sessionFile.getName();
+
+		return name.endsWith(".xml") || name.endsWith(".json") || name.endsWith("." + BINARY_SESSION_EXTENSION);
+	}
+
 	public static void saveSession(SessionRecorder sessionRecorder, File sessionFile) {
 		EventVisitor visitor;
 
@@ -40,48 +57,18 @@ public class SessionIO {
 			visitor = new XMLSessionWriter(sessionFile);
 		} else if (sessionFile.getName().endsWith("json")) {
 			visitor = new JSONSessionWriter(sessionFile);
+		} else if (sessionFile.getName().endsWith(BinarySessionFormat.EXTENSION)) {
+			visitor = new BinarySessionWriter(sessionFile);
 		} else {
 			System.err.println("Unknown session file type.");
 			return;
 		}
 
-		for (final String cameraName : sessionRecorder.getEvents().keySet()) {
-			visitor.visitCamera(cameraName);
-
-			for (final Event e : sessionRecorder.getCameraEvents(cameraName)) {
-				switch (e.getType()) {
-				case SHOT:
-					final ShotEvent se = (ShotEvent) e;
-					visitor.visitShot(se.getTimestamp(), se.getShot(), se.isMalfunction(), se.isReload(),
-							se.getTargetIndex(), se.getHitRegionIndex(), se.getVideoString());
-					break;
-
-				case TARGET_ADDED:
-					final TargetAddedEvent tae = (TargetAddedEvent) e;
-					visitor.visitTargetAdd(tae.getTimestamp(), tae.getTargetName());
-					break;
-
-				case TARGET_REMOVED:
-					final TargetRemovedEvent tre = (TargetRemovedEvent) e;
-					visitor.visitTargetRemove(tre.getTimestamp(), tre.getTargetIndex());
-					break;
-
-				case TARGET_RESIZED:
-					final TargetResizedEvent trre = (TargetResizedEvent) e;
-					visitor.visitTargetResize(trre.getTimestamp(), trre.getTargetIndex(), trre.getNewWidth(),
-							trre.getNewHeight());
-					break;
-
-				case TARGET_MOVED:
-					final TargetMovedEvent tme = (TargetMovedEvent) e;
-					visitor.visitTargetMove(tme.getTimestamp(), tme.getTargetIndex(), tme.getNewX(), tme.getNewY());
-					break;
-
-				case EXERCISE_FEED_MESSAGE:
-					final ExerciseFeedMessageEvent pfme = (ExerciseFeedMessageEvent) e;
-					visitor.visitExerciseFeedMessage(pfme.getTimestamp(), pfme.getMessage());
-					break;
-				}
+		for (final Map.Entry<String, List<Event>> cameraEvents : sessionRecorder.getEvents().entrySet()) {
+			visitor.visitCamera(cameraEvents.getKey());
+
+			for (final Event e : cameraEvents.getValue()) {
+				visitEvent(visitor, e);
 			}
 
 			visitor.visitCameraEnd();
@@ -90,24 +77,168 @@ public class SessionIO {
 		visitor.visitEnd();
 	}
 
-	public static Optional<SessionRecorder> loadSession(File sessionFile) {
-		Map<String, List<Event>> events = null;
+	/**
+	 * Dispatch a single event to the visitor method that matches its type.
+	 */
+	public static void visitEvent(EventVisitor visitor, Event e) {
+		switch (e.getType()) {
+		case SHOT:
+			final ShotEvent se = (ShotEvent) e;
+			visitor.visitShot(se.getTimestamp(), se.getShot(), se.isMalfunction(), se.isReload(), se.getTargetIndex(),
+					se.getHitRegionIndex(), se.getVideoString());
+			break;
+
+		case TARGET_ADDED:
+			final TargetAddedEvent tae = (TargetAddedEvent) e;
+			visitor.visitTargetAdd(tae.getTimestamp(), tae.getTargetName());
+			break;
+
+		case TARGET_REMOVED:
+			final TargetRemovedEvent tre = (TargetRemovedEvent) e;
+			visitor.visitTargetRemove(tre.getTimestamp(), tre.getTargetIndex());
+			break;
+
+		case TARGET_RESIZED:
+			final TargetResizedEvent trre = (TargetResizedEvent) e;
+			visitor.visitTargetResize(trre.getTimestamp(), trre.getTargetIndex(), trre.getNewWidth(),
+					trre.getNewHeight());
+			break;
+
+		case TARGET_MOVED:
+			final TargetMovedEvent tme = (TargetMovedEvent) e;
+			visitor.visitTargetMove(tme.getTimestamp(), tme.getTargetIndex(), tme.getNewX(), tme.getNewY());
+			break;
+
+		case EXERCISE_FEED_MESSAGE:
+			final ExerciseFeedMessageEvent pfme = (ExerciseFeedMessageEvent) e;
+			visitor.visitExerciseFeedMessage(pfme.getTimestamp(), pfme.getMessage());
+			break;
+		}
+	}
 
+	/**
+	 * Open a session for streaming. The reader is selected by the session
+	 * file's extension.
+	 * 
+	 * @return an iterator over the session's events that must be closed, or
+	 *         <code>Optional.empty()</code> if the file type is unknown
+	 */
+	public static Optional<SessionEventIterator> openSession(File sessionFile) {
 		if (sessionFile.getName().endsWith("xml")) {
-			events = new XMLSessionReader(sessionFile).load();
+			return Optional.of(new XMLSessionReader(sessionFile).iterator());
 		} else if (sessionFile.getName().endsWith("json")) {
-			events = new JSONSessionReader(sessionFile).load();
+			return Optional.of(new JSONSessionReader(sessionFile).iterator());
+		} else if (sessionFile.getName().endsWith(BinarySessionFormat.EXTENSION)) {
+			return Optional.of(new BinarySessionReader(sessionFile).iterator());
 		} else {
-			System.err.println("Unknown session file type.");
 			return Optional.empty();
 		}
+	}
 
-		if (events == null) {
-			return Optional.empty();
+	/**
+	 * Stream a saved session through a visitor without holding its events in
+	 * memory. <code>visitCamera</code> and <code>visitCameraEnd</code> bracket
+	 * each run of events from the same camera and <code>visitEnd</code> is
+	 * called once all events have been visited.
+	 * 
+	 * @return <code>false</code> if the file type is unknown
+	 */
+	public static boolean visitSession(File sessionFile, EventVisitor visitor) {
+		final Optional<SessionEventIterator> session = openSession(sessionFile);
+
+		if (!session.isPresent()) {
+			System.err.println("Unknown session file type.");
+			return false;
+		}
+
+		try (SessionEventIterator it = session.get()) {
+			final Set<String> visitedCameras = new HashSet<>();
+			String currentCamera = null;
+
+			while (it.hasNext()) {
+				final Event e = it.next();
+
+				if (!e.getCameraName().equals(currentCamera)) {
+					if (currentCamera != null) visitor.visitCameraEnd();
+
+					currentCamera = e.getCameraName();
+					visitedCameras.add(currentCamera);
+					visitor.visitCamera(currentCamera);
+				}
+
+				visitEvent(visitor, e);
+			}
+
+			if (currentCamera != null) visitor.visitCameraEnd();
+
+			// Events are streamed, thus cameras without events are only
+			// known once every event was read and are visited last
+			for (final String cameraName : it.getCameraNames()) {
+				if (visitedCameras.contains(cameraName)) continue;
+
+				visitor.visitCamera(cameraName);
+				visitor.visitCameraEnd();
+			}
+		}
+
+		visitor.visitEnd();
+
+		return true;
+	}
+
+	/**
+	 * Drain an iterator into lists of events keyed by camera name in the order
+	 * the cameras are stored. Cameras without events get an empty list.
+	 */
+	static Map<String, List<Event>> collectEvents(SessionEventIterator it) {
+		final Map<String, List<Event>> events = new LinkedHashMap<>();
+
+		while (it.hasNext()) {
+			final Event e = it.next();
+
+			List<Event> cameraEvents = events.get(e.getCameraName());
+			if (cameraEvents == null) {
+				cameraEvents = new ArrayList<>();
+				events.put(e.getCameraName(), cameraEvents);
+			}
+
+			cameraEvents.add(e);
+		}
+
+		final Map<String, List<Event>> orderedEvents = new LinkedHashMap<>();
+
+		for (final String cameraName : it.getCameraNames()) {
+			final List<Event> cameraEvents = events.remove(cameraName);
+			orderedEvents.put(cameraName, cameraEvents != null ? cameraEvents : new ArrayList<>());
+		}
+
+		// Events of cameras the iterator could not name, e.g. a camera element
+		// without a name
+		orderedEvents.putAll(events);
+
+		return orderedEvents;
+	}
+
+	public static Optional<SessionRecorder> loadSession(File sessionFile) {
+		Map<String, List<Event>> events = null;
+
+		if (sessionFile.getName().endsWith(SessionJournal.JOURNAL_EXTENSION)) {
+			events = SessionJournal.recover(sessionFile);
 		} else {
-			final SessionRecorder sessionRecorder = new SessionRecorder();
-			sessionRecorder.addEvents(events);
-			return Optional.of(sessionRecorder);
+			final Optional<SessionEventIterator> session = openSession(sessionFile);
+
+			if (!session.isPresent()) {
+				System.err.println("Unknown session file type.");
+				return Optional.empty();
+			}
+
+			try (SessionEventIterator it = session.get()) {
+				events = collectEvents(it);
+			}
 		}
+
+		final SessionRecorder sessionRecorder = new SessionRecorder();
+		sessionRecorder.addEvents(events);
+		return Optional.of(sessionRecorder);
 	}
 }
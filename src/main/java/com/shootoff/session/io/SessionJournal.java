@@ -0,0 +1,408 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.json.simple.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.stream.JsonReader;
+import com.shootoff.Closeable;
+import com.shootoff.camera.Shot;
+import com.shootoff.session.Event;
+import com.shootoff.session.SessionListener;
+import com.shootoff.session.SessionRecorder;
+import com.shootoff.util.NamedThreadFactory;
+
+/**
+ * A write-ahead journal for a session that is being recorded. Every event is
+ * appended to disk as one JSON object per line as soon as it is recorded, thus
+ * a crash loses at most the last {@value #SYNC_INTERVAL} ms of a session
+ * instead of the whole session.
+ * 
+ * Recording threads only enqueue events into a bounded queue. A single writer
+ * thread encodes queued events in batches, flushes whenever the queue drains,
+ * and forces the journal to disk periodically, so the journal's memory use is
+ * constant no matter how long the session runs.
+ * 
+ * A journal can be loaded through {@link SessionIO#loadSession(File)} like any
+ * other session file and can be compacted into the existing XML and JSON
+ * formats using {@link #compact(File, File)}.
+ */
+public class SessionJournal implements SessionListener, Closeable {
+	public static final String JOURNAL_EXTENSION = "journal";
+
+	private static final Logger logger = LoggerFactory.getLogger(SessionJournal.class);
+
+	private static final int QUEUE_CAPACITY = 4096;
+	private static final int BATCH_SIZE = 256;
+	private static final long SYNC_INTERVAL = 1000; // ms
+
+	private static final String SUPERSEDED_TYPE = "superseded";
+
+	private final File journalFile;
+	private final FileOutputStream journalStream;
+	private final Writer journalWriter;
+	private final BlockingQueue<JournalRecord> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+	private final Thread writerThread;
+	private final LineEncoder encoder = new LineEncoder();
+
+	private volatile boolean closing = false;
+	private volatile boolean failed = false;
+	private final AtomicLong droppedCount = new AtomicLong(0);
+
+	private static class JournalRecord {
+		private final String cameraName;
+		private final long sequence;
+		private final Optional<Event> event;
+
+		private JournalRecord(String cameraName, long sequence, Optional<Event> event) {
+			this.cameraName = cameraName;
+			this.sequence = sequence;
+			this.event = event;
+		}
+	}
+
+	public SessionJournal(File journalFile) throws IOException {
+		this.journalFile = journalFile;
+
+		final File parent = journalFile.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.exists() && !parent.mkdirs()) {
+			logger.error("Failed to make directory to store session journal: {}", parent.getPath());
+		}
+
+		journalStream = new FileOutputStream(journalFile, true);
+		journalWriter = new BufferedWriter(new OutputStreamWriter(journalStream, StandardCharsets.UTF_8));
+
+		writerThread = new NamedThreadFactory("SessionJournal").newThread(this::writeLoop);
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	public File getJournalFile() {
+		return journalFile;
+	}
+
+	@Override
+	public void eventRecorded(String cameraName, long sequence, Event event) {
+		enqueue(new JournalRecord(cameraName, sequence, Optional.of(event)));
+	}
+
+	@Override
+	public void eventSuperseded(String cameraName, long sequence) {
+		enqueue(new JournalRecord(cameraName, sequence, Optional.empty()));
+	}
+
+	// Called from camera and JavaFX threads, thus it must never wait on the
+	// disk. If the writer fell QUEUE_CAPACITY events behind or failed, events
+	// are dropped from the journal (they are still in the session recorder).
+	private void enqueue(JournalRecord record) {
+		if (closing || failed) return;
+
+		if (!queue.offer(record) && droppedCount.getAndIncrement() == 0) {
+			logger.error("Session journal {} is falling behind, dropping events from the journal",
+					journalFile.getPath());
+		}
+	}
+
+	public boolean hasFailed() {
+		return failed;
+	}
+
+	private void writeLoop() {
+		final List<JournalRecord> batch = new ArrayList<>(BATCH_SIZE);
+		long lastSync = System.currentTimeMillis();
+		boolean unsynced = false;
+
+		try {
+			while (!closing || !queue.isEmpty()) {
+				final JournalRecord first = queue.poll(SYNC_INTERVAL, TimeUnit.MILLISECONDS);
+
+				if (first != null) {
+					batch.add(first);
+					queue.drainTo(batch, BATCH_SIZE - 1);
+
+					for (final JournalRecord record : batch) {
+						journalWriter.write(encoder.encode(record));
+						journalWriter.write('\n');
+					}
+
+					batch.clear();
+					unsynced = true;
+				}
+
+				if (unsynced && queue.isEmpty()) {
+					journalWriter.flush();
+
+					if (System.currentTimeMillis() - lastSync >= SYNC_INTERVAL) {
+						journalStream.getFD().sync();
+						lastSync = System.currentTimeMillis();
+						unsynced = false;
+					}
+				}
+			}
+		} catch (final IOException e) {
+			failed = true;
+			queue.clear();
+			logger.error("Error writing session journal " + journalFile.getPath()
+					+ ", no further events will be journaled", e);
+		} catch (final InterruptedException e) {
+			logger.warn("Session journal writer interrupted with {} events unwritten", queue.size());
+		} finally {
+			try {
+				journalWriter.flush();
+				journalStream.getFD().sync();
+				journalWriter.close();
+			} catch (final IOException e) {
+				logger.error("Error closing session journal", e);
+			}
+		}
+	}
+
+	/**
+	 * Write all queued events, force them to disk, and close the journal.
+	 * Events recorded after this method is called are not journaled.
+	 */
+	@Override
+	public void close() {
+		closing = true;
+
+		try {
+			writerThread.join();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logger.error("Interrupted while closing session journal", e);
+		}
+
+		if (droppedCount.get() > 0)
+			logger.warn("Dropped {} events from session journal {}", droppedCount.get(), journalFile.getPath());
+	}
+
+	// Only used by the writer thread
+	private static class LineEncoder implements EventVisitor {
+		private JSONObject current;
+
+		@SuppressWarnings("unchecked")
+		public String encode(JournalRecord record) {
+			if (record.event.isPresent()) {
+				SessionIO.visitEvent(this, record.event.get());
+			} else {
+				current = new JSONObject();
+				current.put("type", SUPERSEDED_TYPE);
+			}
+
+			current.put("camera", record.cameraName);
+			current.put("sequence", record.sequence);
+
+			return current.toJSONString();
+		}
+
+		@Override
+		public void visitCamera(String cameraName) {}
+
+		@Override
+		public void visitCameraEnd() {}
+
+		@Override
+		public void visitShot(long timestamp, Shot shot, boolean isMalfunction, boolean isReload,
+				Optional<Integer> targetIndex, Optional<Integer> hitRegionIndex, Optional<String> videoString) {
+			current = JSONSessionWriter.encodeShot(timestamp, shot, isMalfunction, isReload, targetIndex,
+					hitRegionIndex, videoString);
+		}
+
+		@Override
+		public void visitTargetAdd(long timestamp, String targetName) {
+			current = JSONSessionWriter.encodeTargetAdd(timestamp, targetName);
+		}
+
+		@Override
+		public void visitTargetRemove(long timestamp, int targetIndex) {
+			current = JSONSessionWriter.encodeTargetRemove(timestamp, targetIndex);
+		}
+
+		@Override
+		public void visitTargetResize(long timestamp, int targetIndex, double newWidth, double newHeight) {
+			current = JSONSessionWriter.encodeTargetResize(timestamp, targetIndex, newWidth, newHeight);
+		}
+
+		@Override
+		public void visitTargetMove(long timestamp, int targetIndex, int newX, int newY) {
+			current = JSONSessionWriter.encodeTargetMove(timestamp, targetIndex, newX, newY);
+		}
+
+		@Override
+		public void visitExerciseFeedMessage(long timestamp, String message) {
+			current = JSONSessionWriter.encodeExerciseFeedMessage(timestamp, message);
+		}
+
+		@Override
+		public void visitEnd() {}
+	}
+
+	/**
+	 * Rebuild the live events of a session from its journal. Events are
+	 * returned in sequence order and superseded events are dropped even if the
+	 * superseded record was written before the event it supersedes. A
+	 * truncated final line, which is what a crash in the middle of a write
+	 * leaves behind, is ignored.
+	 */
+	public static Map<String, List<Event>> recover(File journalFile) {
+		final Map<String, Map<Long, Event>> cameraEvents = new LinkedHashMap<>();
+		final Map<String, Set<Long>> supersededSequences = new HashMap<>();
+
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(new FileInputStream(journalFile), StandardCharsets.UTF_8))) {
+			String line;
+			int lineNumber = 0;
+
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+
+				if (line.isEmpty()) continue;
+
+				try (JsonReader recordReader = new JsonReader(new StringReader(line))) {
+					final Map<String, String> record = JSONSessionReader.readFields(recordReader);
+
+					final String cameraName = record.get("camera");
+					final String type = record.get("type");
+
+					if (cameraName == null || record.get("sequence") == null) continue;
+
+					final long sequence = Long.parseLong(record.get("sequence"));
+
+					if (!cameraEvents.containsKey(cameraName)) cameraEvents.put(cameraName, new TreeMap<>());
+
+					// Events are enqueued from several threads, so a record
+					// superseding an event can be written before the event
+					// itself. Superseded events are removed once every record
+					// was read.
+					if (SUPERSEDED_TYPE.equals(type)) {
+						if (!supersededSequences.containsKey(cameraName))
+							supersededSequences.put(cameraName, new HashSet<>());
+						supersededSequences.get(cameraName).add(sequence);
+					} else {
+						final Optional<Event> event = SessionEventParser.parse(cameraName, type, record);
+						if (event.isPresent()) cameraEvents.get(cameraName).put(sequence, event.get());
+					}
+				} catch (IOException | IllegalStateException | NumberFormatException | NullPointerException e) {
+					logger.warn("Ignoring corrupt record on line {} of session journal {}", lineNumber,
+							journalFile.getPath());
+				}
+			}
+		} catch (final IOException e) {
+			logger.error("Error reading session journal", e);
+		}
+
+		final Map<String, List<Event>> events = new LinkedHashMap<>();
+		for (final Map.Entry<String, Map<Long, Event>> entry : cameraEvents.entrySet()) {
+			final Set<Long> superseded = supersededSequences.get(entry.getKey());
+			if (superseded != null) entry.getValue().keySet().removeAll(superseded);
+
+			events.put(entry.getKey(), new ArrayList<>(entry.getValue().values()));
+		}
+
+		return events;
+	}
+
+	/**
+	 * Convert a journal into a regular session file. The format of the session
+	 * file is selected by its extension in the same way as
+	 * {@link SessionIO#saveSession(SessionRecorder, File)}.
+	 * 
+	 * @return <code>true</code> if the journal contained any events and was
+	 *         written to <code>sessionFile</code>
+	 */
+	public static boolean compact(File journalFile, File sessionFile) {
+		final Map<String, List<Event>> events = recover(journalFile);
+
+		if (events.isEmpty()) return false;
+
+		final SessionRecorder sessionRecorder = new SessionRecorder();
+		sessionRecorder.addEvents(events);
+		SessionIO.saveSession(sessionRecorder, sessionFile);
+
+		return sessionFile.exists();
+	}
+
+	/**
+	 * Compact journals left behind in <code>sessionsFolder</code> by sessions
+	 * that were never stopped (e.g. because ShootOFF crashed) into XML
+	 * sessions, then delete them. Journals that can't be compacted are renamed
+	 * with a <code>.failed</code> suffix instead of being deleted.
+	 */
+	public static void recoverJournals(File sessionsFolder) {
+		final File[] journals = sessionsFolder.listFiles((dir, name) -> name.endsWith("." + JOURNAL_EXTENSION));
+
+		if (journals == null) return;
+
+		for (final File journal : journals) {
+			final String name = journal.getName();
+			final File sessionFile = new File(journal.getParentFile(),
+					name.substring(0, name.length() - JOURNAL_EXTENSION.length()) + "xml");
+
+			if (sessionFile.exists()) {
+				logger.warn("Not recovering session journal {} because {} already exists", journal.getPath(),
+						sessionFile.getPath());
+				continue;
+			}
+
+			if (compact(journal, sessionFile)) {
+				logger.info("Recovered session {} from its journal", sessionFile.getName());
+
+				if (!journal.delete()) logger.error("Failed to delete recovered session journal {}", journal.getPath());
+			} else {
+				// Keep the journal, it may be the only copy of the session,
+				// but set it aside so recovery isn't attempted every start
+				final File failedJournal = new File(journal.getPath() + ".failed");
+
+				if (journal.renameTo(failedJournal)) {
+					logger.error("Failed to recover session journal {}, kept it as {}", journal.getPath(),
+							failedJournal.getPath());
+				} else {
+					logger.error("Failed to recover session journal {}, left it in place", journal.getPath());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,117 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.session.io;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Metadata about one saved session that is cheap to keep for every session in
+ * the sessions folder. Summaries are stored in the {@link SessionCatalog} so
+ * that sessions can be listed and filtered without parsing them.
+ */
+public class SessionSummary {
+	private final String fileName;
+	private final long lastModified;
+	private final long length;
+	private final long date;
+	private final List<String> cameras;
+	private final int shotCount;
+	private final int hitCount;
+	private final long duration;
+	private final List<String> videos;
+
+	public SessionSummary(String fileName, long lastModified, long length, long date, List<String> cameras,
+			int shotCount, int hitCount, long duration, List<String> videos) {
+		this.fileName = fileName;
+		this.lastModified = lastModified;
+		this.length = length;
+		this.date = date;
+		this.cameras = Collections.unmodifiableList(cameras);
+		this.shotCount = shotCount;
+		this.hitCount = hitCount;
+		this.duration = duration;
+		this.videos = Collections.unmodifiableList(videos);
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	/**
+	 * @return the modification time of the session file when it was summarized
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * @return the length of the session file when it was summarized
+	 */
+	public long getLength() {
+		return length;
+	}
+
+	/**
+	 * @return when the session was recorded in milliseconds since the epoch
+	 */
+	public long getDate() {
+		return date;
+	}
+
+	public List<String> getCameras() {
+		return cameras;
+	}
+
+	public int getShotCount() {
+		return shotCount;
+	}
+
+	/**
+	 * @return the number of shots that hit a target
+	 */
+	public int getHitCount() {
+		return hitCount;
+	}
+
+	public double getHitRatio() {
+		if (shotCount == 0) return 0;
+
+		return (double) hitCount / (double) shotCount;
+	}
+
+	/**
+	 * @return the timestamp of the last event in the session in milliseconds
+	 */
+	public long getDuration() {
+		return duration;
+	}
+
+	/**
+	 * @return the names of the video files referenced by shots in the session
+	 */
+	public List<String> getVideos() {
+		return videos;
+	}
+
+	@Override
+	public String toString() {
+		return fileName;
+	}
+}
@@ -15,7 +15,6 @@
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
-
 package com.shootoff.session.io;
 
 import java.io.File;
@@ -23,175 +22,165 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.xml.sax.Attributes;
-import org.xml.sax.SAXException;
-import org.xml.sax.helpers.DefaultHandler;
 
-import com.shootoff.camera.Shot;
-import com.shootoff.camera.Shot.ShotColor;
 import com.shootoff.session.Event;
-import com.shootoff.session.ExerciseFeedMessageEvent;
-import com.shootoff.session.ShotEvent;
-import com.shootoff.session.TargetAddedEvent;
-import com.shootoff.session.TargetMovedEvent;
-import com.shootoff.session.TargetRemovedEvent;
-import com.shootoff.session.TargetResizedEvent;
 
+/**
+ * Reads sessions written by {@link XMLSessionWriter} with a StAX pull parser,
+ * so events are built one at a time as the document is read.
+ */
 public class XMLSessionReader {
-	private final Logger logger = LoggerFactory.getLogger(XMLSessionReader.class);
+	private static final Logger logger = LoggerFactory.getLogger(XMLSessionReader.class);
 
-	private final File sessionFile;
+	private static final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
 
-	private long lastTimestamp;
-	private boolean exerciseFeedMessage = false;
+	private final File sessionFile;
 
 	public XMLSessionReader(File sessionFile) {
 		this.sessionFile = sessionFile;
 	}
 
 	public Map<String, List<Event>> load() {
-		InputStream xmlInput = null;
-		try {
-			xmlInput = new FileInputStream(sessionFile);
-			final SAXParser saxParser = SAXParserFactory.newInstance().newSAXParser();
-			final SessionXMLHandler handler = new SessionXMLHandler();
-			saxParser.parse(xmlInput, handler);
-
-			return handler.getEvents();
-		} catch (IOException | ParserConfigurationException | SAXException e) {
-			logger.error("Error reading XML session", e);
-		} finally {
-			if (xmlInput != null) {
-				try {
-					xmlInput.close();
-				} catch (final IOException e) {
-					logger.error("Error closing XML session opened for reading", e);
-				}
-			}
+		try (SessionEventIterator it = iterator()) {
+			return SessionIO.collectEvents(it);
 		}
+	}
 
-		return new HashMap<>();
+	public SessionEventIterator iterator() {
+		return new XMLEventIterator();
 	}
 
-	private class SessionXMLHandler extends DefaultHandler {
-		private final Map<String, List<Event>> events = new HashMap<>();
+	private class XMLEventIterator implements SessionEventIterator {
+		private InputStream xmlInput;
+		private XMLStreamReader reader;
+		private Optional<Event> next = Optional.empty();
+		private boolean done = false;
 		private String currentCameraName = "";
+		private final List<String> cameraNames = new ArrayList<>();
 
-		public Map<String, List<Event>> getEvents() {
-			return events;
+		private XMLEventIterator() {
+			try {
+				xmlInput = new FileInputStream(sessionFile);
+				synchronized (inputFactory) {
+					reader = inputFactory.createXMLStreamReader(xmlInput, "UTF-8");
+				}
+			} catch (IOException | XMLStreamException e) {
+				logger.error("Error reading XML session", e);
+				close();
+			}
 		}
 
-		@Override
-		public void startElement(String uri, String localName, String qName, Attributes attributes)
-				throws SAXException {
+		private Optional<Event> advance() throws XMLStreamException {
+			while (reader.hasNext()) {
+				if (reader.next() != XMLStreamConstants.START_ELEMENT) continue;
 
-			switch (qName) {
-			case "camera":
-				currentCameraName = attributes.getValue("name");
-				events.put(currentCameraName, new ArrayList<Event>());
-				break;
+				final String elementName = reader.getLocalName();
 
-			case "shot":
-				ShotColor c;
+				if ("session".equals(elementName)) continue;
 
-				if (attributes.getValue("color").equals("0xff0000ff") || attributes.getValue("color").equals("RED")) {
-					c = ShotColor.RED;
+				final Map<String, String> fields = new HashMap<>();
+				for (int i = 0; i < reader.getAttributeCount(); i++) {
+					fields.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
 				}
-				else if (attributes.getValue("color").equals("0xffa500ff") || attributes.getValue("color").equals("INFRARED"))
-				{
-					c = ShotColor.INFRARED;
-				} else {
-					c = ShotColor.GREEN;
-				}
-
-				final Shot shot = new Shot(c, Double.parseDouble(attributes.getValue("x")),
-						Double.parseDouble(attributes.getValue("y")),
-						Long.parseLong(attributes.getValue("shotTimestamp")),
-						Integer.parseInt(attributes.getValue("markerRadius")));
 
-				final boolean isMalfunction = Boolean.parseBoolean(attributes.getValue("isMalfunction"));
-
-				final boolean isReload = Boolean.parseBoolean(attributes.getValue("isReload"));
-
-				Optional<Integer> targetIndex;
-				int index = Integer.parseInt(attributes.getValue("targetIndex"));
-				if (index == -1) {
-					targetIndex = Optional.empty();
-				} else {
-					targetIndex = Optional.of(index);
+				if ("camera".equals(elementName)) {
+					currentCameraName = fields.get("name");
+					if (currentCameraName != null && !cameraNames.contains(currentCameraName))
+						cameraNames.add(currentCameraName);
+					continue;
 				}
 
-				Optional<Integer> hitRegionIndex;
-				index = Integer.parseInt(attributes.getValue("hitRegionIndex"));
-				if (index == -1) {
-					hitRegionIndex = Optional.empty();
-				} else {
-					hitRegionIndex = Optional.of(index);
+				if ("exerciseFeedMessage".equals(elementName)) {
+					fields.put("message", trimMessage(reader.getElementText()));
 				}
 
-				final Optional<String> videoString = Optional.ofNullable(attributes.getValue("videos"));
+				final Optional<Event> e = SessionEventParser.parse(currentCameraName, elementName, fields);
+				if (e.isPresent()) return e;
+			}
 
-				events.get(currentCameraName)
-				.add(new ShotEvent(currentCameraName, Long.parseLong(attributes.getValue("timestamp")), shot,
-						isMalfunction, isReload, targetIndex, hitRegionIndex, videoString));
+			return Optional.empty();
+		}
 
-				break;
+		@Override
+		public boolean hasNext() {
+			if (done) return false;
+			if (next.isPresent()) return true;
+
+			try {
+				next = advance();
+			} catch (XMLStreamException | NumberFormatException | NullPointerException e) {
+				logger.error("Error reading XML session", e);
+				next = Optional.empty();
+			}
 
-			case "targetAdded":
-				events.get(currentCameraName).add(new TargetAddedEvent(currentCameraName,
-						Long.parseLong(attributes.getValue("timestamp")), attributes.getValue("name")));
+			if (!next.isPresent()) close();
 
-				break;
+			return next.isPresent();
+		}
 
-			case "targetRemoved":
-				events.get(currentCameraName)
-				.add(new TargetRemovedEvent(currentCameraName, Long.parseLong(attributes.getValue("timestamp")),
-						Integer.parseInt(attributes.getValue("index"))));
+		@Override
+		public List<String> getCameraNames() {
+			return Collections.unmodifiableList(cameraNames);
+		}
 
-				break;
+		@Override
+		public Event next() {
+			if (!hasNext()) throw new NoSuchElementException();
 
-			case "targetResized":
-				events.get(currentCameraName)
-				.add(new TargetResizedEvent(currentCameraName, Long.parseLong(attributes.getValue("timestamp")),
-						Integer.parseInt(attributes.getValue("index")),
-						Double.parseDouble(attributes.getValue("newWidth")),
-						Double.parseDouble(attributes.getValue("newHeight"))));
+			final Event e = next.get();
+			next = Optional.empty();
+			return e;
+		}
 
-				break;
+		@Override
+		public void close() {
+			done = true;
 
-			case "targetMoved":
-				events.get(currentCameraName)
-				.add(new TargetMovedEvent(currentCameraName, Long.parseLong(attributes.getValue("timestamp")),
-						Integer.parseInt(attributes.getValue("index")),
-						Integer.parseInt(attributes.getValue("newX")),
-						Integer.parseInt(attributes.getValue("newY"))));
-				break;
+			try {
+				if (reader != null) reader.close();
+			} catch (final XMLStreamException e) {
+				logger.error("Error closing XML session opened for reading", e);
+			}
 
-			case "exerciseFeedMessage":
-				lastTimestamp = Long.parseLong(attributes.getValue("timestamp"));
-				exerciseFeedMessage = true;
+			try {
+				if (xmlInput != null) xmlInput.close();
+			} catch (final IOException e) {
+				logger.error("Error closing XML session opened for reading", e);
 			}
+
+			reader = null;
+			xmlInput = null;
 		}
+	}
 
-		@Override
-		public void characters(char ch[], int start, int length) throws SAXException {
-			if (exerciseFeedMessage) {
-				events.get(currentCameraName).add(
-						new ExerciseFeedMessageEvent(currentCameraName, lastTimestamp, new String(ch, start, length)));
+	// XMLSessionWriter puts a line break and indentation after each message
+	// before the closing tag
+	private static String trimMessage(String message) {
+		String trimmed = message;
 
-				exerciseFeedMessage = false;
-			}
+		while (trimmed.endsWith("\t"))
+			trimmed = trimmed.substring(0, trimmed.length() - 1);
+
+		if (trimmed.endsWith("\r\n")) {
+			trimmed = trimmed.substring(0, trimmed.length() - 2);
+		} else if (trimmed.endsWith("\n")) {
+			trimmed = trimmed.substring(0, trimmed.length() - 1);
 		}
+
+		return trimmed;
 	}
 }
@@ -72,7 +72,7 @@ public class XMLSessionWriter implements EventVisitor {
 							+ " x=\"%f\" y=\"%f\" shotTimestamp=\"%d\" markerRadius=\"%d\" isMalfunction=\"%b\""
 							+ " isReload=\"%b\" targetIndex=\"%d\" hitRegionIndex=\"%d\" videos=\"%s\" />%n",
 							timestamp, shot.getPaintColor().toString(), shot.getX(), shot.getY(), shot.getTimestamp(),
-							(int) shot.getMarker().getRadiusX(), isMalfunction, isReload, targIndex, hitRegIndex,
+							shot.getMarkerRadius(), isMalfunction, isReload, targIndex, hitRegIndex,
 							videoString.get()));
 
 		} else {
@@ -81,7 +81,7 @@ public class XMLSessionWriter implements EventVisitor {
 							+ " x=\"%f\" y=\"%f\" shotTimestamp=\"%d\" markerRadius=\"%d\" isMalfunction=\"%b\""
 							+ " isReload=\"%b\" targetIndex=\"%d\" hitRegionIndex=\"%d\" />%n",
 							timestamp, shot.getColor().toString(), shot.getX(), shot.getY(), shot.getTimestamp(),
-							(int) shot.getMarker().getRadiusX(), isMalfunction, isReload, targIndex, hitRegIndex));
+							shot.getMarkerRadius(), isMalfunction, isReload, targIndex, hitRegIndex));
 		}
 	}
 
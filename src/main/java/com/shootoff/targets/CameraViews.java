@@ -6,9 +6,8 @@ import java.util.Optional;
 import com.shootoff.camera.CameraManager;
 import com.shootoff.camera.CameraView;
 import com.shootoff.gui.CanvasManager;
-import com.shootoff.gui.ShotEntry;
+import com.shootoff.gui.ShotTimerModel;
 
-import javafx.collections.ObservableList;
 import javafx.scene.Node;
 import javafx.scene.layout.Pane;
 
@@ -49,5 +48,5 @@ public interface CameraViews {
 
 	void selectCameraView(CameraView cameraView);
 
-	ObservableList<ShotEntry> getShotTimerModel();
+	ShotTimerModel getShotTimerModel();
 }
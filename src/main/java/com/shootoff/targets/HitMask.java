@@ -0,0 +1,123 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.targets;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+
+/**
+ * A packed bit mask of the pixels of an image that are not fully transparent,
+ * used to decide whether a shot on an {@link ImageRegion} hit the visible part
+ * of the image in constant time. Masks are immutable and therefore safe to
+ * share between threads.
+ */
+public final class HitMask {
+	private final int width;
+	private final int height;
+	private final int wordsPerRow;
+	private final long[] bits;
+
+	private HitMask(int width, int height) {
+		this.width = width;
+		this.height = height;
+		wordsPerRow = (width + 63) >>> 6;
+		bits = new long[wordsPerRow * height];
+	}
+
+	/**
+	 * Create a mask of the image at its natural size.
+	 */
+	public static HitMask fromImage(Image image) {
+		final int width = (int) image.getWidth();
+		final int height = (int) image.getHeight();
+		final HitMask mask = new HitMask(width, height);
+		final PixelReader reader = image.getPixelReader();
+
+		if (reader == null) return mask;
+
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				if (reader.getArgb(x, y) >>> 24 != 0) mask.set(x, y);
+			}
+		}
+
+		return mask;
+	}
+
+	/**
+	 * Create a mask of this mask's image rendered at a different size. A
+	 * pixel of the scaled mask is opaque if any pixel of the image it covers
+	 * is, which matches how an area-averaged scaled copy of the image would be
+	 * tested for transparency.
+	 */
+	public HitMask scale(int newWidth, int newHeight) {
+		if (newWidth == width && newHeight == height) return this;
+
+		final HitMask scaled = new HitMask(Math.max(newWidth, 0), Math.max(newHeight, 0));
+
+		if (width == 0 || height == 0) return scaled;
+
+		for (int y = 0; y < scaled.height; y++) {
+			final int sourceMinY = (int) ((long) y * height / scaled.height);
+			final int sourceMaxY = Math.max(sourceMinY + 1, (int) ((long) (y + 1) * height / scaled.height));
+
+			for (int x = 0; x < scaled.width; x++) {
+				final int sourceMinX = (int) ((long) x * width / scaled.width);
+				final int sourceMaxX = Math.max(sourceMinX + 1, (int) ((long) (x + 1) * width / scaled.width));
+
+				if (anySet(sourceMinX, sourceMinY, sourceMaxX, sourceMaxY)) scaled.set(x, y);
+			}
+		}
+
+		return scaled;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return <code>true</code> if the pixel at (x, y) is not fully
+	 *         transparent, <code>false</code> if it is or if the coordinates
+	 *         are outside of the mask
+	 */
+	public boolean isOpaque(int x, int y) {
+		if (x < 0 || y < 0 || x >= width || y >= height) return false;
+
+		return (bits[y * wordsPerRow + (x >>> 6)] & (1L << (x & 63))) != 0;
+	}
+
+	private void set(int x, int y) {
+		bits[y * wordsPerRow + (x >>> 6)] |= 1L << (x & 63);
+	}
+
+	private boolean anySet(int minX, int minY, int maxX, int maxY) {
+		for (int y = minY; y < maxY && y < height; y++) {
+			for (int x = minX; x < maxX && x < width; x++) {
+				if (isOpaque(x, y)) return true;
+			}
+		}
+
+		return false;
+	}
+}
@@ -22,9 +22,11 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.WeakHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +45,23 @@ public class ImageRegion extends ImageView implements TargetRegion {
 
 	private Optional<SpriteAnimation> animation = Optional.empty();
 
+	// Masks by the image they were computed from. Animations swap the
+	// displayed image, so every frame has its own masks. Weak so that frames
+	// that are no longer used can be collected.
+	private final Map<Image, HitMasks> hitMasks = Collections.synchronizedMap(new WeakHashMap<>());
+
+	// The masks of the pixels that can be hit for one image: at the image's
+	// natural size and at the size the region was last hit at
+	private static class HitMasks {
+		private final HitMask natural;
+		private final Optional<HitMask> rendered;
+
+		private HitMasks(HitMask natural, Optional<HitMask> rendered) {
+			this.natural = natural;
+			this.rendered = rendered;
+		}
+	}
+
 	public ImageRegion(final double x, final double y, final File imageFile) throws FileNotFoundException {
 		this(x, y, imageFile, new FileInputStream(imageFile));
 	}
@@ -57,6 +76,16 @@ public class ImageRegion extends ImageView implements TargetRegion {
 		setImage(new Image(imageStream));
 	}
 	
+	// Used for regions created from a target template, which share their
+	// decoded image
+	public ImageRegion(final double x, final double y, final File imageFile, final Image image) {
+		super(image);
+
+		setLayoutX(x);
+		setLayoutY(y);
+		this.imageFile = imageFile;
+	}
+
 	public ImageRegion(Image image) {
 		super(image);
 		this.imageFile = null;
@@ -82,6 +111,67 @@ public class ImageRegion extends ImageView implements TargetRegion {
 		if (animation.isPresent()) animation.get().reset();
 	}
 
+	/**
+	 * Check whether a pixel of this region is visible, i.e. not fully
+	 * transparent, when the region is rendered at the given size. The masks
+	 * used for the check are computed once per image (i.e. per animation
+	 * frame) and rendered size, thus repeated checks are a bit lookup. See
+	 * {@link #precomputeHitMask(Image)} for when the masks are built.
+	 * 
+	 * @param x
+	 *            the x coordinate relative to the region's rendered bounds
+	 * @param y
+	 *            the y coordinate relative to the region's rendered bounds
+	 * @return <code>true</code> if the pixel at (x, y) can be hit
+	 */
+	public boolean isOpaque(int x, int y, int renderedWidth, int renderedHeight) {
+		return getHitMask(renderedWidth, renderedHeight).isOpaque(x, y);
+	}
+
+	private HitMask getHitMask(int renderedWidth, int renderedHeight) {
+		final Image image = getImage();
+		final HitMasks current = hitMasks.get(image);
+
+		if (current != null && current.rendered.isPresent()) {
+			final HitMask rendered = current.rendered.get();
+			if (rendered.getWidth() == renderedWidth && rendered.getHeight() == renderedHeight) return rendered;
+		}
+
+		final HitMask natural = current != null ? current.natural : HitMask.fromImage(image);
+		final HitMask rendered = natural.scale(renderedWidth, renderedHeight);
+		hitMasks.put(image, new HitMasks(natural, Optional.of(rendered)));
+
+		return rendered;
+	}
+
+	/**
+	 * Compute the mask of the pixels that can be hit in <code>image</code> at
+	 * its natural size if it wasn't computed yet. Reading the image's pixels
+	 * is the slow part of building the masks, thus targets do this in the
+	 * background when they are created instead of on the first shot at the
+	 * region. Only the frame that is shown first is worth computing ahead of
+	 * time for animations: later frames are decoded when they are shown and
+	 * their masks are built on the first hit test against them.
+	 * 
+	 * @param image
+	 *            the image this region shows
+	 */
+	public void precomputeHitMask(Image image) {
+		if (image == null) return;
+
+		hitMasks.computeIfAbsent(image, (i) -> new HitMasks(HitMask.fromImage(i), Optional.empty()));
+	}
+
+	/**
+	 * Drop the masks for the rendered size because the region was resized.
+	 */
+	public void invalidateHitMask() {
+		synchronized (hitMasks) {
+			for (final Map.Entry<Image, HitMasks> masks : hitMasks.entrySet())
+				masks.setValue(new HitMasks(masks.getValue().natural, Optional.empty()));
+		}
+	}
+
 	@Override
 	public void changeWidth(final double widthDelta) {}
 
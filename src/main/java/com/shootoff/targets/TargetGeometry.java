@@ -0,0 +1,301 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.targets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javafx.collections.ObservableList;
+import javafx.geometry.Bounds;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.transform.NonInvertibleTransformException;
+import javafx.scene.transform.Transform;
+
+/**
+ * An immutable snapshot of where a target and its regions are on the canvas.
+ * Snapshots are captured from the target's scene graph nodes whenever the
+ * target changes and are then published as a whole, so hit-testing against a
+ * snapshot never reads live <code>Node</code> state and is safe on any thread.
+ * 
+ * Regions keep the index of their node in the target's group so that results
+ * can be related back to the scene graph.
+ */
+public final class TargetGeometry {
+	private final double minX;
+	private final double minY;
+	private final double maxX;
+	private final double maxY;
+	private final List<RegionGeometry> regions;
+
+	private TargetGeometry(Bounds bounds, List<RegionGeometry> regions) {
+		minX = bounds.getMinX();
+		minY = bounds.getMinY();
+		maxX = bounds.getMaxX();
+		maxY = bounds.getMaxY();
+		this.regions = Collections.unmodifiableList(regions);
+	}
+
+	/**
+	 * Capture the geometry of a target. This reads node state, thus it must
+	 * be called on the thread that owns the target's nodes.
+	 */
+	public static TargetGeometry capture(Group targetGroup) {
+		final Transform localToParent = targetGroup.getLocalToParentTransform();
+
+		Transform parentToLocal;
+		try {
+			parentToLocal = localToParent.createInverse();
+		} catch (final NonInvertibleTransformException e) {
+			// The target was scaled down to nothing, it can't be hit
+			parentToLocal = null;
+		}
+
+		final ObservableList<Node> children = targetGroup.getChildren();
+		final List<RegionGeometry> regions = new ArrayList<>(children.size());
+
+		for (int i = 0; i < children.size(); i++) {
+			final Node node = children.get(i);
+
+			if (!(node instanceof TargetRegion)) continue;
+
+			final Bounds bounds = localToParent.transform(node.getBoundsInParent());
+			regions.add(RegionGeometry.capture(i, (TargetRegion) node, bounds, parentToLocal));
+		}
+
+		return new TargetGeometry(targetGroup.getBoundsInParent(), regions);
+	}
+
+	/**
+	 * @return <code>true</code> if (x, y) in canvas coordinates is within the
+	 *         target's bounds
+	 */
+	public boolean contains(double x, double y) {
+		return x >= minX && x <= maxX && y >= minY && y <= maxY;
+	}
+
+	/**
+	 * @return the target's regions in the order of their nodes, thus the last
+	 *         region is on top
+	 */
+	public List<RegionGeometry> getRegions() {
+		return regions;
+	}
+
+	public static abstract class RegionGeometry {
+		private final int childIndex;
+		private final TargetRegion region;
+		private final double minX;
+		private final double minY;
+		private final double maxX;
+		private final double maxY;
+
+		// Canvas to target group coordinates, null if not invertible
+		private final double[] parentToLocal;
+
+		private RegionGeometry(int childIndex, TargetRegion region, Bounds bounds, Transform parentToLocal) {
+			this.childIndex = childIndex;
+			this.region = region;
+			minX = bounds.getMinX();
+			minY = bounds.getMinY();
+			maxX = bounds.getMaxX();
+			maxY = bounds.getMaxY();
+
+			if (parentToLocal == null) {
+				this.parentToLocal = null;
+			} else {
+				this.parentToLocal = new double[] { parentToLocal.getMxx(), parentToLocal.getMxy(),
+						parentToLocal.getTx(), parentToLocal.getMyx(), parentToLocal.getMyy(), parentToLocal.getTy() };
+			}
+		}
+
+		private static RegionGeometry capture(int childIndex, TargetRegion region, Bounds bounds,
+				Transform parentToLocal) {
+			switch (region.getType()) {
+			case RECTANGLE:
+				final RectangleRegion rectangle = (RectangleRegion) region;
+				return new RectangleGeometry(childIndex, region, bounds, parentToLocal, rectangle.getX(),
+						rectangle.getY(), rectangle.getWidth(), rectangle.getHeight());
+
+			case ELLIPSE:
+				final EllipseRegion ellipse = (EllipseRegion) region;
+				return new EllipseGeometry(childIndex, region, bounds, parentToLocal, ellipse.getCenterX(),
+						ellipse.getCenterY(), ellipse.getRadiusX(), ellipse.getRadiusY());
+
+			case POLYGON:
+				final List<Double> points = ((PolygonRegion) region).getPoints();
+				final double[] coordinates = new double[points.size()];
+				for (int i = 0; i < coordinates.length; i++)
+					coordinates[i] = points.get(i);
+
+				return new PolygonGeometry(childIndex, region, bounds, parentToLocal, coordinates);
+
+			case IMAGE:
+				return new ImageGeometry(childIndex, region, bounds, parentToLocal);
+
+			default:
+				throw new AssertionError("Unexpected region type " + region.getType());
+			}
+		}
+
+		/**
+		 * @return the index of the region's node in the target's group
+		 */
+		public int getChildIndex() {
+			return childIndex;
+		}
+
+		public TargetRegion getRegion() {
+			return region;
+		}
+
+		public double getMinX() {
+			return minX;
+		}
+
+		public double getMinY() {
+			return minY;
+		}
+
+		public double getMaxX() {
+			return maxX;
+		}
+
+		public double getMaxY() {
+			return maxY;
+		}
+
+		/**
+		 * @return <code>true</code> if (x, y) in canvas coordinates is within
+		 *         the region's bounding box
+		 */
+		public boolean boundsContain(double x, double y) {
+			return x >= minX && x <= maxX && y >= minY && y <= maxY;
+		}
+
+		/**
+		 * @return <code>true</code> if (x, y) in canvas coordinates is on a
+		 *         part of the region that can be hit
+		 */
+		public boolean contains(double x, double y) {
+			if (!boundsContain(x, y) || parentToLocal == null) return false;
+
+			final double localX = parentToLocal[0] * x + parentToLocal[1] * y + parentToLocal[2];
+			final double localY = parentToLocal[3] * x + parentToLocal[4] * y + parentToLocal[5];
+
+			return shapeContains(x, y, localX, localY);
+		}
+
+		protected abstract boolean shapeContains(double x, double y, double localX, double localY);
+	}
+
+	private static class RectangleGeometry extends RegionGeometry {
+		private final double x;
+		private final double y;
+		private final double width;
+		private final double height;
+
+		private RectangleGeometry(int childIndex, TargetRegion region, Bounds bounds, Transform parentToLocal,
+				double x, double y, double width, double height) {
+			super(childIndex, region, bounds, parentToLocal);
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+		}
+
+		@Override
+		protected boolean shapeContains(double canvasX, double canvasY, double localX, double localY) {
+			return localX >= x && localX <= x + width && localY >= y && localY <= y + height;
+		}
+	}
+
+	private static class EllipseGeometry extends RegionGeometry {
+		private final double centerX;
+		private final double centerY;
+		private final double radiusX;
+		private final double radiusY;
+
+		private EllipseGeometry(int childIndex, TargetRegion region, Bounds bounds, Transform parentToLocal,
+				double centerX, double centerY, double radiusX, double radiusY) {
+			super(childIndex, region, bounds, parentToLocal);
+			this.centerX = centerX;
+			this.centerY = centerY;
+			this.radiusX = radiusX;
+			this.radiusY = radiusY;
+		}
+
+		@Override
+		protected boolean shapeContains(double canvasX, double canvasY, double localX, double localY) {
+			if (radiusX <= 0 || radiusY <= 0) return false;
+
+			final double dx = (localX - centerX) / radiusX;
+			final double dy = (localY - centerY) / radiusY;
+
+			return dx * dx + dy * dy <= 1.0;
+		}
+	}
+
+	private static class PolygonGeometry extends RegionGeometry {
+		private final double[] points;
+
+		private PolygonGeometry(int childIndex, TargetRegion region, Bounds bounds, Transform parentToLocal,
+				double[] points) {
+			super(childIndex, region, bounds, parentToLocal);
+			this.points = points;
+		}
+
+		// Even-odd ray casting, the fill rule polygons are drawn with
+		@Override
+		protected boolean shapeContains(double canvasX, double canvasY, double localX, double localY) {
+			boolean inside = false;
+			final int vertices = points.length / 2;
+
+			for (int i = 0, j = vertices - 1; i < vertices; j = i++) {
+				final double xi = points[2 * i], yi = points[2 * i + 1];
+				final double xj = points[2 * j], yj = points[2 * j + 1];
+
+				if ((yi > localY) != (yj > localY) && localX < (xj - xi) * (localY - yi) / (yj - yi) + xi) {
+					inside = !inside;
+				}
+			}
+
+			return inside;
+		}
+	}
+
+	private static class ImageGeometry extends RegionGeometry {
+		private ImageGeometry(int childIndex, TargetRegion region, Bounds bounds, Transform parentToLocal) {
+			super(childIndex, region, bounds, parentToLocal);
+		}
+
+		// Images are tested against their hit mask at the rendered size
+		// instead of their shape. ImageRegion's masks are thread-safe and
+		// follow the frames of animated images.
+		@Override
+		protected boolean shapeContains(double canvasX, double canvasY, double localX, double localY) {
+			final int adjustedX = (int) (canvasX - getMinX());
+			final int adjustedY = (int) (canvasY - getMinY());
+
+			return ((ImageRegion) getRegion()).isOpaque(adjustedX, adjustedY, (int) (getMaxX() - getMinX()),
+					(int) (getMaxY() - getMinY()));
+		}
+	}
+}
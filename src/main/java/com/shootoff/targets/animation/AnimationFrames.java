@@ -0,0 +1,37 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.targets.animation;
+
+import javafx.scene.image.Image;
+
+/**
+ * The frames of an animation. Frames may be shared by any number of
+ * animations, each of which keeps its own position in the frames.
+ */
+public interface AnimationFrames {
+	int getFrameCount();
+
+	Image getFrame(int frameNumber);
+
+	/**
+	 * @return how long the frame is shown in milliseconds, or a value less
+	 *         than one if the source does not specify a delay
+	 */
+	int getDelay(int frameNumber);
+}
@@ -0,0 +1,197 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.targets.animation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.jar.JarFile;
+
+/**
+ * Decoded animation frames shared by every region that shows the same source.
+ * Sources are keyed by URL and their modification time (or by name and
+ * contents for GIFs that were read out of another file), so a GIF is only
+ * decoded once no matter how many targets use it. The store is bounded by the
+ * memory the frames could take once fully decoded and evicts the least
+ * recently used sources first. Evicted frames stay alive for as long as an
+ * animation still uses them.
+ */
+public final class FrameStore {
+	private static final long MAXIMUM_CACHED_BYTES = 128L * 1024 * 1024;
+
+	private static final Map<String, CachedFrames> cache = new LinkedHashMap<>(16, 0.75f, true);
+	private static long cachedBytes = 0;
+
+	private static class CachedFrames {
+		private final long version;
+		private final GifFrames frames;
+
+		private CachedFrames(long version, GifFrames frames) {
+			this.version = version;
+			this.frames = frames;
+		}
+	}
+
+	private FrameStore() {}
+
+	/**
+	 * Get the frames of a GIF file or resource, decoding its metadata if it
+	 * isn't already cached. Frames themselves are decoded when they are
+	 * first shown.
+	 */
+	public static AnimationFrames getGifFrames(URL source) throws IOException {
+		final String key = source.toExternalForm();
+		final long lastModified = getLastModified(source);
+
+		final Optional<GifFrames> cached = getCached(key, lastModified);
+		if (cached.isPresent()) return cached.get();
+
+		final URLConnection connection = source.openConnection();
+		// Don't keep plugin jars open through the JAR cache
+		connection.setUseCaches(false);
+
+		final GifFrames frames;
+		try (InputStream is = connection.getInputStream()) {
+			frames = new GifFrames(readFully(is));
+		}
+
+		return cache(key, lastModified, frames);
+	}
+
+	/**
+	 * Get the frames of a GIF that was stored inside another file (e.g. a
+	 * course bundle). The frames are shared with every other GIF that has the
+	 * same name and contents.
+	 * 
+	 * @param sourceName
+	 *            the file the GIF was originally loaded from
+	 */
+	public static AnimationFrames getGifFrames(String sourceName, byte[] gif) throws IOException {
+		final String key = "stored:" + sourceName;
+		final long contentHash = Arrays.hashCode(gif);
+
+		final Optional<GifFrames> cached = getCached(key, contentHash);
+		if (cached.isPresent() && Arrays.equals(cached.get().getEncoded(), gif)) return cached.get();
+
+		return cache(key, contentHash, new GifFrames(gif));
+	}
+
+	/**
+	 * @return the GIF that <code>frames</code> were decoded from, if they came
+	 *         from this store
+	 */
+	public static Optional<byte[]> getEncodedGif(AnimationFrames frames) {
+		if (frames instanceof GifFrames) return Optional.of(((GifFrames) frames).getEncoded());
+
+		return Optional.empty();
+	}
+
+	private static Optional<GifFrames> getCached(String key, long version) {
+		synchronized (cache) {
+			final CachedFrames cached = cache.get(key);
+			if (cached != null && cached.version == version) return Optional.of(cached.frames);
+		}
+
+		return Optional.empty();
+	}
+
+	private static GifFrames cache(String key, long version, GifFrames frames) {
+		synchronized (cache) {
+			final CachedFrames replaced = cache.put(key, new CachedFrames(version, frames));
+			if (replaced != null) cachedBytes -= replaced.frames.getMaximumSize();
+			cachedBytes += frames.getMaximumSize();
+
+			// Always keep the newest source even if it is larger than the
+			// store on its own
+			for (final Iterator<CachedFrames> it = cache.values().iterator(); it.hasNext()
+					&& cachedBytes > MAXIMUM_CACHED_BYTES && cache.size() > 1;) {
+				final CachedFrames eldest = it.next();
+				if (eldest.frames == frames) continue;
+
+				cachedBytes -= eldest.frames.getMaximumSize();
+				it.remove();
+			}
+		}
+
+		return frames;
+	}
+
+	// URLConnection.getLastModified() opens the file or jar behind the URL and
+	// only closes it once the connection's stream is read and closed
+	private static long getLastModified(URL source) throws IOException {
+		try {
+			if ("file".equals(source.getProtocol())) return new File(source.toURI()).lastModified();
+		} catch (final URISyntaxException | IllegalArgumentException e) {
+			// Fall back to the connection below
+		}
+
+		final URLConnection connection = source.openConnection();
+		connection.setUseCaches(false);
+
+		if (connection instanceof JarURLConnection) {
+			final JarURLConnection jarConnection = (JarURLConnection) connection;
+			// Not shared with other connections because caches are off
+			try (JarFile jarFile = jarConnection.getJarFile()) {
+				return jarConnection.getJarEntry().getTime();
+			}
+		}
+
+		try {
+			return connection.getLastModified();
+		} finally {
+			connection.getInputStream().close();
+		}
+	}
+
+	/**
+	 * Read the frames of a GIF that has no stable location, thus the frames
+	 * are not cached.
+	 */
+	public static AnimationFrames readGifFrames(InputStream gifStream) throws IOException {
+		return new GifFrames(readFully(gifStream));
+	}
+
+	public static void clear() {
+		synchronized (cache) {
+			cache.clear();
+			cachedBytes = 0;
+		}
+	}
+
+	private static byte[] readFully(InputStream is) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[8192];
+
+		int read;
+		while ((read = is.read(buffer)) != -1)
+			bytes.write(buffer, 0, read);
+
+		return bytes.toByteArray();
+	}
+}
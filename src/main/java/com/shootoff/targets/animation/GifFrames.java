@@ -0,0 +1,233 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.targets.animation;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import com.shootoff.util.SwingFXUtils;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+
+/**
+ * The frames of a GIF, decoded on demand. Only the frame count and the
+ * metadata of each frame are read up front. Frames are composited in order
+ * the first time an animation reaches them, so a target that never animates
+ * only ever decodes its first frame. The decoder is released once the last
+ * frame has been decoded.
+ */
+class GifFrames implements AnimationFrames {
+	private static final Logger logger = LoggerFactory.getLogger(GifFrames.class);
+
+	// Kept so that the GIF can be stored without re-encoding its frames
+	private final byte[] gif;
+	private final int width;
+	private final int height;
+	private final int[] delays;
+	private final String[] disposals;
+	private final Image[] frames;
+
+	// Decoding state, null once every frame has been decoded
+	private ImageReader reader;
+	private BufferedImage master;
+	private Graphics2D masterGraphics;
+	// The last composited frame that later frames can be restored to
+	private BufferedImage restorePoint;
+	private int decodedFrames = 0;
+
+	GifFrames(byte[] gif) throws IOException {
+		this.gif = gif;
+		reader = ImageIO.getImageReadersByFormatName("gif").next();
+		reader.setInput(ImageIO.createImageInputStream(new ByteArrayInputStream(gif)));
+
+		final int frameCount = reader.getNumImages(true);
+		if (frameCount < 1) {
+			reader.dispose();
+			throw new IOException("GIF does not contain any frames");
+		}
+
+		int width = -1;
+		int height = -1;
+
+		final IIOMetadata metadata = reader.getStreamMetadata();
+		if (metadata != null) {
+			final IIOMetadataNode globalRoot = (IIOMetadataNode) metadata
+					.getAsTree(metadata.getNativeMetadataFormatName());
+
+			final NodeList globalScreenDescriptor = globalRoot.getElementsByTagName("LogicalScreenDescriptor");
+
+			if (globalScreenDescriptor.getLength() > 0) {
+				final IIOMetadataNode screenDescriptor = (IIOMetadataNode) globalScreenDescriptor.item(0);
+
+				if (screenDescriptor != null) {
+					width = Integer.parseInt(screenDescriptor.getAttribute("logicalScreenWidth"));
+					height = Integer.parseInt(screenDescriptor.getAttribute("logicalScreenHeight"));
+				}
+			}
+		}
+
+		if (width == -1 || height == -1) {
+			width = reader.getWidth(0);
+			height = reader.getHeight(0);
+		}
+
+		this.width = width;
+		this.height = height;
+
+		delays = new int[frameCount];
+		disposals = new String[frameCount];
+		frames = new Image[frameCount];
+
+		for (int i = 0; i < frameCount; i++) {
+			final IIOMetadataNode gce = getGraphicControlExtension(i);
+			delays[i] = Integer.parseInt(gce.getAttribute("delayTime")) * 10;
+			disposals[i] = gce.getAttribute("disposalMethod");
+		}
+	}
+
+	/**
+	 * @return the most memory the frames can take once they are all decoded
+	 */
+	long getMaximumSize() {
+		return gif.length + 4L * width * height * frames.length;
+	}
+
+	byte[] getEncoded() {
+		return gif;
+	}
+
+	@Override
+	public int getFrameCount() {
+		return frames.length;
+	}
+
+	@Override
+	public int getDelay(int frameNumber) {
+		return delays[frameNumber];
+	}
+
+	@Override
+	public synchronized Image getFrame(int frameNumber) {
+		while (decodedFrames <= frameNumber)
+			decodeNextFrame();
+
+		return frames[frameNumber];
+	}
+
+	private IIOMetadataNode getGraphicControlExtension(int frameIndex) throws IOException {
+		final IIOMetadataNode root = (IIOMetadataNode) reader.getImageMetadata(frameIndex)
+				.getAsTree("javax_imageio_gif_image_1.0");
+		return (IIOMetadataNode) root.getElementsByTagName("GraphicControlExtension").item(0);
+	}
+
+	// Compositing is from http://stackoverflow.com/a/17269591
+	private void decodeNextFrame() {
+		final int frameIndex = decodedFrames;
+
+		try {
+			final BufferedImage image = reader.read(frameIndex);
+
+			int x = 0;
+			int y = 0;
+
+			if (master == null) {
+				master = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+				masterGraphics = master.createGraphics();
+				masterGraphics.setBackground(new Color(0, 0, 0, 0));
+			} else {
+				final NodeList children = reader.getImageMetadata(frameIndex).getAsTree("javax_imageio_gif_image_1.0")
+						.getChildNodes();
+				for (int nodeIndex = 0; nodeIndex < children.getLength(); nodeIndex++) {
+					final Node nodeItem = children.item(nodeIndex);
+					if (nodeItem.getNodeName().equals("ImageDescriptor")) {
+						final NamedNodeMap map = nodeItem.getAttributes();
+						x = Integer.parseInt(map.getNamedItem("imageLeftPosition").getNodeValue());
+						y = Integer.parseInt(map.getNamedItem("imageTopPosition").getNodeValue());
+					}
+				}
+			}
+
+			masterGraphics.drawImage(image, x, y, null);
+
+			final BufferedImage copy = copy(master);
+			frames[frameIndex] = SwingFXUtils.toFXImage(copy, null);
+
+			final String disposal = disposals[frameIndex];
+			if (disposal.equals("restoreToPrevious")) {
+				masterGraphics.dispose();
+				master = restorePoint == null ? new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB)
+						: copy(restorePoint);
+				masterGraphics = master.createGraphics();
+				masterGraphics.setBackground(new Color(0, 0, 0, 0));
+			} else {
+				restorePoint = copy;
+
+				if (disposal.equals("restoreToBackgroundColor")) {
+					masterGraphics.clearRect(x, y, image.getWidth(), image.getHeight());
+				}
+			}
+		} catch (final IOException e) {
+			logger.error("Failed to decode GIF frame " + frameIndex, e);
+
+			// Show the last good frame for the rest of the animation instead
+			// of failing every time the animation reaches this frame
+			final Image lastFrame = frameIndex > 0 ? frames[frameIndex - 1]
+					: new WritableImage(Math.max(width, 1), Math.max(height, 1));
+			for (int i = frameIndex; i < frames.length; i++)
+				frames[i] = lastFrame;
+
+			decodedFrames = frames.length;
+			releaseDecoder();
+			return;
+		}
+
+		decodedFrames++;
+
+		if (decodedFrames == frames.length) releaseDecoder();
+	}
+
+	private void releaseDecoder() {
+		reader.dispose();
+		reader = null;
+
+		if (masterGraphics != null) masterGraphics.dispose();
+		masterGraphics = null;
+		master = null;
+		restorePoint = null;
+	}
+
+	private static BufferedImage copy(BufferedImage image) {
+		return new BufferedImage(image.getColorModel(), image.copyData(null), image.isAlphaPremultiplied(), null);
+	}
+}
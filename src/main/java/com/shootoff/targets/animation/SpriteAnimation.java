@@ -23,26 +23,58 @@ import javafx.animation.Transition;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 
+/**
+ * Plays a sequence of frames in an <code>ImageView</code>. Each animation has
+ * its own position and direction in the frames, thus animations can share
+ * frames, e.g. from the {@link FrameStore}.
+ */
 public class SpriteAnimation extends Transition {
 	public static final int DEFAULT_DELAY = 100;
 
 	private final ImageView imageView;
-	private final ImageFrame[] frames;
+	private final AnimationFrames frames;
 	private final int count;
 
 	private int lastIndex;
 	private boolean isReversed = false;
 
+	private static class ArrayFrames implements AnimationFrames {
+		private final ImageFrame[] frames;
+
+		private ArrayFrames(ImageFrame[] frames) {
+			this.frames = new ImageFrame[frames.length];
+			System.arraycopy(frames, 0, this.frames, 0, frames.length);
+		}
+
+		@Override
+		public int getFrameCount() {
+			return frames.length;
+		}
+
+		@Override
+		public Image getFrame(int frameNumber) {
+			return frames[frameNumber].getImage();
+		}
+
+		@Override
+		public int getDelay(int frameNumber) {
+			return frames[frameNumber].getDelay();
+		}
+	}
+
 	public SpriteAnimation(ImageView imageView, ImageFrame[] frames) {
+		this(imageView, new ArrayFrames(frames));
+	}
+
+	public SpriteAnimation(ImageView imageView, AnimationFrames frames) {
 		this.imageView = imageView;
-		this.frames = new ImageFrame[frames.length];
-		System.arraycopy(frames, 0, this.frames, 0, frames.length);
-		count = frames.length;
+		this.frames = frames;
+		count = frames.getFrameCount();
 		setInterpolator(Interpolator.LINEAR);
 	}
 
 	public Image getFrame(int frameNumber) {
-		return frames[frameNumber].getImage();
+		return frames.getFrame(frameNumber);
 	}
 
 	public void setCurrentFrame(int frameNumber) {
@@ -50,11 +82,11 @@ public class SpriteAnimation extends Transition {
 	}
 
 	public Image getFirstFrame() {
-		return isReversed ? frames[frames.length - 1].getImage() : frames[0].getImage();
+		return isReversed ? frames.getFrame(count - 1) : frames.getFrame(0);
 	}
 
 	public int getFrameCount() {
-		return frames.length;
+		return count;
 	}
 
 	public void reset() {
@@ -70,7 +102,7 @@ public class SpriteAnimation extends Transition {
 	protected void interpolate(double k) {
 		final int index = Math.min((int) Math.floor(k * count), count - 1);
 		if (index != lastIndex) {
-			imageView.setImage(frames[index].getImage());
+			imageView.setImage(frames.getFrame(index));
 			lastIndex = index;
 		}
 	}
@@ -79,4 +111,4 @@ public class SpriteAnimation extends Transition {
 		isReversed = !isReversed;
 		setRate(getRate() * -1);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,320 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.shootoff.targets.io;
+
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.shootoff.targets.animation.AnimationFrames;
+import com.shootoff.targets.animation.FrameStore;
+import com.shootoff.targets.io.TargetTemplate.EllipseTemplate;
+import com.shootoff.targets.io.TargetTemplate.ImageTemplate;
+import com.shootoff.targets.io.TargetTemplate.PolygonTemplate;
+import com.shootoff.targets.io.TargetTemplate.RectangleTemplate;
+import com.shootoff.targets.io.TargetTemplate.RegionTemplate;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+/**
+ * Writes target templates to, and reads them back from, a compact binary
+ * form that is embedded in other files (e.g. course bundles). Unlike target
+ * files, still images are stored already decoded as premultiplied BGRA
+ * pixels, which is the format JavaFX uses internally, thus reading a template
+ * back is a straight copy of its pixels with no image decoding. Animated GIFs
+ * are stored as they are on disk and go through the {@link FrameStore}, so
+ * their frames are still only decoded when they are first shown.
+ * 
+ * Templates are read from a {@link ByteBuffer} holding the whole file they
+ * are embedded in. Values are stored big-endian.
+ */
+public final class PackedTargetIO {
+	private static final byte RECTANGLE = 1;
+	private static final byte ELLIPSE = 2;
+	private static final byte POLYGON = 3;
+	private static final byte IMAGE = 4;
+
+	private static final byte STILL = 1;
+	private static final byte GIF = 2;
+
+	private static final int BYTES_PER_PIXEL = 4;
+
+	private PackedTargetIO() {}
+
+	public static void writeTemplate(TargetTemplate template, DataOutput out) throws IOException {
+		writeTags(template.getTargetTags(), out);
+
+		final List<RegionTemplate> regions = template.getRegionTemplates();
+		out.writeInt(regions.size());
+
+		for (final RegionTemplate region : regions) {
+			if (region instanceof RectangleTemplate) {
+				final RectangleTemplate r = (RectangleTemplate) region;
+				out.writeByte(RECTANGLE);
+				writeTags(r.tags, out);
+				out.writeDouble(r.x);
+				out.writeDouble(r.y);
+				out.writeDouble(r.width);
+				out.writeDouble(r.height);
+				writeColor(r.fill, out);
+			} else if (region instanceof EllipseTemplate) {
+				final EllipseTemplate e = (EllipseTemplate) region;
+				out.writeByte(ELLIPSE);
+				writeTags(e.tags, out);
+				out.writeDouble(e.centerX);
+				out.writeDouble(e.centerY);
+				out.writeDouble(e.radiusX);
+				out.writeDouble(e.radiusY);
+				writeColor(e.fill, out);
+			} else if (region instanceof PolygonTemplate) {
+				final PolygonTemplate p = (PolygonTemplate) region;
+				out.writeByte(POLYGON);
+				writeTags(p.tags, out);
+				out.writeInt(p.points.length);
+				for (final double point : p.points)
+					out.writeDouble(point);
+				writeColor(p.fill, out);
+			} else if (region instanceof ImageTemplate) {
+				final ImageTemplate i = (ImageTemplate) region;
+				out.writeByte(IMAGE);
+				writeTags(i.tags, out);
+				out.writeDouble(i.x);
+				out.writeDouble(i.y);
+				writeString(i.imageFile.getPath(), out);
+
+				// Animated images only store the GIF, the region's image is
+				// always its first frame
+				if (i.frames.isPresent()) {
+					final Optional<byte[]> gif = FrameStore.getEncodedGif(i.frames.get());
+					if (!gif.isPresent())
+						throw new IOException("Animated image " + i.imageFile.getPath() + " is not a GIF");
+
+					out.writeByte(GIF);
+					out.writeInt(gif.get().length);
+					out.write(gif.get());
+				} else {
+					out.writeByte(STILL);
+					writeImage(i.image, out);
+				}
+			} else {
+				throw new IOException("Unknown region template type " + region.getClass().getName());
+			}
+		}
+	}
+
+	/**
+	 * Read a template written by {@link #writeTemplate(TargetTemplate, DataOutput)}
+	 * starting at the buffer's current position. The buffer's position is left
+	 * just after the template.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if the buffer does not contain a valid template
+	 */
+	public static TargetTemplate readTemplate(ByteBuffer in) {
+		final Map<String, String> targetTags = readTags(in);
+
+		// A region is at least its type and tag count
+		final int regionCount = readLength(in, 1 + Integer.BYTES);
+		final List<RegionTemplate> regions = new ArrayList<>(regionCount);
+
+		for (int r = 0; r < regionCount; r++) {
+			final byte type = in.get();
+			final Map<String, String> tags = readTags(in);
+
+			switch (type) {
+			case RECTANGLE:
+				regions.add(new RectangleTemplate(in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(),
+						readColor(in), tags));
+				break;
+
+			case ELLIPSE:
+				regions.add(new EllipseTemplate(in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble(),
+						readColor(in), tags));
+				break;
+
+			case POLYGON: {
+				final double[] points = new double[readLength(in, Double.BYTES)];
+				for (int p = 0; p < points.length; p++)
+					points[p] = in.getDouble();
+				regions.add(new PolygonTemplate(points, readColor(in), tags));
+			}
+			break;
+
+			case IMAGE: {
+				final double x = in.getDouble();
+				final double y = in.getDouble();
+				final File imageFile = new File(readString(in));
+				final byte imageType = in.get();
+
+				if (imageType == GIF) {
+					final byte[] gif = new byte[readLength(in, 1)];
+					in.get(gif);
+
+					final AnimationFrames frames;
+					try {
+						frames = FrameStore.getGifFrames(imageFile.getPath(), gif);
+					} catch (final IOException e) {
+						throw new IllegalArgumentException("Invalid packed GIF " + imageFile.getPath(), e);
+					}
+
+					regions.add(new ImageTemplate(x, y, imageFile, frames.getFrame(0), Optional.of(frames), tags));
+				} else if (imageType == STILL) {
+					regions.add(new ImageTemplate(x, y, imageFile, readImage(in), Optional.empty(), tags));
+				} else {
+					throw new IllegalArgumentException("Unknown packed image type " + imageType);
+				}
+			}
+			break;
+
+			default:
+				throw new IllegalArgumentException("Unknown packed region type " + type);
+			}
+		}
+
+		return new TargetTemplate(regions, targetTags);
+	}
+
+	/**
+	 * @return every image file the template's regions were loaded from
+	 */
+	public static List<File> getImageFiles(TargetTemplate template) {
+		final List<File> imageFiles = new ArrayList<>();
+
+		for (final RegionTemplate region : template.getRegionTemplates()) {
+			if (region instanceof ImageTemplate) imageFiles.add(((ImageTemplate) region).imageFile);
+		}
+
+		return imageFiles;
+	}
+
+	public static void writeString(String value, DataOutput out) throws IOException {
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	public static String readString(ByteBuffer in) {
+		final byte[] bytes = new byte[readLength(in, 1)];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Read a length or count and check that the rest of the buffer is large
+	 * enough to hold that many elements, thus a corrupt length can't cause a
+	 * negative or huge allocation.
+	 * 
+	 * @param minimumElementSize
+	 *            the fewest bytes one element can take in the buffer
+	 * @throws IllegalArgumentException
+	 *             if the length is negative or runs past the end of the buffer
+	 */
+	public static int readLength(ByteBuffer in, int minimumElementSize) {
+		final int length = in.getInt();
+
+		if (length < 0 || (long) length * minimumElementSize > in.remaining())
+			throw new IllegalArgumentException("Invalid packed length " + length);
+
+		return length;
+	}
+
+	public static void writeImage(Image image, DataOutput out) throws IOException {
+		final int width = (int) image.getWidth();
+		final int height = (int) image.getHeight();
+		final byte[] pixels = new byte[width * height * BYTES_PER_PIXEL];
+
+		image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getByteBgraPreInstance(), pixels, 0,
+				width * BYTES_PER_PIXEL);
+
+		out.writeInt(width);
+		out.writeInt(height);
+		out.write(pixels);
+	}
+
+	/**
+	 * Read an image written by {@link #writeImage(Image, DataOutput)}. Pixels
+	 * are copied straight from the buffer into the new image.
+	 */
+	public static Image readImage(ByteBuffer in) {
+		final int width = in.getInt();
+		final int height = in.getInt();
+		final long length = (long) width * height * BYTES_PER_PIXEL;
+
+		if (width <= 0 || height <= 0 || length > in.remaining())
+			throw new IllegalArgumentException("Invalid packed image size " + width + "x" + height);
+
+		final ByteBuffer pixels = in.slice();
+		pixels.limit((int) length);
+		in.position(in.position() + (int) length);
+
+		final WritableImage image = new WritableImage(width, height);
+		image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getByteBgraPreInstance(), pixels,
+				width * BYTES_PER_PIXEL);
+
+		return image;
+	}
+
+	private static void writeTags(Map<String, String> tags, DataOutput out) throws IOException {
+		out.writeInt(tags.size());
+
+		for (final Map.Entry<String, String> tag : tags.entrySet()) {
+			writeString(tag.getKey(), out);
+			writeString(tag.getValue(), out);
+		}
+	}
+
+	private static Map<String, String> readTags(ByteBuffer in) {
+		// A tag is at least the lengths of its name and value
+		final int tagCount = readLength(in, 2 * Integer.BYTES);
+		final Map<String, String> tags = new HashMap<>();
+
+		for (int t = 0; t < tagCount; t++)
+			tags.put(readString(in), readString(in));
+
+		return tags;
+	}
+
+	private static void writeColor(Color color, DataOutput out) throws IOException {
+		out.writeBoolean(color != null);
+
+		if (color != null) {
+			out.writeDouble(color.getRed());
+			out.writeDouble(color.getGreen());
+			out.writeDouble(color.getBlue());
+			out.writeDouble(color.getOpacity());
+		}
+	}
+
+	private static Color readColor(ByteBuffer in) {
+		if (in.get() == 0) return null;
+
+		return new Color(in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble());
+	}
+}
@@ -20,7 +20,10 @@ package com.shootoff.targets.io;
 
 import java.io.File;
 import java.io.InputStream;
+import java.lang.ref.SoftReference;
 import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -47,6 +50,33 @@ public class TargetIO {
 
 	public static final double DEFAULT_OPACITY = 0.5;
 
+	private static final int TEMPLATE_CACHE_SIZE = 64;
+
+	// Parsed targets by file, least recently loaded first. Templates are also
+	// softly referenced so that the decoded images of targets that are not
+	// on a canvas can be reclaimed when memory is tight.
+	private static final Map<File, CachedTemplate> templateCache = new LinkedHashMap<File, CachedTemplate>(16,
+			0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<File, CachedTemplate> eldest) {
+			return size() > TEMPLATE_CACHE_SIZE;
+		}
+	};
+
+	private static class CachedTemplate {
+		private final long lastModified;
+		private final long length;
+		private final SoftReference<TargetTemplate> template;
+
+		private CachedTemplate(long lastModified, long length, TargetTemplate template) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.template = new SoftReference<>(template);
+		}
+	}
+
 	public static class TargetComponents {
 		private final Group targetGroup;
 		private final Map<String, String> targetTags;
@@ -129,6 +159,10 @@ public class TargetIO {
 		}
 
 		visitor.visitEnd(targetTags);
+
+		synchronized (templateCache) {
+			templateCache.remove(targetFile.getAbsoluteFile());
+		}
 	}
 
 	public static Optional<TargetComponents> loadTarget(final File targetFile) {
@@ -141,16 +175,75 @@ public class TargetIO {
 	}
 
 	public static Optional<TargetComponents> loadTarget(final File targetFile, boolean playAnimations) {
-		final TargetReader reader;
-
-		if (targetFile.getName().endsWith("target")) {
-			reader = new XMLTargetReader(targetFile, playAnimations);
-		} else {
+		if (!targetFile.getName().endsWith("target")) {
 			logger.error("Unknown target file type.");
 			return Optional.empty();
 		}
 
-		return Optional.of(new TargetComponents(processVisualTags(reader.getTargetNodes()), reader.getTargetTags()));
+		final Optional<TargetTemplate> template = getTemplate(targetFile);
+
+		if (!template.isPresent()) {
+			return Optional.of(new TargetComponents(new Group(), new HashMap<>()));
+		}
+
+		return Optional.of(createTarget(template.get(), playAnimations));
+	}
+
+	/**
+	 * Create a new copy of the target described by a template.
+	 */
+	public static TargetComponents createTarget(final TargetTemplate template, boolean playAnimations) {
+		return new TargetComponents(processVisualTags(template.createRegions(playAnimations)),
+				template.createTargetTags());
+	}
+
+	/**
+	 * Get the parsed contents of a target file, parsing the file only if it
+	 * is not cached or has changed since it was cached.
+	 */
+	public static Optional<TargetTemplate> getTemplate(final File targetFile) {
+		final File key = targetFile.getAbsoluteFile();
+		final long lastModified = key.lastModified();
+		final long length = key.length();
+
+		synchronized (templateCache) {
+			final CachedTemplate cached = templateCache.get(key);
+
+			if (cached != null && cached.lastModified == lastModified && cached.length == length) {
+				final TargetTemplate template = cached.template.get();
+				if (template != null) return Optional.of(template);
+			}
+		}
+
+		// Parse outside of the lock, two threads loading the same new target
+		// at once only costs a redundant parse
+		final Optional<TargetTemplate> template = XMLTargetReader.readTemplate(targetFile);
+
+		if (template.isPresent()) {
+			synchronized (templateCache) {
+				templateCache.put(key, new CachedTemplate(lastModified, length, template.get()));
+			}
+		}
+
+		return template;
+	}
+
+	/**
+	 * @return the image files a target file uses, read without decoding the
+	 *         images
+	 */
+	public static List<File> getImageFiles(final File targetFile) {
+		return XMLTargetReader.readImageFiles(targetFile);
+	}
+
+	/**
+	 * Drop every cached target, e.g. because target files were replaced
+	 * without their modification time changing.
+	 */
+	public static void clearTemplateCache() {
+		synchronized (templateCache) {
+			templateCache.clear();
+		}
 	}
 
 	// Used for loading targets from resource files for modular exercises
@@ -0,0 +1,220 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.targets.io;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.shootoff.targets.EllipseRegion;
+import com.shootoff.targets.ImageRegion;
+import com.shootoff.targets.PolygonRegion;
+import com.shootoff.targets.RectangleRegion;
+import com.shootoff.targets.TargetRegion;
+import com.shootoff.targets.animation.AnimationFrames;
+import com.shootoff.targets.animation.GifAnimation;
+import com.shootoff.targets.animation.SpriteAnimation;
+
+import javafx.scene.Node;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+
+/**
+ * The parsed contents of a target file: the definition of every region and
+ * the target's tags, with every referenced image already decoded. Templates
+ * are immutable, thus one template can be shared by every copy of a target
+ * and each copy only has to create its own nodes, which share the decoded
+ * pixels.
+ */
+public final class TargetTemplate {
+	private final List<RegionTemplate> regions;
+	private final Map<String, String> targetTags;
+
+	TargetTemplate(List<RegionTemplate> regions, Map<String, String> targetTags) {
+		this.regions = Collections.unmodifiableList(new ArrayList<>(regions));
+		this.targetTags = Collections.unmodifiableMap(new HashMap<>(targetTags));
+	}
+
+	/**
+	 * Create new nodes for every region in this template.
+	 * 
+	 * @param playAnimations
+	 *            whether or not animated regions should play through their
+	 *            animation once when they are created
+	 */
+	public List<Node> createRegions(boolean playAnimations) {
+		final List<Node> nodes = new ArrayList<>(regions.size());
+
+		for (final RegionTemplate region : regions) {
+			final TargetRegion targetRegion = region.createRegion(playAnimations);
+			targetRegion.setTags(region.tags);
+			nodes.add((Node) targetRegion);
+		}
+
+		return nodes;
+	}
+
+	/**
+	 * @return a new, mutable copy of the target's tags
+	 */
+	public Map<String, String> createTargetTags() {
+		return new HashMap<>(targetTags);
+	}
+
+	List<RegionTemplate> getRegionTemplates() {
+		return regions;
+	}
+
+	Map<String, String> getTargetTags() {
+		return targetTags;
+	}
+
+	abstract static class RegionTemplate {
+		final Map<String, String> tags;
+
+		protected RegionTemplate(Map<String, String> tags) {
+			this.tags = Collections.unmodifiableMap(new HashMap<>(tags));
+		}
+
+		protected abstract TargetRegion createRegion(boolean playAnimations);
+	}
+
+	static class RectangleTemplate extends RegionTemplate {
+		final double x;
+		final double y;
+		final double width;
+		final double height;
+		final Color fill;
+
+		RectangleTemplate(double x, double y, double width, double height, Color fill, Map<String, String> tags) {
+			super(tags);
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+			this.fill = fill;
+		}
+
+		@Override
+		protected TargetRegion createRegion(boolean playAnimations) {
+			final RectangleRegion region = new RectangleRegion(x, y, width, height);
+			region.setFill(fill);
+			return region;
+		}
+	}
+
+	static class EllipseTemplate extends RegionTemplate {
+		final double centerX;
+		final double centerY;
+		final double radiusX;
+		final double radiusY;
+		final Color fill;
+
+		EllipseTemplate(double centerX, double centerY, double radiusX, double radiusY, Color fill,
+				Map<String, String> tags) {
+			super(tags);
+			this.centerX = centerX;
+			this.centerY = centerY;
+			this.radiusX = radiusX;
+			this.radiusY = radiusY;
+			this.fill = fill;
+		}
+
+		@Override
+		protected TargetRegion createRegion(boolean playAnimations) {
+			final EllipseRegion region = new EllipseRegion(centerX, centerY, radiusX, radiusY);
+			region.setFill(fill);
+			return region;
+		}
+	}
+
+	static class PolygonTemplate extends RegionTemplate {
+		final double[] points;
+		final Color fill;
+
+		PolygonTemplate(double[] points, Color fill, Map<String, String> tags) {
+			super(tags);
+			this.points = points.clone();
+			this.fill = fill;
+		}
+
+		@Override
+		protected TargetRegion createRegion(boolean playAnimations) {
+			final PolygonRegion region = new PolygonRegion(points);
+			region.setFill(fill);
+			return region;
+		}
+	}
+
+	static class ImageTemplate extends RegionTemplate {
+		final double x;
+		final double y;
+		final File imageFile;
+		final Image image;
+		final Optional<AnimationFrames> frames;
+
+		/**
+		 * @param frames
+		 *            the frames if the image is an animated GIF, shared by
+		 *            every region created from the template
+		 */
+		ImageTemplate(double x, double y, File imageFile, Image image, Optional<AnimationFrames> frames,
+				Map<String, String> tags) {
+			super(tags);
+			this.x = x;
+			this.y = y;
+			this.imageFile = imageFile;
+			this.image = image;
+			this.frames = frames;
+		}
+
+		ImageTemplate withTags(Map<String, String> tags) {
+			return new ImageTemplate(x, y, imageFile, image, frames, tags);
+		}
+
+		@Override
+		protected TargetRegion createRegion(boolean playAnimations) {
+			final ImageRegion region = new ImageRegion(x, y, imageFile, image);
+
+			if (frames.isPresent()) {
+				final GifAnimation gif = new GifAnimation(region, frames.get());
+				region.setImage(gif.getFirstFrame());
+				region.setAnimation(gif);
+
+				if (playAnimations) {
+					final SpriteAnimation animation = gif;
+					animation.setCycleCount(1);
+
+					animation.setOnFinished((e) -> {
+						animation.reset();
+						animation.setOnFinished(null);
+					});
+
+					animation.play();
+				}
+			}
+
+			return region;
+		}
+	}
+}
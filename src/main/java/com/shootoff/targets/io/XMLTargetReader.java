@@ -23,7 +23,9 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -37,50 +39,48 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
 import org.xml.sax.helpers.DefaultHandler;
 
 import com.shootoff.gui.controller.TargetEditorController;
-import com.shootoff.targets.EllipseRegion;
-import com.shootoff.targets.ImageRegion;
-import com.shootoff.targets.PolygonRegion;
-import com.shootoff.targets.RectangleRegion;
-import com.shootoff.targets.TargetRegion;
-import com.shootoff.targets.animation.GifAnimation;
-import com.shootoff.targets.animation.SpriteAnimation;
+import com.shootoff.targets.animation.AnimationFrames;
+import com.shootoff.targets.animation.FrameStore;
+import com.shootoff.targets.io.TargetTemplate.EllipseTemplate;
+import com.shootoff.targets.io.TargetTemplate.ImageTemplate;
+import com.shootoff.targets.io.TargetTemplate.PolygonTemplate;
+import com.shootoff.targets.io.TargetTemplate.RectangleTemplate;
+import com.shootoff.targets.io.TargetTemplate.RegionTemplate;
 
 import javafx.scene.Node;
+import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Shape;
 
 public class XMLTargetReader implements TargetReader {
 	private static final Logger logger = LoggerFactory.getLogger(XMLTargetReader.class);
 
 	private final List<Node> targetNodes = new ArrayList<>();
 	private final Map<String, String> targetTags = new HashMap<>();
-	private final boolean playAnimations;
 	private final Optional<ClassLoader> loader;
+	private Optional<TargetTemplate> template = Optional.empty();
 
 	public XMLTargetReader(File targetFile, boolean playAnimations) {
-		this.playAnimations = playAnimations;
 		loader = Optional.empty();
 
 		try (InputStream is = new FileInputStream(targetFile)) {
-			load(is);
+			load(is, playAnimations);
 		} catch (final IOException e) {
 			logger.error("Problem initializing target reader from file", e);
 		}
 	}
 
 	public XMLTargetReader(InputStream targetStream, boolean playAnimations) {
-		this.playAnimations = playAnimations;
 		loader = Optional.empty();
-		load(targetStream);
+		load(targetStream, playAnimations);
 	}
 
 	public XMLTargetReader(InputStream targetStream, boolean playAnimations, ClassLoader loader) {
-		this.playAnimations = playAnimations;
 		this.loader = Optional.ofNullable(loader);
-		load(targetStream);
+		load(targetStream, playAnimations);
 	}
 
 	@Override
@@ -93,16 +93,42 @@ public class XMLTargetReader implements TargetReader {
 		return targetTags;
 	}
 
-	private void load(InputStream targetStream) {
+	/**
+	 * @return the parsed target that the nodes were created from, or empty if
+	 *         the target could not be read
+	 */
+	public Optional<TargetTemplate> getTemplate() {
+		return template;
+	}
+
+	private void load(InputStream targetStream, boolean playAnimations) {
+		template = readTemplate(targetStream, loader);
+
+		if (template.isPresent()) {
+			targetNodes.addAll(template.get().createRegions(playAnimations));
+			targetTags.putAll(template.get().createTargetTags());
+		}
+	}
+
+	/**
+	 * Parse a target file without creating any nodes.
+	 */
+	static Optional<TargetTemplate> readTemplate(File targetFile) {
+		try {
+			return readTemplate(new FileInputStream(targetFile), Optional.empty());
+		} catch (final IOException e) {
+			logger.error("Problem initializing target reader from file", e);
+			return Optional.empty();
+		}
+	}
+
+	private static Optional<TargetTemplate> readTemplate(InputStream targetStream, Optional<ClassLoader> loader) {
 		try {
 			final SAXParser saxParser = SAXParserFactory.newInstance().newSAXParser();
-			final TargetXMLHandler handler = new TargetXMLHandler();
+			final TargetXMLHandler handler = new TargetXMLHandler(loader);
 			saxParser.parse(targetStream, handler);
 
-			targetNodes.addAll(handler.getRegions());
-			targetTags.putAll(handler.getTags());
-
-			return;
+			return Optional.of(new TargetTemplate(handler.getRegions(), handler.getTags()));
 		} catch (IOException | ParserConfigurationException | SAXException e) {
 			logger.error("Error reading XML target", e);
 		} finally {
@@ -114,17 +140,58 @@ public class XMLTargetReader implements TargetReader {
 				}
 			}
 		}
+
+		return Optional.empty();
+	}
+
+	/**
+	 * Read the files of a target's images without decoding them. Images that
+	 * are plugin resources are not included.
+	 */
+	static List<File> readImageFiles(File targetFile) {
+		final List<File> imageFiles = new ArrayList<>();
+
+		try (InputStream targetStream = new FileInputStream(targetFile)) {
+			final SAXParser saxParser = SAXParserFactory.newInstance().newSAXParser();
+			saxParser.parse(targetStream, new DefaultHandler() {
+				@Override
+				public void startElement(String uri, String localName, String qName, Attributes attributes)
+						throws SAXException {
+					if (!"image".equals(qName)) return;
+
+					final File savedFile = new File(attributes.getValue("file"));
+					if ('@' != savedFile.toString().charAt(0)) imageFiles.add(resolveImageFile(savedFile));
+				}
+			});
+		} catch (IOException | ParserConfigurationException | SAXException e) {
+			logger.error("Error reading images of XML target", e);
+		}
+
+		return imageFiles;
+	}
+
+	// Image files are relative to ShootOFF's home unless they are absolute or
+	// plugin resources
+	private static File resolveImageFile(File savedFile) {
+		if (savedFile.isAbsolute() || '@' == savedFile.toString().charAt(0)) return savedFile;
+
+		return new File(System.getProperty("shootoff.home") + File.separator + savedFile.getPath());
 	}
 
-	private class TargetXMLHandler extends DefaultHandler {
+	private static class TargetXMLHandler extends DefaultHandler {
+		private final Optional<ClassLoader> loader;
 		private final Map<String, String> targetTags = new HashMap<>();
-		private final List<Node> regions = new ArrayList<>();
-		private TargetRegion currentRegion;
+		private final List<RegionTemplate> regions = new ArrayList<>();
+		private Optional<ImageTemplate> currentImage;
+		private Attributes currentAttributes;
 		private List<Double> polygonPoints = null;
-		private Color polygonFill = null;
 		private Map<String, String> currentTags;
 
-		public List<Node> getRegions() {
+		private TargetXMLHandler(Optional<ClassLoader> loader) {
+			this.loader = loader;
+		}
+
+		public List<RegionTemplate> getRegions() {
 			return regions;
 		}
 
@@ -150,88 +217,18 @@ public class XMLTargetReader implements TargetReader {
 
 			case "image":
 				currentTags = new HashMap<>();
-
-				final File savedFile = new File(attributes.getValue("file"));
-
-				InputStream imageStream = null;
-				if ('@' == savedFile.toString().charAt(0) && loader.isPresent()) {
-					imageStream = loader.get().getResourceAsStream(savedFile.toString().substring(1).replace("\\", "/"));
-				}
-
-				File imageFile;
-				if (savedFile.isAbsolute() || '@' == savedFile.toString().charAt(0)) {
-					imageFile = savedFile;
-				} else {
-					imageFile = new File(
-							System.getProperty("shootoff.home") + File.separator + attributes.getValue("file"));
-				}
-
-				ImageRegion imageRegion;
-				if (imageStream != null) {
-					imageRegion = new ImageRegion(Double.parseDouble(attributes.getValue("x")),
-							Double.parseDouble(attributes.getValue("y")), imageFile, imageStream);
-				} else {
-					try {
-						imageRegion = new ImageRegion(Double.parseDouble(attributes.getValue("x")),
-								Double.parseDouble(attributes.getValue("y")), imageFile);
-					} catch (final FileNotFoundException e) {
-						logger.error("Failed to load target image from file: {}", e);
-						return;
-					}
-				}
-
-				try {
-					final int firstDot = imageFile.getName().indexOf('.') + 1;
-					final String extension = imageFile.getName().substring(firstDot);
-
-					if (extension.endsWith("gif") && '@' == savedFile.toString().charAt(0) && loader.isPresent()) {
-						final InputStream gifStream = loader.get().getResourceAsStream(savedFile.toString().substring(1).replace("\\", "/"));
-						final GifAnimation gif = new GifAnimation(imageRegion, gifStream);
-						imageRegion.setImage(gif.getFirstFrame());
-						if (gif.getFrameCount() > 1) imageRegion.setAnimation(gif);
-					} else if (extension.endsWith("gif")) {
-						final GifAnimation gif = new GifAnimation(imageRegion, imageRegion.getImageFile());
-						imageRegion.setImage(gif.getFirstFrame());
-						if (gif.getFrameCount() > 1) imageRegion.setAnimation(gif);
-					}
-
-					if (imageRegion.getAnimation().isPresent() && playAnimations) {
-						final SpriteAnimation animation = imageRegion.getAnimation().get();
-						animation.setCycleCount(1);
-
-						animation.setOnFinished((e) -> {
-							animation.reset();
-							animation.setOnFinished(null);
-						});
-
-						animation.play();
-					}
-				} catch (final IOException e) {
-					logger.error("Error reading animation from XML target", e);
-				}
-
-				currentRegion = imageRegion;
-
+				currentImage = readImage(attributes);
 				break;
 			case "rectangle":
-				currentTags = new HashMap<>();
-				currentRegion = new RectangleRegion(Double.parseDouble(attributes.getValue("x")),
-						Double.parseDouble(attributes.getValue("y")), Double.parseDouble(attributes.getValue("width")),
-						Double.parseDouble(attributes.getValue("height")));
-				((Shape) currentRegion).setFill(TargetEditorController.createColor(attributes.getValue("fill")));
-				break;
 			case "ellipse":
 				currentTags = new HashMap<>();
-				currentRegion = new EllipseRegion(Double.parseDouble(attributes.getValue("centerX")),
-						Double.parseDouble(attributes.getValue("centerY")),
-						Double.parseDouble(attributes.getValue("radiusX")),
-						Double.parseDouble(attributes.getValue("radiusY")));
-				((Shape) currentRegion).setFill(TargetEditorController.createColor(attributes.getValue("fill")));
+				// Regions are only created once their tags have been read
+				currentAttributes = new AttributesImpl(attributes);
 				break;
 			case "polygon":
 				currentTags = new HashMap<>();
+				currentAttributes = new AttributesImpl(attributes);
 				polygonPoints = new ArrayList<>();
-				polygonFill = TargetEditorController.createColor(attributes.getValue("fill"));
 				break;
 			case "point":
 				polygonPoints.add(Double.parseDouble(attributes.getValue("x")));
@@ -246,21 +243,84 @@ public class XMLTargetReader implements TargetReader {
 		@Override
 		public void endElement(String uri, String localName, String qName) throws SAXException {
 			switch (qName) {
+			case "image":
+				if (currentImage.isPresent()) {
+					regions.add(currentImage.get().withTags(currentTags));
+				}
+				break;
+			case "rectangle":
+				regions.add(new RectangleTemplate(Double.parseDouble(currentAttributes.getValue("x")),
+						Double.parseDouble(currentAttributes.getValue("y")),
+						Double.parseDouble(currentAttributes.getValue("width")),
+						Double.parseDouble(currentAttributes.getValue("height")), fill(currentAttributes),
+						currentTags));
+				break;
+			case "ellipse":
+				regions.add(new EllipseTemplate(Double.parseDouble(currentAttributes.getValue("centerX")),
+						Double.parseDouble(currentAttributes.getValue("centerY")),
+						Double.parseDouble(currentAttributes.getValue("radiusX")),
+						Double.parseDouble(currentAttributes.getValue("radiusY")), fill(currentAttributes),
+						currentTags));
+				break;
 			case "polygon":
 				final double[] points = new double[polygonPoints.size()];
 
 				for (int i = 0; i < polygonPoints.size(); i++)
 					points[i] = polygonPoints.get(i);
 
-				currentRegion = new PolygonRegion(points);
-				((Shape) currentRegion).setFill(polygonFill);
-			case "image":
-			case "rectangle":
-			case "ellipse":
-				currentRegion.setTags(currentTags);
-				regions.add((Node) currentRegion);
+				regions.add(new PolygonTemplate(points, fill(currentAttributes), currentTags));
 				break;
 			}
 		}
+
+		private Color fill(Attributes attributes) {
+			return TargetEditorController.createColor(attributes.getValue("fill"));
+		}
+
+		// Decode the image (and every frame if it is an animated GIF) once so
+		// that every region created from the template shares the pixels
+		private Optional<ImageTemplate> readImage(Attributes attributes) {
+			final File savedFile = new File(attributes.getValue("file"));
+			final boolean isResource = '@' == savedFile.toString().charAt(0) && loader.isPresent();
+
+			final File imageFile = resolveImageFile(savedFile);
+
+			final double x = Double.parseDouble(attributes.getValue("x"));
+			final double y = Double.parseDouble(attributes.getValue("y"));
+
+			final int firstDot = imageFile.getName().indexOf('.') + 1;
+			final String extension = imageFile.getName().substring(firstDot);
+
+			try {
+				if (extension.endsWith("gif")) {
+					final AnimationFrames frames = FrameStore.getGifFrames(locateImage(savedFile, imageFile, isResource));
+					final Optional<AnimationFrames> animationFrames = frames.getFrameCount() > 1 ? Optional.of(frames)
+							: Optional.empty();
+
+					return Optional.of(new ImageTemplate(x, y, imageFile, frames.getFrame(0), animationFrames,
+							Collections.emptyMap()));
+				}
+
+				try (InputStream imageStream = locateImage(savedFile, imageFile, isResource).openStream()) {
+					return Optional.of(new ImageTemplate(x, y, imageFile, new Image(imageStream), Optional.empty(),
+							Collections.emptyMap()));
+				}
+			} catch (final IOException e) {
+				logger.error("Failed to load target image from file: {}", e);
+				return Optional.empty();
+			}
+		}
+
+		private URL locateImage(File savedFile, File imageFile, boolean isResource) throws IOException {
+			if (isResource) {
+				final URL imageResource = loader.get()
+						.getResource(savedFile.toString().substring(1).replace("\\", "/"));
+				if (imageResource != null) return imageResource;
+			}
+
+			if (!imageFile.isFile()) throw new FileNotFoundException(imageFile.getPath());
+
+			return imageFile.toURI().toURL();
+		}
 	}
 }
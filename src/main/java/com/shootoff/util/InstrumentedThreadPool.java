@@ -0,0 +1,184 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.shootoff.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A scheduled thread pool that measures how long tasks wait past the time they
+ * were supposed to start. Threads time out when they are idle, thus an idle
+ * pool holds no threads.
+ */
+class InstrumentedThreadPool extends ScheduledThreadPoolExecutor {
+	private static final Logger logger = LoggerFactory.getLogger(InstrumentedThreadPool.class);
+
+	private static final long KEEP_ALIVE_SECONDS = 30;
+
+	private final String name;
+	private final AtomicLong startedTasks = new AtomicLong(0);
+	private final AtomicLong totalLatencyNanos = new AtomicLong(0);
+	private final AtomicLong maxLatencyNanos = new AtomicLong(0);
+
+	public InstrumentedThreadPool(String name, int size) {
+		super(size, new NamedThreadFactory(name, true));
+
+		this.name = name;
+
+		setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+		allowCoreThreadTimeOut(true);
+		setRemoveOnCancelPolicy(true);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public PoolMetrics getMetrics() {
+		final long started = startedTasks.get();
+		final long averageLatency = started == 0 ? 0 : totalLatencyNanos.get() / started;
+
+		return new PoolMetrics(name, getCorePoolSize(), getPoolSize(), getActiveCount(), getQueue().size(),
+				getCompletedTaskCount(), TimeUnit.NANOSECONDS.toMillis(averageLatency),
+				TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get()));
+	}
+
+	@Override
+	protected <V> RunnableScheduledFuture<V> decorateTask(Runnable runnable, RunnableScheduledFuture<V> task) {
+		return new TimedTask<>(task);
+	}
+
+	@Override
+	protected <V> RunnableScheduledFuture<V> decorateTask(Callable<V> callable, RunnableScheduledFuture<V> task) {
+		return new TimedTask<>(task);
+	}
+
+	// Tasks run as futures, which swallow whatever the task throws. Log it
+	// unless the task was submitted by a caller that handles its own errors
+	// (e.g. a CompletableFuture), in which case the future completed normally.
+	@Override
+	protected void afterExecute(Runnable r, Throwable t) {
+		super.afterExecute(r, t);
+
+		Throwable failure = t;
+
+		if (failure == null && r instanceof Future<?> && ((Future<?>) r).isDone()) {
+			try {
+				((Future<?>) r).get();
+			} catch (final CancellationException e) {
+				// Cancelling a task is not a failure
+			} catch (final ExecutionException e) {
+				failure = e.getCause();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		if (failure != null) logger.error("Uncaught exception in a task on " + name, failure);
+	}
+
+	private void recordLatency(long latencyNanos) {
+		startedTasks.incrementAndGet();
+		totalLatencyNanos.addAndGet(latencyNanos);
+
+		long max;
+		do {
+			max = maxLatencyNanos.get();
+		} while (latencyNanos > max && !maxLatencyNanos.compareAndSet(max, latencyNanos));
+	}
+
+	private class TimedTask<V> implements RunnableScheduledFuture<V> {
+		private final RunnableScheduledFuture<V> task;
+		private long dueNanos;
+
+		public TimedTask(RunnableScheduledFuture<V> task) {
+			this.task = task;
+			dueNanos = System.nanoTime() + task.getDelay(TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public void run() {
+			recordLatency(Math.max(0, System.nanoTime() - dueNanos));
+
+			task.run();
+
+			// Periodic tasks are rescheduled by running them
+			if (task.isPeriodic()) dueNanos = System.nanoTime() + task.getDelay(TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public boolean isPeriodic() {
+			return task.isPeriodic();
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return task.getDelay(unit);
+		}
+
+		@Override
+		public int compareTo(Delayed o) {
+			if (o instanceof TimedTask) return task.compareTo(((TimedTask<?>) o).task);
+
+			return task.compareTo(o);
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			final boolean cancelled = task.cancel(mayInterruptIfRunning);
+
+			// The queue holds this wrapper, not the wrapped task
+			if (cancelled) remove(this);
+
+			return cancelled;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return task.isCancelled();
+		}
+
+		@Override
+		public boolean isDone() {
+			return task.isDone();
+		}
+
+		@Override
+		public V get() throws InterruptedException, ExecutionException {
+			return task.get();
+		}
+
+		@Override
+		public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+			return task.get(timeout, unit);
+		}
+	}
+}
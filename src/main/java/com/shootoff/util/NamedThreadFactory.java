@@ -23,15 +23,23 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 public class NamedThreadFactory implements ThreadFactory {
 	private final String namePrefix;
+	private final boolean daemon;
 	private final AtomicInteger counter = new AtomicInteger();
 
 	public NamedThreadFactory(String namePrefix) {
+		this(namePrefix, false);
+	}
+
+	public NamedThreadFactory(String namePrefix, boolean daemon) {
 		this.namePrefix = namePrefix;
+		this.daemon = daemon;
 	}
 
 	@Override
 	public Thread newThread(Runnable r) {
 		final String threadName = String.format("%s-%d", namePrefix, counter.incrementAndGet());
-		return new Thread(r, threadName);
+		final Thread thread = new Thread(r, threadName);
+		thread.setDaemon(daemon);
+		return thread;
 	}
 }
@@ -0,0 +1,93 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.shootoff.util;
+
+/**
+ * A snapshot of the state of one of the shared thread pools.
+ */
+public class PoolMetrics {
+	private final String name;
+	private final int maximumThreads;
+	private final int liveThreads;
+	private final int activeThreads;
+	private final int queueDepth;
+	private final long completedTasks;
+	private final long averageLatencyMs;
+	private final long maxLatencyMs;
+
+	public PoolMetrics(String name, int maximumThreads, int liveThreads, int activeThreads, int queueDepth,
+			long completedTasks, long averageLatencyMs, long maxLatencyMs) {
+		this.name = name;
+		this.maximumThreads = maximumThreads;
+		this.liveThreads = liveThreads;
+		this.activeThreads = activeThreads;
+		this.queueDepth = queueDepth;
+		this.completedTasks = completedTasks;
+		this.averageLatencyMs = averageLatencyMs;
+		this.maxLatencyMs = maxLatencyMs;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getMaximumThreads() {
+		return maximumThreads;
+	}
+
+	public int getLiveThreads() {
+		return liveThreads;
+	}
+
+	public int getActiveThreads() {
+		return activeThreads;
+	}
+
+	/**
+	 * @return the number of tasks waiting to run, including tasks whose delay
+	 *         has not expired yet
+	 */
+	public int getQueueDepth() {
+		return queueDepth;
+	}
+
+	public long getCompletedTasks() {
+		return completedTasks;
+	}
+
+	/**
+	 * @return the average time tasks waited past the time they were due to
+	 *         start
+	 */
+	public long getAverageLatencyMs() {
+		return averageLatencyMs;
+	}
+
+	public long getMaxLatencyMs() {
+		return maxLatencyMs;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: threads=%d/%d active=%d queued=%d completed=%d latency(avg/max)=%d/%d ms", name,
+				liveThreads, maximumThreads, activeThreads, queueDepth, completedTasks, averageLatencyMs,
+				maxLatencyMs);
+	}
+}
@@ -0,0 +1,256 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.shootoff.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the phases of ShootOFF's startup as a graph of tasks. A phase starts as
+ * soon as the phases it depends on are done, thus independent phases run in
+ * parallel. Phases that must run on the calling thread (e.g. building the main
+ * window) are timed with {@link #startPhase(String)}.
+ * 
+ * When and where every phase ran, and how long it took, is recorded so that a
+ * report can be written once startup is complete (see
+ * {@link #reportWhenComplete(Optional)}).
+ */
+public class StartupGraph {
+	private static final Logger logger = LoggerFactory.getLogger(StartupGraph.class);
+
+	private final long startNanos = System.nanoTime();
+	private final List<Phase> phases = new CopyOnWriteArrayList<>();
+	private final List<CompletableFuture<?>> tasks = new CopyOnWriteArrayList<>();
+
+	public enum PhaseState {
+		COMPLETED, FAILED, SKIPPED, MILESTONE
+	}
+
+	public static class Phase {
+		private final String name;
+		private final String threadName;
+		private final long startMs;
+		private final long durationMs;
+		private final PhaseState state;
+
+		private Phase(String name, String threadName, long startMs, long durationMs, PhaseState state) {
+			this.name = name;
+			this.threadName = threadName;
+			this.startMs = startMs;
+			this.durationMs = durationMs;
+			this.state = state;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getThreadName() {
+			return threadName;
+		}
+
+		/**
+		 * @return when this phase started relative to the start of startup
+		 */
+		public long getStartMs() {
+			return startMs;
+		}
+
+		public long getDurationMs() {
+			return durationMs;
+		}
+
+		public PhaseState getState() {
+			return state;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-28s %7d ms %7d ms  %-9s %s", name, startMs, durationMs, state, threadName);
+		}
+	}
+
+	/**
+	 * Times a phase that runs on the calling thread. The phase ends when the
+	 * timer is closed.
+	 */
+	public class PhaseTimer implements AutoCloseable {
+		private final String name;
+		private final long phaseStartNanos = System.nanoTime();
+
+		private PhaseTimer(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public void close() {
+			record(name, phaseStartNanos, PhaseState.COMPLETED);
+		}
+	}
+
+	public PhaseTimer startPhase(String name) {
+		return new PhaseTimer(name);
+	}
+
+	/**
+	 * Run a phase on <code>executor</code> once all of its dependencies are
+	 * done. If a dependency failed the phase is skipped and its future
+	 * completes exceptionally as well.
+	 */
+	public <T> CompletableFuture<T> supplyAsync(String name, Executor executor, Supplier<T> task,
+			CompletableFuture<?>... dependencies) {
+		final CompletableFuture<T> future = CompletableFuture.allOf(dependencies).handleAsync((ignored, error) -> {
+			if (error != null) {
+				record(name, System.nanoTime(), PhaseState.SKIPPED);
+				throw new CompletionException(error);
+			}
+
+			return time(name, task);
+		}, executor);
+
+		tasks.add(future);
+
+		return future;
+	}
+
+	public CompletableFuture<Void> runAsync(String name, Executor executor, Runnable task,
+			CompletableFuture<?>... dependencies) {
+		return supplyAsync(name, executor, () -> {
+			task.run();
+			return null;
+		}, dependencies);
+	}
+
+	/**
+	 * Record a phase that is run by someone else, from now until
+	 * <code>future</code> is done.
+	 */
+	public <T> CompletableFuture<T> track(String name, CompletableFuture<T> future) {
+		final long phaseStartNanos = System.nanoTime();
+
+		final CompletableFuture<T> tracked = future.whenComplete((result, error) -> record(name, phaseStartNanos,
+				error == null ? PhaseState.COMPLETED : PhaseState.FAILED));
+
+		tasks.add(tracked);
+
+		return tracked;
+	}
+
+	/**
+	 * Record a point in time that is interesting on its own, such as when the
+	 * main window was shown.
+	 */
+	public void mark(String milestone) {
+		record(milestone, System.nanoTime(), PhaseState.MILESTONE);
+	}
+
+	public List<Phase> getPhases() {
+		return new ArrayList<>(phases);
+	}
+
+	/**
+	 * @return a future that is done once every phase submitted so far is done,
+	 *         whether it succeeded or not
+	 */
+	public CompletableFuture<Void> whenComplete() {
+		return CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[tasks.size()]))
+				.handle((ignored, error) -> null);
+	}
+
+	public String getReport() {
+		final StringBuilder report = new StringBuilder();
+
+		report.append(String.format("Startup took %d ms%n", elapsedMs(System.nanoTime())));
+		report.append(String.format("%-28s %10s %10s  %-9s %s%n", "phase", "start", "duration", "state", "thread"));
+
+		final List<Phase> sortedPhases = getPhases();
+		sortedPhases.sort((a, b) -> Long.compare(a.getStartMs(), b.getStartMs()));
+
+		for (final Phase phase : sortedPhases)
+			report.append(phase).append(String.format("%n"));
+
+		return report.toString();
+	}
+
+	/**
+	 * Log the startup report, and optionally write it to a file, once every
+	 * phase submitted so far is done.
+	 */
+	public void reportWhenComplete(Optional<File> reportFile) {
+		whenComplete().thenRun(() -> {
+			final String report = getReport();
+			logger.info("{}", report);
+
+			if (!reportFile.isPresent()) return;
+
+			try (Writer writer = new OutputStreamWriter(Files.newOutputStream(reportFile.get().toPath()),
+					StandardCharsets.UTF_8); PrintWriter printWriter = new PrintWriter(writer)) {
+				printWriter.print(report);
+			} catch (final IOException e) {
+				logger.error("Failed to write startup report " + reportFile.get().getPath(), e);
+			}
+		});
+	}
+
+	private <T> T time(String name, Supplier<T> task) {
+		final long phaseStartNanos = System.nanoTime();
+
+		try {
+			final T result = task.get();
+			record(name, phaseStartNanos, PhaseState.COMPLETED);
+			return result;
+		} catch (final RuntimeException e) {
+			record(name, phaseStartNanos, PhaseState.FAILED);
+			logger.error("Startup phase " + name + " failed", e);
+			throw e;
+		}
+	}
+
+	private void record(String name, long phaseStartNanos, PhaseState state) {
+		final long endNanos = System.nanoTime();
+		final Phase phase = new Phase(name, Thread.currentThread().getName(), elapsedMs(phaseStartNanos),
+				TimeUnit.NANOSECONDS.toMillis(endNanos - phaseStartNanos), state);
+
+		phases.add(phase);
+
+		logger.debug("Startup phase {} {} at {} ms after running for {} ms", name, state.name().toLowerCase(),
+				phase.getStartMs(), phase.getDurationMs());
+	}
+
+	private long elapsedMs(long nanos) {
+		return TimeUnit.NANOSECONDS.toMillis(nanos - startNanos);
+	}
+}
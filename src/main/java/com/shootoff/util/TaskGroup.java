@@ -0,0 +1,112 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.shootoff.util;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A set of tasks that run on one of the shared thread pools and can be
+ * cancelled together. This takes the place of a private executor for code
+ * that owns a set of timers, such as a training exercise: shutting down a task
+ * group cancels the group's tasks without affecting the shared pool.
+ * 
+ * Like an executor, a task group that was shut down rejects new tasks, thus a
+ * running task cannot reschedule itself after its owner was reset.
+ */
+public class TaskGroup {
+	private final String name;
+	private final ScheduledExecutorService pool;
+	private final Set<Future<?>> futures = ConcurrentHashMap.newKeySet();
+
+	private volatile boolean shutdown = false;
+
+	TaskGroup(String name, ScheduledExecutorService pool) {
+		this.name = name;
+		this.pool = pool;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+		checkShutdown();
+
+		return track(pool.schedule(task, delay, unit));
+	}
+
+	public <V> ScheduledFuture<V> schedule(Callable<V> task, long delay, TimeUnit unit) {
+		checkShutdown();
+
+		return track(pool.schedule(task, delay, unit));
+	}
+
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+		checkShutdown();
+
+		return track(pool.scheduleAtFixedRate(task, initialDelay, period, unit));
+	}
+
+	public Future<?> submit(Runnable task) {
+		checkShutdown();
+
+		return track(pool.submit(task));
+	}
+
+	/**
+	 * Cancel every task in this group that has not finished, interrupting
+	 * tasks that are running, and reject tasks that are scheduled later.
+	 */
+	public void shutdownNow() {
+		shutdown = true;
+
+		for (final Iterator<Future<?>> it = futures.iterator(); it.hasNext();) {
+			it.next().cancel(true);
+			it.remove();
+		}
+	}
+
+	public boolean isShutdown() {
+		return shutdown;
+	}
+
+	private void checkShutdown() {
+		if (shutdown) throw new RejectedExecutionException("Task group " + name + " was shut down");
+	}
+
+	private <T extends Future<?>> T track(T future) {
+		// Forget tasks that already finished so the set stays small
+		futures.removeIf(Future::isDone);
+		futures.add(future);
+
+		// Catch tasks added while the group was shutting down
+		if (shutdown) future.cancel(true);
+
+		return future;
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * ShootOFF - Software for Laser Dry Fire Training
+ * Copyright (C) 2016 phrack
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.shootoff.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The thread pools shared by all of ShootOFF. Work is split into pools by the
+ * kind of work so that, for example, a slow disk read cannot delay a timer:
+ * 
+ * <ul>
+ * <li>timers: short tasks that run after a delay (see {@link TimerPool} and
+ * {@link #newTaskGroup(String)})</li>
+ * <li>I/O: tasks that block on files, the network, or devices</li>
+ * <li>audio: tasks that stream sound to an audio line</li>
+ * <li>compute: CPU bound tasks</li>
+ * <li>speech: text-to-speech synthesis, which is not thread safe and runs on
+ * one thread</li>
+ * <li>camera preview: opening cameras to capture a preview, which can hang in
+ * a camera's driver and would otherwise hold up the I/O pool</li>
+ * </ul>
+ * 
+ * The I/O and compute pools are sized to the number of processors. The
+ * timer pool is larger because exercises often block in their timers (e.g.
+ * waiting on speech). Threads exit when they are idle. Long running loops
+ * (e.g. a camera's capture loop) should still have a dedicated thread because
+ * they would hold a pool thread forever.
+ */
+public final class ThreadPools {
+	private static final Logger logger = LoggerFactory.getLogger(ThreadPools.class);
+
+	private static final int PROCESSORS = Runtime.getRuntime().availableProcessors();
+	private static final int AUDIO_POOL_SIZE = 8;
+	private static final int TIMER_POOL_SIZE = 20;
+	private static final int CAMERA_PREVIEW_POOL_SIZE = 2;
+
+	private static final InstrumentedThreadPool timerPool = new InstrumentedThreadPool("ShootOFF-Timer",
+			TIMER_POOL_SIZE);
+	private static final InstrumentedThreadPool ioPool = new InstrumentedThreadPool("ShootOFF-IO",
+			Math.max(4, PROCESSORS));
+	private static final InstrumentedThreadPool audioPool = new InstrumentedThreadPool("ShootOFF-Audio",
+			AUDIO_POOL_SIZE);
+	private static final InstrumentedThreadPool computePool = new InstrumentedThreadPool("ShootOFF-Compute",
+			Math.max(1, PROCESSORS - 1));
+	private static final InstrumentedThreadPool speechPool = new InstrumentedThreadPool("ShootOFF-Speech", 1);
+	private static final InstrumentedThreadPool cameraPreviewPool = new InstrumentedThreadPool(
+			"ShootOFF-CameraPreview", CAMERA_PREVIEW_POOL_SIZE);
+
+	private ThreadPools() {}
+
+	static ScheduledExecutorService getTimerPool() {
+		return timerPool;
+	}
+
+	public static Executor io() {
+		return ioPool;
+	}
+
+	public static Executor audio() {
+		return audioPool;
+	}
+
+	public static Executor compute() {
+		return computePool;
+	}
+
+	/**
+	 * @return a pool with a single thread that runs tasks in the order they
+	 *         were submitted
+	 */
+	public static Executor speech() {
+		return speechPool;
+	}
+
+	/**
+	 * @return the pool for capturing camera previews, tasks can be cancelled
+	 *         through the future they are submitted with when a camera hangs
+	 */
+	public static ExecutorService cameraPreview() {
+		return cameraPreviewPool;
+	}
+
+	/**
+	 * Create a set of timers that run on the shared timer pool and can be
+	 * cancelled together. Exercises and plugins should use this instead of
+	 * creating their own executors.
+	 * 
+	 * @param name
+	 *            a name for the group to use in error messages
+	 */
+	public static TaskGroup newTaskGroup(String name) {
+		return new TaskGroup(name, timerPool);
+	}
+
+	/**
+	 * Create a set of I/O tasks that run on the shared I/O pool and can be
+	 * cancelled together.
+	 * 
+	 * @param name
+	 *            a name for the group to use in error messages
+	 */
+	public static TaskGroup newIOTaskGroup(String name) {
+		return new TaskGroup(name, ioPool);
+	}
+
+	public static List<PoolMetrics> getMetrics() {
+		final List<PoolMetrics> metrics = new ArrayList<>();
+
+		for (final InstrumentedThreadPool pool : getPools())
+			metrics.add(pool.getMetrics());
+
+		return metrics;
+	}
+
+	public static void logMetrics() {
+		if (!logger.isDebugEnabled()) return;
+
+		for (final PoolMetrics metrics : getMetrics())
+			logger.debug("{}", metrics);
+	}
+
+	/**
+	 * Shut down every shared pool.
+	 * 
+	 * @return the tasks that never started running
+	 */
+	public static List<Runnable> shutdownNow() {
+		logMetrics();
+
+		final List<Runnable> pendingTasks = new ArrayList<>();
+
+		for (final InstrumentedThreadPool pool : getPools())
+			pendingTasks.addAll(pool.shutdownNow());
+
+		return pendingTasks;
+	}
+
+	private static InstrumentedThreadPool[] getPools() {
+		return new InstrumentedThreadPool[] { timerPool, ioPool, audioPool, computePool, speechPool,
+				cameraPreviewPool };
+	}
+}
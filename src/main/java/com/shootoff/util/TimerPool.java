@@ -19,15 +19,15 @@
 package com.shootoff.util;
 
 import java.util.List;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * One-shot timers on the shared timer pool (see {@link ThreadPools}).
+ */
 public class TimerPool {
-	private static final int CORE_POOL_SIZE = 20;
-	private static final ScheduledExecutorService executorService = Executors.newScheduledThreadPool(CORE_POOL_SIZE,
-			new NamedThreadFactory("ShootOFFTimerPool"));
+	private static final ScheduledExecutorService executorService = ThreadPools.getTimerPool();
 
 	public static ScheduledFuture<?> schedule(Runnable task, long msDelay) {
 		if (executorService.isShutdown() || executorService.isTerminated()) return null;
@@ -45,7 +45,10 @@ public class TimerPool {
 		return false;
 	}
 
+	/**
+	 * Shut down all of the shared thread pools.
+	 */
 	public static List<Runnable> close() {
-		return executorService.shutdownNow();
+		return ThreadPools.shutdownNow();
 	}
 }
@@ -0,0 +1,50 @@
+package com.shootoff.audio;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+import org.junit.Test;
+
+public class TestSoundClip {
+	@Test
+	public void testMonoIsCopiedToBothChannels() {
+		final short[] mono = { 0, 100, -100, 32767 };
+
+		final short[] stereo = SoundClip.convert(mono, 1, AudioEngine.SAMPLE_RATE);
+
+		assertArrayEquals(new short[] { 0, 0, 100, 100, -100, -100, 32767, 32767 }, stereo);
+	}
+
+	@Test
+	public void testResampleDoublesFrames() {
+		final short[] stereo = { 0, 0, 100, -100, 200, -200 };
+
+		final short[] resampled = SoundClip.convert(stereo, 2, AudioEngine.SAMPLE_RATE / 2);
+
+		assertEquals(6 * 2, resampled.length);
+		assertEquals(50, resampled[2]);
+		assertEquals(-50, resampled[3]);
+		assertEquals(100, resampled[4]);
+		assertEquals(-100, resampled[5]);
+	}
+
+	@Test
+	public void testDecodeFile() throws IOException, UnsupportedAudioFileException {
+		final File soundFile = new File("sounds/beep.wav");
+
+		try (AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(soundFile)) {
+			final float seconds = audioInputStream.getFrameLength() / audioInputStream.getFormat().getFrameRate();
+
+			final SoundClip clip = SoundClip.decode(audioInputStream);
+
+			assertEquals(seconds * AudioEngine.SAMPLE_RATE, clip.getFrameCount(), 2);
+			assertEquals(clip.getFrameCount() * AudioEngine.CHANNELS, clip.getSamples().length);
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package com.shootoff.camera;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.shootoff.camera.CameraDiscovery.Merge;
+
+public class TestCameraDiscovery {
+	@Test
+	public void testFirstDiscoveryAddsEverything() {
+		final List<String> found = Arrays.asList("cam1", "cam2");
+
+		final Merge<String> merge = CameraDiscovery.merge(Collections.emptyList(), found);
+
+		assertEquals(found, merge.merged);
+		assertEquals(found, merge.added);
+		assertTrue(merge.removed.isEmpty());
+	}
+
+	@Test
+	public void testMergeKeepsPreviousInstances() {
+		final String cam1 = new String("cam1");
+		final String cam2 = new String("cam2");
+		final List<String> previous = Arrays.asList(cam1, cam2);
+
+		final Merge<String> merge = CameraDiscovery.merge(previous,
+				Arrays.asList(new String("cam1"), new String("cam2")));
+
+		assertEquals(2, merge.merged.size());
+		assertSame(cam1, merge.merged.get(0));
+		assertSame(cam2, merge.merged.get(1));
+		assertTrue(merge.added.isEmpty());
+		assertTrue(merge.removed.isEmpty());
+	}
+
+	@Test
+	public void testMergeReportsAddedAndRemoved() {
+		final String cam1 = new String("cam1");
+		final List<String> previous = Arrays.asList(cam1, "cam2");
+
+		final Merge<String> merge = CameraDiscovery.merge(previous, Arrays.asList("cam3", new String("cam1")));
+
+		assertEquals(Arrays.asList("cam3", "cam1"), merge.merged);
+		assertSame(cam1, merge.merged.get(1));
+		assertEquals(Collections.singletonList("cam3"), merge.added);
+		assertEquals(Collections.singletonList("cam2"), merge.removed);
+	}
+
+	@Test
+	public void testMergeAllRemoved() {
+		final Merge<String> merge = CameraDiscovery.merge(Arrays.asList("cam1", "cam2"), Collections.emptyList());
+
+		assertTrue(merge.merged.isEmpty());
+		assertTrue(merge.added.isEmpty());
+		assertEquals(Arrays.asList("cam1", "cam2"), merge.removed);
+	}
+}
@@ -182,6 +182,68 @@ public class TestConfiguration {
 		}
 	}
 
+	@Test(expected = ConfigurationException.class)
+	public void testArenaMirrorFPSBelowRange() throws ConfigurationException {
+		defaultConfig.setArenaMirrorFPS(-1);
+		defaultConfig.validateConfiguration();
+	}
+
+	@Test(expected = ConfigurationException.class)
+	public void testArenaMirrorFPSAboveRange() throws ConfigurationException {
+		defaultConfig.setArenaMirrorFPS(61);
+		defaultConfig.validateConfiguration();
+	}
+
+	@Test
+	public void testArenaMirrorFPSInRange() {
+		try {
+			defaultConfig.setArenaMirrorFPS(0);
+			defaultConfig.validateConfiguration();
+			defaultConfig.setArenaMirrorFPS(15);
+			defaultConfig.validateConfiguration();
+			defaultConfig.setArenaMirrorFPS(60);
+			defaultConfig.validateConfiguration();
+		} catch (ConfigurationException e) {
+			fail("Arena mirror FPS values are in range but got ConfigurationException");
+		}
+	}
+
+	@Test(expected = ConfigurationException.class)
+	public void testShotTimerWindowBelowRange() throws ConfigurationException {
+		defaultConfig.setShotTimerWindow(9);
+		defaultConfig.validateConfiguration();
+	}
+
+	@Test(expected = ConfigurationException.class)
+	public void testShotTimerWindowAboveRange() throws ConfigurationException {
+		defaultConfig.setShotTimerWindow(100001);
+		defaultConfig.validateConfiguration();
+	}
+
+	@Test(expected = ConfigurationException.class)
+	public void testTTSCacheSizeBelowRange() throws ConfigurationException {
+		defaultConfig.setTTSCacheSize(0);
+		defaultConfig.validateConfiguration();
+	}
+
+	@Test(expected = ConfigurationException.class)
+	public void testTTSCacheSizeAboveRange() throws ConfigurationException {
+		defaultConfig.setTTSCacheSize(513);
+		defaultConfig.validateConfiguration();
+	}
+
+	@Test(expected = ConfigurationException.class)
+	public void testTTSDiskCacheSizeBelowRange() throws ConfigurationException {
+		defaultConfig.setTTSDiskCacheSize(0);
+		defaultConfig.validateConfiguration();
+	}
+
+	@Test(expected = ConfigurationException.class)
+	public void testTTSDiskCacheSizeAboveRange() throws ConfigurationException {
+		defaultConfig.setTTSDiskCacheSize(4097);
+		defaultConfig.validateConfiguration();
+	}
+
 	@Test
 	public void testReadConfigFile() throws IOException, ConfigurationException {
 		Configuration config = new Configuration(TestConfiguration.class.getResourceAsStream("/test.properties"),
@@ -0,0 +1,186 @@
+package com.shootoff.courses.io;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.shootoff.config.Configuration;
+import com.shootoff.config.ConfigurationException;
+import com.shootoff.courses.Course;
+import com.shootoff.gui.JavaFXThreadingRule;
+import com.shootoff.gui.LocatedImage;
+import com.shootoff.gui.MockCanvasManager;
+import com.shootoff.gui.TargetView;
+import com.shootoff.gui.controller.MockProjectorArenaController;
+import com.shootoff.targets.Target;
+import com.shootoff.targets.io.TargetIO;
+import com.shootoff.targets.io.TargetIO.TargetComponents;
+
+public class TestCourseBundle {
+	@Rule public JavaFXThreadingRule javafxRule = new JavaFXThreadingRule();
+
+	private MockProjectorArenaController arenaPane;
+	private File courseFile;
+	private File bundleFile;
+	private final String backgroundURL = "/arena/backgrounds/indoor_range.gif";
+
+	@Before
+	public void setUp() throws ConfigurationException {
+		System.setProperty("shootoff.home", System.getProperty("user.dir"));
+		System.setProperty("shootoff.sessions", System.getProperty("shootoff.home") + File.separator + "sessions");
+
+		Configuration config = new Configuration(new String[0]);
+		arenaPane = new MockProjectorArenaController(config, new MockCanvasManager(config));
+
+		InputStream is = TestCourseBundle.class.getResourceAsStream(backgroundURL);
+		arenaPane.setArenaBackground(new LocatedImage(is, backgroundURL));
+
+		File targetFile = new File("targets/Reset.target");
+		for (int i = 0; i < 3; i++) {
+			TargetComponents tc = TargetIO.loadTarget(targetFile).get();
+			TargetView target = new TargetView(targetFile, tc.getTargetGroup(), tc.getTargetTags(),
+					new MockCanvasManager(config), false);
+			target.setPosition(10 + i * 100, 100);
+			target.setDimensions(50, 40 + i);
+
+			arenaPane.getCanvasManager().addTarget(target);
+		}
+
+		courseFile = new File("temp_bundle_course.course");
+		bundleFile = CourseIO.getBundleFile(courseFile);
+		CourseIO.saveCourse(arenaPane, courseFile);
+	}
+
+	@After
+	public void tearDown() {
+		if (!courseFile.delete()) System.err.println("Failed to delete " + courseFile.getPath());
+		if (bundleFile.exists() && !bundleFile.delete())
+			System.err.println("Failed to delete " + bundleFile.getPath());
+	}
+
+	private void checkCourse(Optional<Course> course) {
+		assertTrue(course.isPresent());
+
+		assertTrue(course.get().getBackground().isPresent());
+		assertEquals(backgroundURL, course.get().getBackground().get().getURL());
+		assertTrue(course.get().getBackground().get().isResource());
+
+		List<Target> targets = course.get().getTargets();
+		assertEquals(3, targets.size());
+
+		for (int i = 0; i < targets.size(); i++) {
+			assertEquals(10 + i * 100, targets.get(i).getPosition().getX(), 1);
+			assertEquals(100, targets.get(i).getPosition().getY(), 1);
+			assertEquals(50, targets.get(i).getDimension().getWidth(), 1);
+			assertEquals(40 + i, targets.get(i).getDimension().getHeight(), 1);
+			assertEquals(new File("targets/Reset.target"), targets.get(i).getTargetFile());
+		}
+
+		assertTrue(course.get().getResolution().isPresent());
+	}
+
+	@Test
+	public void testBundleMatchesCourse() throws IOException {
+		assertEquals(bundleFile, new CourseBundleWriter(courseFile).write());
+		assertTrue(bundleFile.isFile());
+
+		checkCourse(new CourseBundleReader(arenaPane, bundleFile).load(true));
+		checkCourse(CourseIO.loadCourse(arenaPane, courseFile));
+		checkCourse(CourseIO.loadCourse(arenaPane, bundleFile));
+	}
+
+	@Test
+	public void testCourseTemplateMatchesCourse() {
+		Optional<CourseTemplate> template = CourseIO.getTemplate(courseFile);
+		assertTrue(template.isPresent());
+		assertTrue(template.get().getBackground().isPresent());
+		assertTrue(template.get().getResolution().isPresent());
+
+		List<Target> targets = template.get().createTargets(arenaPane);
+		assertEquals(3, targets.size());
+		for (int i = 0; i < targets.size(); i++) {
+			assertEquals(10 + i * 100, targets.get(i).getPosition().getX(), 1);
+			assertEquals(40 + i, targets.get(i).getDimension().getHeight(), 1);
+		}
+
+		List<File> sourceFiles = CourseIO.getSourceFiles(courseFile);
+		assertEquals(courseFile, sourceFiles.get(0));
+		assertTrue(sourceFiles.contains(new File("targets/Reset.target")));
+	}
+
+	@Test
+	public void testStaleBundleIgnored() throws IOException {
+		new CourseBundleWriter(courseFile).write();
+
+		assertTrue(courseFile.setLastModified(courseFile.lastModified() + 10000));
+
+		assertFalse(new CourseBundleReader(arenaPane, bundleFile).load(true).isPresent());
+
+		// Stale bundles are still used when they are loaded directly
+		checkCourse(new CourseBundleReader(arenaPane, bundleFile).load(false));
+
+		// The course file is used in place of the stale bundle
+		checkCourse(CourseIO.loadCourse(arenaPane, courseFile));
+	}
+
+	@Test
+	public void testChangedBackgroundMakesBundleStale() throws IOException {
+		File backgroundFile = new File("temp_bundle_background.gif");
+		try (InputStream is = TestCourseBundle.class.getResourceAsStream(backgroundURL)) {
+			Files.copy(is, backgroundFile.toPath());
+		}
+
+		arenaPane.setArenaBackground(new LocatedImage(backgroundFile.toURI().toURL().toString()));
+		CourseIO.saveCourse(arenaPane, courseFile);
+
+		new CourseBundleWriter(courseFile).write();
+		assertTrue(new CourseBundleReader(arenaPane, bundleFile).load(true).isPresent());
+
+		assertTrue(backgroundFile.setLastModified(backgroundFile.lastModified() + 10000));
+
+		assertFalse(new CourseBundleReader(arenaPane, bundleFile).load(true).isPresent());
+
+		if (!backgroundFile.delete()) System.err.println("Failed to delete " + backgroundFile.getPath());
+	}
+
+	@Test
+	public void testCorruptBundleIgnored() throws IOException {
+		Files.write(bundleFile.toPath(), new byte[] { 1, 2, 3 });
+
+		assertFalse(new CourseBundleReader(arenaPane, bundleFile).load(false).isPresent());
+		checkCourse(CourseIO.loadCourse(arenaPane, courseFile));
+	}
+
+	@Test
+	public void testCorruptLengthIgnored() throws IOException {
+		new CourseBundleWriter(courseFile).write();
+
+		// The length of the name of the first source file
+		final int FIRST_STRING_LENGTH_OFFSET = 3 * Integer.BYTES;
+		try (RandomAccessFile bundle = new RandomAccessFile(bundleFile, "rw")) {
+			bundle.seek(FIRST_STRING_LENGTH_OFFSET);
+			bundle.writeInt(-5);
+		}
+
+		assertFalse(new CourseBundleReader(arenaPane, bundleFile).load(false).isPresent());
+
+		try (RandomAccessFile bundle = new RandomAccessFile(bundleFile, "rw")) {
+			bundle.seek(FIRST_STRING_LENGTH_OFFSET);
+			bundle.writeInt(Integer.MAX_VALUE);
+		}
+
+		assertFalse(new CourseBundleReader(arenaPane, bundleFile).load(false).isPresent());
+		checkCourse(CourseIO.loadCourse(arenaPane, courseFile));
+	}
+}
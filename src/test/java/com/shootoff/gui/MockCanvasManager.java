@@ -25,7 +25,7 @@ public class MockCanvasManager extends CanvasManager {
 
 	public MockCanvasManager(Configuration config) {
 		super(new Group(), new ShootOFFController(), String.format("%d", System.nanoTime()),
-				FXCollections.observableArrayList());
+				new ShotTimerModel(FXCollections.observableArrayList()));
 		new JFXPanel(); // Initialize the JFX toolkit
 		this.config = config;
 		this.cameraName = "Default";
@@ -34,7 +34,7 @@ public class MockCanvasManager extends CanvasManager {
 
 	public MockCanvasManager(Configuration config, boolean useShotProcessors) {
 		super(new Group(), new ShootOFFController(), String.format("%d", System.nanoTime()),
-				FXCollections.observableArrayList());
+				new ShotTimerModel(FXCollections.observableArrayList()));
 		new JFXPanel(); // Initialize the JFX toolkit
 		this.config = config;
 		this.cameraName = "Default";
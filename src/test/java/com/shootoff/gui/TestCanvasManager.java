@@ -3,6 +3,8 @@ package com.shootoff.gui;
 import static org.junit.Assert.*;
 
 import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
 import java.util.Optional;
 
 import org.junit.Before;
@@ -22,7 +24,6 @@ import com.shootoff.targets.Target;
 import com.shootoff.targets.TargetRegion;
 
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.scene.Group;
 import javafx.scene.shape.Shape;
 
@@ -31,7 +32,7 @@ public class TestCanvasManager {
 	
 	private CanvasManager cm;
 	private Target ipscTarget;
-	private ObservableList<ShotEntry> shotEntries = FXCollections.observableArrayList();
+	private ShotTimerModel shotTimerModel = new ShotTimerModel(FXCollections.observableArrayList());
 
 	private Configuration config;
 
@@ -43,7 +44,7 @@ public class TestCanvasManager {
 
 		config = new Configuration(new String[0]);
 		CamerasSupervisor cs = new CamerasSupervisor(config);
-		cm = new CanvasManager(new Group(), new ShootOFFController(), "test", shotEntries);
+		cm = new CanvasManager(new Group(), new ShootOFFController(), "test", shotTimerModel);
 		CameraManager cameraManager = cs.addCameraManager(new MockCamera(), null, cm);
 		cs.setDetectingAll(false);
 		cm.setCameraManager(cameraManager);
@@ -97,6 +98,36 @@ public class TestCanvasManager {
 		assertEquals("#008000", CanvasManager.colorToWebCode(Shot.colorMap.get(ShotColor.GREEN)));
 	}
 
+	@Test
+	public void testCheckHitTopmostTarget() {
+		Target topTarget = cm.addTarget(new File("targets/IPSC.target")).get();
+		topTarget.setPosition(0, 0);
+
+		Optional<Hit> h = cm.checkHit(new Shot(ShotColor.RED, 150, 150, 0, 2), Optional.empty(), false);
+
+		assertTrue(h.isPresent());
+		assertEquals(topTarget, h.get().getTarget());
+
+		cm.removeTarget(topTarget);
+
+		h = cm.checkHit(new Shot(ShotColor.RED, 150, 150, 0, 2), Optional.empty(), false);
+
+		assertTrue(h.isPresent());
+		assertEquals(ipscTarget, h.get().getTarget());
+	}
+
+	@Test
+	public void testCheckHitMovedTarget() {
+		ipscTarget.setPosition(1000, 1000);
+
+		Optional<Hit> h = cm.checkHit(new Shot(ShotColor.RED, 150, 150, 0, 2), Optional.empty(), false);
+		assertFalse(h.isPresent());
+
+		h = cm.checkHit(new Shot(ShotColor.RED, 1150, 1150, 0, 2), Optional.empty(), false);
+		assertTrue(h.isPresent());
+		assertEquals(ipscTarget, h.get().getTarget());
+	}
+
 	@Test
 	public void testRemoveTarget() {
 		cm.removeTarget(ipscTarget);
@@ -104,6 +135,31 @@ public class TestCanvasManager {
 		assertEquals(0, cm.getTargets().size());
 	}
 
+	@Test
+	public void testTargetOutsideHitIndex() {
+		final TargetRegion region = ipscTarget.getRegions().get(0);
+		final Target[] proxy = new Target[1];
+		proxy[0] = (Target) Proxy.newProxyInstance(Target.class.getClassLoader(), new Class<?>[] { Target.class },
+				(instance, method, args) -> {
+					if ("isHit".equals(method.getName())) return Optional.of(new Hit(proxy[0], region, 0, 0));
+					if ("getRegions".equals(method.getName())) return Collections.singletonList(region);
+					if ("equals".equals(method.getName())) return instance == args[0];
+					if ("hashCode".equals(method.getName())) return System.identityHashCode(instance);
+					return null;
+				});
+
+		cm.addTarget(proxy[0]);
+
+		Optional<Hit> h = cm.checkHit(new Shot(ShotColor.RED, 0, 0, 0, 2), Optional.empty(), false);
+		assertTrue(h.isPresent());
+		assertSame(proxy[0], h.get().getTarget());
+
+		cm.removeTarget(proxy[0]);
+
+		assertFalse(cm.checkHit(new Shot(ShotColor.RED, 0, 0, 0, 2), Optional.empty(), false).isPresent());
+		assertEquals(1, cm.getTargets().size());
+	}
+
 	@Test
 	public void testGetTargetGroups() {
 		assertEquals(1, cm.getTargets().size());
@@ -0,0 +1,93 @@
+package com.shootoff.gui;
+
+import static org.junit.Assert.*;
+
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.shootoff.gui.FeedRenderer.FeedFrame;
+
+public class TestFeedRenderer {
+	@Rule public JavaFXThreadingRule javafxRule = new JavaFXThreadingRule();
+
+	private static final int WIDTH = 4;
+	private static final int HEIGHT = 3;
+
+	private FeedRenderer renderer;
+	private final byte[] pixels = new byte[WIDTH * HEIGHT * 4];
+
+	@Before
+	public void setUp() {
+		nu.pattern.OpenCV.loadShared();
+
+		renderer = new FeedRenderer();
+	}
+
+	private FeedFrame publishAndTake(double x) {
+		renderer.publish(pixels, x, 0, WIDTH, HEIGHT);
+		return renderer.takeLatestFrame().get();
+	}
+
+	@Test
+	public void testLatestFrameWins() {
+		renderer.publish(pixels, 1, 0, WIDTH, HEIGHT);
+		renderer.publish(pixels, 2, 0, WIDTH, HEIGHT);
+
+		Optional<FeedFrame> frame = renderer.takeLatestFrame();
+		assertTrue(frame.isPresent());
+		assertEquals(2, frame.get().getX(), 0.1);
+
+		assertFalse(renderer.takeLatestFrame().isPresent());
+	}
+
+	@Test
+	public void testImagesInUseAreNotReused() {
+		renderer.publish(pixels, 1, 0, WIDTH, HEIGHT);
+		FeedFrame replaced = renderer.takeLatestFrame().get();
+		renderer.frameShown(replaced);
+
+		renderer.publish(pixels, 2, 0, WIDTH, HEIGHT);
+		// Replaces the frame above before it was taken
+		renderer.publish(pixels, 3, 0, WIDTH, HEIGHT);
+		FeedFrame latest = renderer.takeLatestFrame().get();
+		assertEquals(3, latest.getX(), 0.1);
+
+		// Neither the image on screen nor the one about to be shown is reused
+		renderer.publish(pixels, 4, 0, WIDTH, HEIGHT);
+		FeedFrame next = renderer.takeLatestFrame().get();
+		assertNotSame(replaced.getImage(), next.getImage());
+		assertNotSame(latest.getImage(), next.getImage());
+	}
+
+	@Test
+	public void testShownImageRecycledOnlyAfterReplacement() {
+		FeedFrame first = publishAndTake(1);
+		renderer.frameShown(first);
+
+		// Taken but not yet on screen, thus the first image is still shown
+		FeedFrame second = publishAndTake(2);
+		FeedFrame third = publishAndTake(3);
+		assertNotSame(first.getImage(), second.getImage());
+		assertNotSame(first.getImage(), third.getImage());
+
+		renderer.frameShown(second);
+
+		// The first image is off screen now and is reused
+		FeedFrame fourth = publishAndTake(4);
+		assertSame(first.getImage(), fourth.getImage());
+	}
+
+	@Test
+	public void testFrameSizeChangeDropsOldImages() {
+		renderer.frameShown(publishAndTake(1));
+		renderer.frameShown(publishAndTake(2));
+
+		renderer.publish(new byte[WIDTH * 2 * HEIGHT * 4], 3, 0, WIDTH * 2, HEIGHT);
+		FeedFrame resized = renderer.takeLatestFrame().get();
+
+		assertEquals(WIDTH * 2, resized.getImage().getWidth(), 0.1);
+	}
+}
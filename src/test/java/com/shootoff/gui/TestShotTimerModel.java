@@ -0,0 +1,135 @@
+package com.shootoff.gui;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.shootoff.camera.Shot;
+import com.shootoff.camera.Shot.ShotColor;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+
+public class TestShotTimerModel {
+	@Rule public JavaFXThreadingRule javafxRule = new JavaFXThreadingRule();
+
+	private ShotTimerModel model;
+	private int changeCount;
+
+	@Before
+	public void setUp() {
+		model = new ShotTimerModel(FXCollections.observableArrayList());
+		model.setWindow(10);
+		model.getEntries().addListener((ListChangeListener<ShotEntry>) change -> changeCount++);
+		changeCount = 0;
+	}
+
+	private ShotEntry createEntry(long timestamp) {
+		return new ShotEntry(new Shot(ShotColor.RED, 0, 0, timestamp, 2), model.getLastShot(), Optional.empty(),
+				false, false);
+	}
+
+	@Test
+	public void testEntriesAreAddedInOneBatch() {
+		for (int i = 0; i < 5; i++)
+			model.add(createEntry(i));
+
+		assertTrue(model.getEntries().isEmpty());
+		assertEquals(4, model.getLastShot().get().getTimestamp());
+
+		model.flush();
+
+		assertEquals(5, model.getEntries().size());
+		assertEquals(1, changeCount);
+		assertEquals(0, model.getEntries().get(0).getShot().getTimestamp());
+		assertEquals(4, model.getEntries().get(4).getShot().getTimestamp());
+	}
+
+	@Test
+	public void testOldEntriesAreDroppedInBatches() {
+		for (int i = 0; i < 8; i++)
+			model.add(createEntry(i));
+		model.flush();
+
+		// Within the slack past the window, nothing is dropped yet
+		for (int i = 8; i < 12; i++)
+			model.add(createEntry(i));
+		model.flush();
+
+		assertEquals(12, model.getEntries().size());
+		assertEquals(0, model.getDroppedCount());
+
+		model.add(createEntry(12));
+		model.flush();
+
+		assertEquals(10, model.getEntries().size());
+		assertEquals(3, model.getDroppedCount());
+		assertEquals(3, model.getEntries().get(0).getShot().getTimestamp());
+		assertEquals(12, model.getEntries().get(9).getShot().getTimestamp());
+	}
+
+	@Test
+	public void testDroppedEntriesAreSpilled() throws IOException {
+		final File spillFile = new File("shot-timer-spill-test.csv");
+		model.setSpill(Optional.of(new ShotTimerSpill(spillFile, Runnable::run)));
+
+		try {
+			for (int i = 0; i < 8; i++)
+				model.add(createEntry(i * 1000));
+			model.flush();
+
+			model.getEntries().get(0).setExerciseValue("Score", "5");
+
+			for (int i = 8; i < 25; i++)
+				model.add(createEntry(i * 1000));
+			model.flush();
+
+			final List<String> rows = Files.readAllLines(spillFile.toPath(), StandardCharsets.UTF_8);
+
+			assertEquals(16, rows.size());
+			assertEquals(ShotTimerSpill.HEADER, rows.get(0));
+			assertEquals("0.00,red,-,false,false,Score=5", rows.get(1));
+			assertEquals("14.00,red,1.00,false,false,", rows.get(15));
+			assertEquals(15, model.getDroppedCount());
+			assertEquals(15, model.getEntries().get(0).getShot().getTimestamp() / 1000);
+		} finally {
+			if (spillFile.exists() && !spillFile.delete()) System.err.println("Failed to delete " + spillFile.getPath());
+		}
+	}
+
+	@Test
+	public void testBatchLargerThanWindow() {
+		for (int i = 0; i < 25; i++)
+			model.add(createEntry(i));
+		model.flush();
+
+		assertEquals(10, model.getEntries().size());
+		assertEquals(15, model.getDroppedCount());
+		assertEquals(15, model.getEntries().get(0).getShot().getTimestamp());
+		assertEquals(24, model.getEntries().get(9).getShot().getTimestamp());
+	}
+
+	@Test
+	public void testClear() {
+		for (int i = 0; i < 12; i++)
+			model.add(createEntry(i));
+		model.flush();
+		model.add(createEntry(12));
+
+		model.clear();
+		model.flush();
+
+		assertTrue(model.getEntries().isEmpty());
+		assertFalse(model.getLastEntry().isPresent());
+		assertEquals(0, model.getDroppedCount());
+	}
+}
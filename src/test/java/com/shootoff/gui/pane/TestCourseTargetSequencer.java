@@ -0,0 +1,102 @@
+package com.shootoff.gui.pane;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestCourseTargetSequencer {
+	private final List<Runnable> pendingOnArena = new ArrayList<>();
+	private final List<String> addedTargets = new ArrayList<>();
+	private final AtomicBoolean stale = new AtomicBoolean(false);
+
+	@Before
+	public void setUp() {
+		pendingOnArena.clear();
+		addedTargets.clear();
+		stale.set(false);
+	}
+
+	private CourseTargetSequencer<String> createSequencer(int targetCount) {
+		return new CourseTargetSequencer<>(targetCount, stale::get, pendingOnArena::add, addedTargets::addAll);
+	}
+
+	private void runOnArena() {
+		for (final Runnable r : pendingOnArena)
+			r.run();
+
+		pendingOnArena.clear();
+	}
+
+	@Test
+	public void testTargetsAddedInCourseOrder() {
+		final CourseTargetSequencer<String> sequencer = createSequencer(3);
+
+		sequencer.targetLoaded(2, Optional.of("target2"));
+		sequencer.targetLoaded(1, Optional.of("target1"));
+		runOnArena();
+		assertTrue(addedTargets.isEmpty());
+
+		sequencer.targetLoaded(0, Optional.of("target0"));
+		assertEquals(1, pendingOnArena.size());
+		runOnArena();
+		assertEquals(Arrays.asList("target0", "target1", "target2"), addedTargets);
+	}
+
+	@Test
+	public void testFailedTargetsDoNotBlockLaterTargets() {
+		final CourseTargetSequencer<String> sequencer = createSequencer(3);
+
+		sequencer.targetLoaded(0, Optional.of("target0"));
+		sequencer.targetLoaded(2, Optional.of("target2"));
+		sequencer.targetLoaded(1, Optional.empty());
+		runOnArena();
+
+		assertEquals(Arrays.asList("target0", "target2"), addedTargets);
+	}
+
+	@Test
+	public void testBatchesReachArenaInOrder() {
+		final CourseTargetSequencer<String> sequencer = createSequencer(2);
+
+		sequencer.targetLoaded(0, Optional.of("target0"));
+		sequencer.targetLoaded(1, Optional.of("target1"));
+		assertEquals(2, pendingOnArena.size());
+		runOnArena();
+
+		assertEquals(Arrays.asList("target0", "target1"), addedTargets);
+	}
+
+	@Test
+	public void testStaleCourseAddsNothing() {
+		final CourseTargetSequencer<String> sequencer = createSequencer(1);
+
+		stale.set(true);
+		sequencer.targetLoaded(0, Optional.of("target0"));
+		runOnArena();
+
+		assertTrue(addedTargets.isEmpty());
+	}
+
+	@Test
+	public void testCourseBecomingStaleBeforeBatchRunsAddsNothing() {
+		final CourseTargetSequencer<String> sequencer = createSequencer(2);
+
+		sequencer.targetLoaded(0, Optional.of("target0"));
+		assertEquals(1, pendingOnArena.size());
+
+		// Another course is set before the arena gets to the batch
+		stale.set(true);
+		sequencer.targetLoaded(1, Optional.of("target1"));
+		runOnArena();
+
+		assertEquals(Collections.emptyList(), addedTargets);
+	}
+}
@@ -3,6 +3,7 @@ package com.shootoff.session;
 import static org.junit.Assert.*;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
@@ -377,4 +378,47 @@ public class TestSessionRecorder {
 		assertEquals(12, ((TargetResizedEvent) events.get(TARGET_RESIZED_INDEX)).getNewWidth(), 1);
 		assertEquals(45, ((TargetResizedEvent) events.get(TARGET_RESIZED_INDEX)).getNewHeight(), 1);
 	}
+
+	@Test
+	public void testConcurrentShots() throws InterruptedException {
+		final int THREAD_COUNT = 4;
+		final int SHOTS_PER_THREAD = 2500;
+
+		final List<Thread> threads = new ArrayList<>();
+
+		for (int i = 0; i < THREAD_COUNT; i++) {
+			// Two threads share each camera to ensure appends to the same log
+			// from different threads are not lost
+			final String camera = "Camera" + (i % 2);
+
+			threads.add(new Thread(() -> {
+				for (int j = 0; j < SHOTS_PER_THREAD; j++) {
+					sessionRecorder.recordShot(camera, shot, false, false, Optional.empty(), Optional.empty(),
+							Optional.empty());
+				}
+			}));
+		}
+
+		for (Thread t : threads)
+			t.start();
+
+		// Snapshots taken while writers are busy must never contain holes
+		while (threads.get(0).isAlive()) {
+			for (Event e : sessionRecorder.getCameraEvents("Camera0"))
+				assertNotNull(e);
+		}
+
+		for (Thread t : threads)
+			t.join();
+
+		assertEquals(2, sessionRecorder.getEvents().size());
+		assertEquals(SHOTS_PER_THREAD * 2, sessionRecorder.getCameraEvents("Camera0").size());
+		assertEquals(SHOTS_PER_THREAD * 2, sessionRecorder.getCameraEvents("Camera1").size());
+
+		long lastSequence = -1;
+		for (SessionEventLog.Entry entry : sessionRecorder.getCameraLog("Camera0").entries()) {
+			assertEquals(lastSequence + 1, entry.getSequence());
+			lastSequence = entry.getSequence();
+		}
+	}
 }
@@ -0,0 +1,91 @@
+package com.shootoff.session;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestSessionTimeline {
+	private static final String CAMERA_NAME = "Default";
+
+	private List<Event> events;
+	private TargetAddedEvent firstTarget;
+	private TargetAddedEvent secondTarget;
+
+	@Before
+	public void setUp() {
+		events = new ArrayList<>();
+
+		firstTarget = new TargetAddedEvent(CAMERA_NAME, 0, "first.target");
+		secondTarget = new TargetAddedEvent(CAMERA_NAME, 1, "second.target");
+		events.add(firstTarget);
+		events.add(secondTarget);
+
+		// Enough moves of the second target to create several checkpoints
+		for (int i = 0; i < SessionTimeline.CHECKPOINT_INTERVAL * 2; i++) {
+			events.add(new TargetMovedEvent(CAMERA_NAME, 2 + i, 1, i, i + 1));
+		}
+
+		events.add(new ExerciseFeedMessageEvent(CAMERA_NAME, 1000, "message"));
+		events.add(new TargetRemovedEvent(CAMERA_NAME, 1001, 0));
+		events.add(new TargetResizedEvent(CAMERA_NAME, 1002, 0, 10, 20));
+	}
+
+	@Test
+	public void testCheckpoints() {
+		SessionTimeline timeline = new SessionTimeline(events);
+
+		SessionTimeline.Checkpoint start = timeline.getCheckpoint(-1);
+		assertEquals(-1, start.getEventIndex());
+		assertTrue(start.getTargets().isEmpty());
+		assertEquals("", start.getExerciseMessage());
+
+		SessionTimeline.Checkpoint middle = timeline.getCheckpoint(SessionTimeline.CHECKPOINT_INTERVAL + 3);
+		assertEquals(SessionTimeline.CHECKPOINT_INTERVAL - 1, middle.getEventIndex());
+		assertEquals(2, middle.getTargets().size());
+		assertSame(firstTarget, middle.getTargets().get(0).getAddedEvent());
+		assertFalse(middle.getTargets().get(0).getPosition().isPresent());
+		assertEquals(SessionTimeline.CHECKPOINT_INTERVAL - 3,
+				middle.getTargets().get(1).getPosition().get().getX(), 0.1);
+
+		SessionTimeline.Checkpoint end = timeline.getCheckpoint(events.size() - 1);
+		assertEquals(SessionTimeline.CHECKPOINT_INTERVAL * 2 - 1, end.getEventIndex());
+		assertTrue(end.getEventIndex() <= events.size() - 1);
+	}
+
+	@Test
+	public void testUndoInformation() {
+		SessionTimeline timeline = new SessionTimeline(events);
+
+		int firstMove = 2;
+		assertSame(secondTarget, timeline.getTarget(firstMove).get());
+		assertFalse(timeline.getPreviousPosition(firstMove).isPresent());
+		assertEquals(0, timeline.getPreviousPosition(firstMove + 1).get().getX(), 0.1);
+
+		int messageIndex = events.size() - 3;
+		assertEquals("", timeline.getPreviousExerciseMessage(messageIndex));
+
+		int removeIndex = events.size() - 2;
+		assertSame(firstTarget, timeline.getTarget(removeIndex).get());
+
+		// The first target was removed, thus index 0 now refers to the second
+		int resizeIndex = events.size() - 1;
+		assertSame(secondTarget, timeline.getTarget(resizeIndex).get());
+		assertFalse(timeline.getPreviousDimension(resizeIndex).isPresent());
+	}
+
+	@Test
+	public void testEventIndexAt() {
+		SessionTimeline timeline = new SessionTimeline(events);
+
+		assertEquals(-1, new SessionTimeline(new ArrayList<>()).getEventIndexAt(5));
+		assertEquals(0, timeline.getEventIndexAt(0));
+		assertEquals(10, timeline.getEventIndexAt(10));
+		assertEquals(events.size() - 3, timeline.getEventIndexAt(1000));
+		assertEquals(events.size() - 1, timeline.getEventIndexAt(Long.MAX_VALUE));
+		assertEquals(events.indexOf(firstTarget), timeline.indexOf(firstTarget));
+	}
+}
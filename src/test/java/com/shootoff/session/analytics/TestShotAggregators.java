@@ -0,0 +1,93 @@
+package com.shootoff.session.analytics;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.shootoff.camera.Shot.ShotColor;
+
+public class TestShotAggregators {
+	private static ShotSample createShot(String period, double x, double y, Optional<Long> splitTime,
+			Optional<String> targetName, Optional<Integer> hitRegionIndex) {
+		return new ShotSample(period, "Default", 0, x, y, ShotColor.RED, false, false, targetName, hitRegionIndex,
+				splitTime, Optional.empty());
+	}
+
+	private static void feedSession(ShotAggregator aggregator, ShotSample... shots) {
+		aggregator.beginSession("session", 0, "Default");
+		for (ShotSample shot : shots)
+			aggregator.shot(shot);
+		aggregator.endSession();
+	}
+
+	@Test
+	public void testMergeMatchesSequentialAggregation() {
+		ShotSample[] first = { createShot("2016-01", 0, 0, Optional.empty(), Optional.empty(), Optional.empty()),
+				createShot("2016-01", 2, 0, Optional.of(400L), Optional.of("bullseye.target"), Optional.of(1)),
+				createShot("2016-01", 0, 2, Optional.of(600L), Optional.of("bullseye.target"), Optional.of(1)) };
+		ShotSample[] second = { createShot("2016-02", 5, 5, Optional.empty(), Optional.of("bullseye.target"),
+				Optional.of(0)), createShot("2016-02", 5, 5, Optional.of(300L), Optional.empty(), Optional.empty()) };
+
+		SplitTimeAggregator sequentialSplits = new SplitTimeAggregator();
+		RegionHitAggregator sequentialHits = new RegionHitAggregator();
+		CompositeAggregator sequential = new CompositeAggregator(sequentialSplits, sequentialHits);
+		feedSession(sequential, first);
+		feedSession(sequential, second);
+
+		ShotAggregator left = sequential.createEmpty();
+		ShotAggregator right = sequential.createEmpty();
+		feedSession(left, first);
+		feedSession(right, second);
+		left.merge(right);
+
+		assertEquals(3, sequentialSplits.getTotalStatistics().getCount());
+		assertEquals(433.33, sequentialSplits.getTotalStatistics().getMean(), 0.01);
+		assertEquals(300, sequentialSplits.getTotalStatistics().getMin(), 0.01);
+		assertEquals(600, sequentialSplits.getTotalStatistics().getMax(), 0.01);
+		assertEquals(5, sequentialHits.getShotCount());
+		assertEquals(2, sequentialHits.getMissCount());
+
+		List<AnalyticsTable> sequentialTables = sequential.getTables();
+		List<AnalyticsTable> mergedTables = left.getTables();
+		assertEquals(sequentialTables.size(), mergedTables.size());
+
+		for (int i = 0; i < sequentialTables.size(); i++)
+			assertEquals(sequentialTables.get(i).getRows(), mergedTables.get(i).getRows());
+	}
+
+	@Test
+	public void testGroupSpread() {
+		GroupSpreadAggregator spread = new GroupSpreadAggregator();
+
+		// Four shots on a circle of radius 1 around (10, 10)
+		feedSession(spread,
+				createShot("2016-01", 11, 10, Optional.empty(), Optional.empty(), Optional.empty()),
+				createShot("2016-01", 9, 10, Optional.empty(), Optional.empty(), Optional.empty()),
+				createShot("2016-01", 10, 11, Optional.empty(), Optional.empty(), Optional.empty()),
+				createShot("2016-01", 10, 9, Optional.empty(), Optional.empty(), Optional.empty()));
+
+		// Too few shots to be a group
+		feedSession(spread, createShot("2016-01", 0, 0, Optional.empty(), Optional.empty(), Optional.empty()));
+
+		assertEquals(1, spread.getTotalStatistics().getCount());
+		assertEquals(1.0, spread.getTotalStatistics().getMean(), 0.001);
+	}
+
+	@Test
+	public void testCSV() throws IOException {
+		AnalyticsTable table = new AnalyticsTable("Test", "Name", "Value");
+		table.addRow("plain", 1.5);
+		table.addRow("with, comma", 2);
+
+		StringWriter writer = new StringWriter();
+		table.writeCSV(writer);
+
+		String nl = System.lineSeparator();
+		assertEquals("Name,Value" + nl + "plain,1.50" + nl + "\"with, comma\",2" + nl, writer.toString());
+	}
+}
@@ -3,8 +3,10 @@ package com.shootoff.session.io;
 import static org.junit.Assert.*;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.Before;
@@ -187,4 +189,177 @@ public class TestSessionIO {
 
 		if (!tempJSONSession.delete()) System.err.println("Failed to delete " + tempJSONSession.getPath());
 	}
+
+	@Test
+	public void testBinarySerialization() {
+		File tempBinarySession = new File("temp_session." + SessionIO.BINARY_SESSION_EXTENSION);
+		SessionIO.saveSession(sessionRecorder, tempBinarySession);
+
+		Optional<SessionRecorder> sessionRecorder = SessionIO.loadSession(tempBinarySession);
+		checkSession(sessionRecorder);
+
+		if (!tempBinarySession.delete()) System.err.println("Failed to delete " + tempBinarySession.getPath());
+	}
+
+	@Test
+	public void testEmptyCameraRoundTrip() {
+		final String emptyCameraName = "Empty Camera";
+		sessionRecorder.getCameraLog(emptyCameraName);
+
+		for (String extension : new String[] { "xml", "json", SessionIO.BINARY_SESSION_EXTENSION }) {
+			File tempSession = new File("temp_empty_camera_session." + extension);
+			SessionIO.saveSession(sessionRecorder, tempSession);
+
+			Optional<SessionRecorder> loadedRecorder = SessionIO.loadSession(tempSession);
+			checkSession(loadedRecorder);
+
+			Map<String, List<Event>> events = loadedRecorder.get().getEvents();
+			assertEquals(3, events.size());
+			assertTrue(events.containsKey(emptyCameraName));
+			assertTrue(events.get(emptyCameraName).isEmpty());
+
+			if (!tempSession.delete()) System.err.println("Failed to delete " + tempSession.getPath());
+		}
+	}
+
+	@Test
+	public void testBinaryShotFieldOutOfRange() {
+		File tempBinarySession = new File("temp_out_of_range_session." + SessionIO.BINARY_SESSION_EXTENSION);
+
+		BinarySessionWriter writer = new BinarySessionWriter(tempBinarySession);
+		writer.visitCamera(cameraName1);
+		writer.visitShot(0, redShot, false, false, Optional.of(Short.MAX_VALUE + 1), Optional.empty(),
+				Optional.empty());
+		writer.visitCameraEnd();
+		writer.visitEnd();
+
+		// The writer gives up instead of writing a wrapped target index
+		assertTrue(new BinarySessionReader(tempBinarySession).load().isEmpty());
+
+		if (!tempBinarySession.delete()) System.err.println("Failed to delete " + tempBinarySession.getPath());
+	}
+
+	@Test
+	public void testStreamingConversion() {
+		File tempJSONSession = new File("temp_session.json");
+		File tempBinarySession = new File("temp_converted_session." + SessionIO.BINARY_SESSION_EXTENSION);
+		SessionIO.saveSession(sessionRecorder, tempJSONSession);
+
+		assertTrue(SessionIO.visitSession(tempJSONSession, new BinarySessionWriter(tempBinarySession)));
+
+		Optional<SessionRecorder> sessionRecorder = SessionIO.loadSession(tempBinarySession);
+		checkSession(sessionRecorder);
+
+		if (!tempJSONSession.delete()) System.err.println("Failed to delete " + tempJSONSession.getPath());
+		if (!tempBinarySession.delete()) System.err.println("Failed to delete " + tempBinarySession.getPath());
+	}
+
+	@Test
+	public void testJournalRecovery() throws IOException {
+		File tempJournal = new File("temp_session." + SessionJournal.JOURNAL_EXTENSION);
+		SessionJournal journal = new SessionJournal(tempJournal);
+
+		long sequence = 0;
+		for (Map.Entry<String, List<Event>> cameraEvents : sessionRecorder.getEvents().entrySet()) {
+			for (Event e : cameraEvents.getValue()) {
+				journal.eventRecorded(cameraEvents.getKey(), sequence++, e);
+			}
+		}
+
+		// A superseded event must not be recovered
+		journal.eventRecorded(cameraName2, sequence, sessionRecorder.getCameraEvents(cameraName2).get(0));
+		journal.eventSuperseded(cameraName2, sequence);
+
+		journal.close();
+
+		Optional<SessionRecorder> sessionRecorder = SessionIO.loadSession(tempJournal);
+		checkSession(sessionRecorder);
+
+		File tempXMLSession = new File("temp_compacted_session.xml");
+		assertTrue(SessionJournal.compact(tempJournal, tempXMLSession));
+		checkSession(SessionIO.loadSession(tempXMLSession));
+
+		if (!tempJournal.delete()) System.err.println("Failed to delete " + tempJournal.getPath());
+		if (!tempXMLSession.delete()) System.err.println("Failed to delete " + tempXMLSession.getPath());
+	}
+
+	@Test
+	public void testJournalRecoveryOutOfOrder() throws IOException {
+		File tempJournal = new File("temp_out_of_order_session." + SessionJournal.JOURNAL_EXTENSION);
+		SessionJournal journal = new SessionJournal(tempJournal);
+
+		List<Event> events = sessionRecorder.getCameraEvents(cameraName1);
+		assertTrue(events.size() > 2);
+
+		// Written in reverse sequence order with the superseded record for
+		// the middle event written before the event itself
+		journal.eventSuperseded(cameraName1, 1);
+		for (int i = events.size() - 1; i >= 0; i--) {
+			journal.eventRecorded(cameraName1, i, events.get(i));
+		}
+
+		journal.close();
+
+		List<Event> recovered = SessionJournal.recover(tempJournal).get(cameraName1);
+		assertEquals(events.size() - 1, recovered.size());
+		assertEquals(events.get(0).getTimestamp(), recovered.get(0).getTimestamp());
+		for (int i = 2; i < events.size(); i++) {
+			assertEquals(events.get(i).getType(), recovered.get(i - 1).getType());
+			assertEquals(events.get(i).getTimestamp(), recovered.get(i - 1).getTimestamp());
+		}
+
+		if (!tempJournal.delete()) System.err.println("Failed to delete " + tempJournal.getPath());
+	}
+
+	@Test
+	public void testFailedJournalRecoveryKeepsJournal() throws IOException {
+		File tempSessionsFolder = new File("temp_journal_sessions");
+		assertTrue(tempSessionsFolder.mkdir());
+
+		// A journal without any records can't be compacted
+		File tempJournal = new File(tempSessionsFolder, "temp_session." + SessionJournal.JOURNAL_EXTENSION);
+		assertTrue(tempJournal.createNewFile());
+
+		SessionJournal.recoverJournals(tempSessionsFolder);
+
+		File failedJournal = new File(tempJournal.getPath() + ".failed");
+		assertFalse(tempJournal.exists());
+		assertTrue(failedJournal.exists());
+		assertFalse(new File(tempSessionsFolder, "temp_session.xml").exists());
+
+		if (!failedJournal.delete()) System.err.println("Failed to delete " + failedJournal.getPath());
+		if (!tempSessionsFolder.delete()) System.err.println("Failed to delete " + tempSessionsFolder.getPath());
+	}
+
+	@Test
+	public void testSessionCatalog() {
+		File tempSessionsFolder = new File("temp_catalog_sessions");
+		assertTrue(tempSessionsFolder.mkdir());
+
+		File tempJSONSession = new File(tempSessionsFolder, sessionRecorder.getSessionName() + ".json");
+		SessionIO.saveSession(sessionRecorder, tempJSONSession);
+
+		SessionCatalog catalog = SessionCatalog.getCatalog(tempSessionsFolder);
+		catalog.refresh();
+
+		assertEquals(1, catalog.getSummaries().size());
+		assertTrue(catalog.getSummaries((summary) -> summary.getShotCount() > 3).isEmpty());
+
+		SessionSummary summary = catalog.getSummary(tempJSONSession.getName()).get();
+		assertEquals(2, summary.getCameras().size());
+		assertEquals(3, summary.getShotCount());
+		assertEquals(2, summary.getHitCount());
+		assertEquals(2, summary.getVideos().size());
+		assertEquals(sessionRecorder.getStartTime(), summary.getDate(), 1000);
+
+		File indexFile = new File(tempSessionsFolder, SessionCatalog.INDEX_FILE_NAME);
+		assertTrue(indexFile.exists());
+
+		assertTrue(tempJSONSession.delete());
+		catalog.refresh();
+		assertTrue(catalog.getSummaries().isEmpty());
+
+		if (!indexFile.delete()) System.err.println("Failed to delete " + indexFile.getPath());
+		if (!tempSessionsFolder.delete()) System.err.println("Failed to delete " + tempSessionsFolder.getPath());
+	}
 }
@@ -0,0 +1,80 @@
+package com.shootoff.targets;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.shootoff.gui.JavaFXThreadingRule;
+
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+public class TestHitMask {
+	@Rule public JavaFXThreadingRule javafxRule = new JavaFXThreadingRule();
+
+	private WritableImage image;
+
+	@Before
+	public void setUp() {
+		// A 100x50 transparent image with an opaque 10x10 square in its top
+		// left corner
+		image = new WritableImage(100, 50);
+		PixelWriter writer = image.getPixelWriter();
+
+		for (int y = 0; y < 10; y++) {
+			for (int x = 0; x < 10; x++) {
+				writer.setArgb(x, y, 0xFFFF0000);
+			}
+		}
+	}
+
+	@Test
+	public void testNaturalSize() {
+		HitMask mask = HitMask.fromImage(image);
+
+		assertEquals(100, mask.getWidth());
+		assertEquals(50, mask.getHeight());
+		assertTrue(mask.isOpaque(0, 0));
+		assertTrue(mask.isOpaque(9, 9));
+		assertFalse(mask.isOpaque(10, 9));
+		assertFalse(mask.isOpaque(99, 49));
+		assertFalse(mask.isOpaque(-1, 0));
+		assertFalse(mask.isOpaque(100, 0));
+		assertSame(mask, mask.scale(100, 50));
+	}
+
+	@Test
+	public void testScaled() {
+		HitMask doubled = HitMask.fromImage(image).scale(200, 100);
+		assertTrue(doubled.isOpaque(19, 19));
+		assertFalse(doubled.isOpaque(20, 19));
+
+		HitMask halved = HitMask.fromImage(image).scale(50, 25);
+		assertTrue(halved.isOpaque(4, 4));
+		assertFalse(halved.isOpaque(5, 4));
+	}
+
+	@Test
+	public void testImageRegionMaskFollowsRenderedSize() {
+		ImageRegion region = new ImageRegion(image);
+
+		assertTrue(region.isOpaque(15, 15, 200, 100));
+		assertFalse(region.isOpaque(15, 15, 100, 50));
+
+		region.invalidateHitMask();
+		assertTrue(region.isOpaque(15, 15, 200, 100));
+	}
+
+	@Test
+	public void testPrecomputedImageRegionMask() {
+		ImageRegion region = new ImageRegion(image);
+		region.precomputeHitMask(null);
+		region.precomputeHitMask(image);
+
+		assertTrue(region.isOpaque(9, 9, 100, 50));
+		assertFalse(region.isOpaque(10, 9, 100, 50));
+		assertTrue(region.isOpaque(19, 19, 200, 100));
+	}
+}
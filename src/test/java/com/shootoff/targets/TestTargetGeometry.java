@@ -0,0 +1,59 @@
+package com.shootoff.targets;
+
+import static org.junit.Assert.*;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.shootoff.gui.JavaFXThreadingRule;
+
+import javafx.scene.Group;
+
+public class TestTargetGeometry {
+	@Rule public JavaFXThreadingRule javafxRule = new JavaFXThreadingRule();
+
+	@Test
+	public void testShapesUseTheirFill() {
+		Group target = new Group();
+		target.getChildren().add(new EllipseRegion(50, 50, 50, 25));
+		target.getChildren().add(new PolygonRegion(200, 0, 300, 100, 100, 100));
+
+		TargetGeometry geometry = TargetGeometry.capture(target);
+
+		assertEquals(2, geometry.getRegions().size());
+
+		TargetGeometry.RegionGeometry ellipse = geometry.getRegions().get(0);
+		assertEquals(0, ellipse.getChildIndex());
+		assertTrue(ellipse.contains(50, 50));
+		// Inside the bounding box but outside of the ellipse
+		assertTrue(ellipse.boundsContain(2, 27));
+		assertFalse(ellipse.contains(2, 27));
+
+		TargetGeometry.RegionGeometry triangle = geometry.getRegions().get(1);
+		assertEquals(1, triangle.getChildIndex());
+		assertTrue(triangle.contains(200, 90));
+		assertTrue(triangle.boundsContain(110, 10));
+		assertFalse(triangle.contains(110, 10));
+	}
+
+	@Test
+	public void testSnapshotIsImmutable() {
+		Group target = new Group();
+		target.getChildren().add(new RectangleRegion(0, 0, 10, 10));
+
+		TargetGeometry geometry = TargetGeometry.capture(target);
+
+		target.setLayoutX(100);
+		target.setScaleX(2);
+
+		// The old snapshot still describes where the target was
+		assertTrue(geometry.contains(5, 5));
+		assertTrue(geometry.getRegions().get(0).contains(5, 5));
+		assertFalse(geometry.getRegions().get(0).contains(105, 5));
+
+		TargetGeometry moved = TargetGeometry.capture(target);
+		assertFalse(moved.getRegions().get(0).contains(5, 5));
+		assertTrue(moved.getRegions().get(0).contains(105, 5));
+		assertTrue(moved.getRegions().get(0).contains(114, 5));
+	}
+}
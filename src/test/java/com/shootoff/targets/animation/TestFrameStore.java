@@ -0,0 +1,106 @@
+package com.shootoff.targets.animation;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.shootoff.gui.JavaFXThreadingRule;
+
+import javafx.scene.image.ImageView;
+
+public class TestFrameStore {
+	@Rule public JavaFXThreadingRule javafxRule = new JavaFXThreadingRule();
+
+	private final File gifFile = new File("targets" + File.separator + "pepper_popper.gif");
+
+	@After
+	public void tearDown() {
+		FrameStore.clear();
+	}
+
+	@Test
+	public void testFramesAreShared() throws IOException {
+		URL gifURL = gifFile.toURI().toURL();
+
+		AnimationFrames frames = FrameStore.getGifFrames(gifURL);
+
+		assertSame(frames, FrameStore.getGifFrames(gifURL));
+		assertTrue(frames.getFrameCount() > 1);
+		assertSame(frames.getFrame(1), frames.getFrame(1));
+		assertNotSame(frames.getFrame(0), frames.getFrame(frames.getFrameCount() - 1));
+
+		FrameStore.clear();
+		assertNotSame(frames, FrameStore.getGifFrames(gifURL));
+	}
+
+	@Test
+	public void testStoredFramesAreShared() throws IOException {
+		AnimationFrames frames = FrameStore.getGifFrames(gifFile.toURI().toURL());
+		byte[] gif = FrameStore.getEncodedGif(frames).get();
+		assertArrayEquals(Files.readAllBytes(gifFile.toPath()), gif);
+
+		AnimationFrames stored = FrameStore.getGifFrames(gifFile.getPath(), gif);
+		assertSame(stored, FrameStore.getGifFrames(gifFile.getPath(), gif.clone()));
+		assertEquals(frames.getFrameCount(), stored.getFrameCount());
+
+		// Different contents under the same name are not shared
+		AnimationFrames other = FrameStore.getGifFrames(gifFile.getPath(),
+				Files.readAllBytes(new File("targets" + File.separator + "ram.gif").toPath()));
+		assertNotSame(stored, other);
+	}
+
+	@Test
+	public void testLazyFramesMatchStreamedFrames() throws IOException {
+		AnimationFrames lazy = FrameStore.getGifFrames(gifFile.toURI().toURL());
+		AnimationFrames streamed;
+		try (InputStream is = new FileInputStream(gifFile)) {
+			streamed = FrameStore.readGifFrames(is);
+		}
+
+		assertEquals(streamed.getFrameCount(), lazy.getFrameCount());
+
+		// Decode the streamed frames out of order, later frames depend on
+		// the frames before them
+		int last = lazy.getFrameCount() - 1;
+		assertEquals(streamed.getFrame(last).getWidth(), lazy.getFrame(last).getWidth(), 0.1);
+
+		for (int i = 0; i <= last; i++) {
+			assertEquals(streamed.getDelay(i), lazy.getDelay(i));
+
+			for (int y = 0; y < (int) lazy.getFrame(i).getHeight(); y += 7) {
+				for (int x = 0; x < (int) lazy.getFrame(i).getWidth(); x += 7) {
+					assertEquals(streamed.getFrame(i).getPixelReader().getArgb(x, y),
+							lazy.getFrame(i).getPixelReader().getArgb(x, y));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testAnimationsKeepTheirOwnPosition() throws IOException {
+		ImageView first = new ImageView();
+		ImageView second = new ImageView();
+
+		GifAnimation firstAnimation = new GifAnimation(first, gifFile);
+		GifAnimation secondAnimation = new GifAnimation(second, gifFile);
+
+		firstAnimation.setCurrentFrame(firstAnimation.getFrameCount() - 1);
+		secondAnimation.reset();
+
+		assertSame(firstAnimation.getFrame(firstAnimation.getFrameCount() - 1), first.getImage());
+		assertSame(secondAnimation.getFirstFrame(), second.getImage());
+
+		secondAnimation.reverse();
+		assertSame(firstAnimation.getFrame(0), firstAnimation.getFirstFrame());
+		assertSame(secondAnimation.getFrame(secondAnimation.getFrameCount() - 1), secondAnimation.getFirstFrame());
+	}
+}
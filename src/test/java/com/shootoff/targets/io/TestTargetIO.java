@@ -167,6 +167,31 @@ public class TestTargetIO {
 		checkTarget(tc);
 	}
 
+	@Test
+	public void testTemplateCache() {
+		TargetComponents first = TargetIO.loadTarget(tempXMLTarget).get();
+		TargetComponents second = TargetIO.loadTarget(tempXMLTarget).get();
+
+		assertNotSame(first.getTargetGroup(), second.getTargetGroup());
+		assertNotSame(first.getTargetTags(), second.getTargetTags());
+		checkTarget(second);
+
+		ImageRegion firstImg = (ImageRegion) first.getTargetGroup().getChildren().get(0);
+		ImageRegion secondImg = (ImageRegion) second.getTargetGroup().getChildren().get(0);
+
+		// Each load creates its own nodes, but they share decoded pixels
+		assertNotSame(firstImg, secondImg);
+		assertSame(firstImg.getImage(), secondImg.getImage());
+
+		// Saving the target must not leave a stale copy in the cache
+		targetTags.put("E", "F");
+		TargetIO.saveTarget(targetTags, regions.subList(1, regions.size()), tempXMLTarget);
+
+		TargetComponents saved = TargetIO.loadTarget(tempXMLTarget).get();
+		assertEquals(3, saved.getTargetGroup().getChildren().size());
+		assertEquals("F", saved.getTargetTags().get("E"));
+	}
+
 	@Test(expected = AssertionError.class)
 	public void testXMLSerializationExerciseStream() throws FileNotFoundException, ConfigurationException {
 		Configuration config = new Configuration(new String[0]);
@@ -0,0 +1,112 @@
+package com.shootoff.util;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import com.shootoff.util.StartupGraph.Phase;
+import com.shootoff.util.StartupGraph.PhaseState;
+
+public class TestStartupGraph {
+	private Phase getPhase(StartupGraph startup, String name) {
+		for (final Phase phase : startup.getPhases()) {
+			if (phase.getName().equals(name)) return phase;
+		}
+
+		fail("Missing phase " + name);
+		return null;
+	}
+
+	@Test
+	public void testIndependentPhasesRunInParallel() throws InterruptedException, ExecutionException, TimeoutException {
+		final StartupGraph startup = new StartupGraph();
+		final CountDownLatch bothStarted = new CountDownLatch(2);
+
+		final Runnable waitForOther = () -> {
+			bothStarted.countDown();
+			try {
+				assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+
+		startup.runAsync("a", ThreadPools.io(), waitForOther);
+		startup.runAsync("b", ThreadPools.io(), waitForOther);
+
+		startup.whenComplete().get(10, TimeUnit.SECONDS);
+
+		assertEquals(PhaseState.COMPLETED, getPhase(startup, "a").getState());
+		assertEquals(PhaseState.COMPLETED, getPhase(startup, "b").getState());
+	}
+
+	@Test
+	public void testDependentPhaseWaits() throws InterruptedException, ExecutionException, TimeoutException {
+		final StartupGraph startup = new StartupGraph();
+
+		final CompletableFuture<Integer> first = startup.supplyAsync("first", ThreadPools.io(), () -> {
+			try {
+				Thread.sleep(50);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+
+			return 1;
+		});
+
+		final CompletableFuture<Integer> second = startup.supplyAsync("second", ThreadPools.io(),
+				() -> first.join() + 1, first);
+
+		assertEquals(Integer.valueOf(2), second.get(10, TimeUnit.SECONDS));
+
+		final Phase firstPhase = getPhase(startup, "first");
+		final Phase secondPhase = getPhase(startup, "second");
+		assertTrue(secondPhase.getStartMs() >= firstPhase.getStartMs() + firstPhase.getDurationMs());
+	}
+
+	@Test
+	public void testFailedPhaseSkipsDependents() throws InterruptedException, ExecutionException, TimeoutException {
+		final StartupGraph startup = new StartupGraph();
+
+		final CompletableFuture<Void> failing = startup.runAsync("failing", ThreadPools.io(), () -> {
+			throw new IllegalStateException("expected by test");
+		});
+		final CompletableFuture<Void> dependent = startup.runAsync("dependent", ThreadPools.io(),
+				() -> fail("Dependent of a failed phase ran"), failing);
+
+		startup.whenComplete().get(10, TimeUnit.SECONDS);
+
+		assertTrue(dependent.isCompletedExceptionally());
+		assertEquals(PhaseState.FAILED, getPhase(startup, "failing").getState());
+		assertEquals(PhaseState.SKIPPED, getPhase(startup, "dependent").getState());
+	}
+
+	@Test
+	public void testReport() throws InterruptedException, ExecutionException, TimeoutException {
+		final StartupGraph startup = new StartupGraph();
+
+		try (StartupGraph.PhaseTimer timer = startup.startPhase("synchronous")) {
+			startup.track("tracked", CompletableFuture.completedFuture(null));
+		}
+		startup.mark("milestone");
+
+		startup.whenComplete().get(10, TimeUnit.SECONDS);
+
+		final List<Phase> phases = startup.getPhases();
+		assertEquals(3, phases.size());
+		assertEquals(PhaseState.MILESTONE, getPhase(startup, "milestone").getState());
+		assertEquals(Thread.currentThread().getName(), getPhase(startup, "synchronous").getThreadName());
+
+		final String report = startup.getReport();
+		assertTrue(report.contains("synchronous"));
+		assertTrue(report.contains("tracked"));
+		assertTrue(report.contains("milestone"));
+	}
+}
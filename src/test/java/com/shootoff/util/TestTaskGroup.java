@@ -0,0 +1,69 @@
+package com.shootoff.util;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class TestTaskGroup {
+	@Test
+	public void testTasksRun() throws InterruptedException {
+		final TaskGroup tasks = ThreadPools.newTaskGroup("TestTasksRun");
+		final CountDownLatch latch = new CountDownLatch(2);
+
+		tasks.schedule(latch::countDown, 10, TimeUnit.MILLISECONDS);
+		tasks.submit(latch::countDown);
+
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void testShutdownCancelsOnlyGroupTasks() throws InterruptedException {
+		final TaskGroup cancelledTasks = ThreadPools.newTaskGroup("TestCancelled");
+		final TaskGroup otherTasks = ThreadPools.newTaskGroup("TestOther");
+		final AtomicBoolean cancelledRan = new AtomicBoolean(false);
+		final CountDownLatch otherLatch = new CountDownLatch(1);
+
+		final ScheduledFuture<?> cancelled = cancelledTasks.schedule(() -> cancelledRan.set(true), 200,
+				TimeUnit.MILLISECONDS);
+		otherTasks.schedule(otherLatch::countDown, 200, TimeUnit.MILLISECONDS);
+
+		cancelledTasks.shutdownNow();
+
+		assertTrue(cancelled.isCancelled());
+		assertTrue(otherLatch.await(5, TimeUnit.SECONDS));
+		assertFalse(cancelledRan.get());
+		assertFalse(otherTasks.isShutdown());
+	}
+
+	@Test(expected = RejectedExecutionException.class)
+	public void testShutdownGroupRejectsTasks() {
+		final TaskGroup tasks = ThreadPools.newTaskGroup("TestRejected");
+		tasks.shutdownNow();
+
+		tasks.schedule(() -> {}, 0, TimeUnit.MILLISECONDS);
+	}
+
+	@Test
+	public void testMetricsCountTasks() throws InterruptedException {
+		final CountDownLatch latch = new CountDownLatch(1);
+		ThreadPools.compute().execute(latch::countDown);
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+		boolean foundCompute = false;
+		for (final PoolMetrics metrics : ThreadPools.getMetrics()) {
+			if (!metrics.getName().endsWith("Compute")) continue;
+
+			foundCompute = true;
+			assertTrue(metrics.getMaximumThreads() >= 1);
+			assertTrue(metrics.getMaxLatencyMs() >= metrics.getAverageLatencyMs());
+		}
+
+		assertTrue(foundCompute);
+	}
+}